@@ -0,0 +1,153 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.benchmark;
+
+import uk.gov.gchq.gaffer.data.element.Edge;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.Entity;
+import uk.gov.gchq.gaffer.graph.Graph;
+import uk.gov.gchq.gaffer.graph.GraphConfig;
+import uk.gov.gchq.gaffer.mapstore.MapStoreProperties;
+import uk.gov.gchq.gaffer.operation.OperationException;
+import uk.gov.gchq.gaffer.operation.data.EntitySeed;
+import uk.gov.gchq.gaffer.operation.impl.add.AddElements;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+import uk.gov.gchq.gaffer.store.schema.SchemaEdgeDefinition;
+import uk.gov.gchq.gaffer.store.schema.SchemaEntityDefinition;
+import uk.gov.gchq.gaffer.store.schema.TypeDefinition;
+import uk.gov.gchq.gaffer.user.User;
+import uk.gov.gchq.koryphe.impl.binaryoperator.Max;
+import uk.gov.gchq.koryphe.impl.binaryoperator.Sum;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates reproducible synthetic graphs for the benchmarks. The same seed,
+ * number of vertices and number of edges always generate the same elements.
+ * <p>
+ * There is an entity for each vertex, and edges between randomly chosen
+ * vertices. When there are more edges than pairs of vertices the duplicate
+ * edges are aggregated on ingest.
+ * </p>
+ */
+public final class BenchmarkData {
+    public static final String ENTITY = "BasicEntity";
+    public static final String EDGE = "BasicEdge";
+    public static final String COUNT = "count";
+    public static final String WEIGHT = "weight";
+    public static final long DEFAULT_SEED = 20190101L;
+    public static final int MAX_WEIGHT = 100;
+
+    private static final String VERTEX_TYPE = "vertex.string";
+    private static final String DIRECTED_TYPE = "directed.true";
+    private static final String COUNT_TYPE = "count.long";
+    private static final String WEIGHT_TYPE = "weight.int";
+
+    private BenchmarkData() {
+        // Private constructor to prevent instantiation.
+    }
+
+    public static Schema createSchema() {
+        return new Schema.Builder()
+                .type(VERTEX_TYPE, String.class)
+                .type(DIRECTED_TYPE, Boolean.class)
+                .type(COUNT_TYPE, new TypeDefinition.Builder()
+                        .clazz(Long.class)
+                        .aggregateFunction(new Sum())
+                        .build())
+                .type(WEIGHT_TYPE, new TypeDefinition.Builder()
+                        .clazz(Integer.class)
+                        .aggregateFunction(new Max())
+                        .build())
+                .entity(ENTITY, new SchemaEntityDefinition.Builder()
+                        .vertex(VERTEX_TYPE)
+                        .property(COUNT, COUNT_TYPE)
+                        .build())
+                .edge(EDGE, new SchemaEdgeDefinition.Builder()
+                        .source(VERTEX_TYPE)
+                        .destination(VERTEX_TYPE)
+                        .directed(DIRECTED_TYPE)
+                        .property(COUNT, COUNT_TYPE)
+                        .property(WEIGHT, WEIGHT_TYPE)
+                        .build())
+                .build();
+    }
+
+    public static String vertex(final int index) {
+        return "vertex" + index;
+    }
+
+    public static List<Element> createElements(final int numVertices, final int numEdges) {
+        return createElements(numVertices, numEdges, DEFAULT_SEED);
+    }
+
+    public static List<Element> createElements(final int numVertices, final int numEdges, final long seed) {
+        final Random random = new Random(seed);
+        final List<Element> elements = new ArrayList<>(numVertices + numEdges);
+        for (int i = 0; i < numVertices; i++) {
+            elements.add(new Entity.Builder()
+                    .group(ENTITY)
+                    .vertex(vertex(i))
+                    .property(COUNT, 1L)
+                    .build());
+        }
+        for (int i = 0; i < numEdges; i++) {
+            elements.add(new Edge.Builder()
+                    .group(EDGE)
+                    .source(vertex(random.nextInt(numVertices)))
+                    .dest(vertex(random.nextInt(numVertices)))
+                    .directed(true)
+                    .property(COUNT, 1L)
+                    .property(WEIGHT, random.nextInt(MAX_WEIGHT))
+                    .build());
+        }
+        return elements;
+    }
+
+    public static List<EntitySeed> createSeeds(final int numSeeds, final int numVertices) {
+        return createSeeds(numSeeds, numVertices, DEFAULT_SEED);
+    }
+
+    public static List<EntitySeed> createSeeds(final int numSeeds, final int numVertices, final long seed) {
+        final Random random = new Random(seed);
+        final List<EntitySeed> seeds = new ArrayList<>(numSeeds);
+        for (int i = 0; i < numSeeds; i++) {
+            seeds.add(new EntitySeed(vertex(random.nextInt(numVertices))));
+        }
+        return seeds;
+    }
+
+    public static Graph createGraph(final String graphId) {
+        return new Graph.Builder()
+                .config(new GraphConfig.Builder()
+                        .graphId(graphId)
+                        .build())
+                .addSchema(createSchema())
+                .storeProperties(new MapStoreProperties())
+                .build();
+    }
+
+    public static Graph createGraph(final String graphId, final Iterable<? extends Element> elements) throws OperationException {
+        final Graph graph = createGraph(graphId);
+        graph.execute(new AddElements.Builder()
+                .input(elements)
+                .build(), new User());
+        return graph;
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import uk.gov.gchq.gaffer.data.elementdefinition.view.View;
+import uk.gov.gchq.gaffer.data.graph.Walk;
+import uk.gov.gchq.gaffer.graph.Graph;
+import uk.gov.gchq.gaffer.operation.OperationException;
+import uk.gov.gchq.gaffer.operation.data.EntitySeed;
+import uk.gov.gchq.gaffer.operation.graph.SeededGraphFilters.IncludeIncomingOutgoingType;
+import uk.gov.gchq.gaffer.operation.impl.GetWalks;
+import uk.gov.gchq.gaffer.operation.impl.get.GetElements;
+import uk.gov.gchq.gaffer.user.User;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks building {@link Walk}s with the
+ * {@link uk.gov.gchq.gaffer.store.operation.handler.GetWalksHandler} over
+ * graphs of different sizes held in a MapStore.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class GetWalksBenchmark {
+    private static final int EDGES_PER_VERTEX = 4;
+
+    @Param({"1000", "10000", "100000"})
+    private int numVertices;
+
+    @Param({"2", "3"})
+    private int hops;
+
+    @Param({"10"})
+    private int numSeeds;
+
+    private final User user = new User();
+    private Graph graph;
+    private GetWalks getWalks;
+
+    @Setup
+    public void setup() throws OperationException {
+        graph = BenchmarkData.createGraph("getWalksBenchmark",
+                BenchmarkData.createElements(numVertices, numVertices * EDGES_PER_VERTEX));
+        final List<EntitySeed> seeds = BenchmarkData.createSeeds(numSeeds, numVertices);
+        final GetElements[] operations = new GetElements[hops];
+        for (int i = 0; i < hops; i++) {
+            operations[i] = new GetElements.Builder()
+                    .view(new View.Builder()
+                            .edge(BenchmarkData.EDGE)
+                            .build())
+                    .inOutType(IncludeIncomingOutgoingType.OUTGOING)
+                    .build();
+        }
+        getWalks = new GetWalks.Builder()
+                .input(seeds)
+                .operations(operations)
+                .resultsLimit(Integer.MAX_VALUE)
+                .build();
+    }
+
+    @Benchmark
+    public void getWalks(final Blackhole blackhole) throws OperationException {
+        for (final Walk walk : graph.execute(getWalks.shallowClone(), user)) {
+            blackhole.consume(walk);
+        }
+    }
+}
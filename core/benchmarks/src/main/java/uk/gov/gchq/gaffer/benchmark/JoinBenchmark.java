@@ -0,0 +1,113 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.IdentifierType;
+import uk.gov.gchq.gaffer.data.element.function.ExtractId;
+import uk.gov.gchq.gaffer.data.elementdefinition.view.View;
+import uk.gov.gchq.gaffer.graph.Graph;
+import uk.gov.gchq.gaffer.operation.OperationException;
+import uk.gov.gchq.gaffer.operation.impl.get.GetAllElements;
+import uk.gov.gchq.gaffer.operation.impl.join.Join;
+import uk.gov.gchq.gaffer.operation.impl.join.match.Match;
+import uk.gov.gchq.gaffer.operation.impl.join.match.MatchKey;
+import uk.gov.gchq.gaffer.operation.impl.join.methods.JoinType;
+import uk.gov.gchq.gaffer.store.operation.handler.join.match.ElementMatch;
+import uk.gov.gchq.gaffer.store.operation.handler.join.match.KeyFunctionMatch;
+import uk.gov.gchq.gaffer.user.User;
+import uk.gov.gchq.koryphe.tuple.MapTuple;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Benchmarks joining elements with the
+ * {@link uk.gov.gchq.gaffer.store.operation.handler.join.JoinHandler}, using an
+ * {@link ElementMatch} and a {@link KeyFunctionMatch}. The left side is a
+ * list of elements and the right side is retrieved from a MapStore.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class JoinBenchmark {
+    @Param({"1000", "10000", "50000"})
+    private int numEdges;
+
+    @Param({"INNER", "OUTER", "FULL"})
+    private JoinType joinType;
+
+    private final User user = new User();
+    private Graph graph;
+    private List<Element> edges;
+
+    @Setup
+    public void setup() throws OperationException {
+        final List<Element> elements = BenchmarkData.createElements(numEdges / 10, numEdges);
+        graph = BenchmarkData.createGraph("joinBenchmark", elements);
+        edges = elements.stream()
+                .filter(element -> BenchmarkData.EDGE.equals(element.getGroup()))
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public void joinWithElementMatch(final Blackhole blackhole) throws OperationException {
+        join(new ElementMatch(), BenchmarkData.EDGE, blackhole);
+    }
+
+    @Benchmark
+    public void joinWithKeyFunctionMatch(final Blackhole blackhole) throws OperationException {
+        join(new KeyFunctionMatch(new ExtractId(IdentifierType.SOURCE), new ExtractId(IdentifierType.VERTEX)),
+                BenchmarkData.ENTITY, blackhole);
+    }
+
+    private void join(final Match match, final String rightGroup, final Blackhole blackhole) throws OperationException {
+        final View rightView = BenchmarkData.ENTITY.equals(rightGroup)
+                ? new View.Builder().entity(rightGroup).build()
+                : new View.Builder().edge(rightGroup).build();
+        final Join<Element> join = new Join.Builder<Element>()
+                .input(edges)
+                .operation(new GetAllElements.Builder()
+                        .view(rightView)
+                        .build())
+                .matchMethod(match)
+                .matchKey(MatchKey.LEFT)
+                .joinType(joinType)
+                .collectionLimit(Integer.MAX_VALUE)
+                .build();
+        for (final MapTuple tuple : graph.execute(join, user)) {
+            blackhole.consume(tuple);
+        }
+    }
+}
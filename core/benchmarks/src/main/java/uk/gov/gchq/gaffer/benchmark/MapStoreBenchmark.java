@@ -0,0 +1,148 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.function.ElementFilter;
+import uk.gov.gchq.gaffer.data.elementdefinition.view.View;
+import uk.gov.gchq.gaffer.data.elementdefinition.view.ViewElementDefinition;
+import uk.gov.gchq.gaffer.graph.Graph;
+import uk.gov.gchq.gaffer.operation.OperationException;
+import uk.gov.gchq.gaffer.operation.data.EntitySeed;
+import uk.gov.gchq.gaffer.operation.impl.add.AddElements;
+import uk.gov.gchq.gaffer.operation.impl.get.GetAllElements;
+import uk.gov.gchq.gaffer.operation.impl.get.GetElements;
+import uk.gov.gchq.gaffer.user.User;
+import uk.gov.gchq.koryphe.impl.predicate.IsMoreThan;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks adding elements to, and querying elements from, a MapStore
+ * holding graphs of different sizes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MapStoreBenchmark {
+    private static final int EDGES_PER_VERTEX = 10;
+    private static final int NUM_SEEDS = 100;
+    private static final User USER = new User();
+
+    /**
+     * The elements to add. A new, empty graph is created before each
+     * invocation so every invocation adds the elements to an empty store.
+     */
+    @State(Scope.Benchmark)
+    public static class IngestState {
+        @Param({"10000", "100000", "1000000"})
+        private int numEdges;
+
+        private List<Element> elements;
+        private Graph graph;
+
+        @Setup(Level.Trial)
+        public void setupElements() {
+            elements = BenchmarkData.createElements(numEdges / EDGES_PER_VERTEX, numEdges);
+        }
+
+        @Setup(Level.Invocation)
+        public void setupGraph() {
+            graph = BenchmarkData.createGraph("mapStoreIngestBenchmark");
+        }
+    }
+
+    /**
+     * A graph populated with the elements, and the seeds and views used to
+     * query it.
+     */
+    @State(Scope.Benchmark)
+    public static class QueryState {
+        @Param({"10000", "100000", "1000000"})
+        private int numEdges;
+
+        private Graph graph;
+        private List<EntitySeed> seeds;
+        private View filteredView;
+
+        @Setup(Level.Trial)
+        public void setupGraph() throws OperationException {
+            final int numVertices = numEdges / EDGES_PER_VERTEX;
+            graph = BenchmarkData.createGraph("mapStoreQueryBenchmark",
+                    BenchmarkData.createElements(numVertices, numEdges));
+            seeds = BenchmarkData.createSeeds(NUM_SEEDS, numVertices);
+            filteredView = new View.Builder()
+                    .edge(BenchmarkData.EDGE, new ViewElementDefinition.Builder()
+                            .preAggregationFilter(new ElementFilter.Builder()
+                                    .select(BenchmarkData.WEIGHT)
+                                    .execute(new IsMoreThan(BenchmarkData.MAX_WEIGHT / 2))
+                                    .build())
+                            .build())
+                    .build();
+        }
+    }
+
+    @Benchmark
+    public Graph addElements(final IngestState state) throws OperationException {
+        state.graph.execute(new AddElements.Builder()
+                .input(state.elements)
+                .build(), USER);
+        return state.graph;
+    }
+
+    @Benchmark
+    public void getElementsBySeed(final QueryState state, final Blackhole blackhole) throws OperationException {
+        for (final Element element : state.graph.execute(new GetElements.Builder()
+                .input(state.seeds)
+                .build(), USER)) {
+            blackhole.consume(element);
+        }
+    }
+
+    @Benchmark
+    public void getAllElements(final QueryState state, final Blackhole blackhole) throws OperationException {
+        for (final Element element : state.graph.execute(new GetAllElements(), USER)) {
+            blackhole.consume(element);
+        }
+    }
+
+    @Benchmark
+    public void getAllElementsWithFilter(final QueryState state, final Blackhole blackhole) throws OperationException {
+        for (final Element element : state.graph.execute(new GetAllElements.Builder()
+                .view(state.filteredView)
+                .build(), USER)) {
+            blackhole.consume(element);
+        }
+    }
+}
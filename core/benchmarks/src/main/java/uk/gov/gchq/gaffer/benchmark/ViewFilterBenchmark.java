@@ -0,0 +1,109 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.function.ElementFilter;
+import uk.gov.gchq.gaffer.data.elementdefinition.view.View;
+import uk.gov.gchq.gaffer.data.elementdefinition.view.ViewElementDefinition;
+import uk.gov.gchq.koryphe.impl.predicate.IsIn;
+import uk.gov.gchq.koryphe.impl.predicate.IsLessThan;
+import uk.gov.gchq.koryphe.impl.predicate.IsMoreThan;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks filtering elements using the {@link ElementFilter}s in the
+ * {@link ViewElementDefinition}s of a {@link View}, as the stores do when
+ * applying a view to the elements they retrieve.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ViewFilterBenchmark {
+    @Param({"10000", "100000", "1000000"})
+    private int numEdges;
+
+    private List<Element> elements;
+    private View singlePredicateView;
+    private View multiplePredicateView;
+
+    @Setup
+    public void setup() {
+        elements = BenchmarkData.createElements(numEdges / 10, numEdges);
+        singlePredicateView = new View.Builder()
+                .entity(BenchmarkData.ENTITY)
+                .edge(BenchmarkData.EDGE, new ViewElementDefinition.Builder()
+                        .preAggregationFilter(new ElementFilter.Builder()
+                                .select(BenchmarkData.WEIGHT)
+                                .execute(new IsMoreThan(BenchmarkData.MAX_WEIGHT / 2))
+                                .build())
+                        .build())
+                .build();
+        multiplePredicateView = new View.Builder()
+                .entity(BenchmarkData.ENTITY)
+                .edge(BenchmarkData.EDGE, new ViewElementDefinition.Builder()
+                        .preAggregationFilter(new ElementFilter.Builder()
+                                .select(BenchmarkData.WEIGHT)
+                                .execute(new IsMoreThan(BenchmarkData.MAX_WEIGHT / 4))
+                                .select(BenchmarkData.WEIGHT)
+                                .execute(new IsLessThan(3 * BenchmarkData.MAX_WEIGHT / 4))
+                                .select(BenchmarkData.COUNT)
+                                .execute(new IsIn(1L, 2L, 3L))
+                                .build())
+                        .build())
+                .build();
+    }
+
+    @Benchmark
+    public int filterWithSinglePredicate() {
+        return filter(singlePredicateView);
+    }
+
+    @Benchmark
+    public int filterWithMultiplePredicates() {
+        return filter(multiplePredicateView);
+    }
+
+    private int filter(final View view) {
+        int matches = 0;
+        for (final Element element : elements) {
+            final ViewElementDefinition elementDef = view.getElement(element.getGroup());
+            if (null != elementDef
+                    && (null == elementDef.getPreAggregationFilter() || elementDef.getPreAggregationFilter().test(element))) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+}
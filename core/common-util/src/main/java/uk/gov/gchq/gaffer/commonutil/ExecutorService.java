@@ -18,12 +18,19 @@ package uk.gov.gchq.gaffer.commonutil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import uk.gov.gchq.gaffer.commonutil.executor.JobExecutorFactory;
+
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 
 /**
- * An {@code ExecutorService} that can schedule commands to run after a given
- * delay, or to execute periodically.
+ * Holds the executors used to run asynchronous jobs.
+ * <p>
+ * Jobs are run by a job executor, created by a {@link JobExecutorFactory}.
+ * Repeating jobs are triggered by a separate scheduler, so that scheduled jobs
+ * are not held up by long running jobs. The scheduler only starts each
+ * repeat of a job, which then runs on the job executor.
  * <p>
  * @see java.util.concurrent.ScheduledExecutorService
  **/
@@ -31,32 +38,95 @@ public final class ExecutorService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ExecutorService.class);
     private static ScheduledExecutorService service;
+    private static java.util.concurrent.ExecutorService jobService;
+    private static int currentJobThreadCount;
+    private static int currentSchedulerThreadCount;
+    private static Class<?> currentJobExecutorFactoryClass;
 
     private ExecutorService() {
         // private constructor to prevent instantiation
     }
 
     public static void initialise(final int jobExecutorThreadCount) {
-        LOGGER.debug("Initialising ExecutorService with " + jobExecutorThreadCount + " threads");
-        service = Executors.newScheduledThreadPool(jobExecutorThreadCount, runnable -> {
+        initialise(jobExecutorThreadCount, jobExecutorThreadCount, null);
+    }
+
+    /**
+     * Initialises the scheduler and the job executor.
+     * <p>
+     * The executors are shared by every store in the JVM, so if they have
+     * already been created with the same thread counts and type of factory
+     * they are reused. Otherwise the previous executors are shut down and
+     * replaced. Jobs that have already been submitted to them are still run,
+     * and repeating jobs already scheduled carry on running on the previous
+     * scheduler until they are cancelled, but the previous executors do not
+     * accept any new jobs.
+     * </p>
+     *
+     * @param jobExecutorThreadCount the number of threads for the job executor
+     * @param schedulerThreadCount   the number of threads for scheduling repeating jobs
+     * @param jobExecutorFactory     the factory for the job executor, if null
+     *                               jobs are run using the scheduler threads
+     */
+    public static synchronized void initialise(final int jobExecutorThreadCount,
+                                               final int schedulerThreadCount,
+                                               final JobExecutorFactory jobExecutorFactory) {
+        final Class<?> factoryClass = null != jobExecutorFactory ? jobExecutorFactory.getClass() : null;
+        if (null != service && !service.isShutdown()
+                && jobExecutorThreadCount == currentJobThreadCount
+                && schedulerThreadCount == currentSchedulerThreadCount
+                && factoryClass == currentJobExecutorFactoryClass) {
+            LOGGER.debug("ExecutorService is already initialised with {} job threads and {} scheduler threads", jobExecutorThreadCount, schedulerThreadCount);
+            return;
+        }
+
+        LOGGER.debug("Initialising ExecutorService with {} job threads and {} scheduler threads", jobExecutorThreadCount, schedulerThreadCount);
+        shutdownPrevious();
+        service = Executors.newScheduledThreadPool(Math.max(1, schedulerThreadCount), runnable -> {
             final Thread thread = new Thread(runnable);
             thread.setDaemon(true);
             return thread;
         });
+        jobService = null != jobExecutorFactory ? jobExecutorFactory.createExecutor(jobExecutorThreadCount) : service;
+        currentJobThreadCount = jobExecutorThreadCount;
+        currentSchedulerThreadCount = schedulerThreadCount;
+        currentJobExecutorFactoryClass = factoryClass;
     }
 
     public static ScheduledExecutorService getService() {
         return service;
     }
 
+    /**
+     * Gets the executor for running jobs.
+     *
+     * @return the job executor
+     */
+    public static java.util.concurrent.ExecutorService getJobService() {
+        return jobService;
+    }
+
     public static boolean isEnabled() {
         return null != service;
     }
 
-    public static void shutdown() {
+    public static synchronized void shutdown() {
+        if (null != jobService && jobService != service) {
+            jobService.shutdown();
+        }
         if (null != service) {
             service.shutdown();
         }
+        jobService = null;
         service = null;
+        currentJobExecutorFactoryClass = null;
+    }
+
+    private static void shutdownPrevious() {
+        if (service instanceof ScheduledThreadPoolExecutor) {
+            // Repeating jobs only check whether they have been cancelled when they run, so keep them running
+            ((ScheduledThreadPoolExecutor) service).setContinueExistingPeriodicTasksAfterShutdownPolicy(true);
+        }
+        shutdown();
     }
 }
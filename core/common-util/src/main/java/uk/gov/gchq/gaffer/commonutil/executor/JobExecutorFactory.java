@@ -0,0 +1,36 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.commonutil.executor;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * A {@code JobExecutorFactory} creates the {@link ExecutorService} used to run
+ * asynchronous jobs. Repeating jobs are scheduled separately, so the executor
+ * does not need to support scheduling.
+ * <p>
+ * Implementations must have a public no-argument constructor so they can be
+ * configured by class name.
+ */
+public interface JobExecutorFactory {
+    /**
+     * Creates the executor for running jobs.
+     *
+     * @param threadCount the configured number of job executor threads
+     * @return the job executor
+     */
+    ExecutorService createExecutor(final int threadCount);
+}
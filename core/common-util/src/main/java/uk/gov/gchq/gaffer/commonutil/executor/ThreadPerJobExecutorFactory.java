@@ -0,0 +1,67 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.commonutil.executor;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Creates an executor that starts a new thread for each job, so long running
+ * jobs do not hold up other jobs.
+ * <p>
+ * If the JVM supports virtual threads then a virtual thread is started for
+ * each job, which allows thousands of concurrent jobs without exhausting
+ * platform threads. Otherwise a cached pool of daemon threads is used, which
+ * reuses idle threads but is not bounded, so the number of concurrent jobs
+ * should be limited, e.g. using the store job limits.
+ * </p>
+ */
+public class ThreadPerJobExecutorFactory implements JobExecutorFactory {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ThreadPerJobExecutorFactory.class);
+    private static final String VIRTUAL_THREAD_EXECUTOR_METHOD = "newVirtualThreadPerTaskExecutor";
+
+    @Override
+    public ExecutorService createExecutor(final int threadCount) {
+        final ExecutorService virtualThreadExecutor = createVirtualThreadExecutor();
+        if (null != virtualThreadExecutor) {
+            LOGGER.debug("Running jobs using virtual threads");
+            return virtualThreadExecutor;
+        }
+
+        LOGGER.debug("Virtual threads are not supported by this JVM, running jobs using a cached thread pool");
+        return Executors.newCachedThreadPool(runnable -> {
+            final Thread thread = new Thread(runnable);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static ExecutorService createVirtualThreadExecutor() {
+        try {
+            final Method method = Executors.class.getMethod(VIRTUAL_THREAD_EXECUTOR_METHOD);
+            return (ExecutorService) method.invoke(null);
+        } catch (final NoSuchMethodException e) {
+            return null;
+        } catch (final ReflectiveOperationException | RuntimeException e) {
+            LOGGER.warn("Unable to create a virtual thread executor", e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.commonutil;
+
+import org.junit.After;
+import org.junit.Test;
+
+import uk.gov.gchq.gaffer.commonutil.executor.FixedThreadPoolJobExecutorFactory;
+import uk.gov.gchq.gaffer.commonutil.executor.ThreadPerJobExecutorFactory;
+
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ExecutorServiceTest {
+
+    @After
+    public void after() {
+        ExecutorService.shutdown();
+    }
+
+    @Test
+    public void shouldReuseExecutorsWhenInitialisedWithTheSameConfiguration() {
+        // Given
+        ExecutorService.initialise(2, 1, new FixedThreadPoolJobExecutorFactory());
+        final ScheduledExecutorService service = ExecutorService.getService();
+        final java.util.concurrent.ExecutorService jobService = ExecutorService.getJobService();
+
+        // When
+        ExecutorService.initialise(2, 1, new FixedThreadPoolJobExecutorFactory());
+
+        // Then
+        assertSame(service, ExecutorService.getService());
+        assertSame(jobService, ExecutorService.getJobService());
+        assertFalse(service.isShutdown());
+        assertFalse(jobService.isShutdown());
+    }
+
+    @Test
+    public void shouldReplaceExecutorsWhenThreadCountChanges() {
+        // Given
+        ExecutorService.initialise(2, 1, new FixedThreadPoolJobExecutorFactory());
+        final ScheduledExecutorService service = ExecutorService.getService();
+        final java.util.concurrent.ExecutorService jobService = ExecutorService.getJobService();
+
+        // When
+        ExecutorService.initialise(3, 1, new FixedThreadPoolJobExecutorFactory());
+
+        // Then
+        assertNotSame(service, ExecutorService.getService());
+        assertNotSame(jobService, ExecutorService.getJobService());
+        assertTrue(service.isShutdown());
+        assertTrue(jobService.isShutdown());
+    }
+
+    @Test
+    public void shouldReplaceExecutorsWhenFactoryChanges() {
+        // Given
+        ExecutorService.initialise(2, 1, new FixedThreadPoolJobExecutorFactory());
+        final java.util.concurrent.ExecutorService jobService = ExecutorService.getJobService();
+
+        // When
+        ExecutorService.initialise(2, 1, new ThreadPerJobExecutorFactory());
+
+        // Then
+        assertNotSame(jobService, ExecutorService.getJobService());
+        assertTrue(jobService.isShutdown());
+    }
+
+    @Test
+    public void shouldCreateNewExecutorsAfterShutdown() {
+        // Given
+        ExecutorService.initialise(2, 1, new FixedThreadPoolJobExecutorFactory());
+        final ScheduledExecutorService service = ExecutorService.getService();
+        ExecutorService.shutdown();
+
+        // When
+        ExecutorService.initialise(2, 1, new FixedThreadPoolJobExecutorFactory());
+
+        // Then
+        assertNotSame(service, ExecutorService.getService());
+        assertFalse(ExecutorService.getService().isShutdown());
+    }
+}
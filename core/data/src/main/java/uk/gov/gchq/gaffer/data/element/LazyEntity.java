@@ -92,7 +92,10 @@ public class LazyEntity extends Entity {
     @Override
     public void putIdentifier(final IdentifierType name, final Object value) {
         entity.putIdentifier(name, value);
-        identifiersLoaded = true;
+        // Changing the group does not load the vertex
+        if (IdentifierType.VERTEX == name) {
+            identifiersLoaded = true;
+        }
     }
 
     @Override
@@ -36,7 +36,23 @@ public class AdjacencyMap {
     /**
      * Backing object used to store the AdjacencyMap representation.
      */
-    private final HashBasedTable<Object, Object, Set<Edge>> edgeGraph = HashBasedTable.create();
+    private final HashBasedTable<Object, Object, Set<Edge>> edgeGraph;
+
+    public AdjacencyMap() {
+        this(true);
+    }
+
+    /**
+     * Constructor for subclasses which store the graph in their own format.
+     * If the backing table is not created the subclass must override every
+     * public method of this class, apart from {@link #putEdges(Object, Object, Set)}
+     * and {@link #toStringFull()}.
+     *
+     * @param createBackingTable true if the backing table should be created
+     */
+    protected AdjacencyMap(final boolean createBackingTable) {
+        edgeGraph = createBackingTable ? HashBasedTable.create() : null;
+    }
 
     /**
      * Get the entries in the AdjacencyMap which match the provided source and
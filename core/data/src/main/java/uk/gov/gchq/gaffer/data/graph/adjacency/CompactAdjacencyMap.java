@@ -0,0 +1,391 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.data.graph.adjacency;
+
+import uk.gov.gchq.gaffer.data.element.Edge;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * A {@code CompactAdjacencyMap} is an {@link AdjacencyMap} which stores the
+ * graph in a compact, compressed sparse row (CSR) style format rather than as
+ * a table of sets.
+ * <p>
+ * Each vertex is assigned an int id from a dictionary and each edge is stored
+ * once, referenced by its index. Adjacency is answered from offset and edge
+ * index arrays which are built, using a counting sort, the first time the map
+ * is queried after edges have been added. The out edges of each source are
+ * also indexed in destination order, so the edges between a pair of vertices are found
+ * with a binary search rather than by scanning all of the edges of the source,
+ * which keeps walk enumeration through high degree vertices linear. Removing
+ * all the edges to a
+ * destination only marks those edges as removed, so pruning an adjacency map is
+ * linear in the number of edges.
+ * <p>
+ * The backing table of the {@link AdjacencyMap} is not created.
+ * <p>
+ * Vertices are returned in the order in which they were first added.
+ * Duplicate edges between the same pair of vertices are only returned once.
+ * Like the {@link AdjacencyMap}, this class is not thread safe for writes.
+ */
+public class CompactAdjacencyMap extends AdjacencyMap {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Map<Object, Integer> vertexIds = new HashMap<>();
+    private final List<Object> vertices = new ArrayList<>();
+    private final List<Edge> edges = new ArrayList<>();
+    private final BitSet removedEdges = new BitSet();
+    private int[] edgeSources = new int[INITIAL_CAPACITY];
+    private int[] edgeDestinations = new int[INITIAL_CAPACITY];
+
+    /**
+     * The CSR indexes. These are null until the map is first queried and are
+     * reset whenever an edge is added.
+     */
+    private int[] outOffsets;
+    private int[] outEdges;
+    private int[] outEdgesByDestination;
+    private int[] inOffsets;
+    private int[] inEdges;
+    private int[] liveOutDegree;
+    private int[] liveInDegree;
+
+    public CompactAdjacencyMap() {
+        super(false);
+    }
+
+    @Override
+    public Set<Edge> getEdges(final Object source, final Object destination) {
+        final Integer sourceId = vertexIds.get(source);
+        final Integer destinationId = vertexIds.get(destination);
+        if (null == sourceId || null == destinationId) {
+            return Collections.emptySet();
+        }
+
+        index();
+        final int end = outOffsets[sourceId + 1];
+        Edge first = null;
+        Set<Edge> results = null;
+        for (int i = findFirstOutEdge(sourceId, destinationId); i < end; i++) {
+            final int edge = outEdgesByDestination[i];
+            if (edgeDestinations[edge] != destinationId) {
+                break;
+            }
+            if (removedEdges.get(edge)) {
+                continue;
+            }
+            if (null == first) {
+                first = edges.get(edge);
+            } else {
+                if (null == results) {
+                    results = new LinkedHashSet<>();
+                    results.add(first);
+                }
+                results.add(edges.get(edge));
+            }
+        }
+        if (null != results) {
+            return results;
+        }
+        return null != first ? Collections.singleton(first) : Collections.emptySet();
+    }
+
+    /**
+     * Add an entry to the CompactAdjacencyMap.
+     *
+     * @param source      the source vertex
+     * @param destination the destination vertex
+     * @param edge        the edge to add
+     * @return a view of the {@link Set} containing the edge objects associated
+     * with the source and destination vertices. The view is only evaluated
+     * when it is used.
+     */
+    @Override
+    public Set<Edge> putEdge(final Object source, final Object destination, final Edge edge) {
+        addEdge(source, destination, edge);
+
+        return new AbstractSet<Edge>() {
+            @Override
+            public Iterator<Edge> iterator() {
+                return getEdges(source, destination).iterator();
+            }
+
+            @Override
+            public int size() {
+                return getEdges(source, destination).size();
+            }
+        };
+    }
+
+    /**
+     * Add entries to the CompactAdjacencyMap. The index is rebuilt once, after
+     * all of the edges have been added.
+     *
+     * @param source      the source vertex
+     * @param destination the destination vertex
+     * @param set         the edges to add
+     * @return the {@link Set} of edge objects associated with the source and
+     * destination vertices
+     */
+    @Override
+    public Set<Edge> putEdges(final Object source, final Object destination, final Set<Edge> set) {
+        for (final Edge edge : set) {
+            addEdge(source, destination, edge);
+        }
+        return getEdges(source, destination);
+    }
+
+    @Override
+    public Set<Object> getDestinations(final Object source) {
+        final Integer sourceId = vertexIds.get(source);
+        if (null == sourceId) {
+            return Collections.emptySet();
+        }
+
+        index();
+        final Set<Object> results = new LinkedHashSet<>();
+        for (int i = outOffsets[sourceId]; i < outOffsets[sourceId + 1]; i++) {
+            final int edge = outEdges[i];
+            if (!removedEdges.get(edge)) {
+                results.add(vertices.get(edgeDestinations[edge]));
+            }
+        }
+        return Collections.unmodifiableSet(results);
+    }
+
+    @Override
+    public Set<Object> getSources(final Object destination) {
+        final Integer destinationId = vertexIds.get(destination);
+        if (null == destinationId) {
+            return Collections.emptySet();
+        }
+
+        index();
+        final Set<Object> results = new LinkedHashSet<>();
+        for (int i = inOffsets[destinationId]; i < inOffsets[destinationId + 1]; i++) {
+            final int edge = inEdges[i];
+            if (!removedEdges.get(edge)) {
+                results.add(vertices.get(edgeSources[edge]));
+            }
+        }
+        return Collections.unmodifiableSet(results);
+    }
+
+    @Override
+    public Set<Object> getAllSources() {
+        index();
+        return getLiveVertices(liveOutDegree);
+    }
+
+    @Override
+    public Set<Object> getAllDestinations() {
+        index();
+        return getLiveVertices(liveInDegree);
+    }
+
+    @Override
+    public void removeAllWithDestination(final Object destination) {
+        final Integer destinationId = vertexIds.get(destination);
+        if (null == destinationId) {
+            return;
+        }
+
+        index();
+        for (int i = inOffsets[destinationId]; i < inOffsets[destinationId + 1]; i++) {
+            final int edge = inEdges[i];
+            if (!removedEdges.get(edge)) {
+                removedEdges.set(edge);
+                liveOutDegree[edgeSources[edge]]--;
+                liveInDegree[destinationId]--;
+            }
+        }
+    }
+
+    @Override
+    public boolean containsSource(final Object source) {
+        final Integer sourceId = vertexIds.get(source);
+        if (null == sourceId) {
+            return false;
+        }
+
+        index();
+        return liveOutDegree[sourceId] > 0;
+    }
+
+    @Override
+    public boolean containsDestination(final Object destination) {
+        final Integer destinationId = vertexIds.get(destination);
+        if (null == destinationId) {
+            return false;
+        }
+
+        index();
+        return liveInDegree[destinationId] > 0;
+    }
+
+    @Override
+    public String toStringFull() {
+        // The AdjacencyMap toString reads the backing table, so the identity is built here
+        return getClass().getName() + '@' + Integer.toHexString(hashCode()) + '[' + getAllSources().stream()
+                .map(s -> s.toString() + "->" + getDestinations(s).stream()
+                        .map(d -> d.toString() + "=" + getEdges(s, d))
+                        .collect(Collectors.joining(", ", "{", "}")))
+                .collect(Collectors.joining(", ", "{", "}")) + ']';
+    }
+
+    @Override
+    public String toString() {
+        return getAllSources().stream()
+                .map(s -> s.toString() + "->" + getDestinations(s))
+                .collect(Collectors.joining(", ", "{", "}"));
+    }
+
+    private void addEdge(final Object source, final Object destination, final Edge edge) {
+        final int edgeIndex = edges.size();
+        if (edgeIndex == edgeSources.length) {
+            edgeSources = Arrays.copyOf(edgeSources, edgeIndex * 2);
+            edgeDestinations = Arrays.copyOf(edgeDestinations, edgeIndex * 2);
+        }
+        edgeSources[edgeIndex] = getOrCreateVertexId(source);
+        edgeDestinations[edgeIndex] = getOrCreateVertexId(destination);
+        edges.add(edge);
+        clearIndex();
+    }
+
+    /**
+     * Binary searches the out edges of the source, which are ordered by
+     * destination, for the first edge to the destination.
+     *
+     * @param sourceId      the source vertex id
+     * @param destinationId the destination vertex id
+     * @return the position of the first out edge to the destination, or of the
+     * first edge to a later destination if there are none
+     */
+    private int findFirstOutEdge(final int sourceId, final int destinationId) {
+        int low = outOffsets[sourceId];
+        int high = outOffsets[sourceId + 1];
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (edgeDestinations[outEdgesByDestination[mid]] < destinationId) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int getOrCreateVertexId(final Object vertex) {
+        Integer id = vertexIds.get(vertex);
+        if (null == id) {
+            id = vertices.size();
+            vertexIds.put(vertex, id);
+            vertices.add(vertex);
+        }
+        return id;
+    }
+
+    private Set<Object> getLiveVertices(final int[] liveDegree) {
+        final Set<Object> results = new LinkedHashSet<>();
+        for (int id = 0; id < liveDegree.length; id++) {
+            if (liveDegree[id] > 0) {
+                results.add(vertices.get(id));
+            }
+        }
+        return Collections.unmodifiableSet(results);
+    }
+
+    private synchronized void clearIndex() {
+        outOffsets = null;
+        outEdges = null;
+        outEdgesByDestination = null;
+        inOffsets = null;
+        inEdges = null;
+        liveOutDegree = null;
+        liveInDegree = null;
+    }
+
+    private synchronized void index() {
+        if (null != outOffsets) {
+            return;
+        }
+
+        final int vertexCount = vertices.size();
+        final int edgeCount = edges.size();
+
+        final int[] newLiveOutDegree = new int[vertexCount];
+        final int[] newLiveInDegree = new int[vertexCount];
+        for (int edge = 0; edge < edgeCount; edge++) {
+            if (!removedEdges.get(edge)) {
+                newLiveOutDegree[edgeSources[edge]]++;
+                newLiveInDegree[edgeDestinations[edge]]++;
+            }
+        }
+
+        inOffsets = createOffsets(edgeDestinations, vertexCount, edgeCount);
+        inEdges = sortEdges(edgeDestinations, inOffsets, null, edgeCount);
+        liveOutDegree = newLiveOutDegree;
+        liveInDegree = newLiveInDegree;
+        final int[] newOutOffsets = createOffsets(edgeSources, vertexCount, edgeCount);
+        outEdges = sortEdges(edgeSources, newOutOffsets, null, edgeCount);
+        // The edges are sorted by source in destination order, so each source's out edges are ordered by destination
+        outEdgesByDestination = sortEdges(edgeSources, newOutOffsets, inEdges, edgeCount);
+        // Assigned last as a non null value marks the index as built
+        outOffsets = newOutOffsets;
+    }
+
+    private static int[] createOffsets(final int[] vertexIdsByEdge, final int vertexCount, final int edgeCount) {
+        final int[] offsets = new int[vertexCount + 1];
+        for (int edge = 0; edge < edgeCount; edge++) {
+            offsets[vertexIdsByEdge[edge] + 1]++;
+        }
+        for (int id = 0; id < vertexCount; id++) {
+            offsets[id + 1] += offsets[id];
+        }
+        return offsets;
+    }
+
+    /**
+     * Stable counting sort of the edges by vertex id.
+     *
+     * @param vertexIdsByEdge the vertex id to sort each edge by
+     * @param offsets         the offset of the first edge of each vertex
+     * @param edgeOrder       the order to take the edges in, or null for the
+     *                        order they were added
+     * @param edgeCount       the number of edges
+     * @return the sorted edges
+     */
+    private static int[] sortEdges(final int[] vertexIdsByEdge, final int[] offsets, final int[] edgeOrder, final int edgeCount) {
+        final int[] positions = Arrays.copyOf(offsets, offsets.length - 1);
+        final int[] sorted = new int[edgeCount];
+        for (int i = 0; i < edgeCount; i++) {
+            final int edge = null != edgeOrder ? edgeOrder[i] : i;
+            sorted[positions[vertexIdsByEdge[edge]]++] = edge;
+        }
+        return sorted;
+    }
+}
@@ -121,6 +121,22 @@ public class LazyEntityTest {
         assertEquals(vertex, entity.getVertex());
     }
 
+    @Test
+    public void shouldLoadVertexAfterPutGroupIdentifier() {
+        // Given
+        final Entity entity = new Entity("group");
+        final ElementValueLoader entityLoader = mock(ElementValueLoader.class);
+        final LazyEntity lazyEntity = new LazyEntity(entity, entityLoader);
+
+        // When
+        lazyEntity.putIdentifier(IdentifierType.GROUP, "newGroup");
+        lazyEntity.getVertex();
+
+        // Then
+        assertEquals("newGroup", lazyEntity.getGroup());
+        verify(entityLoader).loadIdentifiers(entity);
+    }
+
     @Test
     public void shouldDelegateGetGroupToEntity() {
         // Given
@@ -0,0 +1,272 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.data.graph.adjacency;
+
+import com.google.common.collect.Sets;
+import org.junit.Test;
+
+import uk.gov.gchq.gaffer.commonutil.TestGroups;
+import uk.gov.gchq.gaffer.data.element.Edge;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsCollectionContaining.hasItems;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CompactAdjacencyMapTest {
+
+    @Test
+    public void shouldGetEdges() {
+        // Given
+        final AdjacencyMap adjacencyMap = getAdjacencyMap();
+
+        // When
+        final Set<Edge> results = adjacencyMap.getEdges(1, 2);
+
+        // Then
+        assertThat(results, equalTo(Collections.singleton(makeEdge(1, 2))));
+    }
+
+    @Test
+    public void shouldGetEdgesBetweenHighDegreeVertexAndEachDestination() {
+        // Given
+        final AdjacencyMap adjacencyMap = new CompactAdjacencyMap();
+        for (int i = 100; i > 0; i--) {
+            adjacencyMap.putEdge(0, i, makeEdge(0, i));
+            adjacencyMap.putEdge(i, 0, makeEdge(i, 0));
+            if (0 == i % 10) {
+                adjacencyMap.putEdge(0, i, makeEdge(TestGroups.EDGE_2, 0, i));
+            }
+        }
+
+        // When / Then
+        for (int i = 1; i <= 100; i++) {
+            final Set<Edge> expected = new HashSet<>();
+            expected.add(makeEdge(0, i));
+            if (0 == i % 10) {
+                expected.add(makeEdge(TestGroups.EDGE_2, 0, i));
+            }
+            assertEquals(expected, adjacencyMap.getEdges(0, i));
+            assertEquals(Collections.singleton(makeEdge(i, 0)), adjacencyMap.getEdges(i, 0));
+        }
+        assertThat(adjacencyMap.getEdges(0, 0), is(empty()));
+        assertEquals(100, adjacencyMap.getDestinations(0).size());
+        assertEquals(100, adjacencyMap.getDestinations(0).iterator().next());
+    }
+
+    @Test
+    public void shouldGetEmptyEdgeSet() {
+        // Given
+        final AdjacencyMap adjacencyMap = getAdjacencyMap();
+
+        // When
+        final Set<Edge> results = adjacencyMap.getEdges(1, 6);
+
+        // Then
+        assertThat(results, is(empty()));
+    }
+
+    @Test
+    public void shouldGetDestinationsInInsertionOrder() {
+        // Given
+        final AdjacencyMap adjacencyMap = getAdjacencyMap();
+
+        // When
+        final Set<Object> results = adjacencyMap.getDestinations(1);
+
+        // Then
+        assertEquals(Arrays.asList(2, 5, 1), Arrays.asList(results.toArray()));
+    }
+
+    @Test
+    public void shouldGetAllDestinations() {
+        // Given
+        final AdjacencyMap adjacencyMap = getAdjacencyMap();
+
+        // When
+        final Set<Object> results = adjacencyMap.getAllDestinations();
+
+        // Then
+        assertThat(results, hasItems(1, 2, 3, 4, 5, 6));
+    }
+
+    @Test
+    public void shouldGetSources() {
+        // Given
+        final AdjacencyMap adjacencyMap = getAdjacencyMap();
+
+        // When
+        final Set<Object> results = adjacencyMap.getSources(1);
+
+        // Then
+        assertThat(results, hasItems(1, 4));
+        assertThat(results, hasSize(2));
+    }
+
+    @Test
+    public void shouldGetAllSources() {
+        // Given
+        final AdjacencyMap adjacencyMap = getAdjacencyMap();
+
+        // When
+        final Set<Object> results = adjacencyMap.getAllSources();
+
+        // Then
+        assertThat(results, hasItems(1, 2, 4, 5, 6));
+        assertThat(results, hasSize(5));
+    }
+
+    @Test
+    public void shouldPutEdgesAfterQuerying() {
+        // Given
+        final AdjacencyMap adjacencyMap = new CompactAdjacencyMap();
+        adjacencyMap.putEdge(1, 2, makeEdge(1, 2));
+        assertThat(adjacencyMap.getEdges(1, 2), hasSize(1));
+
+        // When
+        adjacencyMap.putEdges(1, 2, Sets.newHashSet(makeEdge(TestGroups.EDGE_2, 1, 2), makeEdge(TestGroups.EDGE_3, 1, 2)));
+
+        // Then
+        assertThat(adjacencyMap.getEdges(1, 2), hasItems(makeEdge(1, 2), makeEdge(TestGroups.EDGE_2, 1, 2), makeEdge(TestGroups.EDGE_3, 1, 2)));
+    }
+
+    @Test
+    public void shouldReturnAllEdgesForVerticesWhenPuttingEdges() {
+        // Given
+        final AdjacencyMap adjacencyMap = new CompactAdjacencyMap();
+        adjacencyMap.putEdge(1, 2, makeEdge(1, 2));
+
+        // When
+        final Set<Edge> results = adjacencyMap.putEdges(1, 2, Sets.newHashSet(makeEdge(TestGroups.EDGE_2, 1, 2), makeEdge(TestGroups.EDGE_3, 1, 2)));
+
+        // Then
+        assertThat(results, hasSize(3));
+        assertThat(results, hasItems(makeEdge(1, 2), makeEdge(TestGroups.EDGE_2, 1, 2), makeEdge(TestGroups.EDGE_3, 1, 2)));
+    }
+
+    @Test
+    public void shouldIncludeEdgesInFullString() {
+        // Given
+        final AdjacencyMap adjacencyMap = new CompactAdjacencyMap();
+        adjacencyMap.putEdge(1, 2, makeEdge(1, 2));
+
+        // When
+        final String result = adjacencyMap.toStringFull();
+
+        // Then
+        assertTrue(result.startsWith(CompactAdjacencyMap.class.getName() + '@'));
+        assertTrue(result.endsWith("[{1->{2=" + Collections.singleton(makeEdge(1, 2)) + "}}]"));
+    }
+
+    @Test
+    public void shouldNotReturnDuplicateEdges() {
+        // Given
+        final AdjacencyMap adjacencyMap = new CompactAdjacencyMap();
+
+        // When
+        adjacencyMap.putEdge(1, 2, makeEdge(1, 2));
+        adjacencyMap.putEdge(1, 2, makeEdge(1, 2));
+
+        // Then
+        assertThat(adjacencyMap.getEdges(1, 2), hasSize(1));
+        assertThat(adjacencyMap.getDestinations(1), hasSize(1));
+    }
+
+    @Test
+    public void shouldRemoveAllWithDestination() {
+        // Given
+        final AdjacencyMap adjacencyMap = getAdjacencyMap();
+
+        // When
+        adjacencyMap.removeAllWithDestination(1);
+
+        // Then
+        assertThat(adjacencyMap.getEdges(4, 1), is(empty()));
+        assertThat(adjacencyMap.getEdges(1, 1), is(empty()));
+        assertThat(adjacencyMap.getSources(1), is(empty()));
+        assertThat(adjacencyMap.containsDestination(1), is(false));
+        assertThat(adjacencyMap.containsSource(4), is(false));
+        assertThat(adjacencyMap.containsSource(1), is(true));
+        assertThat(adjacencyMap.getDestinations(1), hasItems(2, 5));
+        assertThat(adjacencyMap.getDestinations(1), hasSize(2));
+    }
+
+    @Test
+    public void shouldBePrunedByPrunedAdjacencyMaps() {
+        // Given
+        final AdjacencyMaps adjacencyMaps = new PrunedAdjacencyMaps();
+
+        final AdjacencyMap first = new CompactAdjacencyMap();
+        first.putEdge(1, 2, makeEdge(1, 2));
+        first.putEdge(1, 3, makeEdge(1, 3));
+
+        final AdjacencyMap second = new CompactAdjacencyMap();
+        second.putEdge(2, 3, makeEdge(2, 3));
+        second.putEdge(2, 4, makeEdge(2, 4));
+
+        // When
+        adjacencyMaps.add(first);
+        adjacencyMaps.add(second);
+
+        // Then
+        assertThat(adjacencyMaps.get(0).getDestinations(1), hasSize(1));
+        assertThat(adjacencyMaps.get(1).getDestinations(2), hasSize(2));
+    }
+
+    @Test
+    public void shouldContainSourceAndDestination() {
+        // Given
+        final AdjacencyMap adjacencyMap = getAdjacencyMap();
+
+        // Then
+        assertThat(adjacencyMap.containsSource(2), is(true));
+        assertThat(adjacencyMap.containsSource(7), is(false));
+        assertThat(adjacencyMap.containsDestination(2), is(true));
+        assertThat(adjacencyMap.containsDestination(7), is(false));
+    }
+
+    private AdjacencyMap getAdjacencyMap() {
+        final AdjacencyMap adjacencyMap = new CompactAdjacencyMap();
+
+        adjacencyMap.putEdge(1, 2, makeEdge(1, 2));
+        adjacencyMap.putEdge(2, 3, makeEdge(2, 3));
+        adjacencyMap.putEdge(6, 3, makeEdge(6, 3));
+        adjacencyMap.putEdge(5, 6, makeEdge(5, 6));
+        adjacencyMap.putEdge(5, 4, makeEdge(5, 4));
+        adjacencyMap.putEdge(4, 1, makeEdge(4, 1));
+        adjacencyMap.putEdge(1, 5, makeEdge(1, 5));
+        adjacencyMap.putEdge(1, 1, makeEdge(1, 1));
+
+        return adjacencyMap;
+    }
+
+    private Edge makeEdge(final Object source, final Object destination) {
+        return makeEdge(TestGroups.EDGE, source, destination);
+    }
+
+    private Edge makeEdge(final String group, final Object source, final Object destination) {
+        return new Edge.Builder().group(group).source(source).dest(destination).directed(true).build();
+    }
+}
@@ -46,5 +46,11 @@ public enum JobStatus {
     /**
      * The Gaffer job is cancelled (to be used for scheduled jobs).
      */
-    CANCELLED
+    CANCELLED,
+
+    /**
+     * The Gaffer job has been submitted and is waiting for other jobs to
+     * finish before it can run.
+     */
+    QUEUED
 }
@@ -22,19 +22,82 @@ import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
 import uk.gov.gchq.gaffer.commonutil.iterable.WrappedCloseableIterable;
 import uk.gov.gchq.gaffer.user.User;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
 import java.util.Objects;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * A {@code JobTracker} is an entry in a Gaffer cache service which is used to store
  * details of jobs submitted to the graph.
+ * <p>
+ * The job details are held in the cache, and the job tracker also keeps an
+ * index of the jobs, ordered by start time, for all users and for each user,
+ * and for each status of both. Pages of jobs are read using the index, so
+ * jobs before the offset are skipped without reading them and only the job
+ * details in the page are fetched from the cache. The index is brought up to
+ * date whenever the number of jobs in the cache differs from the number of
+ * jobs in the index, for example when jobs have been added by another job
+ * tracker sharing the cache. As completed jobs do not change status, before a
+ * page of jobs with a given status is read only the jobs that had not
+ * completed are read from the cache to re-index any that have been updated by
+ * another job tracker, so the cost does not grow with the number of completed
+ * jobs kept.
+ * </p>
+ * <p>
+ * Finished, failed and cancelled jobs can be removed from the cache after a
+ * time to live and the number of these completed jobs can be bounded, with
+ * the oldest completed jobs removed first.
+ * </p>
  */
 public class JobTracker {
 
     private static final String CACHE_NAME = "JobTracker";
 
+    private static final Comparator<IndexedJob> START_TIME_ORDER = Comparator
+            .comparingLong((IndexedJob job) -> job.startTime).reversed()
+            .thenComparing(job -> job.jobId);
+    private static final Comparator<IndexedJob> END_TIME_ORDER = Comparator
+            .comparingLong((IndexedJob job) -> job.endTime)
+            .thenComparing(job -> job.jobId);
+
+    private final long completedJobTimeToLive;
+    private final int maxCompletedJobs;
+
+    private final Map<String, IndexedJob> jobs = new ConcurrentHashMap<>();
+    private final NavigableSet<IndexedJob> allJobs = new ConcurrentSkipListSet<>(START_TIME_ORDER);
+    private final Map<String, NavigableSet<IndexedJob>> userJobs = new ConcurrentHashMap<>();
+    private final Map<JobStatus, NavigableSet<IndexedJob>> statusJobs = new ConcurrentHashMap<>();
+    private final Map<String, Map<JobStatus, NavigableSet<IndexedJob>>> userStatusJobs = new ConcurrentHashMap<>();
+    private final NavigableSet<IndexedJob> completedJobs = new ConcurrentSkipListSet<>(END_TIME_ORDER);
+    private final AtomicInteger completedJobCount = new AtomicInteger();
+
+    public JobTracker() {
+        this(0, 0);
+    }
+
+    /**
+     * Creates a job tracker that removes completed jobs.
+     *
+     * @param completedJobTimeToLive the time in milliseconds to keep completed
+     *                               jobs for, or 0 to keep them until they are
+     *                               removed to bound the number of jobs
+     * @param maxCompletedJobs       the maximum number of completed jobs to
+     *                               keep, or 0 for no maximum
+     */
+    public JobTracker(final long completedJobTimeToLive, final int maxCompletedJobs) {
+        this.completedJobTimeToLive = completedJobTimeToLive;
+        this.maxCompletedJobs = maxCompletedJobs;
+    }
+
     /**
      * Add or update the job details relating to a job in the job tracker cache.
      *
@@ -48,6 +111,8 @@ public class JobTracker {
         } catch (final CacheOperationException e) {
             throw new RuntimeException("Failed to add jobDetail " + jobDetail.toString() + " to the cache", e);
         }
+        index(jobDetail);
+        removeExpiredJobs();
     }
 
     /**
@@ -68,14 +133,63 @@ public class JobTracker {
      * @return a {@link CloseableIterable} containing all of the job details
      */
     public CloseableIterable<JobDetail> getAllJobs(final User user) {
-        final Set<String> jobIds = CacheServiceLoader.getService().getAllKeysFromCache(CACHE_NAME);
-        final List<JobDetail> jobs = jobIds.stream()
-                .filter(Objects::nonNull)
-                .map(jobId -> getJob(jobId, user))
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
+        return getJobs(user, null, null, 0, null);
+    }
 
-        return new WrappedCloseableIterable<>(jobs);
+    /**
+     * Get a page of jobs from the job tracker cache, most recently started
+     * first.
+     *
+     * @param user      the user making the request to the job tracker
+     * @param jobUserId the id of the user to get the jobs of, or null for all users
+     * @param status    the status of the jobs to get, or null for all statuses
+     * @param offset    the number of matching jobs to skip
+     * @param limit     the maximum number of jobs to return, or null for no limit
+     * @return a {@link CloseableIterable} containing the job details
+     */
+    public CloseableIterable<JobDetail> getJobs(final User user,
+                                                final String jobUserId,
+                                                final JobStatus status,
+                                                final int offset,
+                                                final Integer limit) {
+        removeExpiredJobs();
+        synchroniseIndex();
+        if (null != status) {
+            reindexActiveJobs();
+        }
+
+        final NavigableSet<IndexedJob> indexedJobs = getIndexedJobs(jobUserId, status);
+        final List<JobDetail> results = new ArrayList<>();
+        if (null == indexedJobs || (null != limit && limit < 1)) {
+            return new WrappedCloseableIterable<>(results);
+        }
+
+        int skipped = 0;
+        for (final IndexedJob indexedJob : indexedJobs) {
+            if (skipped < offset) {
+                skipped++;
+                continue;
+            }
+            // The status is read from the cache, as the indexed status is
+            // stale if the job has been updated by another job tracker
+            final JobDetail jobDetail = getJob(indexedJob.jobId, user);
+            if (null == jobDetail) {
+                unindex(indexedJob.jobId);
+                continue;
+            }
+            if (indexedJob.status != jobDetail.getStatus()) {
+                index(jobDetail);
+            }
+            if (null != status && status != jobDetail.getStatus()) {
+                continue;
+            }
+            results.add(jobDetail);
+            if (null != limit && results.size() >= limit) {
+                break;
+            }
+        }
+
+        return new WrappedCloseableIterable<>(results);
     }
 
     /**
@@ -87,6 +201,149 @@ public class JobTracker {
         } catch (final CacheOperationException e) {
             throw new RuntimeException("Failed to clear job tracker cache", e);
         }
+        synchronized (this) {
+            jobs.clear();
+            allJobs.clear();
+            userJobs.clear();
+            statusJobs.clear();
+            userStatusJobs.clear();
+            completedJobs.clear();
+            completedJobCount.set(0);
+        }
+    }
+
+    private NavigableSet<IndexedJob> getIndexedJobs(final String jobUserId, final JobStatus status) {
+        if (null == jobUserId) {
+            return null != status ? statusJobs.get(status) : allJobs;
+        }
+        if (null == status) {
+            return userJobs.get(jobUserId);
+        }
+        final Map<JobStatus, NavigableSet<IndexedJob>> jobsForUser = userStatusJobs.get(jobUserId);
+        return null != jobsForUser ? jobsForUser.get(status) : null;
+    }
+
+    private synchronized void index(final JobDetail jobDetail) {
+        unindex(jobDetail.getJobId());
+        final IndexedJob indexedJob = new IndexedJob(jobDetail);
+        jobs.put(indexedJob.jobId, indexedJob);
+        allJobs.add(indexedJob);
+        if (null != indexedJob.userId) {
+            userJobs.computeIfAbsent(indexedJob.userId, k -> new ConcurrentSkipListSet<>(START_TIME_ORDER))
+                    .add(indexedJob);
+        }
+        if (null != indexedJob.status) {
+            statusJobs.computeIfAbsent(indexedJob.status, k -> new ConcurrentSkipListSet<>(START_TIME_ORDER))
+                    .add(indexedJob);
+            if (null != indexedJob.userId) {
+                userStatusJobs.computeIfAbsent(indexedJob.userId, k -> new ConcurrentHashMap<>())
+                        .computeIfAbsent(indexedJob.status, k -> new ConcurrentSkipListSet<>(START_TIME_ORDER))
+                        .add(indexedJob);
+            }
+        }
+        if (indexedJob.isCompleted() && completedJobs.add(indexedJob)) {
+            completedJobCount.incrementAndGet();
+        }
+    }
+
+    private synchronized void unindex(final String jobId) {
+        final IndexedJob indexedJob = jobs.remove(jobId);
+        if (null != indexedJob) {
+            allJobs.remove(indexedJob);
+            final NavigableSet<IndexedJob> jobsForUser = null != indexedJob.userId ? userJobs.get(indexedJob.userId) : null;
+            if (null != jobsForUser) {
+                jobsForUser.remove(indexedJob);
+                if (jobsForUser.isEmpty()) {
+                    userJobs.remove(indexedJob.userId);
+                }
+            }
+            if (null != indexedJob.status) {
+                removeFromStatusIndex(statusJobs, indexedJob);
+                final Map<JobStatus, NavigableSet<IndexedJob>> statusJobsForUser =
+                        null != indexedJob.userId ? userStatusJobs.get(indexedJob.userId) : null;
+                if (null != statusJobsForUser) {
+                    removeFromStatusIndex(statusJobsForUser, indexedJob);
+                    if (statusJobsForUser.isEmpty()) {
+                        userStatusJobs.remove(indexedJob.userId);
+                    }
+                }
+            }
+            if (completedJobs.remove(indexedJob)) {
+                completedJobCount.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Re-indexes any jobs that had not completed when they were indexed and
+     * whose status has since been updated by another job tracker.
+     */
+    private void reindexActiveJobs() {
+        for (final Map.Entry<JobStatus, NavigableSet<IndexedJob>> entry : statusJobs.entrySet()) {
+            if (IndexedJob.isCompleted(entry.getKey())) {
+                continue;
+            }
+            for (final IndexedJob indexedJob : entry.getValue()) {
+                final JobDetail jobDetail = CacheServiceLoader.getService().getFromCache(CACHE_NAME, indexedJob.jobId);
+                if (null == jobDetail) {
+                    unindex(indexedJob.jobId);
+                } else if (indexedJob.status != jobDetail.getStatus()) {
+                    index(jobDetail);
+                }
+            }
+        }
+    }
+
+    private static void removeFromStatusIndex(final Map<JobStatus, NavigableSet<IndexedJob>> index, final IndexedJob indexedJob) {
+        final NavigableSet<IndexedJob> jobsWithStatus = index.get(indexedJob.status);
+        if (null != jobsWithStatus) {
+            jobsWithStatus.remove(indexedJob);
+            if (jobsWithStatus.isEmpty()) {
+                index.remove(indexedJob.status);
+            }
+        }
+    }
+
+    /**
+     * Adds any jobs in the cache that are missing from the index, and removes
+     * any jobs from the index that are no longer in the cache. The cache keys
+     * are only read if the number of jobs in the cache and the index differ.
+     */
+    private synchronized void synchroniseIndex() {
+        if (CacheServiceLoader.getService().sizeOfCache(CACHE_NAME) == jobs.size()) {
+            return;
+        }
+
+        final Set<String> jobIds = new HashSet<>(CacheServiceLoader.getService().getAllKeysFromCache(CACHE_NAME));
+        for (final String jobId : new ArrayList<>(jobs.keySet())) {
+            if (!jobIds.remove(jobId)) {
+                unindex(jobId);
+            }
+        }
+        jobIds.stream()
+                .filter(Objects::nonNull)
+                .map(jobId -> CacheServiceLoader.getService().<String, JobDetail>getFromCache(CACHE_NAME, jobId))
+                .filter(Objects::nonNull)
+                .forEach(this::index);
+    }
+
+    private void removeExpiredJobs() {
+        if (completedJobTimeToLive < 1 && maxCompletedJobs < 1) {
+            return;
+        }
+
+        final long expiryTime = System.currentTimeMillis() - completedJobTimeToLive;
+        final Iterator<IndexedJob> itr = completedJobs.iterator();
+        while (itr.hasNext()) {
+            final IndexedJob indexedJob = itr.next();
+            final boolean expired = completedJobTimeToLive > 0 && indexedJob.endTime < expiryTime;
+            final boolean overLimit = maxCompletedJobs > 0 && completedJobCount.get() > maxCompletedJobs;
+            if (!expired && !overLimit) {
+                break;
+            }
+            CacheServiceLoader.getService().removeFromCache(CACHE_NAME, indexedJob.jobId);
+            unindex(indexedJob.jobId);
+        }
     }
 
     private void validateJobDetail(final JobDetail jobDetail) {
@@ -99,4 +356,30 @@ public class JobTracker {
         }
     }
 
+    /**
+     * The fields of a {@link JobDetail} that are indexed.
+     */
+    private static final class IndexedJob {
+        private final String jobId;
+        private final String userId;
+        private final JobStatus status;
+        private final long startTime;
+        private final long endTime;
+
+        private IndexedJob(final JobDetail jobDetail) {
+            this.jobId = jobDetail.getJobId();
+            this.userId = jobDetail.getUserId();
+            this.status = jobDetail.getStatus();
+            this.startTime = null != jobDetail.getStartTime() ? jobDetail.getStartTime() : 0L;
+            this.endTime = null != jobDetail.getEndTime() ? jobDetail.getEndTime() : startTime;
+        }
+
+        private boolean isCompleted() {
+            return isCompleted(status);
+        }
+
+        private static boolean isCompleted(final JobStatus status) {
+            return JobStatus.FINISHED == status || JobStatus.FAILED == status || JobStatus.CANCELLED == status;
+        }
+    }
 }
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.operation.impl.export.resultfile;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.core.type.TypeReference;
+
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
+import uk.gov.gchq.gaffer.operation.Operation;
+import uk.gov.gchq.gaffer.operation.export.Export;
+import uk.gov.gchq.gaffer.operation.export.GetExport;
+import uk.gov.gchq.gaffer.operation.io.Output;
+import uk.gov.gchq.gaffer.operation.serialisation.TypeReferenceImpl;
+import uk.gov.gchq.koryphe.Since;
+import uk.gov.gchq.koryphe.Summary;
+
+import java.util.Map;
+
+/**
+ * A {@code GetResultFileExport} operation is used to retrieve data which has
+ * previously been exported to result files by {@link ExportToResultFile}.
+ * The results are streamed from the files, from the start index up to, but
+ * not including, the end index, so large results can be read in pages.
+ *
+ * @see ExportToResultFile
+ */
+@JsonPropertyOrder(value = {"class", "start", "end"}, alphabetic = true)
+@Since("1.9.2")
+@Summary("Fetches data from compressed local result files")
+public class GetResultFileExport implements
+        GetExport,
+        Output<CloseableIterable<?>> {
+    private String jobId;
+    private String key = Export.DEFAULT_KEY;
+    private long start = 0;
+    private Long end = null;
+    private Map<String, String> options;
+
+    public long getStart() {
+        return start;
+    }
+
+    public void setStart(final long start) {
+        this.start = start;
+    }
+
+    public Long getEnd() {
+        return end;
+    }
+
+    public void setEnd(final Long end) {
+        this.end = end;
+    }
+
+    @Override
+    public String getKey() {
+        return key;
+    }
+
+    @Override
+    public void setKey(final String key) {
+        this.key = key;
+    }
+
+    @Override
+    public String getJobId() {
+        return jobId;
+    }
+
+    @Override
+    public void setJobId(final String jobId) {
+        this.jobId = jobId;
+    }
+
+    @Override
+    public TypeReference<CloseableIterable<?>> getOutputTypeReference() {
+        return new TypeReferenceImpl.CloseableIterableObj();
+    }
+
+    @Override
+    public GetResultFileExport shallowClone() {
+        return new GetResultFileExport.Builder()
+                .jobId(jobId)
+                .key(key)
+                .start(start)
+                .end(end)
+                .options(options)
+                .build();
+    }
+
+    @Override
+    public Map<String, String> getOptions() {
+        return options;
+    }
+
+    @Override
+    public void setOptions(final Map<String, String> options) {
+        this.options = options;
+    }
+
+    public static class Builder
+            extends Operation.BaseBuilder<GetResultFileExport, Builder>
+            implements GetExport.Builder<GetResultFileExport, Builder>,
+            Output.Builder<GetResultFileExport, CloseableIterable<?>, Builder> {
+        public Builder() {
+            super(new GetResultFileExport());
+        }
+
+        public Builder start(final long start) {
+            _getOp().setStart(start);
+            return _self();
+        }
+
+        public Builder end(final Long end) {
+            _getOp().setEnd(end);
+            return _self();
+        }
+    }
+}
@@ -0,0 +1,532 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.operation.impl.export.resultfile;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import uk.gov.gchq.gaffer.commonutil.CommonConstants;
+import uk.gov.gchq.gaffer.commonutil.StringUtil;
+import uk.gov.gchq.gaffer.commonutil.ToStringBuilder;
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterator;
+import uk.gov.gchq.gaffer.commonutil.iterable.EmptyClosableIterable;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.id.ElementId;
+import uk.gov.gchq.gaffer.data.graph.Walk;
+import uk.gov.gchq.gaffer.exception.SerialisationException;
+import uk.gov.gchq.gaffer.jsonserialisation.JSONSerialiser;
+import uk.gov.gchq.gaffer.operation.OperationException;
+import uk.gov.gchq.gaffer.operation.export.Exporter;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static uk.gov.gchq.gaffer.core.exception.Status.FORBIDDEN;
+
+/**
+ * A {@code ResultFileExporter} is an {@link Exporter} that streams results to
+ * compressed files in a local directory, rather than holding them in memory or
+ * adding them to another graph.
+ * <p>
+ * The results for each job and key are written as JSON to a sequence of GZIP
+ * compressed chunk files. Each chunk file name holds the index of its first
+ * result and the number of results in it, so a page of results starting at
+ * any index is read by opening the chunk containing that index, rather than
+ * reading all of the earlier results. Only the user who exported the results
+ * can read them, and results exported without a user can only be read without
+ * a user.
+ * </p>
+ * <p>
+ * Results of the {@link #ALLOWED_RESULT_TYPES}, or their subtypes, are read
+ * back as their original type. The type of each result is stored in the file,
+ * and is checked before the class is loaded when the results are read back,
+ * so a modified file cannot cause arbitrary classes to be loaded. Results of
+ * any other type are stored as generic JSON and are read back as the
+ * equivalent maps, lists and values.
+ * </p>
+ * <p>
+ * If a time to live is set, the results of a job expire once they have not
+ * been added to for that long. Expired results are not returned, and the
+ * files for all expired jobs in the results directory are deleted the next
+ * time results are exported, at most once per minute.
+ * </p>
+ */
+public class ResultFileExporter implements Exporter {
+    public static final int CHUNK_SIZE_DEFAULT = 10000;
+
+    /**
+     * The types of result that are read back from files as their original type.
+     */
+    public static final List<Class<?>> ALLOWED_RESULT_TYPES = Collections.unmodifiableList(Arrays.asList(
+            Element.class, ElementId.class, Walk.class, String.class, Number.class, Boolean.class,
+            Character.class, Date.class, Map.class, Collection.class));
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ResultFileExporter.class);
+    private static final String OWNER_FILE = "owner";
+    private static final String USER_OWNER_PREFIX = "user:";
+    private static final String ANONYMOUS_OWNER = "anonymous";
+    private static final String GENERIC_RESULT_TYPE = "*";
+    private static final String CHUNK_FILE_EXTENSION = ".gz";
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final long DELETE_EXPIRED_INTERVAL_MS = 60000L;
+    private static final Map<Path, Long> LAST_DELETE_EXPIRED_TIMES = new ConcurrentHashMap<>();
+
+    private final Path resultsDirectory;
+    private final Path jobDirectory;
+    private final String jobId;
+    private final String userId;
+    private final int chunkSize;
+    private final long timeToLive;
+
+    public ResultFileExporter(final Path resultsDirectory, final String jobId, final String userId) {
+        this(resultsDirectory, jobId, userId, CHUNK_SIZE_DEFAULT);
+    }
+
+    public ResultFileExporter(final Path resultsDirectory, final String jobId, final String userId, final int chunkSize) {
+        this(resultsDirectory, jobId, userId, chunkSize, 0);
+    }
+
+    /**
+     * @param resultsDirectory the directory holding the results of all jobs
+     * @param jobId            the id of the job to export results for
+     * @param userId           the id of the user running the job
+     * @param chunkSize        the maximum number of results in each file
+     * @param timeToLive       the time in milliseconds to keep the results of a
+     *                         job after they were last added to, less than 1
+     *                         means the results are kept
+     */
+    public ResultFileExporter(final Path resultsDirectory, final String jobId, final String userId, final int chunkSize, final long timeToLive) {
+        if (null == jobId) {
+            throw new IllegalArgumentException("A job id is required to export results to files");
+        }
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("The chunk size must be at least 1");
+        }
+        this.resultsDirectory = resultsDirectory;
+        this.jobDirectory = resultsDirectory.resolve(toFileName(jobId));
+        this.jobId = jobId;
+        this.userId = userId;
+        this.chunkSize = chunkSize;
+        this.timeToLive = timeToLive;
+    }
+
+    @Override
+    public void add(final String key, final Iterable<?> results) throws OperationException {
+        if (null == results) {
+            return;
+        }
+
+        try {
+            // The owner is written before any results, so results are never readable without an owner
+            Files.createDirectories(jobDirectory);
+            writeOwner();
+            final Path keyDirectory = jobDirectory.resolve(toFileName(key));
+            Files.createDirectories(keyDirectory);
+
+            final List<Chunk> chunks = getChunks(keyDirectory);
+            long index = chunks.isEmpty() ? 0 : chunks.get(chunks.size() - 1).getEnd();
+            final Iterator<?> itr = results.iterator();
+            while (itr.hasNext()) {
+                index += writeChunk(keyDirectory, index, itr);
+            }
+            // The job directory modified time records when the results were last added to, for expiring them
+            Files.setLastModifiedTime(jobDirectory, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (final IOException e) {
+            throw new OperationException("Unable to export results for job " + jobId + " to files", e);
+        }
+
+        if (timeToLive > 0) {
+            deleteExpiredResults();
+        }
+    }
+
+    @Override
+    public CloseableIterable<?> get(final String key) throws OperationException {
+        return get(key, 0, null);
+    }
+
+    /**
+     * Gets the results from the start index up to, but not including, the end
+     * index.
+     *
+     * @param key   the export key
+     * @param start the index of the first result
+     * @param end   the index after the last result, or null for all results
+     * @return the results
+     * @throws OperationException if the results could not be read
+     */
+    public CloseableIterable<?> get(final String key, final long start, final Long end) throws OperationException {
+        if (start < 0 || (null != end && end < start)) {
+            throw new IllegalArgumentException("The start index must not be negative or after the end index");
+        }
+
+        final Path keyDirectory = jobDirectory.resolve(toFileName(key));
+        if (!Files.isDirectory(keyDirectory)) {
+            return new EmptyClosableIterable<>();
+        }
+
+        try {
+            if (isExpired(jobDirectory, System.currentTimeMillis())) {
+                return new EmptyClosableIterable<>();
+            }
+            checkOwner();
+            final List<Chunk> chunks = getChunks(keyDirectory).stream()
+                    .filter(chunk -> chunk.getEnd() > start && (null == end || chunk.start < end))
+                    .collect(Collectors.toList());
+            return new ResultFileIterable(chunks, start, end);
+        } catch (final IOException e) {
+            throw new OperationException("Unable to read the results for job " + jobId, e);
+        }
+    }
+
+    /**
+     * Deletes the results of every job in the results directory that have
+     * expired. This is skipped if it has been done for the directory within
+     * the last minute.
+     */
+    private void deleteExpiredResults() {
+        final long now = System.currentTimeMillis();
+        final Path directory = resultsDirectory.toAbsolutePath().normalize();
+        final Long lastDeleteTime = LAST_DELETE_EXPIRED_TIMES.get(directory);
+        if (null != lastDeleteTime && now - lastDeleteTime < DELETE_EXPIRED_INTERVAL_MS) {
+            return;
+        }
+        // Only one exporter deletes the expired results in each interval
+        final boolean claimed = null == lastDeleteTime
+                ? null == LAST_DELETE_EXPIRED_TIMES.putIfAbsent(directory, now)
+                : LAST_DELETE_EXPIRED_TIMES.replace(directory, lastDeleteTime, now);
+        if (!claimed) {
+            return;
+        }
+
+        try (final Stream<Path> jobDirectories = Files.list(directory)) {
+            jobDirectories.filter(dir -> isExpired(dir, now))
+                    .forEach(ResultFileExporter::deleteDirectory);
+        } catch (final IOException | UncheckedIOException e) {
+            LOGGER.warn("Unable to delete expired job results from {}", directory, e);
+        }
+    }
+
+    private boolean isExpired(final Path directory, final long now) {
+        try {
+            return timeToLive > 0 && Files.isDirectory(directory)
+                    && now - Files.getLastModifiedTime(directory).toMillis() > timeToLive;
+        } catch (final IOException e) {
+            LOGGER.debug("Unable to read the modified time of {}", directory, e);
+            return false;
+        }
+    }
+
+    private static void deleteDirectory(final Path directory) {
+        try (final Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder())
+                    .forEach(path -> path.toFile().delete());
+        } catch (final IOException | UncheckedIOException e) {
+            LOGGER.warn("Unable to delete expired job results {}", directory, e);
+        }
+    }
+
+    private int writeChunk(final Path keyDirectory, final long start, final Iterator<?> itr) throws IOException {
+        final Path tmpFile = keyDirectory.resolve(String.format("%019d.tmp", start));
+        int count = 0;
+        try (final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new GZIPOutputStream(Files.newOutputStream(tmpFile), BUFFER_SIZE), BUFFER_SIZE))) {
+            while (count < chunkSize && itr.hasNext()) {
+                writeResult(out, itr.next());
+                count++;
+            }
+        }
+        Files.move(tmpFile, keyDirectory.resolve(String.format("%019d_%d%s", start, count, CHUNK_FILE_EXTENSION)),
+                StandardCopyOption.ATOMIC_MOVE);
+        return count;
+    }
+
+    private static void writeResult(final DataOutputStream out, final Object result) throws IOException {
+        if (null == result) {
+            out.writeUTF("");
+            return;
+        }
+
+        final byte[] json = JSONSerialiser.serialise(result);
+        out.writeUTF(isAllowedResultType(result.getClass()) ? result.getClass().getName() : GENERIC_RESULT_TYPE);
+        out.writeInt(json.length);
+        out.write(json);
+    }
+
+    private static Object readResult(final DataInputStream in) throws IOException {
+        final String className = in.readUTF();
+        if (className.isEmpty()) {
+            return null;
+        }
+
+        final byte[] json = new byte[in.readInt()];
+        in.readFully(json);
+        if (GENERIC_RESULT_TYPE.equals(className)) {
+            return JSONSerialiser.deserialise(json, Object.class);
+        }
+
+        final Class<?> resultClass;
+        try {
+            // The class is not initialised until it is known to be an allowed type
+            resultClass = Class.forName(className, false, ResultFileExporter.class.getClassLoader());
+        } catch (final ClassNotFoundException e) {
+            throw new SerialisationException("Result class was not found: " + className, e);
+        }
+        if (!isAllowedResultType(resultClass)) {
+            throw new SerialisationException("Result class is not an allowed result type: " + className);
+        }
+        return JSONSerialiser.deserialise(json, resultClass);
+    }
+
+    private static boolean isAllowedResultType(final Class<?> resultClass) {
+        for (final Class<?> allowedType : ALLOWED_RESULT_TYPES) {
+            if (allowedType.isAssignableFrom(resultClass)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void writeOwner() throws IOException {
+        final Path ownerFile = jobDirectory.resolve(OWNER_FILE);
+        if (!Files.exists(ownerFile)) {
+            Files.write(ownerFile, StringUtil.toBytes(getOwner()));
+        }
+    }
+
+    private void checkOwner() throws IOException, OperationException {
+        final Path ownerFile = jobDirectory.resolve(OWNER_FILE);
+        if (!Files.exists(ownerFile) || !StringUtil.toString(Files.readAllBytes(ownerFile)).equals(getOwner())) {
+            throw new OperationException("User " + userId + " is not authorised to read the results of job " + jobId, FORBIDDEN);
+        }
+    }
+
+    /**
+     * Gets the owner recorded for the results. User ids are prefixed, so a
+     * user id can never match the owner of results exported without a user.
+     *
+     * @return the owner of the results
+     */
+    private String getOwner() {
+        return null == userId ? ANONYMOUS_OWNER : USER_OWNER_PREFIX + userId;
+    }
+
+    private static List<Chunk> getChunks(final Path keyDirectory) throws IOException {
+        try (final Stream<Path> files = Files.list(keyDirectory)) {
+            return files.map(Chunk::fromPath)
+                    .filter(chunk -> null != chunk)
+                    .sorted((a, b) -> Long.compare(a.start, b.start))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Converts a job id or key to a file name, encoding any characters that
+     * could be used to reference another directory.
+     *
+     * @param name the job id or key
+     * @return the file name
+     */
+    private static String toFileName(final String name) {
+        final String fileName;
+        try {
+            fileName = URLEncoder.encode(name, CommonConstants.UTF_8);
+        } catch (final UnsupportedEncodingException e) {
+            throw new IllegalArgumentException("Unable to encode name: " + name, e);
+        }
+        if (fileName.isEmpty() || ".".equals(fileName) || "..".equals(fileName) || OWNER_FILE.equals(fileName)) {
+            throw new IllegalArgumentException("Invalid job id or key: " + name);
+        }
+        return fileName;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this)
+                .append("jobDirectory", jobDirectory)
+                .append("chunkSize", chunkSize)
+                .append("timeToLive", timeToLive)
+                .toString();
+    }
+
+    private static final class Chunk {
+        private final Path path;
+        private final long start;
+        private final long count;
+
+        private Chunk(final Path path, final long start, final long count) {
+            this.path = path;
+            this.start = start;
+            this.count = count;
+        }
+
+        private long getEnd() {
+            return start + count;
+        }
+
+        private static Chunk fromPath(final Path path) {
+            final String fileName = path.getFileName().toString();
+            if (!fileName.endsWith(CHUNK_FILE_EXTENSION)) {
+                return null;
+            }
+            final String[] parts = fileName.substring(0, fileName.length() - CHUNK_FILE_EXTENSION.length()).split("_");
+            if (2 != parts.length) {
+                return null;
+            }
+            try {
+                return new Chunk(path, Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+            } catch (final NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+
+    private static final class ResultFileIterable implements CloseableIterable<Object> {
+        private final List<Chunk> chunks;
+        private final long start;
+        private final Long end;
+        private final List<ResultFileIterator> iterators = new ArrayList<>();
+
+        private ResultFileIterable(final List<Chunk> chunks, final long start, final Long end) {
+            this.chunks = chunks;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public CloseableIterator<Object> iterator() {
+            final ResultFileIterator iterator = new ResultFileIterator(chunks, start, end);
+            iterators.add(iterator);
+            return iterator;
+        }
+
+        @Override
+        public void close() {
+            iterators.forEach(ResultFileIterator::close);
+            iterators.clear();
+        }
+    }
+
+    private static final class ResultFileIterator implements CloseableIterator<Object> {
+        private final Iterator<Chunk> chunks;
+        private final Long end;
+        private long index;
+        private long chunkEnd;
+        private DataInputStream in;
+
+        private ResultFileIterator(final List<Chunk> chunks, final long start, final Long end) {
+            this.chunks = chunks.iterator();
+            this.end = end;
+            this.index = start;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (null != end && index >= end) {
+                close();
+                return false;
+            }
+            try {
+                while (null == in || index >= chunkEnd) {
+                    close();
+                    if (!chunks.hasNext()) {
+                        return false;
+                    }
+                    openChunk(chunks.next());
+                }
+            } catch (final IOException e) {
+                close();
+                throw new RuntimeException("Unable to read result file", e);
+            }
+            return true;
+        }
+
+        @Override
+        public Object next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            try {
+                final Object result = readResult(in);
+                index++;
+                return result;
+            } catch (final IOException e) {
+                close();
+                throw new RuntimeException("Unable to read result file", e);
+            }
+        }
+
+        @Override
+        public void close() {
+            if (null != in) {
+                try {
+                    in.close();
+                } catch (final IOException e) {
+                    // Ignore errors when closing the file
+                }
+                in = null;
+            }
+        }
+
+        private void openChunk(final Chunk chunk) throws IOException {
+            in = new DataInputStream(new BufferedInputStream(
+                    new GZIPInputStream(Files.newInputStream(chunk.path), BUFFER_SIZE), BUFFER_SIZE));
+            chunkEnd = chunk.getEnd();
+            for (long i = chunk.start; i < index; i++) {
+                skipResult(in);
+            }
+            if (index < chunk.start) {
+                index = chunk.start;
+            }
+        }
+
+        private static void skipResult(final DataInputStream in) throws IOException {
+            if (!in.readUTF().isEmpty()) {
+                final int length = in.readInt();
+                if (in.skipBytes(length) < length) {
+                    throw new EOFException("Result file is truncated");
+                }
+            }
+        }
+    }
+}
@@ -21,23 +21,34 @@ import com.fasterxml.jackson.core.type.TypeReference;
 
 import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
 import uk.gov.gchq.gaffer.jobtracker.JobDetail;
+import uk.gov.gchq.gaffer.jobtracker.JobStatus;
 import uk.gov.gchq.gaffer.operation.Operation;
 import uk.gov.gchq.gaffer.operation.io.Output;
 import uk.gov.gchq.gaffer.operation.serialisation.TypeReferenceImpl;
 import uk.gov.gchq.koryphe.Since;
 import uk.gov.gchq.koryphe.Summary;
+import uk.gov.gchq.koryphe.ValidationResult;
 
 import java.util.Map;
 
 /**
  * A {@code GetAllJobDetails} operation is used to retrieve all of the {@link JobDetail}s
  * related to a Gaffer graph.
+ * <p>
+ * The jobs are returned most recently started first. They can optionally be
+ * restricted to the jobs of a single user or with a given status, and paged
+ * using an offset and limit.
+ * </p>
  */
 @JsonPropertyOrder(value = {"class"}, alphabetic = true)
 @Since("1.0.0")
 @Summary("Gets all running and historic job details")
 public class GetAllJobDetails implements
         Output<CloseableIterable<JobDetail>> {
+    private String userId;
+    private JobStatus status;
+    private Integer offset;
+    private Integer limit;
     private Map<String, String> options;
 
     @Override
@@ -48,10 +59,58 @@ public class GetAllJobDetails implements
     @Override
     public GetAllJobDetails shallowClone() {
         return new GetAllJobDetails.Builder()
+                .userId(userId)
+                .status(status)
+                .offset(offset)
+                .limit(limit)
                 .options(options)
                 .build();
     }
 
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(final String userId) {
+        this.userId = userId;
+    }
+
+    public JobStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(final JobStatus status) {
+        this.status = status;
+    }
+
+    public Integer getOffset() {
+        return offset;
+    }
+
+    public void setOffset(final Integer offset) {
+        this.offset = offset;
+    }
+
+    public Integer getLimit() {
+        return limit;
+    }
+
+    public void setLimit(final Integer limit) {
+        this.limit = limit;
+    }
+
+    @Override
+    public ValidationResult validate() {
+        final ValidationResult result = Output.super.validate();
+        if (null != offset && offset < 0) {
+            result.addError("offset must not be negative");
+        }
+        if (null != limit && limit < 0) {
+            result.addError("limit must not be negative");
+        }
+        return result;
+    }
+
     @Override
     public Map<String, String> getOptions() {
         return options;
@@ -67,5 +126,25 @@ public class GetAllJobDetails implements
         public Builder() {
             super(new GetAllJobDetails());
         }
+
+        public Builder userId(final String userId) {
+            _getOp().setUserId(userId);
+            return _self();
+        }
+
+        public Builder status(final JobStatus status) {
+            _getOp().setStatus(status);
+            return _self();
+        }
+
+        public Builder offset(final Integer offset) {
+            _getOp().setOffset(offset);
+            return _self();
+        }
+
+        public Builder limit(final Integer limit) {
+            _getOp().setLimit(limit);
+            return _self();
+        }
     }
 }
@@ -30,14 +30,33 @@ import java.util.Map;
 
 /**
  * A {@code GetJobResults} operation is used to retrieve the results of executing
- * a job on a Gaffer graph.
+ * a job on a Gaffer graph. A page of the results can be retrieved by setting
+ * the start index and the end index, which is exclusive.
  */
-@JsonPropertyOrder(value = {"class"}, alphabetic = true)
+@JsonPropertyOrder(value = {"class", "start", "end"}, alphabetic = true)
 @Since("1.0.0")
 @Summary("Gets the results of a job")
 public class GetJobResults extends GetGafferResultCacheExport {
+    private long start = 0;
+    private Long end = null;
     private Map<String, String> options;
 
+    public long getStart() {
+        return start;
+    }
+
+    public void setStart(final long start) {
+        this.start = start;
+    }
+
+    public Long getEnd() {
+        return end;
+    }
+
+    public void setEnd(final Long end) {
+        this.end = end;
+    }
+
     @JsonIgnore
     @Override
     public String getKey() {
@@ -55,6 +74,8 @@ public class GetJobResults extends GetGafferResultCacheExport {
     public GetJobResults shallowClone() {
         return new GetJobResults.Builder()
                 .jobId(getJobId())
+                .start(start)
+                .end(end)
                 .options(options)
                 .build();
     }
@@ -75,5 +96,15 @@ public class GetJobResults extends GetGafferResultCacheExport {
         public Builder() {
             super(new GetJobResults());
         }
+
+        public Builder start(final long start) {
+            _getOp().setStart(start);
+            return _self();
+        }
+
+        public Builder end(final Long end) {
+            _getOp().setEnd(end);
+            return _self();
+        }
     }
 }
@@ -39,4 +39,18 @@ public interface Match {
      * @return List containing matched Objects.
      */
     List matching(final Object testObject);
+
+    /**
+     * Gets the test Objects in the order they should be matched. By default
+     * this is their original order, but a match that spills its candidates to
+     * disk may group the test Objects so that each spilled partition of
+     * candidates is only loaded once.
+     *
+     * @param testObjects the Objects that will be tested, after the match has
+     *                    been initialised
+     * @return the test Objects, in the order they should be matched
+     */
+    default Iterable orderTestObjects(final Iterable testObjects) {
+        return testObjects;
+    }
 }
@@ -43,7 +43,7 @@ public abstract class JoinFunction {
             match.init(left);
         }
 
-        return join(keys, keyName, matchingValuesName, match, flatten);
+        return join(match.orderTestObjects(keys), keyName, matchingValuesName, match, flatten);
     }
 
     protected abstract List<MapTuple> join(Iterable keys, String keyName, String matchingValuesName, Match match, Boolean flatten);
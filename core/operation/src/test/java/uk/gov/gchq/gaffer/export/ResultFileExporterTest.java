@@ -0,0 +1,215 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.export;
+
+import com.google.common.collect.Lists;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import uk.gov.gchq.gaffer.commonutil.StringUtil;
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
+import uk.gov.gchq.gaffer.commonutil.pair.Pair;
+import uk.gov.gchq.gaffer.data.element.Entity;
+import uk.gov.gchq.gaffer.operation.OperationException;
+import uk.gov.gchq.gaffer.operation.impl.export.resultfile.ResultFileExporter;
+
+import java.io.DataOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ResultFileExporterTest {
+    @Rule
+    public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @Test
+    public void shouldAddAndGetResultsAcrossChunks() throws Exception {
+        // Given
+        final Path dir = tempFolder.newFolder().toPath();
+        final ResultFileExporter exporter = new ResultFileExporter(dir, "jobId", "user01", 3);
+        final List<Object> valuesA = Arrays.asList(1, "2", null, 4L);
+        final List<Object> valuesB = Arrays.asList(new Entity("group", "vertex"), 6);
+
+        // When
+        exporter.add("key", valuesA);
+        exporter.add("key", valuesB);
+
+        // Then
+        final List<Object> expected = new ArrayList<>(valuesA);
+        expected.addAll(valuesB);
+        try (final CloseableIterable<?> results = exporter.get("key")) {
+            assertEquals(expected, Lists.newArrayList(results));
+        }
+        assertEquals(expected, Lists.newArrayList(new ResultFileExporter(dir, "jobId", "user01").get("key")));
+    }
+
+    @Test
+    public void shouldGetPageOfResults() throws Exception {
+        // Given
+        final Path dir = tempFolder.newFolder().toPath();
+        final ResultFileExporter exporter = new ResultFileExporter(dir, "jobId", "user01", 4);
+        final List<Integer> values = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            values.add(i);
+        }
+        exporter.add("key", values);
+
+        // When
+        final List<?> page = Lists.newArrayList(exporter.get("key", 5, 11L));
+        final List<?> tail = Lists.newArrayList(exporter.get("key", 18, null));
+        final List<?> outOfRange = Lists.newArrayList(exporter.get("key", 25, 30L));
+
+        // Then
+        assertEquals(values.subList(5, 11), page);
+        assertEquals(values.subList(18, 20), tail);
+        assertTrue(outOfRange.isEmpty());
+    }
+
+    @Test
+    public void shouldReturnEmptyResultsForUnknownKey() throws Exception {
+        // Given
+        final ResultFileExporter exporter = new ResultFileExporter(tempFolder.newFolder().toPath(), "jobId", "user01");
+
+        // When
+        final CloseableIterable<?> results = exporter.get("unknown");
+
+        // Then
+        assertTrue(Lists.newArrayList(results).isEmpty());
+    }
+
+    @Test
+    public void shouldNotAllowOtherUsersToGetResults() throws Exception {
+        // Given
+        final Path dir = tempFolder.newFolder().toPath();
+        new ResultFileExporter(dir, "jobId", "user01").add("key", Arrays.asList(1, 2, 3));
+
+        // When / Then
+        try {
+            new ResultFileExporter(dir, "jobId", "user02").get("key");
+            fail("Exception expected");
+        } catch (final OperationException e) {
+            assertTrue(e.getMessage().contains("user02"));
+        }
+    }
+
+    @Test
+    public void shouldEncodeKeysAndJobIdsSoTheyCannotReferenceOtherDirectories() throws Exception {
+        // Given
+        final Path dir = tempFolder.newFolder().toPath();
+        final ResultFileExporter exporter = new ResultFileExporter(dir, "../jobId", "user01");
+
+        // When
+        exporter.add("../../key", Arrays.asList(1, 2, 3));
+
+        // Then
+        assertEquals(Arrays.asList(1, 2, 3), Lists.newArrayList(exporter.get("../../key")));
+        assertEquals(1, dir.toFile().list().length);
+    }
+
+    @Test
+    public void shouldExportResultsOfOtherTypesAsGenericJson() throws Exception {
+        // Given
+        final ResultFileExporter exporter = new ResultFileExporter(tempFolder.newFolder().toPath(), "jobId", "user01");
+        final Map<String, Object> pairJson = new LinkedHashMap<>();
+        pairJson.put("first", "a");
+        pairJson.put("second", 1);
+
+        // When
+        exporter.add("key", Arrays.asList(1, new Pair<>("a", 1), new int[]{2, 3}));
+
+        // Then
+        assertEquals(Arrays.asList(1, pairJson, Arrays.asList(2, 3)), Lists.newArrayList(exporter.get("key")));
+    }
+
+    @Test
+    public void shouldOnlyAllowAnonymousUsersToGetResultsExportedWithoutAUser() throws Exception {
+        // Given
+        final Path dir = tempFolder.newFolder().toPath();
+        new ResultFileExporter(dir, "jobId", null).add("key", Arrays.asList(1, 2, 3));
+
+        // When
+        final List<?> results = Lists.newArrayList(new ResultFileExporter(dir, "jobId", null).get("key"));
+
+        // Then
+        assertEquals(Arrays.asList(1, 2, 3), results);
+        try {
+            new ResultFileExporter(dir, "jobId", "user01").get("key");
+            fail("Exception expected");
+        } catch (final OperationException e) {
+            assertTrue(e.getMessage().contains("user01"));
+        }
+    }
+
+    @Test
+    public void shouldNotLoadResultClassesThatAreNotAllowed() throws Exception {
+        // Given
+        final Path dir = tempFolder.newFolder().toPath();
+        final ResultFileExporter exporter = new ResultFileExporter(dir, "jobId", "user01");
+        exporter.add("otherKey", Collections.singletonList(1));
+        final Path keyDirectory = Files.createDirectories(dir.resolve("jobId").resolve("key"));
+        try (final DataOutputStream out = new DataOutputStream(new GZIPOutputStream(
+                Files.newOutputStream(keyDirectory.resolve(String.format("%019d_%d.gz", 0, 1)))))) {
+            final byte[] json = StringUtil.toBytes("{}");
+            out.writeUTF(ProcessBuilder.class.getName());
+            out.writeInt(json.length);
+            out.write(json);
+        }
+
+        // When / Then
+        try {
+            Lists.newArrayList(exporter.get("key"));
+            fail("Exception expected");
+        } catch (final RuntimeException e) {
+            assertTrue(e.getCause().getMessage().contains("not an allowed result type"));
+        }
+    }
+
+    @Test
+    public void shouldExpireAndDeleteResultsAfterTimeToLive() throws Exception {
+        // Given
+        final Path dir = tempFolder.newFolder().toPath();
+        new ResultFileExporter(dir, "oldJobId", "user01").add("key", Arrays.asList(1, 2, 3));
+        Files.setLastModifiedTime(dir.resolve("oldJobId"), FileTime.fromMillis(System.currentTimeMillis() - 60000L));
+        final ResultFileExporter oldJobExporter = new ResultFileExporter(dir, "oldJobId", "user01", 10, 1000L);
+
+        // When
+        final List<?> expiredResults = Lists.newArrayList(oldJobExporter.get("key"));
+
+        // Then
+        assertTrue(expiredResults.isEmpty());
+        assertTrue(Files.exists(dir.resolve("oldJobId")));
+
+        // When
+        new ResultFileExporter(dir, "newJobId", "user01", 10, 1000L).add("key", Arrays.asList(4, 5));
+
+        // Then
+        assertFalse(Files.exists(dir.resolve("oldJobId")));
+        assertEquals(Arrays.asList(4, 5), Lists.newArrayList(new ResultFileExporter(dir, "newJobId", "user01", 10, 1000L).get("key")));
+    }
+}
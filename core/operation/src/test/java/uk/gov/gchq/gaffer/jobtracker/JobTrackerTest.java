@@ -0,0 +1,153 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.jobtracker;
+
+import com.google.common.collect.Lists;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import uk.gov.gchq.gaffer.cache.CacheServiceLoader;
+import uk.gov.gchq.gaffer.cache.impl.HashMapCacheService;
+import uk.gov.gchq.gaffer.cache.util.CacheProperties;
+import uk.gov.gchq.gaffer.user.User;
+
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class JobTrackerTest {
+    private final User user = new User("user01");
+
+    @BeforeClass
+    public static void setUpCache() {
+        final Properties properties = new Properties();
+        properties.setProperty(CacheProperties.CACHE_SERVICE_CLASS, HashMapCacheService.class.getName());
+        CacheServiceLoader.initialise(properties);
+    }
+
+    @Before
+    public void clearCache() {
+        new JobTracker().clear();
+    }
+
+    @Test
+    public void shouldGetPagesOfJobsForUserAndStatusMostRecentFirst() {
+        // Given
+        final JobTracker jobTracker = new JobTracker();
+        for (int i = 0; i < 10; i++) {
+            jobTracker.addOrUpdateJob(getJobDetail("job" + i, 0 == i % 2 ? "user01" : "user02",
+                    0 == i % 3 ? JobStatus.FINISHED : JobStatus.RUNNING, i, null), user);
+        }
+
+        // When
+        final List<String> userJobs = getJobIds(jobTracker, "user01", null, 1, 3);
+        final List<String> finishedJobs = getJobIds(jobTracker, null, JobStatus.FINISHED, 0, null);
+        final List<String> userRunningJobs = getJobIds(jobTracker, "user01", JobStatus.RUNNING, 1, 2);
+        final List<String> allJobs = getJobIds(jobTracker, null, null, 0, null);
+
+        // Then
+        assertEquals(Lists.newArrayList("job6", "job4", "job2"), userJobs);
+        assertEquals(Lists.newArrayList("job9", "job6", "job3", "job0"), finishedJobs);
+        assertEquals(Lists.newArrayList("job4", "job2"), userRunningJobs);
+        assertEquals(10, allJobs.size());
+        assertEquals("job9", allJobs.get(0));
+    }
+
+    @Test
+    public void shouldIndexJobsAddedByAnotherJobTracker() {
+        // Given
+        final JobTracker jobTracker = new JobTracker();
+        final JobTracker otherJobTracker = new JobTracker();
+        jobTracker.addOrUpdateJob(getJobDetail("job1", "user01", JobStatus.RUNNING, 1, null), user);
+        otherJobTracker.addOrUpdateJob(getJobDetail("job2", "user01", JobStatus.RUNNING, 2, null), user);
+
+        // When
+        final List<String> jobs = getJobIds(jobTracker, "user01", null, 0, null);
+
+        // Then
+        assertEquals(Lists.newArrayList("job2", "job1"), jobs);
+    }
+
+    @Test
+    public void shouldFilterByStatusOfJobsUpdatedByAnotherJobTracker() {
+        // Given
+        final JobTracker jobTracker = new JobTracker();
+        final JobTracker otherJobTracker = new JobTracker();
+        jobTracker.addOrUpdateJob(getJobDetail("job1", "user01", JobStatus.RUNNING, 1, null), user);
+        jobTracker.addOrUpdateJob(getJobDetail("job2", "user01", JobStatus.RUNNING, 2, null), user);
+        otherJobTracker.addOrUpdateJob(getJobDetail("job1", "user01", JobStatus.FINISHED, 1, 10L), user);
+
+        // When
+        final List<String> finishedJobs = getJobIds(jobTracker, null, JobStatus.FINISHED, 0, null);
+        final List<String> runningJobs = getJobIds(jobTracker, null, JobStatus.RUNNING, 0, null);
+
+        // Then
+        assertEquals(Lists.newArrayList("job1"), finishedJobs);
+        assertEquals(Lists.newArrayList("job2"), runningJobs);
+    }
+
+    @Test
+    public void shouldRemoveOldestCompletedJobsOverTheMaximum() {
+        // Given
+        final JobTracker jobTracker = new JobTracker(0, 2);
+
+        // When
+        jobTracker.addOrUpdateJob(getJobDetail("job1", "user01", JobStatus.FINISHED, 1, 10L), user);
+        jobTracker.addOrUpdateJob(getJobDetail("job2", "user01", JobStatus.RUNNING, 2, null), user);
+        jobTracker.addOrUpdateJob(getJobDetail("job3", "user01", JobStatus.FAILED, 3, 20L), user);
+        jobTracker.addOrUpdateJob(getJobDetail("job4", "user01", JobStatus.FINISHED, 4, 30L), user);
+
+        // Then
+        assertNull(jobTracker.getJob("job1", user));
+        assertEquals(Lists.newArrayList("job4", "job3", "job2"), getJobIds(jobTracker, null, null, 0, null));
+    }
+
+    @Test
+    public void shouldRemoveCompletedJobsAfterTimeToLive() {
+        // Given
+        final JobTracker jobTracker = new JobTracker(60000L, 0);
+        final long now = System.currentTimeMillis();
+
+        // When
+        jobTracker.addOrUpdateJob(getJobDetail("job1", "user01", JobStatus.FINISHED, 1, now - 120000L), user);
+        jobTracker.addOrUpdateJob(getJobDetail("job2", "user01", JobStatus.FINISHED, 2, now), user);
+
+        // Then
+        assertEquals(Lists.newArrayList("job2"), getJobIds(jobTracker, null, null, 0, null));
+    }
+
+    private List<String> getJobIds(final JobTracker jobTracker, final String userId, final JobStatus status, final int offset, final Integer limit) {
+        return Lists.newArrayList(jobTracker.getJobs(user, userId, status, offset, limit)).stream()
+                .map(JobDetail::getJobId)
+                .collect(Collectors.toList());
+    }
+
+    private static JobDetail getJobDetail(final String jobId, final String userId, final JobStatus status, final long startTime, final Long endTime) {
+        final JobDetail jobDetail = new JobDetail.Builder()
+                .jobId(jobId)
+                .userId(userId)
+                .status(status)
+                .opChain("opChain")
+                .build();
+        jobDetail.setStartTime(startTime);
+        jobDetail.setEndTime(endTime);
+        return jobDetail;
+    }
+}
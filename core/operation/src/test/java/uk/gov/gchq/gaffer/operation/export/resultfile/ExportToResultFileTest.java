@@ -0,0 +1,91 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.operation.export.resultfile;
+
+import org.junit.Test;
+
+import uk.gov.gchq.gaffer.exception.SerialisationException;
+import uk.gov.gchq.gaffer.jsonserialisation.JSONSerialiser;
+import uk.gov.gchq.gaffer.operation.OperationTest;
+import uk.gov.gchq.gaffer.operation.impl.export.resultfile.ExportToResultFile;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+
+
+public class ExportToResultFileTest extends OperationTest<ExportToResultFile> {
+    @Test
+    public void shouldJSONSerialiseAndDeserialise() throws SerialisationException {
+        // Given
+        final String key = "key";
+        final ExportToResultFile op = new ExportToResultFile.Builder<>()
+                .key(key)
+                .build();
+
+        // When
+        byte[] json = JSONSerialiser.serialise(op, true);
+        final ExportToResultFile deserialisedOp = JSONSerialiser.deserialise(json, ExportToResultFile.class);
+
+        // Then
+        assertEquals(key, deserialisedOp.getKey());
+    }
+
+    @Test
+    @Override
+    public void builderShouldCreatePopulatedOperation() {
+        // When
+        final ExportToResultFile op = new ExportToResultFile.Builder<>()
+                .key("key")
+                .build();
+
+        // Then
+        assertEquals("key", op.getKey());
+    }
+
+    @Override
+    public void shouldShallowCloneOperation() {
+        // Given
+        final String key = "key";
+        final String input = "input";
+        final ExportToResultFile exportToResultFile = new ExportToResultFile.Builder<>()
+                .key(key)
+                .input(input)
+                .build();
+
+        // When
+        ExportToResultFile clone = exportToResultFile.shallowClone();
+
+        // Then
+        assertNotSame(exportToResultFile, clone);
+        assertEquals(key, clone.getKey());
+        assertEquals(input, clone.getInput());
+    }
+
+    @Test
+    public void shouldGetOutputClass() {
+        // When
+        final Class<?> outputClass = getTestObject().getOutputClass();
+
+        // Then
+        assertEquals(Object.class, outputClass);
+    }
+
+    @Override
+    protected ExportToResultFile getTestObject() {
+        return new ExportToResultFile();
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.operation.export.resultfile;
+
+import org.junit.Test;
+
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
+import uk.gov.gchq.gaffer.exception.SerialisationException;
+import uk.gov.gchq.gaffer.jsonserialisation.JSONSerialiser;
+import uk.gov.gchq.gaffer.operation.OperationTest;
+import uk.gov.gchq.gaffer.operation.impl.export.resultfile.GetResultFileExport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+
+public class GetResultFileExportTest extends OperationTest<GetResultFileExport> {
+    @Test
+    public void shouldJSONSerialiseAndDeserialise() throws SerialisationException {
+        // Given
+        final GetResultFileExport operation = new GetResultFileExport.Builder()
+                .key("key")
+                .jobId("jobId")
+                .start(10)
+                .end(20L)
+                .build();
+
+        // When
+        byte[] json = JSONSerialiser.serialise(operation, true);
+        final GetResultFileExport deserialisedOp = JSONSerialiser.deserialise(json, GetResultFileExport.class);
+
+        // Then
+        assertEquals("key", deserialisedOp.getKey());
+        assertEquals("jobId", deserialisedOp.getJobId());
+        assertEquals(10, deserialisedOp.getStart());
+        assertEquals(20L, (long) deserialisedOp.getEnd());
+    }
+
+    @Test
+    @Override
+    public void builderShouldCreatePopulatedOperation() {
+        // When
+        final GetResultFileExport operation = new GetResultFileExport.Builder()
+                .key("key")
+                .jobId("jobId")
+                .start(10)
+                .end(20L)
+                .build();
+
+        // Then
+        assertEquals("key", operation.getKey());
+        assertEquals("jobId", operation.getJobId());
+        assertEquals(10, operation.getStart());
+        assertEquals(20L, (long) operation.getEnd());
+    }
+
+    @Override
+    public void shouldShallowCloneOperation() {
+        // Given
+        final GetResultFileExport getResultFileExport = new GetResultFileExport.Builder()
+                .key("key")
+                .jobId("jobId")
+                .start(10)
+                .end(20L)
+                .build();
+
+        // When
+        final GetResultFileExport clone = getResultFileExport.shallowClone();
+
+        // Then
+        assertNotSame(getResultFileExport, clone);
+        assertEquals("key", clone.getKey());
+        assertEquals("jobId", clone.getJobId());
+        assertEquals(10, clone.getStart());
+        assertEquals(20L, (long) clone.getEnd());
+    }
+
+    @Test
+    public void shouldGetOutputClass() {
+        // When
+        final Class<?> outputClass = getTestObject().getOutputClass();
+
+        // Then
+        assertEquals(CloseableIterable.class, outputClass);
+    }
+
+    @Override
+    protected GetResultFileExport getTestObject() {
+        return new GetResultFileExport();
+    }
+}
@@ -19,10 +19,13 @@ package uk.gov.gchq.gaffer.operation.job;
 import org.junit.Test;
 
 import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
+import uk.gov.gchq.gaffer.jobtracker.JobStatus;
 import uk.gov.gchq.gaffer.operation.OperationTest;
 import uk.gov.gchq.gaffer.operation.impl.job.GetAllJobDetails;
+import uk.gov.gchq.koryphe.ValidationResult;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNotSame;
 
@@ -33,10 +36,32 @@ public class GetAllJobDetailsTest extends OperationTest<GetAllJobDetails> {
     @Override
     public void builderShouldCreatePopulatedOperation() {
         // When
-        final GetAllJobDetails op = getTestObject();
+        final GetAllJobDetails op = new GetAllJobDetails.Builder()
+                .userId("user01")
+                .status(JobStatus.RUNNING)
+                .offset(10)
+                .limit(5)
+                .build();
+
+        // Then
+        assertEquals("user01", op.getUserId());
+        assertEquals(JobStatus.RUNNING, op.getStatus());
+        assertEquals(10, (int) op.getOffset());
+        assertEquals(5, (int) op.getLimit());
+    }
+
+    @Test
+    public void shouldFailValidationIfOffsetIsNegative() {
+        // Given
+        final GetAllJobDetails op = new GetAllJobDetails.Builder()
+                .offset(-1)
+                .build();
+
+        // When
+        final ValidationResult result = op.validate();
 
         // Then
-        assertNotNull(op);
+        assertFalse(result.isValid());
     }
 
     @Override
@@ -57,6 +82,10 @@ public class GetAllJobDetailsTest extends OperationTest<GetAllJobDetails> {
     public void shouldShallowCloneOperation() {
         // Given
         final GetAllJobDetails getAllJobDetails = new GetAllJobDetails.Builder()
+                .userId("user01")
+                .status(JobStatus.FAILED)
+                .offset(10)
+                .limit(5)
                 .build();
 
         // When
@@ -65,5 +94,9 @@ public class GetAllJobDetailsTest extends OperationTest<GetAllJobDetails> {
         // Then
         assertNotSame(getAllJobDetails, clone);
         assertNotNull(clone);
+        assertEquals("user01", clone.getUserId());
+        assertEquals(JobStatus.FAILED, clone.getStatus());
+        assertEquals(10, (int) clone.getOffset());
+        assertEquals(5, (int) clone.getLimit());
     }
 }
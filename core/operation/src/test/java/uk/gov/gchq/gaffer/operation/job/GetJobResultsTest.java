@@ -67,10 +67,14 @@ public class GetJobResultsTest extends OperationTest<GetJobResults> {
         // When
         final GetJobResults op = new GetJobResults.Builder()
                 .jobId("jobId")
+                .start(10)
+                .end(20L)
                 .build();
 
         // Then
         assertEquals("jobId", op.getJobId());
+        assertEquals(10, op.getStart());
+        assertEquals(20L, (long) op.getEnd());
     }
 
     @Override
@@ -78,6 +82,8 @@ public class GetJobResultsTest extends OperationTest<GetJobResults> {
         // Given
         final GetJobResults getJobResults = new GetJobResults.Builder()
                 .jobId("id1")
+                .start(10)
+                .end(20L)
                 .build();
 
         // When
@@ -87,6 +93,8 @@ public class GetJobResultsTest extends OperationTest<GetJobResults> {
         assertNotSame(getJobResults, clone);
         assertNotNull(clone);
         assertEquals(getJobResults.getJobId(), clone.getJobId());
+        assertEquals(getJobResults.getStart(), clone.getStart());
+        assertEquals(getJobResults.getEnd(), clone.getEnd());
     }
 
     @Test
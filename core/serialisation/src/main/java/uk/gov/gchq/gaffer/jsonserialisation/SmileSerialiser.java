@@ -0,0 +1,185 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.jsonserialisation;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.fasterxml.jackson.dataformat.smile.SmileParser;
+
+import uk.gov.gchq.gaffer.exception.SerialisationException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * A {@code SmileSerialiser} provides the ability to serialise and deserialise
+ * to/from the Smile binary JSON format. It uses the {@link com.fasterxml.jackson.databind.ObjectMapper}
+ * configured by the {@link JSONSerialiser}, so any custom serialiser class or
+ * modules apply to both formats and objects are encoded with the same structure.
+ * <p>
+ * Values can also be written as a sequence of independent root level values,
+ * without a header or shared name references, so that they can be written one
+ * at a time to a stream and read back incrementally.
+ * </p>
+ */
+public final class SmileSerialiser {
+    public static final String SMILE_MEDIA_TYPE = "application/x-jackson-smile";
+
+    private static final SmileFactory SMILE_FACTORY = createFactory(true);
+    private static final SmileFactory SEQUENCE_FACTORY = createFactory(false);
+
+    private SmileSerialiser() {
+        // Private constructor to prevent instantiation.
+    }
+
+    /**
+     * @param mediaType the media type to check, may be null
+     * @return true if the media type is the smile media type
+     */
+    public static boolean isSmile(final String mediaType) {
+        return null != mediaType && mediaType.toLowerCase().startsWith(SMILE_MEDIA_TYPE);
+    }
+
+    /**
+     * Serialises an object.
+     *
+     * @param object the object to be serialised
+     * @return the provided object serialised into smile bytes
+     * @throws SerialisationException if the object fails to be serialised
+     */
+    public static byte[] serialise(final Object object) throws SerialisationException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        serialise(object, out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Serialises an object to the provided output stream. The stream is
+     * flushed but not closed.
+     *
+     * @param object the object to be serialised
+     * @param out    the output stream to write to
+     * @throws SerialisationException if the object fails to be serialised
+     */
+    public static void serialise(final Object object, final OutputStream out) throws SerialisationException {
+        write(SMILE_FACTORY, object, out);
+    }
+
+    /**
+     * Serialises an object as a single value of a smile sequence. The bytes
+     * can be concatenated with other sequence values and read back using
+     * {@link #deserialiseSequence(InputStream, JavaType)}.
+     *
+     * @param object the object to be serialised
+     * @return the provided object serialised into smile bytes
+     * @throws SerialisationException if the object fails to be serialised
+     */
+    public static byte[] serialiseSequenceValue(final Object object) throws SerialisationException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        write(SEQUENCE_FACTORY, object, out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Creates a generator for writing a stream of smile sequence values,
+     * readable using {@link #deserialiseSequence(InputStream, JavaType)}.
+     * Closing the generator does not close the output stream.
+     *
+     * @param out the output stream to write to
+     * @return the smile generator
+     * @throws SerialisationException if the generator cannot be created
+     */
+    public static JsonGenerator createSequenceGenerator(final OutputStream out) throws SerialisationException {
+        try {
+            return SEQUENCE_FACTORY.createGenerator(out);
+        } catch (final IOException e) {
+            throw new SerialisationException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @param bytes the smile bytes to deserialise
+     * @param clazz the class of the object to deserialise to
+     * @param <T>   the type of the object
+     * @return the deserialised object
+     * @throws SerialisationException if the bytes fail to deserialise
+     */
+    public static <T> T deserialise(final byte[] bytes, final Class<T> clazz) throws SerialisationException {
+        try (final JsonParser parser = SMILE_FACTORY.createParser(bytes)) {
+            return JSONSerialiser.getMapper().readValue(parser, clazz);
+        } catch (final IOException e) {
+            throw new SerialisationException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @param bytes the smile bytes to deserialise
+     * @param type  the type reference of the object to deserialise to
+     * @param <T>   the type of the object
+     * @return the deserialised object
+     * @throws SerialisationException if the bytes fail to deserialise
+     */
+    public static <T> T deserialise(final byte[] bytes, final TypeReference<T> type) throws SerialisationException {
+        try (final JsonParser parser = SMILE_FACTORY.createParser(bytes)) {
+            return JSONSerialiser.getMapper().readValue(parser, type);
+        } catch (final IOException e) {
+            throw new SerialisationException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Lazily deserialises a stream of smile sequence values. The stream is
+     * not closed when the iterator is exhausted.
+     *
+     * @param stream the stream of values written by {@link #serialiseSequenceValue(Object)}
+     * @param type   the type of each value
+     * @param <T>    the type of each value
+     * @return an iterator of the deserialised values
+     * @throws SerialisationException if the stream cannot be read
+     */
+    public static <T> MappingIterator<T> deserialiseSequence(final InputStream stream, final JavaType type) throws SerialisationException {
+        try {
+            return JSONSerialiser.getMapper().readValues(SEQUENCE_FACTORY.createParser(stream), type);
+        } catch (final IOException e) {
+            throw new SerialisationException(e.getMessage(), e);
+        }
+    }
+
+    private static SmileFactory createFactory(final boolean standalone) {
+        final SmileFactory factory = new SmileFactory();
+        factory.configure(SmileGenerator.Feature.WRITE_HEADER, standalone);
+        factory.configure(SmileGenerator.Feature.CHECK_SHARED_NAMES, standalone);
+        factory.configure(SmileParser.Feature.REQUIRE_HEADER, standalone);
+        factory.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+        factory.configure(JsonParser.Feature.AUTO_CLOSE_SOURCE, false);
+        return factory;
+    }
+
+    private static void write(final SmileFactory factory, final Object object, final OutputStream out) throws SerialisationException {
+        try (final JsonGenerator generator = factory.createGenerator(out)) {
+            JSONSerialiser.getMapper().writeValue(generator, object);
+        } catch (final IOException e) {
+            throw new SerialisationException("Failed to serialise object to smile: " + e.getMessage(), e);
+        }
+    }
+}
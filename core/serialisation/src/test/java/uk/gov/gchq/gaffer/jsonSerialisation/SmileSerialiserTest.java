@@ -0,0 +1,102 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.jsonSerialisation;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.MappingIterator;
+import org.junit.Test;
+
+import uk.gov.gchq.gaffer.exception.SerialisationException;
+import uk.gov.gchq.gaffer.jsonserialisation.JSONSerialiser;
+import uk.gov.gchq.gaffer.jsonserialisation.SmileSerialiser;
+import uk.gov.gchq.gaffer.serialisation.ParameterisedTestObject;
+import uk.gov.gchq.gaffer.serialisation.SimpleTestObject;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SmileSerialiserTest {
+    @Test
+    public void shouldSerialiseAndDeserialiseDAO() throws SerialisationException {
+        // Given
+        final ParameterisedTestObject<Integer> test = new ParameterisedTestObject<>();
+        test.setX("Test");
+        test.setK(2);
+
+        // When
+        final byte[] bytes = SmileSerialiser.serialise(test);
+        final ParameterisedTestObject result = SmileSerialiser.deserialise(bytes, ParameterisedTestObject.class);
+
+        // Then
+        assertEquals("Test", result.getX());
+        assertEquals(2, result.getK());
+    }
+
+    @Test
+    public void shouldUseFewerBytesThanJsonForRepeatedFieldNames() throws SerialisationException {
+        // Given
+        final List<SimpleTestObject> objects = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            final SimpleTestObject object = new SimpleTestObject();
+            object.setX("value" + i);
+            objects.add(object);
+        }
+
+        // When
+        final byte[] smileBytes = SmileSerialiser.serialise(objects);
+        final byte[] jsonBytes = JSONSerialiser.serialise(objects);
+
+        // Then
+        assertTrue(smileBytes.length < jsonBytes.length);
+    }
+
+    @Test
+    public void shouldDeserialiseSequenceOfIndependentlySerialisedValues() throws Exception {
+        // Given
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int i = 0; i < 3; i++) {
+            final SimpleTestObject object = new SimpleTestObject();
+            object.setX("value" + i);
+            out.write(SmileSerialiser.serialiseSequenceValue(object));
+        }
+        final JavaType type = JSONSerialiser.getMapper().getTypeFactory().constructType(SimpleTestObject.class);
+
+        // When
+        final MappingIterator<SimpleTestObject> itr = SmileSerialiser.deserialiseSequence(
+                new ByteArrayInputStream(out.toByteArray()), type);
+
+        // Then
+        for (int i = 0; i < 3; i++) {
+            assertTrue(itr.hasNext());
+            assertEquals("value" + i, itr.next().getX());
+        }
+        assertFalse(itr.hasNext());
+    }
+
+    @Test
+    public void shouldRecogniseSmileMediaType() {
+        assertTrue(SmileSerialiser.isSmile(SmileSerialiser.SMILE_MEDIA_TYPE));
+        assertTrue(SmileSerialiser.isSmile("application/x-jackson-smile; charset=UTF-8"));
+        assertFalse(SmileSerialiser.isSmile("application/json"));
+        assertFalse(SmileSerialiser.isSmile(null));
+    }
+}
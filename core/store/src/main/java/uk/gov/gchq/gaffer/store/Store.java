@@ -23,6 +23,8 @@ import org.slf4j.LoggerFactory;
 import uk.gov.gchq.gaffer.cache.CacheServiceLoader;
 import uk.gov.gchq.gaffer.commonutil.CloseableUtil;
 import uk.gov.gchq.gaffer.commonutil.ExecutorService;
+import uk.gov.gchq.gaffer.commonutil.executor.FixedThreadPoolJobExecutorFactory;
+import uk.gov.gchq.gaffer.commonutil.executor.JobExecutorFactory;
 import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
 import uk.gov.gchq.gaffer.data.element.Element;
 import uk.gov.gchq.gaffer.data.element.IdentifierType;
@@ -65,6 +67,8 @@ import uk.gov.gchq.gaffer.operation.impl.compare.Min;
 import uk.gov.gchq.gaffer.operation.impl.compare.Sort;
 import uk.gov.gchq.gaffer.operation.impl.export.GetExports;
 import uk.gov.gchq.gaffer.operation.impl.export.resultcache.ExportToGafferResultCache;
+import uk.gov.gchq.gaffer.operation.impl.export.resultfile.ExportToResultFile;
+import uk.gov.gchq.gaffer.operation.impl.export.resultfile.GetResultFileExport;
 import uk.gov.gchq.gaffer.operation.impl.export.set.ExportToSet;
 import uk.gov.gchq.gaffer.operation.impl.export.set.GetSetExport;
 import uk.gov.gchq.gaffer.operation.impl.function.Aggregate;
@@ -128,6 +132,8 @@ import uk.gov.gchq.gaffer.store.operation.handler.compare.MaxHandler;
 import uk.gov.gchq.gaffer.store.operation.handler.compare.MinHandler;
 import uk.gov.gchq.gaffer.store.operation.handler.compare.SortHandler;
 import uk.gov.gchq.gaffer.store.operation.handler.export.GetExportsHandler;
+import uk.gov.gchq.gaffer.store.operation.handler.export.resultfile.ExportToResultFileHandler;
+import uk.gov.gchq.gaffer.store.operation.handler.export.resultfile.GetResultFileExportHandler;
 import uk.gov.gchq.gaffer.store.operation.handler.export.set.ExportToSetHandler;
 import uk.gov.gchq.gaffer.store.operation.handler.export.set.GetSetExportHandler;
 import uk.gov.gchq.gaffer.store.operation.handler.function.AggregateHandler;
@@ -162,6 +168,7 @@ import uk.gov.gchq.gaffer.store.schema.SchemaElementDefinition;
 import uk.gov.gchq.gaffer.store.schema.SchemaOptimiser;
 import uk.gov.gchq.gaffer.store.schema.TypeDefinition;
 import uk.gov.gchq.gaffer.store.schema.ViewValidator;
+import uk.gov.gchq.gaffer.store.util.JobLimiter;
 import uk.gov.gchq.gaffer.user.User;
 import uk.gov.gchq.koryphe.ValidationResult;
 import uk.gov.gchq.koryphe.util.ReflectionUtil;
@@ -174,7 +181,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * A {@code Store} backs a Graph and is responsible for storing the {@link
@@ -216,6 +227,7 @@ public abstract class Store {
     private GraphLibrary library;
 
     private JobTracker jobTracker;
+    private JobLimiter jobLimiter;
     private String graphId;
 
     public Store() {
@@ -452,22 +464,19 @@ public abstract class Store {
                         ? (OperationChain) operation.shallowClone()
                         : OperationChain.wrap(operation).shallowClone();
 
-        if (isSupported(ExportToGafferResultCache.class)) {
-            boolean hasExport = false;
-            for (final Operation op : clonedOp.getOperations()) {
-                if (op instanceof ExportToGafferResultCache) {
-                    hasExport = true;
-                    break;
-                }
-            }
-            if (!hasExport) {
-                clonedOp.getOperations()
-                        .add(new ExportToGafferResultCache());
-            }
+        if (isSupported(ExportToResultFile.class)) {
+            addJobResultsExport(clonedOp, ExportToResultFile.class, new ExportToResultFile());
+        } else if (isSupported(ExportToGafferResultCache.class)) {
+            addJobResultsExport(clonedOp, ExportToGafferResultCache.class, new ExportToGafferResultCache());
         }
 
-        runAsync(() -> {
+        // Set once the job is queued, which always happens before the job can start
+        final AtomicBoolean queued = new AtomicBoolean();
+        final Runnable job = () -> {
             try {
+                if (queued.get()) {
+                    addOrUpdateJobDetail(clonedOp, context, null, JobStatus.RUNNING);
+                }
                 handleOperation(clonedOp, context);
                 addOrUpdateJobDetail(clonedOp, context, null, JobStatus.FINISHED);
             } catch (final Error e) {
@@ -479,19 +488,70 @@ public abstract class Store {
                 addOrUpdateJobDetail(clonedOp, context, e.getMessage(),
                         JobStatus.FAILED);
             }
-        });
-        return jobDetail;
+        };
+        final AtomicReference<JobDetail> queuedJobDetail = new AtomicReference<>();
+        try {
+            if (null != jobLimiter) {
+                // The executor is looked up when the job starts, as it is replaced if the executors are initialised again
+                jobLimiter.submit(this::runAsync, context.getUser().getUserId(), job, new JobLimiter.JobListener() {
+                    @Override
+                    public void queued() {
+                        queued.set(true);
+                        queuedJobDetail.set(addOrUpdateJobDetail(clonedOp, context, null, JobStatus.QUEUED));
+                    }
+
+                    @Override
+                    public void rejected(final RejectedExecutionException e) {
+                        addOrUpdateJobDetail(clonedOp, context, "Job was rejected by the job executor: " + e.getMessage(),
+                                JobStatus.FAILED);
+                    }
+                });
+            } else {
+                runAsync(job);
+            }
+        } catch (final RejectedExecutionException e) {
+            addOrUpdateJobDetail(clonedOp, context, "Job was rejected by the job executor: " + e.getMessage(),
+                    JobStatus.FAILED);
+            throw e;
+        }
+        return null != queuedJobDetail.get() ? queuedJobDetail.get() : jobDetail;
+    }
+
+    private void addJobResultsExport(final OperationChain<?> opChain,
+                                     final Class<? extends Operation> exportClass,
+                                     final Operation export) {
+        for (final Operation op : opChain.getOperations()) {
+            if (exportClass.isInstance(op)) {
+                return;
+            }
+        }
+        opChain.getOperations().add(export);
     }
 
     public void runAsync(final Runnable runnable) {
-        getExecutorService().execute(runnable);
+        getJobExecutor().execute(runnable);
     }
 
+    /**
+     * Gets the scheduler used to start repeating jobs.
+     *
+     * @return the scheduler
+     */
     protected ScheduledExecutorService getExecutorService() {
         return (null != ExecutorService.getService() && ExecutorService.isEnabled()) ?
                 ExecutorService.getService() : null;
     }
 
+    /**
+     * Gets the executor used to run jobs.
+     *
+     * @return the job executor
+     */
+    protected Executor getJobExecutor() {
+        return (null != ExecutorService.getJobService() && ExecutorService.isEnabled()) ?
+                ExecutorService.getJobService() : getExecutorService();
+    }
+
     public JobTracker getJobTracker() {
         return jobTracker;
     }
@@ -722,7 +782,9 @@ public abstract class Store {
 
     protected JobTracker createJobTracker() {
         if (properties.getJobTrackerEnabled()) {
-            return new JobTracker();
+            final Long completedJobTtl = properties.getJobTrackerCompletedJobTtl();
+            return new JobTracker(null != completedJobTtl ? completedJobTtl : 0L,
+                    getIntOrZero(properties.getJobTrackerMaxCompletedJobs()));
         }
         return null;
     }
@@ -884,7 +946,28 @@ public abstract class Store {
     }
 
     private void addExecutorService(final StoreProperties properties) {
-        ExecutorService.initialise(properties.getJobExecutorThreadCount());
+        ExecutorService.initialise(getIntOrZero(properties.getJobExecutorThreadCount()),
+                getIntOrZero(properties.getJobSchedulerThreadCount()),
+                createJobExecutorFactory(properties));
+        jobLimiter = new JobLimiter(getIntOrZero(properties.getJobMaxConcurrent()),
+                getIntOrZero(properties.getJobMaxConcurrentPerUser()));
+    }
+
+    private JobExecutorFactory createJobExecutorFactory(final StoreProperties properties) {
+        final String factoryClass = properties.getJobExecutorFactory();
+        if (null == factoryClass) {
+            return new FixedThreadPoolJobExecutorFactory();
+        }
+
+        try {
+            return Class.forName(factoryClass).asSubclass(JobExecutorFactory.class).newInstance();
+        } catch (final InstantiationException | IllegalAccessException | ClassNotFoundException e) {
+            throw new IllegalArgumentException("Unable to create JobExecutorFactory from class: " + factoryClass, e);
+        }
+    }
+
+    private static int getIntOrZero(final Integer value) {
+        return null != value ? value : 0;
     }
 
     private void addOpHandlers() {
@@ -912,6 +995,10 @@ public abstract class Store {
         addOperationHandler(ExportToSet.class, new ExportToSetHandler());
         addOperationHandler(GetSetExport.class, new GetSetExportHandler());
         addOperationHandler(GetExports.class, new GetExportsHandler());
+        if (null != getProperties().getJobResultsDirectory()) {
+            addOperationHandler(ExportToResultFile.class, new ExportToResultFileHandler());
+            addOperationHandler(GetResultFileExport.class, new GetResultFileExportHandler());
+        }
 
         // Jobs
         if (null != getJobTracker()) {
@@ -29,9 +29,11 @@ import org.slf4j.LoggerFactory;
 import uk.gov.gchq.gaffer.commonutil.DebugUtil;
 import uk.gov.gchq.gaffer.commonutil.StreamUtil;
 import uk.gov.gchq.gaffer.commonutil.ToStringBuilder;
+import uk.gov.gchq.gaffer.commonutil.executor.FixedThreadPoolJobExecutorFactory;
 import uk.gov.gchq.gaffer.data.elementdefinition.exception.SchemaException;
 import uk.gov.gchq.gaffer.jsonserialisation.JSONSerialiser;
 import uk.gov.gchq.gaffer.jsonserialisation.JSONSerialiserModules;
+import uk.gov.gchq.gaffer.operation.impl.export.resultfile.ResultFileExporter;
 import uk.gov.gchq.gaffer.store.operation.declaration.OperationDeclarations;
 import uk.gov.gchq.gaffer.store.schema.Schema;
 import uk.gov.gchq.koryphe.util.ReflectionUtil;
@@ -68,9 +70,58 @@ public class StoreProperties implements Cloneable {
 
     public static final String JOB_TRACKER_ENABLED = "gaffer.store.job.tracker.enabled";
 
+    /**
+     * The time in milliseconds to keep the details of finished, failed and
+     * cancelled jobs in the job tracker, and the maximum number of these
+     * completed jobs to keep. Values less than 1 mean completed jobs are kept.
+     */
+    public static final String JOB_TRACKER_COMPLETED_JOB_TTL = "gaffer.store.job.tracker.completed.ttl";
+    public static final String JOB_TRACKER_MAX_COMPLETED_JOBS = "gaffer.store.job.tracker.completed.max";
+
     public static final String EXECUTOR_SERVICE_THREAD_COUNT = "gaffer.store.job.executor.threads";
     public static final String EXECUTOR_SERVICE_THREAD_COUNT_DEFAULT = "50";
 
+    /**
+     * The {@link uk.gov.gchq.gaffer.commonutil.executor.JobExecutorFactory}
+     * class used to create the executor for jobs. Use
+     * {@link uk.gov.gchq.gaffer.commonutil.executor.ThreadPerJobExecutorFactory}
+     * to run each job on its own thread, using virtual threads if the JVM
+     * supports them.
+     */
+    public static final String JOB_EXECUTOR_FACTORY = "gaffer.store.job.executor.factory";
+    public static final String JOB_EXECUTOR_FACTORY_DEFAULT = FixedThreadPoolJobExecutorFactory.class.getName();
+
+    /**
+     * The number of threads used to start repeating jobs.
+     */
+    public static final String JOB_SCHEDULER_THREAD_COUNT = "gaffer.store.job.scheduler.threads";
+    public static final String JOB_SCHEDULER_THREAD_COUNT_DEFAULT = "2";
+
+    /**
+     * The maximum number of jobs that can run concurrently for the graph and
+     * for each user. Further jobs are queued. Values less than 1 mean there is
+     * no limit.
+     */
+    public static final String JOB_MAX_CONCURRENT = "gaffer.store.job.max.concurrent";
+    public static final String JOB_MAX_CONCURRENT_PER_USER = "gaffer.store.job.max.concurrent.per.user";
+    public static final String JOB_MAX_CONCURRENT_DEFAULT = "0";
+
+    /**
+     * The local directory that job results are streamed to, as compressed
+     * files, instead of the Gaffer result cache. The number of results in
+     * each file can also be set.
+     */
+    public static final String JOB_RESULTS_DIRECTORY = "gaffer.store.job.results.dir";
+    public static final String JOB_RESULTS_CHUNK_SIZE = "gaffer.store.job.results.chunk.size";
+
+    /**
+     * The time in milliseconds to keep the result files of a job after they
+     * were last added to. Defaults to the job tracker completed job time to
+     * live, so the results expire with the job. Values less than 1 mean the
+     * result files are kept.
+     */
+    public static final String JOB_RESULTS_TTL = "gaffer.store.job.results.ttl";
+
     public static final String JSON_SERIALISER_CLASS = JSONSerialiser.JSON_SERIALISER_CLASS_KEY;
     public static final String JSON_SERIALISER_MODULES = JSONSerialiser.JSON_SERIALISER_MODULES;
     public static final String STRICT_JSON = JSONSerialiser.STRICT_JSON;
@@ -340,6 +391,22 @@ public class StoreProperties implements Cloneable {
         set(JOB_TRACKER_ENABLED, jobTrackerEnabled.toString());
     }
 
+    public Long getJobTrackerCompletedJobTtl() {
+        return Long.parseLong(get(JOB_TRACKER_COMPLETED_JOB_TTL, "0"));
+    }
+
+    public void setJobTrackerCompletedJobTtl(final Long completedJobTtl) {
+        set(JOB_TRACKER_COMPLETED_JOB_TTL, completedJobTtl.toString());
+    }
+
+    public Integer getJobTrackerMaxCompletedJobs() {
+        return Integer.parseInt(get(JOB_TRACKER_MAX_COMPLETED_JOBS, "0"));
+    }
+
+    public void setJobTrackerMaxCompletedJobs(final Integer maxCompletedJobs) {
+        set(JOB_TRACKER_MAX_COMPLETED_JOBS, maxCompletedJobs.toString());
+    }
+
     public String getSchemaClassName() {
         return get(SCHEMA_CLASS, Schema.class.getName());
     }
@@ -408,6 +475,62 @@ public class StoreProperties implements Cloneable {
         return Integer.parseInt(get(EXECUTOR_SERVICE_THREAD_COUNT, EXECUTOR_SERVICE_THREAD_COUNT_DEFAULT));
     }
 
+    public String getJobExecutorFactory() {
+        return get(JOB_EXECUTOR_FACTORY, JOB_EXECUTOR_FACTORY_DEFAULT);
+    }
+
+    public void setJobExecutorFactory(final String jobExecutorFactory) {
+        set(JOB_EXECUTOR_FACTORY, jobExecutorFactory);
+    }
+
+    public Integer getJobSchedulerThreadCount() {
+        return Integer.parseInt(get(JOB_SCHEDULER_THREAD_COUNT, JOB_SCHEDULER_THREAD_COUNT_DEFAULT));
+    }
+
+    public void setJobSchedulerThreadCount(final Integer jobSchedulerThreadCount) {
+        set(JOB_SCHEDULER_THREAD_COUNT, jobSchedulerThreadCount.toString());
+    }
+
+    public Integer getJobMaxConcurrent() {
+        return Integer.parseInt(get(JOB_MAX_CONCURRENT, JOB_MAX_CONCURRENT_DEFAULT));
+    }
+
+    public void setJobMaxConcurrent(final Integer jobMaxConcurrent) {
+        set(JOB_MAX_CONCURRENT, jobMaxConcurrent.toString());
+    }
+
+    public Integer getJobMaxConcurrentPerUser() {
+        return Integer.parseInt(get(JOB_MAX_CONCURRENT_PER_USER, JOB_MAX_CONCURRENT_DEFAULT));
+    }
+
+    public void setJobMaxConcurrentPerUser(final Integer jobMaxConcurrentPerUser) {
+        set(JOB_MAX_CONCURRENT_PER_USER, jobMaxConcurrentPerUser.toString());
+    }
+
+    public String getJobResultsDirectory() {
+        return get(JOB_RESULTS_DIRECTORY);
+    }
+
+    public void setJobResultsDirectory(final String jobResultsDirectory) {
+        set(JOB_RESULTS_DIRECTORY, jobResultsDirectory);
+    }
+
+    public Integer getJobResultsChunkSize() {
+        return Integer.parseInt(get(JOB_RESULTS_CHUNK_SIZE, String.valueOf(ResultFileExporter.CHUNK_SIZE_DEFAULT)));
+    }
+
+    public void setJobResultsChunkSize(final Integer jobResultsChunkSize) {
+        set(JOB_RESULTS_CHUNK_SIZE, jobResultsChunkSize.toString());
+    }
+
+    public Long getJobResultsTtl() {
+        return Long.parseLong(get(JOB_RESULTS_TTL, String.valueOf(getJobTrackerCompletedJobTtl())));
+    }
+
+    public void setJobResultsTtl(final Long jobResultsTtl) {
+        set(JOB_RESULTS_TTL, jobResultsTtl.toString());
+    }
+
     public void addOperationDeclarationPaths(final String... newPaths) {
         final String newPathsCsv = StringUtils.join(newPaths, ",");
         String combinedPaths = getOperationDeclarationPaths();
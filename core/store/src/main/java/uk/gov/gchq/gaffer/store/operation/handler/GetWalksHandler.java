@@ -18,9 +18,12 @@ package uk.gov.gchq.gaffer.store.operation.handler;
 
 import com.google.common.collect.Lists;
 
+import uk.gov.gchq.gaffer.commonutil.CloseableUtil;
+import uk.gov.gchq.gaffer.commonutil.exception.LimitExceededException;
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterator;
 import uk.gov.gchq.gaffer.commonutil.iterable.EmptyClosableIterable;
 import uk.gov.gchq.gaffer.commonutil.iterable.LimitedCloseableIterable;
-import uk.gov.gchq.gaffer.commonutil.stream.Streams;
 import uk.gov.gchq.gaffer.data.element.Edge;
 import uk.gov.gchq.gaffer.data.element.Element;
 import uk.gov.gchq.gaffer.data.element.Entity;
@@ -30,6 +33,7 @@ import uk.gov.gchq.gaffer.data.graph.GraphWindow;
 import uk.gov.gchq.gaffer.data.graph.Walk;
 import uk.gov.gchq.gaffer.data.graph.adjacency.AdjacencyMap;
 import uk.gov.gchq.gaffer.data.graph.adjacency.AdjacencyMaps;
+import uk.gov.gchq.gaffer.data.graph.adjacency.CompactAdjacencyMap;
 import uk.gov.gchq.gaffer.data.graph.adjacency.PrunedAdjacencyMaps;
 import uk.gov.gchq.gaffer.data.graph.adjacency.SimpleAdjacencyMaps;
 import uk.gov.gchq.gaffer.data.graph.entity.EntityMap;
@@ -46,12 +50,21 @@ import uk.gov.gchq.gaffer.store.Context;
 import uk.gov.gchq.gaffer.store.Store;
 import uk.gov.gchq.koryphe.impl.function.IterableFunction;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * An operation handler for {@link GetWalks} operations.
@@ -59,11 +72,12 @@ import java.util.stream.Collectors;
  * The handler executes each {@link uk.gov.gchq.gaffer.operation.impl.get.GetElements}
  * operation in the parent GetWalks operation in turn and incrementally creates
  * an in-memory representation of the resulting graph. Once all GetElements
- * operations have been executed, a recursive depth-first search algorithm is
- * used to construct all of the {@link Walk}s that exist in the temporary
- * graph.
+ * operations have been executed, the {@link Walk}s that exist in the temporary
+ * graph are constructed lazily, using a depth-first search, as the results are
+ * iterated. The vertices reached by each hop are de-duplicated before being
+ * used as the seeds for the next hop.
  * <p>
- * The default handler has two settings which can be overridden by system
+ * The default handler has the following settings which can be overridden by system
  * administrators: <ul> <li>maxHops - prevent users from executing GetWalks
  * operations that contain more than a set number of hops.</li> <li>prune -
  * toggle pruning for the in-memory graph representation. Enabling pruning
@@ -71,10 +85,17 @@ import java.util.stream.Collectors;
  * previous GetElements operation which do not join up with any edges in the
  * current GetElements operation (orphaned edges). This reduces the memory
  * footprint of the in-memory graph representation, but requires some additional
- * processing while constructing the in-memory graph.</li> </ul>
+ * processing while constructing the in-memory graph.</li> <li>parallelism -
+ * the number of threads used to execute each hop. When set, the seeds for a
+ * hop are split into batches of seedBatchSize and each batch is queried
+ * concurrently.</li> <li>seedBatchSize - the number of seeds in each batch
+ * when the parallelism is set.</li> <li>compactAdjacency - store each hop in
+ * a {@link CompactAdjacencyMap} rather than a table of sets. This uses
+ * significantly less memory for large hops. It is disabled by default.</li> </ul>
  * <p>
  * The maxHops setting is not set by default (i.e. there is no limit to the
- * number of hops that a user can request). The prune flag is enabled by default
+ * number of hops that a user can request). The parallelism setting is not set
+ * by default, so each hop is executed as a single query. The prune flag is enabled by default
  * (for applications where performance is paramount and any issues arising from
  * excessive memory usage can be mitigated, this flag can be disabled).
  * <p>
@@ -86,8 +107,13 @@ import java.util.stream.Collectors;
  * {@link Edge}s.
  */
 public class GetWalksHandler implements OutputOperationHandler<GetWalks, Iterable<Walk>> {
+    public static final int DEFAULT_SEED_BATCH_SIZE = 1000;
+
     private Integer maxHops = null;
     private boolean prune = true;
+    private boolean compactAdjacency = false;
+    private Integer parallelism = null;
+    private int seedBatchSize = DEFAULT_SEED_BATCH_SIZE;
 
     @Override
     public Iterable<Walk> doOperation(final GetWalks getWalks, final Context context, final Store store) throws OperationException {
@@ -143,10 +169,8 @@ public class GetWalksHandler implements OutputOperationHandler<GetWalks, Iterabl
 
         final GraphWindow graphWindow = new GraphWindow(adjacencyMaps, entityMaps);
 
-        // Track/recombine the edge objects and convert to return type
-        return Streams.toStream(originalInput)
-                .flatMap(seed -> walk(seed.getVertex(), null, graphWindow, new LinkedList<>(), new LinkedList<>(), hops).stream())
-                .collect(Collectors.toList());
+        // Track/recombine the edge objects lazily as the walks are iterated
+        return new WalkIterable(originalInput, graphWindow, hops);
     }
 
     public Integer getMaxHops() {
@@ -165,6 +189,33 @@ public class GetWalksHandler implements OutputOperationHandler<GetWalks, Iterabl
         this.prune = prune;
     }
 
+    public Boolean getCompactAdjacency() {
+        return compactAdjacency;
+    }
+
+    public void setCompactAdjacency(final Boolean compactAdjacency) {
+        this.compactAdjacency = compactAdjacency;
+    }
+
+    public Integer getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(final Integer parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public int getSeedBatchSize() {
+        return seedBatchSize;
+    }
+
+    public void setSeedBatchSize(final int seedBatchSize) {
+        if (seedBatchSize < 1) {
+            throw new IllegalArgumentException("seedBatchSize must be at least 1");
+        }
+        this.seedBatchSize = seedBatchSize;
+    }
+
     private boolean isWhileOperation(final OperationChain<Iterable<Element>> operation) {
         return 1 == operation.getOperations().size()
                 && operation.getOperations().get(0) instanceof While;
@@ -228,22 +279,19 @@ public class GetWalksHandler implements OutputOperationHandler<GetWalks, Iterabl
                                      final int hops,
                                      final AdjacencyMaps adjacencyMaps,
                                      final EntityMaps entityMaps) throws OperationException {
-        final Iterable<Element> results = executeOperation(operation, seeds, resultLimit, context, store);
-
-        final AdjacencyMap adjacencyMap = new AdjacencyMap();
+        final AdjacencyMap adjacencyMap = compactAdjacency ? new CompactAdjacencyMap() : new AdjacencyMap();
         final EntityMap entityMap = new EntityMap();
 
-        final List<Object> nextSeeds = new ArrayList<>();
-        for (final Element e : results) {
-            if (e instanceof Edge) {
-                final Edge edge = (Edge) e;
-                final Object nextSeed = edge.getAdjacentMatchedVertexValue();
-                nextSeeds.add(nextSeed);
-                adjacencyMap.putEdge(edge.getMatchedVertexValue(), nextSeed, edge);
-            } else {
-                final Entity entity = (Entity) e;
-                entityMap.putEntity(entity.getVertex(), entity);
+        // The frontier is de-duplicated so each vertex is only queried once in the next hop
+        final Set<Object> nextSeeds = new LinkedHashSet<>();
+
+        final List<? extends List<?>> partitions = partitionSeeds(seeds);
+        if (partitions.size() < 2) {
+            for (final Element e : executeOperation(operation, seeds, resultLimit, context, store)) {
+                addElement(e, adjacencyMap, entityMap, nextSeeds);
             }
+        } else {
+            executeOperationInParallel(operation, partitions, resultLimit, context, store, adjacencyMap, entityMap, nextSeeds);
         }
 
         if (hops > adjacencyMaps.size()) {
@@ -251,7 +299,105 @@ public class GetWalksHandler implements OutputOperationHandler<GetWalks, Iterabl
         }
         entityMaps.add(entityMap);
 
-        return nextSeeds;
+        return new ArrayList<>(nextSeeds);
+    }
+
+    private List<? extends List<?>> partitionSeeds(final List<?> seeds) {
+        if (null == parallelism || parallelism < 2 || seeds.size() <= seedBatchSize) {
+            return Collections.singletonList(seeds);
+        }
+        return Lists.partition(seeds, seedBatchSize);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void executeOperationInParallel(final Output<Iterable<Element>> operation,
+                                            final List<? extends List<?>> partitions,
+                                            final Integer resultLimit,
+                                            final Context context,
+                                            final Store store,
+                                            final AdjacencyMap adjacencyMap,
+                                            final EntityMap entityMap,
+                                            final Set<Object> nextSeeds) throws OperationException {
+        final AtomicLong resultCount = new AtomicLong();
+        final List<ForkJoinTask<Void>> tasks = new ArrayList<>(partitions.size());
+        // The pool only lives for the hop, so no threads are left behind once the operation completes
+        final ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            for (final List<?> partition : partitions) {
+                // Operations and contexts can be modified when executed, so each partition needs its own copies
+                final Output<Iterable<Element>> partitionOperation = (Output<Iterable<Element>>) operation.shallowClone();
+                final Context partitionContext = createPartitionContext(context);
+                tasks.add(pool.submit(() -> {
+                    final Iterable<Element> results = executePartition(
+                            partitionOperation, partition, resultLimit, partitionContext, store);
+                    final List<Element> partitionResults = new ArrayList<>();
+                    try {
+                        for (final Element e : results) {
+                            if (null != resultLimit && resultCount.incrementAndGet() > resultLimit) {
+                                throw new LimitExceededException("Limit of " + resultLimit + " exceeded.");
+                            }
+                            partitionResults.add(e);
+                        }
+                    } finally {
+                        CloseableUtil.close(results);
+                    }
+
+                    synchronized (adjacencyMap) {
+                        for (final Element e : partitionResults) {
+                            addElement(e, adjacencyMap, entityMap, nextSeeds);
+                        }
+                    }
+                    return null;
+                }));
+            }
+
+            for (final ForkJoinTask<Void> task : tasks) {
+                task.get();
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OperationException("Interrupted whilst executing GetWalks hop", e);
+        } catch (final ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof OperationException) {
+                throw (OperationException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new OperationException("Failed to execute GetWalks hop: " + cause.getMessage(), cause);
+        } finally {
+            tasks.forEach(task -> task.cancel(true));
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Creates the context for a partition of seeds executed in parallel. The
+     * partition gets its own job id and variables, so partitions do not modify
+     * each other's state or the job detail of the GetWalks operation.
+     *
+     * @param context the GetWalks context
+     * @return the context for the partition
+     */
+    private Context createPartitionContext(final Context context) {
+        final Context partitionContext = context.shallowClone();
+        if (null != context.getVariables()) {
+            partitionContext.setVariables(new HashMap<>(context.getVariables()));
+        }
+        return partitionContext;
+    }
+
+    private void addElement(final Element e, final AdjacencyMap adjacencyMap, final EntityMap entityMap, final Set<Object> nextSeeds) {
+        if (e instanceof Edge) {
+            final Edge edge = (Edge) e;
+            final Object nextSeed = edge.getAdjacentMatchedVertexValue();
+            nextSeeds.add(nextSeed);
+            adjacencyMap.putEdge(edge.getMatchedVertexValue(), nextSeed, edge);
+        } else {
+            final Entity entity = (Entity) e;
+            entityMap.putEntity(entity.getVertex(), entity);
+        }
     }
 
     private Iterable<Element> executeOperation(final Output<Iterable<Element>> operation,
@@ -272,36 +418,36 @@ public class GetWalksHandler implements OutputOperationHandler<GetWalks, Iterabl
         return new LimitedCloseableIterable<>(store.execute(convertedOp, context), 0, resultLimit, false);
     }
 
-    private List<Walk> walk(final Object curr, final Object prev, final GraphWindow graphWindow, final LinkedList<Set<Edge>> edgeQueue, final LinkedList<Set<Entity>> entityQueue, final int hops) {
-        final List<Walk> walks = new ArrayList<>();
-
-        if (null != prev && hops != edgeQueue.size()) {
-            edgeQueue.offer(graphWindow.getAdjacencyMaps().get(edgeQueue.size()).getEdges(prev, curr));
-        }
-
-        entityQueue.offer(graphWindow.getEntityMaps().get(entityQueue.size()).get(curr));
-
-        if (hops == edgeQueue.size()) {
-            final Walk walk = buildWalk(edgeQueue, entityQueue);
-            walks.add(walk);
-        } else {
-            for (final Object obj : graphWindow.getAdjacencyMaps().get(edgeQueue.size()).getDestinations(curr)) {
-                walks.addAll(walk(obj, curr, graphWindow, edgeQueue, entityQueue, hops));
-            }
-        }
-
-        if (!edgeQueue.isEmpty()) {
-            edgeQueue.pollLast();
-        }
-
-        if (!entityQueue.isEmpty()) {
-            entityQueue.pollLast();
-        }
+    /**
+     * Executes a partition of seeds for a hop executed in parallel. The
+     * operation is handled directly rather than executed as a job, so only the
+     * GetWalks operation records a job status.
+     *
+     * @param operation   the operation for the hop
+     * @param seeds       the seeds in the partition
+     * @param resultLimit the maximum number of results to return
+     * @param context     the context for the partition
+     * @param store       the store to handle the operation
+     * @return the elements for the partition
+     * @throws OperationException if the operation fails
+     */
+    @SuppressWarnings("unchecked")
+    private Iterable<Element> executePartition(final Output<Iterable<Element>> operation,
+                                               final List<?> seeds,
+                                               final Integer resultLimit,
+                                               final Context context,
+                                               final Store store) throws OperationException {
+        final Output<Iterable<Element>> convertedOp = new OperationChain.Builder()
+                .first(new ToEntitySeeds.Builder()
+                        .input(seeds)
+                        .build())
+                .then(OperationChain.wrap(operation))
+                .build();
 
-        return walks;
+        return new LimitedCloseableIterable<>((Iterable<Element>) store.handleOperation(convertedOp, context), 0, resultLimit, false);
     }
 
-    private Walk buildWalk(final LinkedList<Set<Edge>> edgeQueue, final LinkedList<Set<Entity>> entityQueue) {
+    private static Walk buildWalk(final LinkedList<Set<Edge>> edgeQueue, final LinkedList<Set<Entity>> entityQueue) {
         final Walk.Builder builder = new Walk.Builder();
 
         final Iterator<Set<Edge>> edgeIterator = edgeQueue.iterator();
@@ -328,4 +474,119 @@ public class GetWalksHandler implements OutputOperationHandler<GetWalks, Iterabl
             );
         }
     }
+
+    /**
+     * Lazily enumerates the {@link Walk}s in a {@link GraphWindow} starting at
+     * each of the seeds. Each iterator performs its own depth-first search, so
+     * only the current path is held in memory rather than every walk.
+     */
+    private static final class WalkIterable implements CloseableIterable<Walk> {
+        private final List<EntityId> seeds;
+        private final GraphWindow graphWindow;
+        private final int hops;
+
+        private WalkIterable(final List<EntityId> seeds, final GraphWindow graphWindow, final int hops) {
+            this.seeds = seeds;
+            this.graphWindow = graphWindow;
+            this.hops = hops;
+        }
+
+        @Override
+        public CloseableIterator<Walk> iterator() {
+            return new WalkIterator(seeds.iterator(), graphWindow, hops);
+        }
+
+        @Override
+        public void close() {
+            // Nothing to close - the graph window is held in memory
+        }
+    }
+
+    private static final class WalkIterator implements CloseableIterator<Walk> {
+        private final Iterator<EntityId> seeds;
+        private final GraphWindow graphWindow;
+        private final int hops;
+        private final LinkedList<Set<Edge>> edgeQueue = new LinkedList<>();
+        private final LinkedList<Set<Entity>> entityQueue = new LinkedList<>();
+        private final Deque<Step> path = new ArrayDeque<>();
+        private Walk next;
+
+        private WalkIterator(final Iterator<EntityId> seeds, final GraphWindow graphWindow, final int hops) {
+            this.seeds = seeds;
+            this.graphWindow = graphWindow;
+            this.hops = hops;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (null == next) {
+                if (path.isEmpty()) {
+                    if (!seeds.hasNext()) {
+                        return false;
+                    }
+                    push(seeds.next().getVertex(), null);
+                } else {
+                    final Step step = path.peek();
+                    if (step.destinations.hasNext()) {
+                        push(step.destinations.next(), step.vertex);
+                    } else {
+                        pop();
+                    }
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public Walk next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final Walk walk = next;
+            next = null;
+            return walk;
+        }
+
+        @Override
+        public void close() {
+            path.clear();
+        }
+
+        private void push(final Object curr, final Object prev) {
+            if (null != prev && hops != edgeQueue.size()) {
+                edgeQueue.offer(graphWindow.getAdjacencyMaps().get(edgeQueue.size()).getEdges(prev, curr));
+            }
+
+            entityQueue.offer(graphWindow.getEntityMaps().get(entityQueue.size()).get(curr));
+
+            final Iterator<Object> destinations;
+            if (hops == edgeQueue.size()) {
+                next = buildWalk(edgeQueue, entityQueue);
+                destinations = Collections.emptyIterator();
+            } else {
+                destinations = graphWindow.getAdjacencyMaps().get(edgeQueue.size()).getDestinations(curr).iterator();
+            }
+            path.push(new Step(curr, destinations));
+        }
+
+        private void pop() {
+            path.pop();
+            if (!edgeQueue.isEmpty()) {
+                edgeQueue.pollLast();
+            }
+            if (!entityQueue.isEmpty()) {
+                entityQueue.pollLast();
+            }
+        }
+    }
+
+    private static final class Step {
+        private final Object vertex;
+        private final Iterator<Object> destinations;
+
+        private Step(final Object vertex, final Iterator<Object> destinations) {
+            this.vertex = vertex;
+            this.destinations = destinations;
+        }
+    }
 }
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.store.operation.handler.export.resultfile;
+
+import uk.gov.gchq.gaffer.operation.impl.export.resultfile.ExportToResultFile;
+import uk.gov.gchq.gaffer.operation.impl.export.resultfile.ResultFileExporter;
+import uk.gov.gchq.gaffer.store.Context;
+import uk.gov.gchq.gaffer.store.Store;
+import uk.gov.gchq.gaffer.store.operation.handler.export.ExportToHandler;
+
+import java.nio.file.Paths;
+
+/**
+ * Implementation of the {@link ExportToHandler} abstract class to stream
+ * objects to compressed files, in the directory set by the
+ * {@link uk.gov.gchq.gaffer.store.StoreProperties#JOB_RESULTS_DIRECTORY}
+ * store property, via a {@link ResultFileExporter}.
+ */
+public class ExportToResultFileHandler extends ExportToHandler<ExportToResultFile, ResultFileExporter> {
+    @Override
+    protected Class<ResultFileExporter> getExporterClass() {
+        return ResultFileExporter.class;
+    }
+
+    @Override
+    protected ResultFileExporter createExporter(final ExportToResultFile export, final Context context, final Store store) {
+        return new ResultFileExporter(
+                Paths.get(store.getProperties().getJobResultsDirectory()),
+                context.getJobId(),
+                context.getUser().getUserId(),
+                store.getProperties().getJobResultsChunkSize(),
+                store.getProperties().getJobResultsTtl());
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.store.operation.handler.export.resultfile;
+
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
+import uk.gov.gchq.gaffer.operation.OperationException;
+import uk.gov.gchq.gaffer.operation.impl.export.resultfile.GetResultFileExport;
+import uk.gov.gchq.gaffer.operation.impl.export.resultfile.ResultFileExporter;
+import uk.gov.gchq.gaffer.store.Context;
+import uk.gov.gchq.gaffer.store.Store;
+import uk.gov.gchq.gaffer.store.operation.handler.export.GetExportHandler;
+
+import java.nio.file.Paths;
+
+/**
+ * Implementation of the {@link GetExportHandler} to stream exported results
+ * back from the files created by a {@link ResultFileExporter}.
+ */
+public class GetResultFileExportHandler extends GetExportHandler<GetResultFileExport, ResultFileExporter> {
+    @Override
+    protected CloseableIterable<?> getExport(final GetResultFileExport export, final ResultFileExporter exporter) throws OperationException {
+        return exporter.get(export.getKeyOrDefault(), export.getStart(), export.getEnd());
+    }
+
+    @Override
+    protected Class<ResultFileExporter> getExporterClass() {
+        return ResultFileExporter.class;
+    }
+
+    @Override
+    protected ResultFileExporter createExporter(final GetResultFileExport export, final Context context, final Store store) {
+        final String jobId = null != export.getJobId() ? export.getJobId() : context.getJobId();
+        return new ResultFileExporter(
+                Paths.get(store.getProperties().getJobResultsDirectory()),
+                jobId,
+                context.getUser().getUserId(),
+                store.getProperties().getJobResultsChunkSize(),
+                store.getProperties().getJobResultsTtl());
+    }
+}
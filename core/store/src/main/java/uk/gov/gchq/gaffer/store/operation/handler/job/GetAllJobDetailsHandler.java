@@ -28,7 +28,8 @@ import static uk.gov.gchq.gaffer.core.exception.Status.SERVICE_UNAVAILABLE;
 
 /**
  * A {@code GetAllJobDetailsHandler} handles {@link GetAllJobDetails} operations
- * by querying the configured store's job tracker for all job information.
+ * by querying the configured store's job tracker for all job information,
+ * optionally filtered by user and status and paged.
  */
 public class GetAllJobDetailsHandler implements OutputOperationHandler<GetAllJobDetails, CloseableIterable<JobDetail>> {
     @Override
@@ -37,6 +38,10 @@ public class GetAllJobDetailsHandler implements OutputOperationHandler<GetAllJob
             throw new OperationException("The Job Tracker has not been configured", SERVICE_UNAVAILABLE);
         }
 
-        return store.getJobTracker().getAllJobs(context.getUser());
+        return store.getJobTracker().getJobs(context.getUser(),
+                operation.getUserId(),
+                operation.getStatus(),
+                null != operation.getOffset() ? operation.getOffset() : 0,
+                operation.getLimit());
     }
 }
@@ -17,29 +17,58 @@
 package uk.gov.gchq.gaffer.store.operation.handler.job;
 
 import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
+import uk.gov.gchq.gaffer.commonutil.iterable.LimitedCloseableIterable;
 import uk.gov.gchq.gaffer.operation.OperationChain;
 import uk.gov.gchq.gaffer.operation.OperationException;
 import uk.gov.gchq.gaffer.operation.impl.export.resultcache.GetGafferResultCacheExport;
+import uk.gov.gchq.gaffer.operation.impl.export.resultfile.GetResultFileExport;
 import uk.gov.gchq.gaffer.operation.impl.job.GetJobResults;
 import uk.gov.gchq.gaffer.store.Context;
 import uk.gov.gchq.gaffer.store.Store;
 import uk.gov.gchq.gaffer.store.operation.handler.OutputOperationHandler;
 
+import static uk.gov.gchq.gaffer.core.exception.Status.BAD_REQUEST;
+
 /**
  * A {@code GetJobResultsHandler} handles {@link GetJobResults} operations by querying
  * the configured store's job tracker for the required job results.
+ * The results are streamed from result files if they have been configured,
+ * otherwise they are fetched from the Gaffer result cache.
  */
 public class GetJobResultsHandler implements OutputOperationHandler<GetJobResults, CloseableIterable<?>> {
     @Override
     public CloseableIterable<?> doOperation(final GetJobResults operation, final Context context, final Store store) throws OperationException {
+        if (operation.getStart() < 0 || (null != operation.getEnd() && operation.getEnd() < operation.getStart())) {
+            throw new OperationException("The start index must not be negative or after the end index", BAD_REQUEST);
+        }
+
+        if (store.isSupported(GetResultFileExport.class)) {
+            // Delegates the operation to the GetResultFileExport operation handler.
+            return store.execute(new OperationChain<>(new GetResultFileExport.Builder()
+                    .jobId(operation.getJobId())
+                    .key(operation.getKeyOrDefault())
+                    .start(operation.getStart())
+                    .end(operation.getEnd())
+                    .build()), context);
+        }
+
         if (!store.isSupported(GetGafferResultCacheExport.class)) {
             throw new OperationException("Getting job results is not supported as the " + GetGafferResultCacheExport.class.getSimpleName() + " operation has not been configured for this Gaffer graph.");
         }
 
         // Delegates the operation to the GetGafferResultCacheExport operation handler.
-        return store.execute(new OperationChain<>(new GetGafferResultCacheExport.Builder()
+        final CloseableIterable<?> results = store.execute(new OperationChain<>(new GetGafferResultCacheExport.Builder()
                 .jobId(operation.getJobId())
                 .key(operation.getKeyOrDefault())
                 .build()), context);
+        if (0 == operation.getStart() && null == operation.getEnd()) {
+            return results;
+        }
+        return new LimitedCloseableIterable<>(results, toIntIndex(operation.getStart()),
+                null != operation.getEnd() ? toIntIndex(operation.getEnd()) : null);
+    }
+
+    private static int toIntIndex(final long index) {
+        return (int) Math.min(index, Integer.MAX_VALUE);
     }
 }
@@ -18,6 +18,7 @@ package uk.gov.gchq.gaffer.store.operation.handler.join;
 
 
 
+import uk.gov.gchq.gaffer.commonutil.CloseableUtil;
 import uk.gov.gchq.gaffer.commonutil.exception.LimitExceededException;
 import uk.gov.gchq.gaffer.commonutil.iterable.LimitedCloseableIterable;
 import uk.gov.gchq.gaffer.operation.OperationException;
@@ -80,6 +81,9 @@ public class JoinHandler<I> implements OutputOperationHandler<Join<I>, Iterable<
             return joinFunction.join(limitedLeftIterable, limitedRightIterable, operation.getMatchMethod(), matchKey, operation.isFlatten());
         } catch (final LimitExceededException e) {
             throw new OperationException(e);
+        } finally {
+            // The join results are fully materialised, so release the match index and any spilled partitions
+            CloseableUtil.close(operation.getMatchMethod());
         }
 
     }
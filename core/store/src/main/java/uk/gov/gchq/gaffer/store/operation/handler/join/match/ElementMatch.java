@@ -16,20 +16,32 @@
 
 package uk.gov.gchq.gaffer.store.operation.handler.join.match;
 
+import uk.gov.gchq.gaffer.data.element.Edge;
 import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.Entity;
 import uk.gov.gchq.gaffer.data.element.comparison.ElementJoinComparator;
 import uk.gov.gchq.gaffer.operation.impl.join.match.Match;
 
+import java.io.Closeable;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 
 /**
  * Tests for matches for Elements within a Join Operation, groupBy properties can be optionally specified.
+ * <p>
+ * The match candidates are hash indexed once on the fields compared by the
+ * {@link ElementJoinComparator}, so each call to {@link #matching(Object)} is
+ * a lookup rather than a scan of every candidate. If a spill threshold is set,
+ * candidates beyond it are spilled to disk and the test objects are partitioned
+ * in the same way, so the join is done one partition at a time; see
+ * {@link MatchCandidateIndex}.
  */
-public class ElementMatch implements Match {
+public class ElementMatch implements Match, Closeable {
     private ElementJoinComparator elementJoinComparator;
     private Iterable matchCandidates;
+    private Integer spillThreshold;
+    private MatchCandidateIndex index;
 
     private static final String NULL_MATCH_CANDIDATES_ERROR_MESSAGE = "ElementMatch must be initialised with non-null match candidates";
 
@@ -47,6 +59,16 @@ public class ElementMatch implements Match {
 
     public void setElementGroupByProperties(final Set<String> groupByProperties) {
         elementJoinComparator.setGroupByProperties(groupByProperties);
+        close();
+    }
+
+    public Integer getSpillThreshold() {
+        return spillThreshold;
+    }
+
+    public void setSpillThreshold(final Integer spillThreshold) {
+        this.spillThreshold = spillThreshold;
+        close();
     }
 
     @Override
@@ -54,6 +76,7 @@ public class ElementMatch implements Match {
         if (matchCandidates == null) {
             throw new IllegalArgumentException(NULL_MATCH_CANDIDATES_ERROR_MESSAGE);
         }
+        close();
         this.matchCandidates = matchCandidates;
     }
 
@@ -64,13 +87,69 @@ public class ElementMatch implements Match {
         }
 
         List matches = new ArrayList<>();
+        if (null == testObject) {
+            return matches;
+        }
 
-
-        for (final Object entry : matchCandidates) {
-            if (elementJoinComparator.test((Element) entry, (Element) testObject)) {
-                matches.add(((Element) entry).shallowClone());
-            }
+        for (final Object entry : getIndex().get(getKey(testObject))) {
+            matches.add(((Element) entry).shallowClone());
         }
         return matches;
     }
+
+    @Override
+    public Iterable orderTestObjects(final Iterable testObjects) {
+        if (matchCandidates == null) {
+            throw new IllegalArgumentException(NULL_MATCH_CANDIDATES_ERROR_MESSAGE);
+        }
+        return getIndex().partitionProbes(testObjects, this::getKey);
+    }
+
+    /**
+     * Releases the candidate index and deletes any spilled partitions. The
+     * index is rebuilt from the match candidates if this match is used again.
+     */
+    @Override
+    public void close() {
+        if (null != index) {
+            index.close();
+            index = null;
+        }
+    }
+
+    private MatchCandidateIndex getIndex() {
+        if (null == index) {
+            index = new MatchCandidateIndex(this::getKey, spillThreshold).addAll(matchCandidates);
+        }
+        return index;
+    }
+
+    /**
+     * Creates a key that is equal for two elements if and only if they are
+     * equal according to the {@link ElementJoinComparator}.
+     *
+     * @param obj the element
+     * @return the join key
+     */
+    private Object getKey(final Object obj) {
+        if (null == obj) {
+            return null;
+        }
+
+        final Element element = (Element) obj;
+        final List<Object> key = new ArrayList<>();
+        key.add(element.getClass().getName());
+        key.add(element.getGroup());
+        if (element instanceof Entity) {
+            key.add(((Entity) element).getVertex());
+        } else {
+            key.add(((Edge) element).getSource());
+            key.add(((Edge) element).getDestination());
+            key.add(((Edge) element).getDirectedType());
+        }
+        for (final String groupByProperty : elementJoinComparator.getGroupByProperties()) {
+            key.add(element.getProperty(groupByProperty));
+        }
+        return key;
+    }
 }
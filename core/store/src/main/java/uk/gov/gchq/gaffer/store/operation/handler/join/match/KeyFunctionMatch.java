@@ -24,8 +24,7 @@ import org.apache.commons.lang3.builder.HashCodeBuilder;
 import uk.gov.gchq.gaffer.operation.impl.join.match.Match;
 import uk.gov.gchq.koryphe.impl.function.Identity;
 
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.io.Closeable;
 import java.util.List;
 import java.util.function.Function;
 
@@ -34,18 +33,24 @@ import java.util.function.Function;
  * A {@code KeyFunctionMatch} is a {@link Match} which takes two key functions which are used to extract keys from
  * two inputs. A match occurs when the keys are equal. The first key function is applied to the Left input
  * in a Left sided join and vice versa.
+ * <p>
+ * The match candidates are hash indexed by the second key function. If a spill
+ * threshold is set, candidates beyond it are spilled to disk and the test
+ * objects are partitioned by the first key function in the same way, so the
+ * join is done one partition at a time; see {@link MatchCandidateIndex}.
  */
 
 @JsonPropertyOrder(value = {"class", "firstKeyFunction", "secondKeyFunction"}, alphabetic = true)
-public class KeyFunctionMatch implements Match {
+public class KeyFunctionMatch implements Match, Closeable {
 
     private static final String NULL_FUNCTION_ERROR_MESSAGE = "Key functions for left and right input cannot be null";
     private static final String NULL_MATCH_CANDIDATES_ERROR_MESSAGE = "Iterable of match candidates cannot be null";
 
     private Function firstKeyFunction;
     private Function secondKeyFunction;
+    private Integer spillThreshold;
 
-    private HashMap<Object, List> keyedMatchCandidates = new HashMap<>();
+    private MatchCandidateIndex keyedMatchCandidates;
 
     public KeyFunctionMatch() {
         this(new Identity(), new Identity());
@@ -63,16 +68,9 @@ public class KeyFunctionMatch implements Match {
             throw new IllegalArgumentException(NULL_MATCH_CANDIDATES_ERROR_MESSAGE);
         }
         // Iterates over match candidates, creates an index using second key function.
-        for (final Object matchCandidate : matchCandidates) {
-            Object key = secondKeyFunction.apply(matchCandidate);
-            List list = keyedMatchCandidates.get(key);
-            if (list == null) {
-                list = new ArrayList();
-            }
-            list.add(matchCandidate);
-            keyedMatchCandidates.put(key, list);
-        }
-
+        close();
+        keyedMatchCandidates = new MatchCandidateIndex(secondKeyFunction, spillThreshold)
+                .addAll(matchCandidates);
     }
 
     @JsonTypeInfo(use = JsonTypeInfo.Id.CLASS, property = "class")
@@ -93,6 +91,14 @@ public class KeyFunctionMatch implements Match {
         this.secondKeyFunction = secondKeyFunction;
     }
 
+    public Integer getSpillThreshold() {
+        return spillThreshold;
+    }
+
+    public void setSpillThreshold(final Integer spillThreshold) {
+        this.spillThreshold = spillThreshold;
+    }
+
     @Override
     public List matching(final Object testObject) {
 
@@ -100,17 +106,48 @@ public class KeyFunctionMatch implements Match {
             throw new IllegalArgumentException(NULL_FUNCTION_ERROR_MESSAGE);
         }
 
+        if (this.keyedMatchCandidates == null) {
+            throw new IllegalArgumentException(NULL_MATCH_CANDIDATES_ERROR_MESSAGE);
+        }
+
         Object testObjectKey = firstKeyFunction.apply(testObject);
 
-        return this.keyedMatchCandidates.getOrDefault(testObjectKey, new ArrayList());
+        return this.keyedMatchCandidates.get(testObjectKey);
+    }
+
+    @Override
+    public Iterable orderTestObjects(final Iterable testObjects) {
+        if (this.firstKeyFunction == null || this.secondKeyFunction == null) {
+            throw new IllegalArgumentException(NULL_FUNCTION_ERROR_MESSAGE);
+        }
+
+        if (this.keyedMatchCandidates == null) {
+            throw new IllegalArgumentException(NULL_MATCH_CANDIDATES_ERROR_MESSAGE);
+        }
+
+        return this.keyedMatchCandidates.partitionProbes(testObjects, firstKeyFunction);
+    }
+
+    /**
+     * Releases the candidate index and deletes any spilled partitions.
+     */
+    @Override
+    public void close() {
+        if (null != keyedMatchCandidates) {
+            keyedMatchCandidates.close();
+            keyedMatchCandidates = null;
+        }
     }
 
     public static final class Builder {
         private Function firstKeyFunction = new Identity();
         private Function secondKeyFunction = new Identity();
+        private Integer spillThreshold;
 
         public KeyFunctionMatch build() {
-            return new KeyFunctionMatch(firstKeyFunction, secondKeyFunction);
+            final KeyFunctionMatch match = new KeyFunctionMatch(firstKeyFunction, secondKeyFunction);
+            match.setSpillThreshold(spillThreshold);
+            return match;
         }
 
         public Builder firstKeyFunction(final Function firstKeyFunction) {
@@ -122,6 +159,11 @@ public class KeyFunctionMatch implements Match {
             this.secondKeyFunction = secondKeyFunction;
             return this;
         }
+
+        public Builder spillThreshold(final Integer spillThreshold) {
+            this.spillThreshold = spillThreshold;
+            return this;
+        }
     }
 
     @Override
@@ -129,6 +171,7 @@ public class KeyFunctionMatch implements Match {
         return new HashCodeBuilder()
                 .append(this.firstKeyFunction)
                 .append(this.secondKeyFunction)
+                .append(this.spillThreshold)
                 .hashCode();
     }
 
@@ -146,6 +189,7 @@ public class KeyFunctionMatch implements Match {
         return new EqualsBuilder()
                 .append(this.firstKeyFunction, match.firstKeyFunction)
                 .append(this.secondKeyFunction, match.secondKeyFunction)
+                .append(this.spillThreshold, match.spillThreshold)
                 .isEquals();
 
     }
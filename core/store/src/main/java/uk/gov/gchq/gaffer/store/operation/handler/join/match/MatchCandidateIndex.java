@@ -0,0 +1,364 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.store.operation.handler.join.match;
+
+import uk.gov.gchq.gaffer.exception.SerialisationException;
+import uk.gov.gchq.gaffer.serialisation.implementation.JavaSerialiser;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * A {@code MatchCandidateIndex} is the build side of a hash join. Match
+ * candidates are indexed once by a key function and then probed by key, so
+ * each probe costs a single hash lookup rather than a scan of every candidate.
+ * <p>
+ * If a spill threshold is set and more than that many candidates are added,
+ * the candidates are hash partitioned by key into temporary files. When
+ * probed, only the partition the key hashes to is loaded and indexed, so at
+ * most one partition is held in memory at a time. Spilled candidates must be
+ * {@link Serializable}.
+ * <p>
+ * Once spilled, the probe side should also be partitioned, using
+ * {@link #partitionProbes(Iterable, Function)}, so the join is a grace hash
+ * join: the probes are written to the same number of partitions by the same
+ * hash and then joined one partition pair at a time, loading each candidate
+ * partition once rather than every time consecutive probes hash to different
+ * partitions.
+ */
+public class MatchCandidateIndex implements Closeable {
+    public static final int DEFAULT_SPILL_PARTITIONS = 32;
+
+    private static final JavaSerialiser SERIALISER = new JavaSerialiser();
+
+    private final Function<Object, Object> keyFunction;
+    private final Integer spillThreshold;
+    private final int spillPartitions;
+
+    private Map<Object, List<Object>> index = new HashMap<>();
+    private int size;
+
+    private File[] partitionFiles;
+    private DataOutputStream[] partitionOutputs;
+    private final List<File> probeFiles = new ArrayList<>();
+    private int loadedPartition = -1;
+
+    public MatchCandidateIndex(final Function<Object, Object> keyFunction) {
+        this(keyFunction, null);
+    }
+
+    public MatchCandidateIndex(final Function<Object, Object> keyFunction, final Integer spillThreshold) {
+        this(keyFunction, spillThreshold, DEFAULT_SPILL_PARTITIONS);
+    }
+
+    public MatchCandidateIndex(final Function<Object, Object> keyFunction, final Integer spillThreshold, final int spillPartitions) {
+        if (null != spillThreshold && spillThreshold < 1) {
+            throw new IllegalArgumentException("Spill threshold must be at least 1, but was: " + spillThreshold);
+        }
+        if (spillPartitions < 1) {
+            throw new IllegalArgumentException("Spill partitions must be at least 1, but was: " + spillPartitions);
+        }
+        this.keyFunction = keyFunction;
+        this.spillThreshold = spillThreshold;
+        this.spillPartitions = spillPartitions;
+    }
+
+    /**
+     * Adds all the match candidates to the index.
+     *
+     * @param matchCandidates the candidates to add
+     * @return this index
+     */
+    public MatchCandidateIndex addAll(final Iterable matchCandidates) {
+        for (final Object matchCandidate : matchCandidates) {
+            add(matchCandidate);
+        }
+        finishSpilling();
+        return this;
+    }
+
+    /**
+     * Gets the candidates with the given key, in the order they were added.
+     *
+     * @param key the key to look up
+     * @return the matching candidates, or an empty list if there are none
+     */
+    public List<Object> get(final Object key) {
+        if (isSpilled()) {
+            finishSpilling();
+            final int partition = getPartition(key);
+            if (partition != loadedPartition) {
+                index = loadPartition(partition);
+                loadedPartition = partition;
+            }
+        }
+
+        final List<Object> matches = index.get(key);
+        return null == matches ? Collections.emptyList() : matches;
+    }
+
+    /**
+     * Partitions the probe side of the join by the same hash as the spilled
+     * candidates. The probes are returned grouped by partition, in partition
+     * order, so probing this index with them in turn loads each candidate
+     * partition only once. Within a partition the probes keep their original
+     * order. If the candidates have not been spilled the probes are returned
+     * unchanged.
+     * <p>
+     * The partitioned probes are written to temporary files, which are deleted
+     * as each partition is read, or when this index is closed. Spilled probes
+     * must be {@link Serializable}, and the returned iterable can only be
+     * iterated once.
+     * </p>
+     *
+     * @param probes           the probe side of the join
+     * @param probeKeyFunction extracts the key to probe this index with
+     * @return the probes, grouped by partition if the candidates are spilled
+     */
+    public Iterable<Object> partitionProbes(final Iterable probes, final Function<Object, Object> probeKeyFunction) {
+        if (!isSpilled()) {
+            return probes;
+        }
+        finishSpilling();
+
+        final File[] files = new File[spillPartitions];
+        final DataOutputStream[] outputs = new DataOutputStream[spillPartitions];
+        try {
+            try {
+                for (int i = 0; i < spillPartitions; i++) {
+                    files[i] = createSpillFile(".probe");
+                    probeFiles.add(files[i]);
+                    outputs[i] = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(files[i])));
+                }
+            } catch (final IOException e) {
+                close();
+                throw new RuntimeException("Unable to create join spill files", e);
+            }
+
+            for (final Object probe : probes) {
+                write(outputs, probeKeyFunction.apply(probe), probe, "join input");
+            }
+        } finally {
+            closeOutputs(outputs);
+        }
+
+        return () -> new PartitionedProbeIterator(files);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isSpilled() {
+        return null != partitionFiles;
+    }
+
+    /**
+     * Deletes any temporary partition files.
+     */
+    @Override
+    public void close() {
+        finishSpilling();
+        if (null != partitionFiles) {
+            for (final File partitionFile : partitionFiles) {
+                delete(partitionFile);
+            }
+            partitionFiles = null;
+        }
+        probeFiles.forEach(MatchCandidateIndex::delete);
+        probeFiles.clear();
+        index = new HashMap<>();
+        loadedPartition = -1;
+        size = 0;
+    }
+
+    private void add(final Object matchCandidate) {
+        size++;
+        final Object key = keyFunction.apply(matchCandidate);
+        if (isSpilled()) {
+            write(partitionOutputs, key, matchCandidate, "match candidate");
+        } else {
+            index.computeIfAbsent(key, k -> new ArrayList<>()).add(matchCandidate);
+            if (null != spillThreshold && size > spillThreshold) {
+                spill();
+            }
+        }
+    }
+
+    private void spill() {
+        partitionFiles = new File[spillPartitions];
+        partitionOutputs = new DataOutputStream[spillPartitions];
+        try {
+            for (int i = 0; i < spillPartitions; i++) {
+                partitionFiles[i] = createSpillFile(".partition");
+                partitionOutputs[i] = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(partitionFiles[i])));
+            }
+        } catch (final IOException e) {
+            close();
+            throw new RuntimeException("Unable to create join spill files", e);
+        }
+
+        for (final Map.Entry<Object, List<Object>> entry : index.entrySet()) {
+            for (final Object matchCandidate : entry.getValue()) {
+                write(partitionOutputs, entry.getKey(), matchCandidate, "match candidate");
+            }
+        }
+        index = new HashMap<>();
+    }
+
+    private void write(final DataOutputStream[] outputs, final Object key, final Object item, final String description) {
+        if (null != item && !(item instanceof Serializable)) {
+            close();
+            throw new IllegalArgumentException("Unable to spill " + description + " of type "
+                    + item.getClass().getName() + " to disk as it is not Serializable");
+        }
+        try {
+            final byte[] bytes = SERIALISER.serialise(item);
+            final DataOutputStream output = outputs[getPartition(key)];
+            output.writeInt(bytes.length);
+            output.write(bytes);
+        } catch (final IOException e) {
+            close();
+            throw new RuntimeException("Unable to spill " + description + " to disk", e);
+        }
+    }
+
+    private void finishSpilling() {
+        if (null != partitionOutputs) {
+            try {
+                closeOutputs(partitionOutputs);
+            } finally {
+                partitionOutputs = null;
+            }
+        }
+    }
+
+    private Map<Object, List<Object>> loadPartition(final int partition) {
+        // Release the previous partition before loading the next one
+        index = new HashMap<>();
+
+        final Map<Object, List<Object>> partitionIndex = new HashMap<>();
+        for (final Object matchCandidate : read(partitionFiles[partition])) {
+            partitionIndex.computeIfAbsent(keyFunction.apply(matchCandidate), k -> new ArrayList<>()).add(matchCandidate);
+        }
+        return partitionIndex;
+    }
+
+    private static List<Object> read(final File file) {
+        final List<Object> items = new ArrayList<>();
+        try (final DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            while (true) {
+                final int length;
+                try {
+                    length = input.readInt();
+                } catch (final EOFException e) {
+                    break;
+                }
+                final byte[] bytes = new byte[length];
+                input.readFully(bytes);
+                items.add(SERIALISER.deserialise(bytes));
+            }
+        } catch (final SerialisationException e) {
+            throw new RuntimeException("Unable to deserialise spilled join item", e);
+        } catch (final IOException e) {
+            throw new RuntimeException("Unable to read join spill file", e);
+        }
+        return items;
+    }
+
+    private static File createSpillFile(final String suffix) throws IOException {
+        final File file = File.createTempFile("gaffer-join-", suffix);
+        file.deleteOnExit();
+        return file;
+    }
+
+    private static void closeOutputs(final DataOutputStream[] outputs) {
+        try {
+            for (final DataOutputStream output : outputs) {
+                if (null != output) {
+                    output.close();
+                }
+            }
+        } catch (final IOException e) {
+            throw new RuntimeException("Unable to write join spill files", e);
+        }
+    }
+
+    private static void delete(final File file) {
+        if (null != file && file.exists() && !file.delete()) {
+            file.deleteOnExit();
+        }
+    }
+
+    private int getPartition(final Object key) {
+        return Math.floorMod(Objects.hashCode(key), spillPartitions);
+    }
+
+    /**
+     * Reads the partitioned probes one partition at a time, deleting each
+     * partition file once it has been read.
+     */
+    private final class PartitionedProbeIterator implements Iterator<Object> {
+        private final File[] files;
+        private int partition = -1;
+        private Iterator<Object> partitionProbes = Collections.emptyIterator();
+
+        private PartitionedProbeIterator(final File[] files) {
+            this.files = files;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!partitionProbes.hasNext() && partition < files.length - 1) {
+                partition++;
+                if (!probeFiles.contains(files[partition])) {
+                    throw new IllegalStateException("The partitioned probes have already been read, or the index has been closed");
+                }
+                partitionProbes = read(files[partition]).iterator();
+                probeFiles.remove(files[partition]);
+                delete(files[partition]);
+            }
+            return partitionProbes.hasNext();
+        }
+
+        @Override
+        public Object next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return partitionProbes.next();
+        }
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.store.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Limits the number of jobs that run concurrently for a graph and for each
+ * user of the graph. Jobs submitted over either limit are queued and then run,
+ * in the order they were submitted, as running jobs finish.
+ * <p>
+ * A limit of less than 1 means the number of jobs is not limited.
+ * </p>
+ */
+public class JobLimiter {
+    private static final Logger LOGGER = LoggerFactory.getLogger(JobLimiter.class);
+
+    private final int maxJobs;
+    private final int maxJobsPerUser;
+    private final Queue<QueuedJob> queue = new ArrayDeque<>();
+    private final Map<String, Integer> runningJobsPerUser = new HashMap<>();
+    private int runningJobs;
+
+    public JobLimiter(final int maxJobs, final int maxJobsPerUser) {
+        this.maxJobs = maxJobs;
+        this.maxJobsPerUser = maxJobsPerUser;
+    }
+
+    /**
+     * Runs a job on the executor if it is within the limits, otherwise queues
+     * the job until another job finishes.
+     *
+     * @param executor the executor to run the job on
+     * @param userId   the id of the user running the job
+     * @param job      the job to run
+     */
+    public void submit(final Executor executor, final String userId, final Runnable job) {
+        submit(executor, userId, job, null);
+    }
+
+    /**
+     * Runs a job on the executor if it is within the limits, otherwise queues
+     * the job until another job finishes.
+     * <p>
+     * If the job is queued the listener is notified before the job is added
+     * to the queue, so the job cannot start before the listener returns.
+     * </p>
+     *
+     * @param executor the executor to run the job on
+     * @param userId   the id of the user running the job
+     * @param job      the job to run
+     * @param listener notified if the job is queued, or if the job is rejected
+     *                 by the executor after being queued, can be null
+     * @throws RejectedExecutionException if the job is not queued and is
+     *                                    rejected by the executor
+     */
+    public void submit(final Executor executor, final String userId, final Runnable job, final JobListener listener) {
+        final QueuedJob queuedJob = new QueuedJob(executor, userId, job, listener);
+        synchronized (this) {
+            if (!canRun(userId)) {
+                LOGGER.debug("Queueing job for user {}, {} jobs are queued", userId, queue.size() + 1);
+                if (null != listener) {
+                    listener.queued();
+                }
+                queue.add(queuedJob);
+                return;
+            }
+            started(userId);
+        }
+        run(queuedJob);
+    }
+
+    public synchronized int getRunningJobs() {
+        return runningJobs;
+    }
+
+    public synchronized int getQueuedJobs() {
+        return queue.size();
+    }
+
+    private void run(final QueuedJob queuedJob) {
+        try {
+            queuedJob.executor.execute(() -> {
+                try {
+                    queuedJob.job.run();
+                } finally {
+                    finished(queuedJob.userId);
+                }
+            });
+        } catch (final RejectedExecutionException e) {
+            finished(queuedJob.userId);
+            throw e;
+        }
+    }
+
+    private void finished(final String userId) {
+        final QueuedJob next;
+        synchronized (this) {
+            runningJobs--;
+            runningJobsPerUser.computeIfPresent(userId, (k, count) -> count > 1 ? count - 1 : null);
+            next = pollNextJob();
+            if (null != next) {
+                started(next.userId);
+            }
+        }
+        if (null != next) {
+            try {
+                run(next);
+            } catch (final RejectedExecutionException e) {
+                LOGGER.warn("Unable to run queued job for user {}", next.userId, e);
+                if (null != next.listener) {
+                    next.listener.rejected(e);
+                }
+            }
+        }
+    }
+
+    private QueuedJob pollNextJob() {
+        final Iterator<QueuedJob> itr = queue.iterator();
+        while (itr.hasNext()) {
+            final QueuedJob queuedJob = itr.next();
+            if (canRun(queuedJob.userId)) {
+                itr.remove();
+                return queuedJob;
+            }
+        }
+        return null;
+    }
+
+    private boolean canRun(final String userId) {
+        return (maxJobs < 1 || runningJobs < maxJobs)
+                && (maxJobsPerUser < 1 || runningJobsPerUser.getOrDefault(userId, 0) < maxJobsPerUser);
+    }
+
+    private void started(final String userId) {
+        runningJobs++;
+        runningJobsPerUser.merge(userId, 1, Integer::sum);
+    }
+
+    /**
+     * Notified of changes to a job that has been submitted to a
+     * {@link JobLimiter}.
+     */
+    public interface JobListener {
+        /**
+         * Called when the job is queued because a limit has been reached.
+         */
+        void queued();
+
+        /**
+         * Called when a queued job is rejected by the executor, so it will
+         * never run.
+         *
+         * @param e the exception thrown by the executor
+         */
+        void rejected(final RejectedExecutionException e);
+    }
+
+    private static final class QueuedJob {
+        private final Executor executor;
+        private final String userId;
+        private final Runnable job;
+        private final JobListener listener;
+
+        private QueuedJob(final Executor executor, final String userId, final Runnable job, final JobListener listener) {
+            this.executor = executor;
+            this.userId = userId;
+            this.job = job;
+            this.listener = listener;
+        }
+    }
+}
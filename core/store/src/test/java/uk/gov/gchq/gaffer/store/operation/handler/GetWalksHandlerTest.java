@@ -18,19 +18,46 @@ package uk.gov.gchq.gaffer.store.operation.handler;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import org.junit.Test;
+import org.mockito.stubbing.Answer;
 
 import uk.gov.gchq.gaffer.commonutil.TestGroups;
+import uk.gov.gchq.gaffer.data.element.Edge;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.id.EdgeId;
+import uk.gov.gchq.gaffer.data.element.id.EntityId;
 import uk.gov.gchq.gaffer.data.elementdefinition.view.View;
 import uk.gov.gchq.gaffer.data.graph.Walk;
 import uk.gov.gchq.gaffer.exception.SerialisationException;
 import uk.gov.gchq.gaffer.jsonserialisation.JSONSerialiser;
+import uk.gov.gchq.gaffer.operation.Operation;
+import uk.gov.gchq.gaffer.operation.OperationChain;
 import uk.gov.gchq.gaffer.operation.impl.GetWalks;
 import uk.gov.gchq.gaffer.operation.impl.get.GetElements;
+import uk.gov.gchq.gaffer.operation.impl.output.ToEntitySeeds;
+import uk.gov.gchq.gaffer.operation.io.Output;
+import uk.gov.gchq.gaffer.store.Context;
+import uk.gov.gchq.gaffer.store.Store;
+import uk.gov.gchq.gaffer.user.User;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 public class GetWalksHandlerTest {
     @Test
@@ -54,11 +81,88 @@ public class GetWalksHandlerTest {
         assertThat(result, is(nullValue()));
     }
 
+    @Test
+    public void shouldExecuteHopsInParallelAndDeduplicateFrontier() throws Exception {
+        shouldExecuteHopsInParallelAndDeduplicateFrontier(false);
+    }
+
+    @Test
+    public void shouldExecuteHopsInParallelWithCompactAdjacency() throws Exception {
+        shouldExecuteHopsInParallelAndDeduplicateFrontier(true);
+    }
+
+    private void shouldExecuteHopsInParallelAndDeduplicateFrontier(final boolean compactAdjacency) throws Exception {
+        // Given
+        final Store store = mock(Store.class);
+        final java.util.Map<Object, List<Edge>> edgesBySeed = new HashMap<>();
+        edgesBySeed.put("A", Collections.singletonList(createEdge("A", "C")));
+        edgesBySeed.put("B", Collections.singletonList(createEdge("B", "C")));
+        edgesBySeed.put("C", Collections.singletonList(createEdge("C", "D")));
+        final List<List<Object>> executedSeeds = Collections.synchronizedList(new ArrayList<>());
+        final Set<String> jobIds = Collections.synchronizedSet(new HashSet<>());
+        final Answer<List<Element>> getEdges = invocation -> {
+            final OperationChain<?> chain = (OperationChain<?>) invocation.getArguments()[0];
+            final List<Object> seeds = getVertices(((ToEntitySeeds) chain.getOperations().get(0)).getInput());
+            executedSeeds.add(seeds);
+            jobIds.add(((Context) invocation.getArguments()[1]).getJobId());
+            final List<Element> results = new ArrayList<>();
+            for (final Object seed : seeds) {
+                results.addAll(edgesBySeed.getOrDefault(seed, Collections.emptyList()));
+            }
+            return results;
+        };
+        given(store.execute(any(Output.class), any(Context.class))).willAnswer(getEdges);
+        given(store.handleOperation(any(Operation.class), any(Context.class))).willAnswer(getEdges);
+        final Context context = new Context(new User());
+
+        final GetElements getElements = new GetElements.Builder()
+                .view(new View.Builder()
+                        .edge(TestGroups.EDGE)
+                        .build())
+                .build();
+        final GetWalks operation = new GetWalks.Builder()
+                .input("A", "B")
+                .operations(getElements, getElements)
+                .build();
+
+        final GetWalksHandler handler = new GetWalksHandler();
+        handler.setParallelism(2);
+        handler.setSeedBatchSize(1);
+        handler.setCompactAdjacency(compactAdjacency);
+
+        // When
+        final Iterable<Walk> result = handler.doOperation(operation, context, store);
+
+        // Then
+        final List<List<Object>> paths = new ArrayList<>();
+        for (final Walk walk : result) {
+            paths.add(walk.getVerticesOrdered());
+        }
+        assertEquals(2, paths.size());
+        assertTrue(paths.contains(Arrays.asList("A", "C", "D")));
+        assertTrue(paths.contains(Arrays.asList("B", "C", "D")));
+        assertEquals(3, executedSeeds.size());
+        assertTrue(executedSeeds.contains(Collections.singletonList("C")));
+        // Each parallel batch has its own context, the sequential hop uses the GetWalks context
+        assertEquals(3, jobIds.size());
+        assertTrue(jobIds.contains(context.getJobId()));
+        verify(store, times(1)).execute(any(Output.class), any(Context.class));
+        verify(store, times(2)).handleOperation(any(Operation.class), any(Context.class));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectSeedBatchSizeLessThanOne() {
+        new GetWalksHandler().setSeedBatchSize(0);
+    }
+
     @Test
     public void shouldSerialiseDeserialise() throws SerialisationException, JsonProcessingException {
         // Given
         final GetWalksHandler obj = new GetWalksHandler();
         obj.setPrune(true);
+        obj.setParallelism(4);
+        obj.setSeedBatchSize(50);
+        obj.setCompactAdjacency(true);
 
         // When
         final byte[] json = JSONSerialiser.serialise(obj, true);
@@ -66,5 +170,27 @@ public class GetWalksHandlerTest {
 
         // Then
         assertNotNull(deserialisedObj);
+        assertEquals(Integer.valueOf(4), deserialisedObj.getParallelism());
+        assertEquals(50, deserialisedObj.getSeedBatchSize());
+        assertTrue(deserialisedObj.getCompactAdjacency());
+    }
+
+    private static List<Object> getVertices(final Iterable<?> seeds) {
+        // The GetWalks input is wrapped in EntitySeeds, so the vertices are unwrapped to look up the edges
+        final List<Object> vertices = new ArrayList<>();
+        for (final Object seed : seeds) {
+            vertices.add(seed instanceof EntityId ? ((EntityId) seed).getVertex() : seed);
+        }
+        return vertices;
+    }
+
+    private Edge createEdge(final Object source, final Object dest) {
+        return new Edge.Builder()
+                .group(TestGroups.EDGE)
+                .source(source)
+                .dest(dest)
+                .directed(true)
+                .matchedVertex(EdgeId.MatchedVertex.SOURCE)
+                .build();
     }
 }
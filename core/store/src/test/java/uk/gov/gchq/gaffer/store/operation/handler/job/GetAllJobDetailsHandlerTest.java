@@ -20,6 +20,7 @@ import org.junit.Test;
 
 import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
 import uk.gov.gchq.gaffer.jobtracker.JobDetail;
+import uk.gov.gchq.gaffer.jobtracker.JobStatus;
 import uk.gov.gchq.gaffer.jobtracker.JobTracker;
 import uk.gov.gchq.gaffer.operation.OperationException;
 import uk.gov.gchq.gaffer.operation.impl.job.GetAllJobDetails;
@@ -58,14 +59,39 @@ public class GetAllJobDetailsHandlerTest {
     public void shouldGetAllJobDetailsByDelegatingToJobTracker() throws OperationException {
         // Given
         final GetAllJobDetailsHandler handler = new GetAllJobDetailsHandler();
-        final GetAllJobDetails operation = mock(GetAllJobDetails.class);
+        final GetAllJobDetails operation = new GetAllJobDetails();
+        final Store store = mock(Store.class);
+        final JobTracker jobTracker = mock(JobTracker.class);
+        final User user = mock(User.class);
+        final CloseableIterable<JobDetail> jobsDetails = mock(CloseableIterable.class);
+
+        given(store.getJobTracker()).willReturn(jobTracker);
+        given(jobTracker.getJobs(user, null, null, 0, null)).willReturn(jobsDetails);
+
+        // When
+        final CloseableIterable<JobDetail> results = handler.doOperation(operation, new Context(user), store);
+
+        // Then
+        assertSame(jobsDetails, results);
+    }
+
+    @Test
+    public void shouldGetPageOfJobDetailsByDelegatingToJobTracker() throws OperationException {
+        // Given
+        final GetAllJobDetailsHandler handler = new GetAllJobDetailsHandler();
+        final GetAllJobDetails operation = new GetAllJobDetails.Builder()
+                .userId("user01")
+                .status(JobStatus.FINISHED)
+                .offset(20)
+                .limit(10)
+                .build();
         final Store store = mock(Store.class);
         final JobTracker jobTracker = mock(JobTracker.class);
         final User user = mock(User.class);
         final CloseableIterable<JobDetail> jobsDetails = mock(CloseableIterable.class);
 
         given(store.getJobTracker()).willReturn(jobTracker);
-        given(jobTracker.getAllJobs(user)).willReturn(jobsDetails);
+        given(jobTracker.getJobs(user, "user01", JobStatus.FINISHED, 20, 10)).willReturn(jobsDetails);
 
         // When
         final CloseableIterable<JobDetail> results = handler.doOperation(operation, new Context(user), store);
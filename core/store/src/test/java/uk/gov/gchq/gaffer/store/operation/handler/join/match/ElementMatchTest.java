@@ -21,9 +21,11 @@ import org.junit.Test;
 import uk.gov.gchq.gaffer.commonutil.CollectionUtil;
 import uk.gov.gchq.gaffer.commonutil.TestGroups;
 import uk.gov.gchq.gaffer.commonutil.TestPropertyNames;
+import uk.gov.gchq.gaffer.data.element.Edge;
 import uk.gov.gchq.gaffer.data.element.Element;
 import uk.gov.gchq.gaffer.data.element.Entity;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -237,4 +239,74 @@ public class ElementMatchTest {
         // Then
         assertEquals(0, matchingElements.size());
     }
+
+    @Test
+    public void shouldMatchEdgesOnSourceDestinationAndDirectedType() {
+        // Given
+        Edge testEdge = new Edge.Builder()
+                .group(TestGroups.EDGE)
+                .source("a")
+                .dest("b")
+                .directed(true)
+                .build();
+
+        Edge undirectedEdge = new Edge.Builder()
+                .group(TestGroups.EDGE)
+                .source("a")
+                .dest("b")
+                .directed(false)
+                .build();
+
+        Edge reversedEdge = new Edge.Builder()
+                .group(TestGroups.EDGE)
+                .source("b")
+                .dest("a")
+                .directed(true)
+                .build();
+
+        List<Element> comparisonElementList = Arrays.asList(testEdge.shallowClone(), undirectedEdge, reversedEdge, new Entity(TestGroups.ENTITY, "a"));
+
+        ElementMatch elementMatch = new ElementMatch();
+        elementMatch.init(comparisonElementList);
+
+        // When
+        List<Element> matchingElements = elementMatch.matching(testEdge);
+
+        // Then
+        assertEquals(1, matchingElements.size());
+        assertEquals(testEdge, matchingElements.get(0));
+    }
+
+    @Test
+    public void shouldMatchElementsSpilledToDisk() {
+        // Given
+        List<Element> comparisonEntityList = new ArrayList<>();
+        for (long i = 0; i < 100; i++) {
+            comparisonEntityList.add(new Entity.Builder()
+                    .group(TestGroups.ENTITY_3)
+                    .vertex("vertex" + (i % 10))
+                    .property(TestPropertyNames.COUNT, i % 2)
+                    .build());
+        }
+
+        ElementMatch elementMatch = new ElementMatch("count");
+        elementMatch.setSpillThreshold(10);
+        elementMatch.init(comparisonEntityList);
+
+        Entity testEntity = new Entity.Builder()
+                .group(TestGroups.ENTITY_3)
+                .vertex("vertex3")
+                .property(TestPropertyNames.COUNT, 1L)
+                .build();
+
+        // When
+        List<Element> matchingElements = elementMatch.matching(testEntity);
+        elementMatch.close();
+
+        // Then
+        assertEquals(10, matchingElements.size());
+        for (final Element element : matchingElements) {
+            assertEquals(testEntity, element);
+        }
+    }
 }
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.store.operation.handler.join.match;
+
+import com.google.common.collect.Lists;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class MatchCandidateIndexTest {
+    private static final Function<Object, Object> MOD_10 = obj -> ((Integer) obj) % 10;
+
+    @Test
+    public void shouldIndexCandidatesInMemoryByKey() {
+        // Given
+        final MatchCandidateIndex index = new MatchCandidateIndex(MOD_10);
+
+        // When
+        index.addAll(Arrays.asList(1, 11, 2, 21, 3));
+
+        // Then
+        assertFalse(index.isSpilled());
+        assertEquals(5, index.size());
+        assertEquals(Arrays.asList(1, 11, 21), index.get(1));
+        assertEquals(Collections.singletonList(2), index.get(2));
+        assertEquals(Collections.emptyList(), index.get(4));
+    }
+
+    @Test
+    public void shouldSpillCandidatesToDiskWhenThresholdExceeded() {
+        // Given
+        final MatchCandidateIndex index = new MatchCandidateIndex(MOD_10, 5, 3);
+        final List<Integer> candidates = Lists.newArrayList();
+        for (int i = 0; i < 100; i++) {
+            candidates.add(i);
+        }
+
+        // When
+        index.addAll(candidates);
+
+        // Then
+        assertTrue(index.isSpilled());
+        assertEquals(100, index.size());
+        for (int key = 9; key >= 0; key--) {
+            final List<Object> matches = index.get(key);
+            assertEquals(10, matches.size());
+            for (int i = 0; i < 10; i++) {
+                assertEquals(key + 10 * i, matches.get(i));
+            }
+        }
+        assertEquals(Collections.emptyList(), index.get(10));
+
+        index.close();
+        assertFalse(index.isSpilled());
+    }
+
+    @Test
+    public void shouldLoadEachSpilledPartitionOnceWhenProbesArePartitioned() {
+        // Given
+        final AtomicInteger keyFunctionCalls = new AtomicInteger();
+        final MatchCandidateIndex index = new MatchCandidateIndex(obj -> {
+            keyFunctionCalls.incrementAndGet();
+            return MOD_10.apply(obj);
+        }, 5, 3);
+        final List<Integer> candidates = Lists.newArrayList();
+        for (int i = 0; i < 100; i++) {
+            candidates.add(i);
+        }
+        index.addAll(candidates);
+        keyFunctionCalls.set(0);
+        final List<Integer> probes = Arrays.asList(9, 0, 1, 8, 2, 7, 3, 6, 4, 5, 9, 0);
+
+        // When
+        final List<Object> partitionedProbes = Lists.newArrayList(index.partitionProbes(probes, obj -> obj));
+        final List<Integer> matchCounts = Lists.newArrayList();
+        for (final Object probe : partitionedProbes) {
+            matchCounts.add(index.get(probe).size());
+        }
+
+        // Then
+        assertEquals(Arrays.asList(9, 0, 3, 6, 9, 0, 1, 7, 4, 8, 2, 5), partitionedProbes);
+        assertEquals(Collections.nCopies(12, 10), matchCounts);
+        assertEquals(100, keyFunctionCalls.get());
+        index.close();
+    }
+
+    @Test
+    public void shouldNotPartitionProbesWhenNotSpilled() {
+        // Given
+        final MatchCandidateIndex index = new MatchCandidateIndex(MOD_10).addAll(Arrays.asList(1, 2, 3));
+        final List<Integer> probes = Arrays.asList(3, 1, 2);
+
+        // When
+        final Iterable<Object> partitionedProbes = index.partitionProbes(probes, obj -> obj);
+
+        // Then
+        assertSame(probes, partitionedProbes);
+    }
+
+    @Test
+    public void shouldThrowExceptionWhenSpillingNonSerializableCandidate() {
+        // Given
+        final MatchCandidateIndex index = new MatchCandidateIndex(obj -> 1, 1);
+
+        // When / Then
+        try {
+            index.addAll(Arrays.asList(new Object(), new Object()));
+            fail("Exception expected");
+        } catch (final IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("not Serializable"));
+        }
+    }
+
+    @Test
+    public void shouldThrowExceptionForInvalidSpillThreshold() {
+        try {
+            new MatchCandidateIndex(MOD_10, 0);
+            fail("Exception expected");
+        } catch (final IllegalArgumentException e) {
+            assertEquals("Spill threshold must be at least 1, but was: 0", e.getMessage());
+        }
+    }
+}
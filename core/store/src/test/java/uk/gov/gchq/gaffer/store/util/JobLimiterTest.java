@@ -0,0 +1,158 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.store.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.Assert.assertEquals;
+
+public class JobLimiterTest {
+
+    @Test
+    public void shouldQueueJobsOverTheGraphAndUserLimits() {
+        // Given
+        final JobLimiter limiter = new JobLimiter(2, 1);
+        final RecordingExecutor executor = new RecordingExecutor();
+        final List<String> ranJobs = new ArrayList<>();
+
+        // When
+        limiter.submit(executor, "user1", () -> ranJobs.add("job1"));
+        limiter.submit(executor, "user1", () -> ranJobs.add("job2"));
+        limiter.submit(executor, "user2", () -> ranJobs.add("job3"));
+        limiter.submit(executor, "user3", () -> ranJobs.add("job4"));
+
+        // Then
+        assertEquals(2, executor.runnables.size());
+        assertEquals(2, limiter.getRunningJobs());
+        assertEquals(2, limiter.getQueuedJobs());
+
+        // When
+        executor.runNext();
+        executor.runNext();
+
+        // Then
+        assertEquals(2, limiter.getRunningJobs());
+        assertEquals(0, limiter.getQueuedJobs());
+
+        // When
+        executor.runNext();
+        executor.runNext();
+
+        // Then
+        assertEquals(0, limiter.getRunningJobs());
+        assertEquals(0, executor.runnables.size());
+        assertEquals(4, ranJobs.size());
+        assertEquals("job1", ranJobs.get(0));
+        assertEquals("job3", ranJobs.get(1));
+    }
+
+    @Test
+    public void shouldNotLimitJobsWhenLimitsAreNotSet() {
+        // Given
+        final JobLimiter limiter = new JobLimiter(0, 0);
+        final RecordingExecutor executor = new RecordingExecutor();
+
+        // When
+        for (int i = 0; i < 100; i++) {
+            limiter.submit(executor, "user", () -> {
+            });
+        }
+
+        // Then
+        assertEquals(100, executor.runnables.size());
+        assertEquals(0, limiter.getQueuedJobs());
+    }
+
+    @Test
+    public void shouldReleaseLimitWhenJobFails() {
+        // Given
+        final JobLimiter limiter = new JobLimiter(1, 1);
+        final RecordingExecutor executor = new RecordingExecutor();
+        limiter.submit(executor, "user", () -> {
+            throw new IllegalStateException("Job failed");
+        });
+        limiter.submit(executor, "user", () -> {
+        });
+
+        // When
+        try {
+            executor.runNext();
+        } catch (final IllegalStateException e) {
+            // Expected
+        }
+
+        // Then
+        assertEquals(1, limiter.getRunningJobs());
+        assertEquals(0, limiter.getQueuedJobs());
+        assertEquals(1, executor.runnables.size());
+    }
+
+    @Test
+    public void shouldNotifyListenerWhenJobIsQueuedAndRejected() {
+        // Given
+        final JobLimiter limiter = new JobLimiter(1, 0);
+        final RecordingExecutor executor = new RecordingExecutor();
+        final List<String> events = new ArrayList<>();
+        final JobLimiter.JobListener listener = new JobLimiter.JobListener() {
+            @Override
+            public void queued() {
+                events.add("queued");
+            }
+
+            @Override
+            public void rejected(final RejectedExecutionException e) {
+                events.add("rejected");
+            }
+        };
+        limiter.submit(executor, "user", () -> {
+        }, listener);
+        limiter.submit(command -> {
+            throw new RejectedExecutionException("Executor shut down");
+        }, "user", () -> {
+        }, listener);
+
+        // Then
+        assertEquals(Collections.singletonList("queued"), events);
+
+        // When
+        executor.runNext();
+
+        // Then
+        assertEquals(Arrays.asList("queued", "rejected"), events);
+        assertEquals(0, limiter.getRunningJobs());
+        assertEquals(0, limiter.getQueuedJobs());
+    }
+
+    private static final class RecordingExecutor implements Executor {
+        private final List<Runnable> runnables = new ArrayList<>();
+
+        @Override
+        public void execute(final Runnable command) {
+            runnables.add(command);
+        }
+
+        private void runNext() {
+            runnables.remove(0).run();
+        }
+    }
+}
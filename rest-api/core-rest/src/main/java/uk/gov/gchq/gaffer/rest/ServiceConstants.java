@@ -26,6 +26,8 @@ public final class ServiceConstants {
     public static final String GAFFER_MEDIA_TYPE_HEADER_DESCRIPTION = "The gaffer media type containing the REST API version.";
     public static final String JOB_ID_HEADER = "job-id";
     public static final String JOB_ID_HEADER_DESCRIPTION = "The job execution ID.";
+    public static final String CHUNKED_FRAMES_HEADER = "X-Gaffer-Chunked-Frames";
+    public static final String CHUNKED_FRAMES_HEADER_DESCRIPTION = "If true, each chunk is wrapped in an item frame and the chunks end with an end or error frame.";
 
     // REST status error messages
     public static final String OK = "OK";
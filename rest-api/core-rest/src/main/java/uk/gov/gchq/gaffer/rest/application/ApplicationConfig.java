@@ -18,7 +18,9 @@ package uk.gov.gchq.gaffer.rest.application;
 
 import io.swagger.jaxrs.listing.ApiListingResource;
 import io.swagger.jaxrs.listing.SwaggerSerializers;
+import org.glassfish.jersey.message.GZipEncoder;
 import org.glassfish.jersey.server.ResourceConfig;
+import org.glassfish.jersey.server.filter.EncodingFilter;
 
 import uk.gov.gchq.gaffer.rest.FactoriesBinder;
 import uk.gov.gchq.gaffer.rest.mapper.GafferCheckedExceptionMapper;
@@ -28,6 +30,7 @@ import uk.gov.gchq.gaffer.rest.mapper.ProcessingExceptionMapper;
 import uk.gov.gchq.gaffer.rest.mapper.UnauthorisedExceptionMapper;
 import uk.gov.gchq.gaffer.rest.mapper.WebApplicationExceptionMapper;
 import uk.gov.gchq.gaffer.rest.serialisation.RestJsonProvider;
+import uk.gov.gchq.gaffer.rest.serialisation.SmileMessageBodyWriter;
 import uk.gov.gchq.gaffer.rest.serialisation.TextMessageBodyWriter;
 
 import java.util.HashSet;
@@ -54,6 +57,10 @@ public abstract class ApplicationConfig extends ResourceConfig {
         resources.add(SwaggerSerializers.class);
         resources.add(RestJsonProvider.class);
         resources.add(TextMessageBodyWriter.class);
+        resources.add(SmileMessageBodyWriter.class);
+        // Compresses responses for clients that accept gzip encoding
+        resources.add(EncodingFilter.class);
+        resources.add(GZipEncoder.class);
     }
 
     protected void addExceptionMappers() {
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.rest.serialisation;
+
+import uk.gov.gchq.gaffer.jsonserialisation.SmileSerialiser;
+
+import javax.ws.rs.Produces;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.Provider;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+/**
+ * A {@link MessageBodyWriter} that writes responses in the Smile binary JSON
+ * format using the {@link SmileSerialiser}. Clients can request it by setting
+ * the Accept header to {@value SmileSerialiser#SMILE_MEDIA_TYPE}.
+ */
+@Provider
+@Produces(SmileSerialiser.SMILE_MEDIA_TYPE)
+public class SmileMessageBodyWriter implements MessageBodyWriter<Object> {
+    @Override
+    public boolean isWriteable(final Class<?> type, final Type genericType,
+                               final Annotation[] annotations, final MediaType mediaType) {
+        return true;
+    }
+
+    @Override
+    public long getSize(final Object object, final Class<?> type,
+                        final Type genericType, final Annotation[] annotations,
+                        final MediaType mediaType) {
+        return -1;
+    }
+
+    @Override
+    public void writeTo(final Object object, final Class<?> type,
+                        final Type genericType, final Annotation[] annotations,
+                        final MediaType mediaType,
+                        final MultivaluedMap<String, Object> httpHeaders,
+                        final OutputStream entityStream)
+            throws IOException, WebApplicationException {
+        SmileSerialiser.serialise(object, entityStream);
+        entityStream.flush();
+    }
+}
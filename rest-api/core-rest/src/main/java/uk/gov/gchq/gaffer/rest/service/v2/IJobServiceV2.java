@@ -25,6 +25,7 @@ import io.swagger.annotations.ResponseHeader;
 
 import uk.gov.gchq.gaffer.jobtracker.Job;
 import uk.gov.gchq.gaffer.jobtracker.JobDetail;
+import uk.gov.gchq.gaffer.jobtracker.JobStatus;
 import uk.gov.gchq.gaffer.operation.Operation;
 import uk.gov.gchq.gaffer.operation.OperationException;
 
@@ -34,6 +35,7 @@ import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.Response;
 
 import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
@@ -98,7 +100,8 @@ public interface IJobServiceV2 {
 
     @GET
     @ApiOperation(value = "Get the details of all jobs",
-            notes = "While any Jobs are running, you can check the status of them all using this endpoint.",
+            notes = "While any Jobs are running, you can check the status of them all using this endpoint. " +
+                    "The jobs are returned most recently started first and can be filtered by user and status, and paged.",
             response = JobDetail.class,
             responseContainer = "List",
             produces = APPLICATION_JSON,
@@ -109,7 +112,10 @@ public interface IJobServiceV2 {
     @ApiResponses(value = {@ApiResponse(code = 200, message = OK),
             @ApiResponse(code = 500, message = INTERNAL_SERVER_ERROR),
             @ApiResponse(code = 503, message = JOB_SERVICE_UNAVAILABLE)})
-    Response details() throws OperationException;
+    Response details(@ApiParam(value = "Only return the jobs of this user") @QueryParam("userId") final String userId,
+                     @ApiParam(value = "Only return jobs with this status") @QueryParam("status") final JobStatus status,
+                     @ApiParam(value = "The number of jobs to skip") @QueryParam("offset") final Integer offset,
+                     @ApiParam(value = "The maximum number of jobs to return") @QueryParam("limit") final Integer limit) throws OperationException;
 
     @GET
     @Path("{id}")
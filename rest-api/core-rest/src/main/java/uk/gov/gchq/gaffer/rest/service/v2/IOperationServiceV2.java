@@ -37,6 +37,7 @@ import javax.ws.rs.core.Response;
 
 import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
 import static javax.ws.rs.core.MediaType.TEXT_PLAIN;
+import static uk.gov.gchq.gaffer.jsonserialisation.SmileSerialiser.SMILE_MEDIA_TYPE;
 import static uk.gov.gchq.gaffer.rest.ServiceConstants.BAD_REQUEST;
 import static uk.gov.gchq.gaffer.rest.ServiceConstants.FORBIDDEN;
 import static uk.gov.gchq.gaffer.rest.ServiceConstants.GAFFER_MEDIA_TYPE_HEADER;
@@ -84,11 +85,11 @@ public interface IOperationServiceV2 {
 
     @POST
     @Path("/execute")
-    @Produces({APPLICATION_JSON, TEXT_PLAIN})
+    @Produces({APPLICATION_JSON, TEXT_PLAIN, SMILE_MEDIA_TYPE})
     @ApiOperation(value = "Performs the given operation on the graph",
             notes = "Attempts to execute the provided operation on the graph, and returns the result below. " +
                     "Simple examples for each operation can be added using the drop-down below.",
-            produces = (APPLICATION_JSON + "," + TEXT_PLAIN),
+            produces = (APPLICATION_JSON + "," + TEXT_PLAIN + "," + SMILE_MEDIA_TYPE),
             response = Object.class,
             responseHeaders = {
                     @ResponseHeader(name = JOB_ID_HEADER, description = JOB_ID_HEADER_DESCRIPTION),
@@ -103,11 +104,11 @@ public interface IOperationServiceV2 {
 
     @POST
     @Path("/execute/chunked")
-    @Produces({APPLICATION_JSON, TEXT_PLAIN})
+    @Produces({APPLICATION_JSON, TEXT_PLAIN, SMILE_MEDIA_TYPE})
     @ApiOperation(value = "Performs the given operation on the graph, returning a chunked output",
             notes = "<b>WARNING</b> - This does not work in Swagger.",
             response = Object.class,
-            produces = (APPLICATION_JSON + "," + TEXT_PLAIN))
+            produces = (APPLICATION_JSON + "," + TEXT_PLAIN + "," + SMILE_MEDIA_TYPE))
     @ApiResponses(value = {@ApiResponse(code = 202, message = OK, response = Object.class),
             @ApiResponse(code = 400, message = BAD_REQUEST),
             @ApiResponse(code = 403, message = FORBIDDEN),
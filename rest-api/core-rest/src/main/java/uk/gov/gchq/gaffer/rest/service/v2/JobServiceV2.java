@@ -21,6 +21,7 @@ import org.slf4j.LoggerFactory;
 
 import uk.gov.gchq.gaffer.jobtracker.Job;
 import uk.gov.gchq.gaffer.jobtracker.JobDetail;
+import uk.gov.gchq.gaffer.jobtracker.JobStatus;
 import uk.gov.gchq.gaffer.operation.Operation;
 import uk.gov.gchq.gaffer.operation.OperationChain;
 import uk.gov.gchq.gaffer.operation.OperationException;
@@ -110,10 +111,15 @@ public class JobServiceV2 implements IJobServiceV2 {
     }
 
     @Override
-    public Response details() throws OperationException {
+    public Response details(final String userId, final JobStatus status, final Integer offset, final Integer limit) throws OperationException {
         final Context context = userFactory.createContext();
         return Response.ok(graphFactory.getGraph()
-                .execute(new GetAllJobDetails(),
+                .execute(new GetAllJobDetails.Builder()
+                                .userId(userId)
+                                .status(status)
+                                .offset(offset)
+                                .limit(limit)
+                                .build(),
                         context))
                 .header(GAFFER_MEDIA_TYPE_HEADER, GAFFER_MEDIA_TYPE)
                 .header(JOB_ID_HEADER, context.getJobId())
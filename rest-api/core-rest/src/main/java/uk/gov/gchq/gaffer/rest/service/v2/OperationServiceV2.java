@@ -16,11 +16,15 @@
 
 package uk.gov.gchq.gaffer.rest.service.v2;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.glassfish.jersey.server.ChunkedOutput;
+import org.glassfish.jersey.server.CloseableService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -30,14 +34,17 @@ import uk.gov.gchq.gaffer.commonutil.ToStringBuilder;
 import uk.gov.gchq.gaffer.commonutil.exception.UnauthorisedException;
 import uk.gov.gchq.gaffer.commonutil.pair.Pair;
 import uk.gov.gchq.gaffer.core.exception.Error;
+import uk.gov.gchq.gaffer.core.exception.ErrorFactory;
 import uk.gov.gchq.gaffer.core.exception.GafferRuntimeException;
 import uk.gov.gchq.gaffer.core.exception.Status;
 import uk.gov.gchq.gaffer.graph.GraphRequest;
 import uk.gov.gchq.gaffer.graph.GraphResult;
+import uk.gov.gchq.gaffer.jsonserialisation.SmileSerialiser;
 import uk.gov.gchq.gaffer.operation.Operation;
 import uk.gov.gchq.gaffer.operation.OperationChain;
 import uk.gov.gchq.gaffer.operation.OperationException;
 import uk.gov.gchq.gaffer.operation.io.Output;
+import uk.gov.gchq.gaffer.rest.SystemProperty;
 import uk.gov.gchq.gaffer.rest.factory.GraphFactory;
 import uk.gov.gchq.gaffer.rest.factory.UserFactory;
 import uk.gov.gchq.gaffer.rest.service.v2.example.ExamplesFactory;
@@ -47,20 +54,31 @@ import uk.gov.gchq.koryphe.Summary;
 import uk.gov.gchq.koryphe.serialisation.json.SimpleClassNameIdResolver;
 
 import javax.inject.Inject;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 
+import java.io.Closeable;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import static javax.ws.rs.core.Response.Status.FORBIDDEN;
 import static javax.ws.rs.core.Response.Status.INTERNAL_SERVER_ERROR;
 import static javax.ws.rs.core.Response.Status.NOT_FOUND;
 import static uk.gov.gchq.gaffer.jsonserialisation.JSONSerialiser.createDefaultMapper;
+import static uk.gov.gchq.gaffer.jsonserialisation.SmileSerialiser.SMILE_MEDIA_TYPE;
+import static uk.gov.gchq.gaffer.rest.ServiceConstants.CHUNKED_FRAMES_HEADER;
 import static uk.gov.gchq.gaffer.rest.ServiceConstants.GAFFER_MEDIA_TYPE;
 import static uk.gov.gchq.gaffer.rest.ServiceConstants.GAFFER_MEDIA_TYPE_HEADER;
 import static uk.gov.gchq.gaffer.rest.ServiceConstants.JOB_ID_HEADER;
@@ -75,6 +93,7 @@ import static uk.gov.gchq.gaffer.serialisation.util.JsonSerialisationUtil.getSer
  */
 public class OperationServiceV2 implements IOperationServiceV2 {
     private static final Logger LOGGER = LoggerFactory.getLogger(OperationServiceV2.class);
+    private static final Map<String, Object> END_FRAME = Collections.singletonMap("end", true);
 
     @Inject
     private GraphFactory graphFactory;
@@ -85,6 +104,18 @@ public class OperationServiceV2 implements IOperationServiceV2 {
     @Inject
     private ExamplesFactory examplesFactory;
 
+    @javax.ws.rs.core.Context
+    private HttpHeaders httpHeaders;
+
+    @javax.ws.rs.core.Context
+    private CloseableService closeableService;
+
+    private final boolean chunkedStreaming = Boolean.parseBoolean(
+            System.getProperty(SystemProperty.CHUNKED_STREAMING, SystemProperty.CHUNKED_STREAMING_DEFAULT));
+
+    private final String chunkedBatchSize = System.getProperty(
+            SystemProperty.CHUNKED_BATCH_SIZE, SystemProperty.CHUNKED_BATCH_SIZE_DEFAULT);
+
     public final ObjectMapper mapper = createDefaultMapper();
 
     @Override
@@ -125,33 +156,50 @@ public class OperationServiceV2 implements IOperationServiceV2 {
     @SuppressFBWarnings
     @Override
     public Response executeChunkedChain(final OperationChain opChain) {
+        if (chunkedStreaming) {
+            return executeStreamingChain(opChain);
+        }
+
         // Create chunked output instance
-        final Throwable[] threadException = new Throwable[1];
-        final ChunkedOutput<String> output = new ChunkedOutput<>(String.class, "\r\n");
+        final Exception[] executeException = new Exception[1];
+        final CountDownLatch executed = new CountDownLatch(1);
+        final boolean smile = isSmileRequested();
+        final boolean frames = isChunkedFramesRequested();
+        final ChunkedOutput<byte[]> smileOutput = smile ? new ChunkedOutput<>(byte[].class) : null;
+        final ChunkedOutput<String> jsonOutput = smile ? null : new ChunkedOutput<>(String.class, "\r\n");
+        final ChunkedOutput<?> output = smile ? smileOutput : jsonOutput;
         final Context context = userFactory.createContext();
 
         // create thread to write chunks to the chunked output object
         Thread thread = new Thread(() -> {
             try {
-                final Object result = _execute(opChain, context).getFirst();
-                chunkResult(result, output);
-            } catch (final Exception e) {
-                throw new RuntimeException(e);
+                final Object result;
+                try {
+                    result = _execute(opChain, context).getFirst();
+                } catch (final Exception e) {
+                    executeException[0] = e;
+                    return;
+                } finally {
+                    executed.countDown();
+                }
+
+                if (smile) {
+                    chunkSmileResult(result, smileOutput, frames);
+                } else {
+                    chunkResult(result, jsonOutput, frames);
+                }
             } finally {
                 CloseableUtil.close(output);
                 CloseableUtil.close(opChain);
             }
         });
-
-        // By default threads throw nothing, so set the ExceptionHandler
-        thread.setUncaughtExceptionHandler((thread1, exception) -> threadException[0] = exception.getCause());
-
         thread.start();
 
-        // Sleep to check exception will be caught
+        // Wait for the operation chain to be executed, so any error can be returned
         try {
-            Thread.sleep(1000);
+            executed.await();
         } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
             return Response.status(INTERNAL_SERVER_ERROR)
                     .entity(new Error.ErrorBuilder()
                             .status(Status.INTERNAL_SERVER_ERROR)
@@ -163,13 +211,13 @@ public class OperationServiceV2 implements IOperationServiceV2 {
         }
 
         // If there was an UnauthorisedException thrown return 403, else return a 500
-        if (null != threadException[0]) {
-            if (threadException.getClass().equals(UnauthorisedException.class)) {
-                return Response.status(INTERNAL_SERVER_ERROR)
+        if (null != executeException[0]) {
+            if (executeException[0] instanceof UnauthorisedException) {
+                return Response.status(FORBIDDEN)
                         .entity(new Error.ErrorBuilder()
                                 .status(Status.FORBIDDEN)
                                 .statusCode(403)
-                                .simpleMessage(threadException[0].getMessage())
+                                .simpleMessage(executeException[0].getMessage())
                                 .build())
                         .header(GAFFER_MEDIA_TYPE_HEADER, GAFFER_MEDIA_TYPE)
                         .build();
@@ -178,7 +226,7 @@ public class OperationServiceV2 implements IOperationServiceV2 {
                         .entity(new Error.ErrorBuilder()
                                 .status(Status.INTERNAL_SERVER_ERROR)
                                 .statusCode(500)
-                                .simpleMessage(threadException[0].getMessage())
+                                .simpleMessage(executeException[0].getMessage())
                                 .build())
                         .header(GAFFER_MEDIA_TYPE_HEADER, GAFFER_MEDIA_TYPE)
                         .build();
@@ -187,7 +235,9 @@ public class OperationServiceV2 implements IOperationServiceV2 {
 
         // Return ok output
         return Response.ok(output)
+                .type(smile ? SMILE_MEDIA_TYPE : null)
                 .header(GAFFER_MEDIA_TYPE_HEADER, GAFFER_MEDIA_TYPE)
+                .header(CHUNKED_FRAMES_HEADER, frames ? Boolean.toString(true) : null)
                 .build();
     }
 
@@ -297,24 +347,237 @@ public class OperationServiceV2 implements IOperationServiceV2 {
     }
 
     protected void chunkResult(final Object result, final ChunkedOutput<String> output) {
-        if (result instanceof Iterable) {
-            final Iterable itr = (Iterable) result;
-            try {
-                for (final Object item : itr) {
-                    output.write(mapper.writeValueAsString(item));
+        chunkResult(result, output, false);
+    }
+
+    /**
+     * Writes each item of the result as a JSON chunk. If frames are requested
+     * each item is wrapped in an item frame and the chunks end with an end
+     * frame, or an error frame if the result could not be read, so the client
+     * can tell complete results from truncated ones.
+     *
+     * @param result the operation chain result
+     * @param output the chunked output to write to
+     * @param frames true if the chunks should be framed
+     */
+    protected void chunkResult(final Object result, final ChunkedOutput<String> output, final boolean frames) {
+        try {
+            if (result instanceof Iterable) {
+                final Iterable itr = (Iterable) result;
+                try {
+                    for (final Object item : itr) {
+                        output.write(mapper.writeValueAsString(frames ? itemFrame(item) : item));
+                    }
+                } finally {
+                    CloseableUtil.close(itr);
                 }
-            } catch (final IOException ioe) {
-                LOGGER.warn("IOException (chunks)", ioe);
+            } else {
+                output.write(mapper.writeValueAsString(frames ? itemFrame(result) : result));
+            }
+            if (frames) {
+                output.write(mapper.writeValueAsString(END_FRAME));
+            }
+        } catch (final IOException ioe) {
+            LOGGER.warn("IOException (chunks)", ioe);
+        } catch (final RuntimeException e) {
+            LOGGER.error("Unable to write all of the chunked results", e);
+            if (frames) {
+                try {
+                    output.write(mapper.writeValueAsString(errorFrame(e)));
+                } catch (final IOException ioe) {
+                    LOGGER.warn("IOException (chunks)", ioe);
+                }
+            }
+        }
+    }
+
+    /**
+     * Executes the operation chain in the request thread and streams the
+     * result directly to the response output stream. Items are written with a
+     * single reused generator and flushed in batches of
+     * {@link SystemProperty#CHUNKED_BATCH_SIZE}. Writes block while the client
+     * is not reading, so results are only pulled from the store as fast as
+     * the client consumes them. The result is closed as soon as streaming
+     * finishes or the client disconnects, or when the request completes if
+     * the response is never written.
+     *
+     * @param opChain the operation chain to execute
+     * @return the streaming response
+     */
+    protected Response executeStreamingChain(final OperationChain opChain) {
+        final boolean smile = isSmileRequested();
+        final boolean frames = isChunkedFramesRequested();
+        final int batchSize = getChunkedBatchSize();
+        final Object result = _execute(opChain, userFactory.createContext()).getFirst();
+        final AtomicBoolean closed = new AtomicBoolean(false);
+        final Closeable closeResult = () -> {
+            if (closed.compareAndSet(false, true)) {
+                CloseableUtil.close(result);
+                CloseableUtil.close(opChain);
+            }
+        };
+        if (null != closeableService) {
+            closeableService.add(closeResult);
+        }
+        final StreamingOutput output = out -> {
+            try {
+                streamResult(result, out, smile, frames, batchSize);
             } finally {
-                CloseableUtil.close(itr);
+                closeResult.close();
+            }
+        };
+
+        return Response.ok(output)
+                .type(smile ? SMILE_MEDIA_TYPE : null)
+                .header(GAFFER_MEDIA_TYPE_HEADER, GAFFER_MEDIA_TYPE)
+                .header(CHUNKED_FRAMES_HEADER, frames ? Boolean.toString(true) : null)
+                .build();
+    }
+
+    protected void streamResult(final Object result, final OutputStream out, final boolean smile) throws IOException {
+        streamResult(result, out, smile, false);
+    }
+
+    /**
+     * Streams the result to the output stream. If frames are requested each
+     * item is wrapped in an item frame and the stream ends with an end frame,
+     * or an error frame if the result could not be read.
+     *
+     * @param result the operation chain result
+     * @param out    the response output stream
+     * @param smile  true if the items should be written as Smile
+     * @param frames true if the items should be framed
+     * @throws IOException if the result could not be written, for example
+     *                     because the client has disconnected
+     */
+    protected void streamResult(final Object result, final OutputStream out, final boolean smile, final boolean frames) throws IOException {
+        streamResult(result, out, smile, frames, getChunkedBatchSize());
+    }
+
+    private void streamResult(final Object result, final OutputStream out, final boolean smile, final boolean frames,
+                              final int batchSize) throws IOException {
+        final ObjectWriter writer = mapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (final JsonGenerator generator = smile
+                ? SmileSerialiser.createSequenceGenerator(out)
+                : mapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            if (!smile) {
+                // Items are delimited explicitly, matching the non streaming chunked output
+                generator.setRootValueSeparator(null);
             }
-        } else {
             try {
-                output.write(mapper.writeValueAsString(result));
-            } catch (final IOException ioe) {
-                LOGGER.warn("IOException (chunks)", ioe);
+                if (result instanceof Iterable) {
+                    int count = 0;
+                    for (final Object item : (Iterable) result) {
+                        writeStreamedItem(writer, generator, frames ? itemFrame(item) : item, smile);
+                        if (++count % batchSize == 0) {
+                            generator.flush();
+                        }
+                    }
+                } else {
+                    writeStreamedItem(writer, generator, frames ? itemFrame(result) : result, smile);
+                }
+                if (frames) {
+                    writeStreamedItem(writer, generator, END_FRAME, smile);
+                }
+            } catch (final RuntimeException e) {
+                if (!frames) {
+                    throw e;
+                }
+                LOGGER.error("Unable to stream all of the chunked results", e);
+                writeStreamedItem(writer, generator, errorFrame(e), smile);
+            }
+            generator.flush();
+        } catch (final IOException e) {
+            LOGGER.debug("Chunked stream was terminated before all results were written", e);
+            throw e;
+        }
+    }
+
+    private void writeStreamedItem(final ObjectWriter writer, final JsonGenerator generator,
+                                   final Object item, final boolean smile) throws IOException {
+        writer.writeValue(generator, item);
+        if (!smile) {
+            generator.writeRaw("\r\n");
+        }
+    }
+
+    protected void chunkSmileResult(final Object result, final ChunkedOutput<byte[]> output) {
+        chunkSmileResult(result, output, false);
+    }
+
+    /**
+     * Writes each item of an iterable result as an independent Smile value so
+     * the client can deserialise the chunked stream incrementally. The chunks
+     * are framed in the same way as {@link #chunkResult(Object, ChunkedOutput, boolean)}.
+     *
+     * @param result the operation chain result
+     * @param output the chunked output to write to
+     * @param frames true if the chunks should be framed
+     */
+    protected void chunkSmileResult(final Object result, final ChunkedOutput<byte[]> output, final boolean frames) {
+        try {
+            if (result instanceof Iterable) {
+                final Iterable itr = (Iterable) result;
+                try {
+                    for (final Object item : itr) {
+                        output.write(SmileSerialiser.serialiseSequenceValue(frames ? itemFrame(item) : item));
+                    }
+                } finally {
+                    CloseableUtil.close(itr);
+                }
+            } else {
+                output.write(SmileSerialiser.serialiseSequenceValue(frames ? itemFrame(result) : result));
+            }
+            if (frames) {
+                output.write(SmileSerialiser.serialiseSequenceValue(END_FRAME));
+            }
+        } catch (final IOException ioe) {
+            LOGGER.warn("IOException (chunks)", ioe);
+        } catch (final RuntimeException e) {
+            LOGGER.error("Unable to write all of the chunked results", e);
+            if (frames) {
+                try {
+                    output.write(SmileSerialiser.serialiseSequenceValue(errorFrame(e)));
+                } catch (final IOException ioe) {
+                    LOGGER.warn("IOException (chunks)", ioe);
+                }
+            }
+        }
+    }
+
+    private static Map<String, Object> itemFrame(final Object item) {
+        return Collections.singletonMap("item", item);
+    }
+
+    private static Map<String, Object> errorFrame(final Exception e) {
+        return Collections.singletonMap("error", ErrorFactory.from(e));
+    }
+
+    private int getChunkedBatchSize() {
+        final int batchSize = Integer.parseInt(chunkedBatchSize);
+        if (batchSize < 1) {
+            throw new IllegalArgumentException(SystemProperty.CHUNKED_BATCH_SIZE + " must be at least 1, but was " + batchSize);
+        }
+        return batchSize;
+    }
+
+    private boolean isChunkedFramesRequested() {
+        return null != httpHeaders && Boolean.parseBoolean(httpHeaders.getHeaderString(CHUNKED_FRAMES_HEADER));
+    }
+
+    private boolean isSmileRequested() {
+        if (null == httpHeaders) {
+            return false;
+        }
+
+        // Acceptable media types are sorted by preference
+        for (final MediaType mediaType : httpHeaders.getAcceptableMediaTypes()) {
+            if (!mediaType.isWildcardType()) {
+                return SmileSerialiser.isSmile(mediaType.getType() + "/" + mediaType.getSubtype());
             }
         }
+        return false;
     }
 
     private Operation generateExampleJson(final Class<? extends Operation> opClass) throws IllegalAccessException, InstantiationException {
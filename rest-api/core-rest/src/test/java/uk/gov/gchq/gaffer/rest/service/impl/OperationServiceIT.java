@@ -160,7 +160,7 @@ public abstract class OperationServiceIT extends AbstractRestApiIT {
     }
 
 
-    private List<Element> readChunkedElements(final Response response) {
+    protected List<Element> readChunkedElements(final Response response) {
         return readChunkedResults(response, new GenericType<ChunkedInput<Element>>() {
         });
     }
@@ -18,12 +18,14 @@ package uk.gov.gchq.gaffer.rest.service.v2;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.google.common.collect.Sets;
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.junit.Test;
 
 import uk.gov.gchq.gaffer.commonutil.StreamUtil;
 import uk.gov.gchq.gaffer.commonutil.ToStringBuilder;
+import uk.gov.gchq.gaffer.data.element.Element;
 import uk.gov.gchq.gaffer.graph.Graph;
 import uk.gov.gchq.gaffer.jsonserialisation.JSONSerialiser;
 import uk.gov.gchq.gaffer.operation.Operation;
@@ -44,10 +46,12 @@ import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -65,6 +69,77 @@ public class OperationServiceV2IT extends OperationServiceIT {
         assertNotNull(response.getHeaderString(ServiceConstants.JOB_ID_HEADER));
     }
 
+    @Test
+    public void shouldReturnGzipEncodedElementsWhenAccepted() throws IOException {
+        // Given
+        client.addElements(DEFAULT_ELEMENTS);
+
+        // When
+        final Response response = ((RestApiV2TestClient) client).executeOperationWithEncoding(new GetAllElements(), "gzip");
+
+        // Then
+        assertEquals("gzip", response.getHeaderString(HttpHeaders.CONTENT_ENCODING));
+        try (final InputStream stream = new GZIPInputStream(response.readEntity(InputStream.class))) {
+            final List<Element> results = JSONSerialiser.deserialise(IOUtils.toByteArray(stream), new TypeReference<List<Element>>() {
+            });
+            verifyElements(DEFAULT_ELEMENTS, results);
+        }
+    }
+
+    @Test
+    public void shouldStreamChunkedElementsInBatches() throws IOException {
+        // Given
+        System.setProperty(SystemProperty.CHUNKED_STREAMING, "true");
+        System.setProperty(SystemProperty.CHUNKED_BATCH_SIZE, "1");
+        try {
+            client.addElements(DEFAULT_ELEMENTS);
+
+            // When
+            final Response response = client.executeOperationChunked(new GetAllElements());
+
+            // Then
+            final List<Element> results = readChunkedElements(response);
+            verifyElements(DEFAULT_ELEMENTS, results);
+        } finally {
+            System.clearProperty(SystemProperty.CHUNKED_STREAMING);
+            System.clearProperty(SystemProperty.CHUNKED_BATCH_SIZE);
+        }
+    }
+
+    @Test
+    public void shouldReturnErrorStatusWhenStreamingChunkedOperationFails() throws IOException {
+        // Given
+        System.setProperty(SystemProperty.CHUNKED_STREAMING, "true");
+        try {
+            // When
+            final Response response = client.executeOperationChunked(new OperationChain());
+
+            // Then
+            assertEquals(500, response.getStatus());
+        } finally {
+            System.clearProperty(SystemProperty.CHUNKED_STREAMING);
+        }
+    }
+
+    @Test
+    public void shouldReturnErrorStatusWhenStreamingChunkedBatchSizeIsInvalid() throws IOException {
+        // Given
+        System.setProperty(SystemProperty.CHUNKED_STREAMING, "true");
+        System.setProperty(SystemProperty.CHUNKED_BATCH_SIZE, "0");
+        try {
+            client.addElements(DEFAULT_ELEMENTS);
+
+            // When
+            final Response response = client.executeOperationChunked(new GetAllElements());
+
+            // Then
+            assertEquals(500, response.getStatus());
+        } finally {
+            System.clearProperty(SystemProperty.CHUNKED_STREAMING);
+            System.clearProperty(SystemProperty.CHUNKED_BATCH_SIZE);
+        }
+    }
+
     @Test
     public void shouldReturn403WhenUnauthorised() throws IOException {
         // Given
@@ -82,6 +157,23 @@ public class OperationServiceV2IT extends OperationServiceIT {
         assertEquals(403, response.getStatus());
     }
 
+    @Test
+    public void shouldReturn403WhenUnauthorisedChunked() throws IOException {
+        // Given
+        Graph graph = new Graph.Builder()
+                .config(StreamUtil.graphConfig(this.getClass()))
+                .storeProperties(StreamUtil.STORE_PROPERTIES)
+                .addSchema(new Schema())
+                .build();
+        client.reinitialiseGraph(graph);
+
+        // When
+        final Response response = client.executeOperationChunked(new GetAllElements());
+
+        // Then
+        assertEquals(403, response.getStatus());
+    }
+
     @Test
     public void shouldReturnSameJobIdInHeaderAsGetAllJobDetailsOperation() throws IOException {
         // Given
@@ -212,7 +304,7 @@ public class OperationServiceV2IT extends OperationServiceIT {
 
         Response response = ((RestApiV2TestClient) client).executeOperationChainChunkedWithHeaders(opChain, "BasicUser");
 
-        assertEquals(500, response.getStatus());
+        assertEquals(403, response.getStatus());
     }
 
     @Override
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2016-2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.rest.service.v2;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.MappingIterator;
+import org.junit.Test;
+
+import uk.gov.gchq.gaffer.commonutil.TestGroups;
+import uk.gov.gchq.gaffer.data.GroupCounts;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.jsonserialisation.JSONSerialiser;
+import uk.gov.gchq.gaffer.jsonserialisation.SmileSerialiser;
+import uk.gov.gchq.gaffer.operation.OperationChain;
+import uk.gov.gchq.gaffer.operation.impl.CountGroups;
+import uk.gov.gchq.gaffer.operation.impl.get.GetAllElements;
+import uk.gov.gchq.gaffer.rest.SystemProperty;
+
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static uk.gov.gchq.gaffer.jsonserialisation.SmileSerialiser.SMILE_MEDIA_TYPE;
+
+public class OperationServiceV2SmileIT extends AbstractRestApiV2IT {
+
+    @Test
+    public void shouldReturnSmileElements() throws IOException {
+        // Given
+        client.addElements(DEFAULT_ELEMENTS);
+
+        // When
+        final Response response = client.executeOperation(new GetAllElements(), SMILE_MEDIA_TYPE);
+
+        // Then
+        assertEquals(200, response.getStatus());
+        assertEquals(MediaType.valueOf(SMILE_MEDIA_TYPE), response.getMediaType());
+        final List<Element> results = SmileSerialiser.deserialise(response.readEntity(byte[].class), new TypeReference<List<Element>>() {
+        });
+        verifyElements(DEFAULT_ELEMENTS, results);
+    }
+
+    @Test
+    public void shouldReturnSmileGroupCounts() throws IOException {
+        // Given
+        client.addElements(DEFAULT_ELEMENTS);
+
+        // When
+        final Response response = client.executeOperation(new OperationChain.Builder()
+                .first(new GetAllElements())
+                .then(new CountGroups())
+                .build(), SMILE_MEDIA_TYPE);
+
+        // Then
+        final GroupCounts groupCounts = SmileSerialiser.deserialise(response.readEntity(byte[].class), GroupCounts.class);
+        assertEquals(2, (int) groupCounts.getEntityGroups().get(TestGroups.ENTITY));
+        assertEquals(1, (int) groupCounts.getEdgeGroups().get(TestGroups.EDGE));
+    }
+
+    @Test
+    public void shouldReturnChunkedSmileElements() throws IOException {
+        // Given
+        client.addElements(DEFAULT_ELEMENTS);
+
+        // When
+        final Response response = client.executeOperationChunked(new GetAllElements(), SMILE_MEDIA_TYPE);
+
+        // Then
+        assertEquals(MediaType.valueOf(SMILE_MEDIA_TYPE), response.getMediaType());
+        verifyElements(DEFAULT_ELEMENTS, readSmileElements(response));
+    }
+
+    @Test
+    public void shouldStreamChunkedSmileElements() throws IOException {
+        // Given
+        System.setProperty(SystemProperty.CHUNKED_STREAMING, "true");
+        System.setProperty(SystemProperty.CHUNKED_BATCH_SIZE, "1");
+        try {
+            client.addElements(DEFAULT_ELEMENTS);
+
+            // When
+            final Response response = client.executeOperationChunked(new GetAllElements(), SMILE_MEDIA_TYPE);
+
+            // Then
+            assertEquals(MediaType.valueOf(SMILE_MEDIA_TYPE), response.getMediaType());
+            verifyElements(DEFAULT_ELEMENTS, readSmileElements(response));
+        } finally {
+            System.clearProperty(SystemProperty.CHUNKED_STREAMING);
+            System.clearProperty(SystemProperty.CHUNKED_BATCH_SIZE);
+        }
+    }
+
+    @Test
+    public void shouldReturnNoChunkedSmileElementsWhenNoElementsInGraph() throws IOException {
+        // When
+        final Response response = client.executeOperationChunked(new GetAllElements(), SMILE_MEDIA_TYPE);
+
+        // Then
+        assertEquals(0, readSmileElements(response).size());
+    }
+
+    private List<Element> readSmileElements(final Response response) throws IOException {
+        try (final InputStream stream = response.readEntity(InputStream.class)) {
+            final MappingIterator<Element> elements = SmileSerialiser.deserialiseSequence(stream,
+                    JSONSerialiser.getMapper().getTypeFactory().constructType(Element.class));
+            return elements.readAll();
+        }
+    }
+}
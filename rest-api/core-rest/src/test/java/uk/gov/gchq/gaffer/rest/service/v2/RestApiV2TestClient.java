@@ -46,6 +46,23 @@ public class RestApiV2TestClient extends RestApiTestClient {
                 .post(Entity.entity(JSONSerialiser.serialise(operation), APPLICATION_JSON_TYPE));
     }
 
+    public Response executeOperation(final Operation operation, final String mediaType) throws IOException {
+        startServer();
+        return client.target(uriString)
+                .path("/graph/operations/execute")
+                .request(mediaType)
+                .post(Entity.entity(JSONSerialiser.serialise(operation), APPLICATION_JSON_TYPE));
+    }
+
+    public Response executeOperationWithEncoding(final Operation operation, final String encoding) throws IOException {
+        startServer();
+        return client.target(uriString)
+                .path("/graph/operations/execute")
+                .request()
+                .acceptEncoding(encoding)
+                .post(Entity.entity(JSONSerialiser.serialise(operation), APPLICATION_JSON_TYPE));
+    }
+
     public Response scheduleJob(final Job job) throws IOException {
         startServer();
         return client.target(uriString)
@@ -86,6 +103,14 @@ public class RestApiV2TestClient extends RestApiTestClient {
                 .post(Entity.entity(JSONSerialiser.serialise(operation), APPLICATION_JSON_TYPE));
     }
 
+    public Response executeOperationChunked(final Operation operation, final String mediaType) throws IOException {
+        startServer();
+        return client.target(uriString)
+                .path("/graph/operations/execute/chunked")
+                .request(mediaType)
+                .post(Entity.entity(JSONSerialiser.serialise(operation), APPLICATION_JSON_TYPE));
+    }
+
     @Override
     public SystemStatus getRestServiceStatus() {
         return client.target(uriString)
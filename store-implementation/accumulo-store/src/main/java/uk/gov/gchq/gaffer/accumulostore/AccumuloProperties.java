@@ -45,9 +45,17 @@ public class AccumuloProperties extends StoreProperties {
     public static final String NAMESPACE = "accumulo.namespace";
     public static final String THREADS_FOR_BATCH_SCANNER = "accumulo.batchScannerThreads";
     public static final String MAX_ENTRIES_FOR_BATCH_SCANNER = "accumulo.entriesForBatchScanner";
+    public static final String ADAPTIVE_SCAN_PLANNING = "accumulo.batchScanner.adaptivePlanning";
+    public static final String CONCURRENT_BATCH_SCANNERS = "accumulo.batchScanner.concurrentScanners";
+    public static final String MAX_THREADS_FOR_BATCH_SCANNER = "accumulo.batchScanner.maxThreads";
+    public static final String RESULT_QUEUE_SIZE_FOR_BATCH_SCANNER = "accumulo.batchScanner.resultQueueSize";
+    public static final String SCAN_THREADS_FOR_BATCH_SCANNER = "accumulo.batchScanner.scanThreads";
+    public static final String SPLITS_CACHE_TIMEOUT_FOR_BATCH_SCANNER = "accumulo.batchScanner.splitsCacheTimeoutInMilliseconds";
+    public static final String SUMMARY_TABLE_ENABLED = "accumulo.summaryTable.enabled";
     public static final String CLIENT_SIDE_BLOOM_FILTER_SIZE = "accumulo.clientSideBloomFilterSize";
     public static final String FALSE_POSITIVE_RATE = "accumulo.falsePositiveRate";
     public static final String MAX_BLOOM_FILTER_TO_PASS_TO_AN_ITERATOR = "accumulo.maxBloomFilterToPassToAnIterator";
+    public static final String MAX_EXACT_SEED_FILTER_SIZE = "accumulo.maxExactSeedFilterSize";
     public static final String MAX_BUFFER_SIZE_FOR_BATCH_WRITER = "accumulo.maxBufferSizeForBatchWriterInBytes";
     public static final String MAX_TIME_OUT_FOR_BATCH_WRITER = "accumulo.maxTimeOutForBatchWriterInMilliseconds";
     public static final String NUM_THREADS_FOR_BATCH_WRITER = "accumulo.numThreadsForBatchWriter";
@@ -61,9 +69,17 @@ public class AccumuloProperties extends StoreProperties {
     private static final String CLIENT_SIDE_BLOOM_FILTER_SIZE_DEFAULT = "838860800";
     private static final String FALSE_POSITIVE_RATE_DEFAULT = "0.0002";
     private static final String MAX_BLOOM_FILTER_TO_PASS_TO_AN_ITERATOR_DEFAULT = "8388608";
+    private static final String MAX_EXACT_SEED_FILTER_SIZE_DEFAULT = "10000";
     private static final String MAX_BUFFER_SIZE_FOR_BATCH_WRITER_DEFAULT = "100000000";
     private static final String MAX_TIME_OUT_FOR_BATCH_WRITER_DEFAULT = "1000";
     private static final String THREADS_FOR_BATCH_SCANNER_DEFAULT = "10";
+    private static final String ADAPTIVE_SCAN_PLANNING_DEFAULT = "false";
+    private static final String CONCURRENT_BATCH_SCANNERS_DEFAULT = "4";
+    private static final String MAX_THREADS_FOR_BATCH_SCANNER_DEFAULT = "32";
+    private static final String RESULT_QUEUE_SIZE_FOR_BATCH_SCANNER_DEFAULT = "10000";
+    private static final String SCAN_THREADS_FOR_BATCH_SCANNER_DEFAULT = "16";
+    private static final String SPLITS_CACHE_TIMEOUT_FOR_BATCH_SCANNER_DEFAULT = "60000";
+    private static final String SUMMARY_TABLE_ENABLED_DEFAULT = "false";
     public static final String ENABLE_VALIDATOR_ITERATOR_DEFAULT = "true";
 
     public AccumuloProperties() {
@@ -303,6 +319,148 @@ public class AccumuloProperties extends StoreProperties {
         set(MAX_ENTRIES_FOR_BATCH_SCANNER, maxEntriesForBatchScanner);
     }
 
+    /**
+     * Gets the flag determining whether seeded queries should use the adaptive
+     * scan planner. The planner sorts and coalesces the seed ranges, groups them
+     * by tablet and runs several batch scanners concurrently.
+     *
+     * @return true if the adaptive scan planner should be used.
+     */
+    public boolean getAdaptiveScanPlanning() {
+        return Boolean.parseBoolean(get(ADAPTIVE_SCAN_PLANNING, ADAPTIVE_SCAN_PLANNING_DEFAULT));
+    }
+
+    /**
+     * Sets the flag determining whether seeded queries should use the adaptive
+     * scan planner.
+     *
+     * @param adaptiveScanPlanning true if the adaptive scan planner should be used.
+     */
+    public void setAdaptiveScanPlanning(final boolean adaptiveScanPlanning) {
+        set(ADAPTIVE_SCAN_PLANNING, Boolean.toString(adaptiveScanPlanning));
+    }
+
+    /**
+     * Gets the number of batch scanners the adaptive scan planner may have
+     * open at any one time for a single query.
+     *
+     * @return the number of concurrent batch scanners.
+     */
+    public int getConcurrentBatchScanners() {
+        return Integer.parseInt(get(CONCURRENT_BATCH_SCANNERS, CONCURRENT_BATCH_SCANNERS_DEFAULT));
+    }
+
+    /**
+     * Sets the number of batch scanners the adaptive scan planner may have
+     * open at any one time for a single query.
+     *
+     * @param concurrentBatchScanners the number of concurrent batch scanners.
+     */
+    public void setConcurrentBatchScanners(final String concurrentBatchScanners) {
+        set(CONCURRENT_BATCH_SCANNERS, concurrentBatchScanners);
+    }
+
+    /**
+     * Gets the maximum number of threads the adaptive scan planner may give a
+     * single batch scanner. The planner starts from
+     * {@link #getThreadsForBatchScanner()} and adjusts within this limit.
+     *
+     * @return the maximum number of threads per batch scanner.
+     */
+    public int getMaxThreadsForBatchScanner() {
+        return Integer.parseInt(get(MAX_THREADS_FOR_BATCH_SCANNER, MAX_THREADS_FOR_BATCH_SCANNER_DEFAULT));
+    }
+
+    /**
+     * Sets the maximum number of threads the adaptive scan planner may give a
+     * single batch scanner.
+     *
+     * @param maxThreadsForBatchScanner the maximum number of threads per batch scanner.
+     */
+    public void setMaxThreadsForBatchScanner(final String maxThreadsForBatchScanner) {
+        set(MAX_THREADS_FOR_BATCH_SCANNER, maxThreadsForBatchScanner);
+    }
+
+    /**
+     * Gets the number of results the adaptive scan planner buffers before the
+     * batch scanners are blocked waiting for the client to consume them.
+     *
+     * @return the size of the result queue.
+     */
+    public int getResultQueueSizeForBatchScanner() {
+        return Integer.parseInt(get(RESULT_QUEUE_SIZE_FOR_BATCH_SCANNER, RESULT_QUEUE_SIZE_FOR_BATCH_SCANNER_DEFAULT));
+    }
+
+    /**
+     * Sets the number of results the adaptive scan planner buffers before the
+     * batch scanners are blocked waiting for the client to consume them.
+     *
+     * @param resultQueueSizeForBatchScanner the size of the result queue.
+     */
+    public void setResultQueueSizeForBatchScanner(final String resultQueueSizeForBatchScanner) {
+        set(RESULT_QUEUE_SIZE_FOR_BATCH_SCANNER, resultQueueSizeForBatchScanner);
+    }
+
+    /**
+     * Gets the number of threads the adaptive scan planner uses to run batch
+     * scanners. The threads are shared by all queries on the store.
+     *
+     * @return the number of scan threads.
+     */
+    public int getScanThreadsForBatchScanner() {
+        return Integer.parseInt(get(SCAN_THREADS_FOR_BATCH_SCANNER, SCAN_THREADS_FOR_BATCH_SCANNER_DEFAULT));
+    }
+
+    /**
+     * Sets the number of threads the adaptive scan planner uses to run batch
+     * scanners. The threads are shared by all queries on the store.
+     *
+     * @param scanThreadsForBatchScanner the number of scan threads.
+     */
+    public void setScanThreadsForBatchScanner(final String scanThreadsForBatchScanner) {
+        set(SCAN_THREADS_FOR_BATCH_SCANNER, scanThreadsForBatchScanner);
+    }
+
+    /**
+     * Gets the time the adaptive scan planner caches the table's split points
+     * for before reading them again.
+     *
+     * @return the split points cache timeout in milliseconds.
+     */
+    public long getSplitsCacheTimeoutForBatchScannerInMilliseconds() {
+        return Long.parseLong(get(SPLITS_CACHE_TIMEOUT_FOR_BATCH_SCANNER, SPLITS_CACHE_TIMEOUT_FOR_BATCH_SCANNER_DEFAULT));
+    }
+
+    /**
+     * Sets the time the adaptive scan planner caches the table's split points
+     * for before reading them again.
+     *
+     * @param splitsCacheTimeoutForBatchScannerInMilliseconds the split points cache timeout in milliseconds.
+     */
+    public void setSplitsCacheTimeoutForBatchScannerInMilliseconds(final String splitsCacheTimeoutForBatchScannerInMilliseconds) {
+        set(SPLITS_CACHE_TIMEOUT_FOR_BATCH_SCANNER, splitsCacheTimeoutForBatchScannerInMilliseconds);
+    }
+
+    /**
+     * Gets the flag determining whether a summary table of vertex degrees and
+     * counts should be maintained alongside the main table.
+     *
+     * @return true if the summary table should be maintained.
+     */
+    public boolean getSummaryTableEnabled() {
+        return Boolean.parseBoolean(get(SUMMARY_TABLE_ENABLED, SUMMARY_TABLE_ENABLED_DEFAULT));
+    }
+
+    /**
+     * Sets the flag determining whether a summary table of vertex degrees and
+     * counts should be maintained alongside the main table.
+     *
+     * @param summaryTableEnabled true if the summary table should be maintained.
+     */
+    public void setSummaryTableEnabled(final boolean summaryTableEnabled) {
+        set(SUMMARY_TABLE_ENABLED, Boolean.toString(summaryTableEnabled));
+    }
+
     /**
      * Gets the size that should be used for the creation of bloom filters on the
      * client side.
@@ -369,6 +527,28 @@ public class AccumuloProperties extends StoreProperties {
         set(MAX_BLOOM_FILTER_TO_PASS_TO_AN_ITERATOR, maxBloomFilterToPassToAnIterator);
     }
 
+    /**
+     * Gets the maximum number of seeds that the filters passed to iterators
+     * hold exactly, as sorted hashes, before they become bloom filters.
+     *
+     * @return the maximum number of seeds held exactly by the filters passed
+     * to iterators.
+     */
+    public int getMaxExactSeedFilterSize() {
+        return Integer.parseInt(get(MAX_EXACT_SEED_FILTER_SIZE, MAX_EXACT_SEED_FILTER_SIZE_DEFAULT));
+    }
+
+    /**
+     * Sets the maximum number of seeds that the filters passed to iterators
+     * hold exactly, as sorted hashes, before they become bloom filters.
+     *
+     * @param maxExactSeedFilterSize the maximum number of seeds held exactly
+     *                               by the filters passed to iterators.
+     */
+    public void setMaxExactSeedFilterSize(final String maxExactSeedFilterSize) {
+        set(MAX_EXACT_SEED_FILTER_SIZE, maxExactSeedFilterSize);
+    }
+
     /**
      * Gets the key package that should be used in conjunction with this table.
      *
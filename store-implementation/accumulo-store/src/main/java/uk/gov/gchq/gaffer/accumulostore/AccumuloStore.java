@@ -18,12 +18,14 @@ package uk.gov.gchq.gaffer.accumulostore;
 
 import com.google.common.collect.Sets;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import org.apache.accumulo.core.client.AccumuloException;
 import org.apache.accumulo.core.client.AccumuloSecurityException;
 import org.apache.accumulo.core.client.BatchWriter;
 import org.apache.accumulo.core.client.ClientConfiguration;
 import org.apache.accumulo.core.client.Connector;
 import org.apache.accumulo.core.client.IteratorSetting;
 import org.apache.accumulo.core.client.MutationsRejectedException;
+import org.apache.accumulo.core.client.TableNotFoundException;
 import org.apache.accumulo.core.client.mapreduce.AccumuloInputFormat;
 import org.apache.accumulo.core.client.mapreduce.lib.impl.InputConfigurator;
 import org.apache.accumulo.core.client.security.tokens.PasswordToken;
@@ -49,6 +51,7 @@ import uk.gov.gchq.gaffer.accumulostore.operation.handler.GetElementsBetweenSets
 import uk.gov.gchq.gaffer.accumulostore.operation.handler.GetElementsHandler;
 import uk.gov.gchq.gaffer.accumulostore.operation.handler.GetElementsInRangesHandler;
 import uk.gov.gchq.gaffer.accumulostore.operation.handler.GetElementsWithinSetHandler;
+import uk.gov.gchq.gaffer.accumulostore.operation.handler.GetVertexSummariesHandler;
 import uk.gov.gchq.gaffer.accumulostore.operation.handler.SampleElementsForSplitPointsHandler;
 import uk.gov.gchq.gaffer.accumulostore.operation.handler.SummariseGroupOverRangesHandler;
 import uk.gov.gchq.gaffer.accumulostore.operation.hdfs.handler.AddElementsFromHdfsHandler;
@@ -60,10 +63,14 @@ import uk.gov.gchq.gaffer.accumulostore.operation.hdfs.operation.ImportAccumuloK
 import uk.gov.gchq.gaffer.accumulostore.operation.impl.GetElementsBetweenSets;
 import uk.gov.gchq.gaffer.accumulostore.operation.impl.GetElementsInRanges;
 import uk.gov.gchq.gaffer.accumulostore.operation.impl.GetElementsWithinSet;
+import uk.gov.gchq.gaffer.accumulostore.operation.impl.GetVertexSummaries;
 import uk.gov.gchq.gaffer.accumulostore.operation.impl.SummariseGroupOverRanges;
+import uk.gov.gchq.gaffer.accumulostore.summary.SummaryKeyConverter;
+import uk.gov.gchq.gaffer.accumulostore.summary.SummaryWriter;
 import uk.gov.gchq.gaffer.accumulostore.utils.AccumuloStoreConstants;
 import uk.gov.gchq.gaffer.accumulostore.utils.TableUtils;
 import uk.gov.gchq.gaffer.commonutil.CommonConstants;
+import uk.gov.gchq.gaffer.commonutil.executor.FixedThreadPoolJobExecutorFactory;
 import uk.gov.gchq.gaffer.commonutil.iterable.ChainedIterable;
 import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
 import uk.gov.gchq.gaffer.commonutil.pair.Pair;
@@ -102,11 +109,15 @@ import uk.gov.gchq.koryphe.ValidationResult;
 import uk.gov.gchq.koryphe.impl.binaryoperator.Max;
 
 import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -149,13 +160,20 @@ public class AccumuloStore extends Store {
             ));
     public static final String FAILED_TO_CREATE_AN_ACCUMULO_FROM_ELEMENT_OF_TYPE_WHEN_TRYING_TO_INSERT_ELEMENTS = "Failed to create an accumulo {} from element of type {} when trying to insert elements";
     private static final Logger LOGGER = LoggerFactory.getLogger(AccumuloStore.class);
+    private static final long SCAN_EXECUTOR_KEEP_ALIVE_SECONDS = 60L;
     private AccumuloKeyPackage keyPackage;
+    private SummaryKeyConverter summaryKeyConverter;
     private Connector connection = null;
+    private ExecutorService scanExecutor;
+    private volatile Pair<Long, Collection<Text>> tableSplits;
 
     @Override
     public void initialise(final String graphId, final Schema schema, final StoreProperties properties) throws StoreException {
         preInitialise(graphId, schema, properties);
         TableUtils.ensureTableExists(this);
+        if (getProperties().getSummaryTableEnabled()) {
+            TableUtils.ensureSummaryTableExists(this);
+        }
     }
 
     /**
@@ -188,6 +206,10 @@ public class AccumuloStore extends Store {
             throw new StoreException("Unable to construct an instance of key package: " + keyPackageClass, e);
         }
         this.keyPackage.setSchema(getSchema());
+        this.summaryKeyConverter = new SummaryKeyConverter(getSchema(), keyPackage.getKeyConverter(),
+                getProperties().getEnableValidatorIterator());
+        this.tableSplits = null;
+        shutdownScanExecutor();
     }
 
     /**
@@ -206,6 +228,59 @@ public class AccumuloStore extends Store {
         return connection;
     }
 
+    /**
+     * Gets the split points of the table. The splits are cached for
+     * {@link AccumuloProperties#SPLITS_CACHE_TIMEOUT_FOR_BATCH_SCANNER}, so
+     * planning the scans of a query does not list the splits every time.
+     *
+     * @return the split points of the table.
+     * @throws StoreException if the splits could not be listed.
+     */
+    public Collection<Text> getTableSplits() throws StoreException {
+        final long now = System.currentTimeMillis();
+        final Pair<Long, Collection<Text>> cachedSplits = tableSplits;
+        if (null != cachedSplits
+                && now - cachedSplits.getFirst() < getProperties().getSplitsCacheTimeoutForBatchScannerInMilliseconds()) {
+            return cachedSplits.getSecond();
+        }
+
+        final Collection<Text> splits;
+        try {
+            splits = Collections.unmodifiableList(new ArrayList<>(getConnection().tableOperations().listSplits(getTableName())));
+        } catch (final TableNotFoundException | AccumuloSecurityException | AccumuloException e) {
+            throw new StoreException("Unable to list the splits for table " + getTableName(), e);
+        }
+        tableSplits = new Pair<>(now, splits);
+        return splits;
+    }
+
+    /**
+     * Gets the executor that runs the batch scanners of seeded queries when
+     * {@link AccumuloProperties#ADAPTIVE_SCAN_PLANNING} is set. It is shared
+     * by all queries on the store and has
+     * {@link AccumuloProperties#SCAN_THREADS_FOR_BATCH_SCANNER} threads, which
+     * are stopped when they are idle.
+     *
+     * @return the scan executor.
+     */
+    public synchronized ExecutorService getScanExecutor() {
+        if (null == scanExecutor) {
+            final ThreadPoolExecutor executor = (ThreadPoolExecutor) new FixedThreadPoolJobExecutorFactory()
+                    .createExecutor(getProperties().getScanThreadsForBatchScanner());
+            executor.setKeepAliveTime(SCAN_EXECUTOR_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS);
+            executor.allowCoreThreadTimeOut(true);
+            scanExecutor = executor;
+        }
+        return scanExecutor;
+    }
+
+    private synchronized void shutdownScanExecutor() {
+        if (null != scanExecutor) {
+            scanExecutor.shutdown();
+            scanExecutor = null;
+        }
+    }
+
     public String getTableName() {
         if (StringUtils.isNotBlank(getProperties().getNamespace())) {
             return String.format("%s.%s", getProperties().getNamespace(),  getGraphId());
@@ -213,6 +288,17 @@ public class AccumuloStore extends Store {
         return getGraphId();
     }
 
+    /**
+     * Gets the name of the summary table, which holds the degrees and counts
+     * of each vertex when {@link AccumuloProperties#SUMMARY_TABLE_ENABLED} is
+     * set.
+     *
+     * @return the name of the summary table.
+     */
+    public String getSummaryTableName() {
+        return getTableName() + AccumuloStoreConstants.SUMMARY_TABLE_SUFFIX;
+    }
+
     @Override
     protected void validateSchema(final ValidationResult validationResult, final Serialiser serialiser) {
         super.validateSchema(validationResult, serialiser);
@@ -377,6 +463,10 @@ public class AccumuloStore extends Store {
         addOperationHandler(SampleDataForSplitPoints.class, new SampleDataForSplitPointsHandler());
         addOperationHandler(ImportAccumuloKeyValueFiles.class, new ImportAccumuloKeyValueFilesHandler());
 
+        if (getProperties().getSummaryTableEnabled()) {
+            addOperationHandler(GetVertexSummaries.class, new GetVertexSummariesHandler());
+        }
+
         if (null == getSchema().getVertexSerialiser() || getSchema().getVertexSerialiser().preservesObjectOrdering()) {
             addOperationHandler(SummariseGroupOverRanges.class, new SummariseGroupOverRangesHandler());
             addOperationHandler(GetElementsInRanges.class, new GetElementsInRangesHandler());
@@ -424,6 +514,9 @@ public class AccumuloStore extends Store {
     protected void insertGraphElements(final Iterable<? extends Element> elements) throws StoreException {
         // Create BatchWriter
         final BatchWriter writer = TableUtils.createBatchWriter(this);
+        final SummaryWriter summaryWriter = getProperties().getSummaryTableEnabled()
+                ? new SummaryWriter(writer, TableUtils.createBatchWriter(this, getSummaryTableName()),
+                summaryKeyConverter, getProperties().getMaxBufferSizeForBatchWriterInBytes()) : null;
         // Loop through elements, convert to mutations, and add to
         // BatchWriter.as
         // The BatchWriter takes care of batching them up, sending them without
@@ -466,12 +559,20 @@ public class AccumuloStore extends Store {
                         writer.addMutation(m2);
                     } catch (final MutationsRejectedException e) {
                         LOGGER.error("Failed to create an accumulo key mutation");
+                        continue;
                     }
                 }
+                if (null != summaryWriter) {
+                    summaryWriter.add(element);
+                }
             }
         } else {
             throw new GafferRuntimeException("Could not find any elements to add to graph.", Status.BAD_REQUEST);
         }
+        if (null != summaryWriter) {
+            // Flushes the main writer before writing the remaining summaries
+            summaryWriter.close();
+        }
         try {
             writer.close();
         } catch (final MutationsRejectedException e) {
@@ -489,6 +590,16 @@ public class AccumuloStore extends Store {
         return keyPackage;
     }
 
+    /**
+     * Gets the {@link SummaryKeyConverter} used to convert elements into keys
+     * for the summary table.
+     *
+     * @return the {@link SummaryKeyConverter}.
+     */
+    public SummaryKeyConverter getSummaryKeyConverter() {
+        return summaryKeyConverter;
+    }
+
     /**
      * Gets the TabletServers.
      *
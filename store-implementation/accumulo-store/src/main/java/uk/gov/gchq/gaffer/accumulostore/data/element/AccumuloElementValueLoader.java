@@ -37,6 +37,8 @@ public abstract class AccumuloElementValueLoader implements ElementValueLoader {
     private final String timestampProperty;
 
     private SchemaElementDefinition eDef;
+    private Properties columnQualifierProperties;
+    private Properties valueProperties;
 
     protected AccumuloElementValueLoader(final String group,
                                          final Key key,
@@ -60,15 +62,29 @@ public abstract class AccumuloElementValueLoader implements ElementValueLoader {
             }
         }
 
-        final Properties props;
+        // The column qualifier and value are each decoded in a single pass the
+        // first time one of their properties is accessed.
         if (eDef.getGroupBy().contains(name)) {
-            props = elementConverter.getPropertiesFromColumnQualifier(group, key.getColumnQualifierData().getBackingArray());
-        } else if (name.equals(schema.getVisibilityProperty())) {
+            if (null == columnQualifierProperties) {
+                columnQualifierProperties = elementConverter.getPropertiesFromColumnQualifier(group, key.getColumnQualifierData().getBackingArray());
+                lazyProperties.putAll(columnQualifierProperties);
+            }
+            return columnQualifierProperties.get(name);
+        }
+
+        if (!name.equals(schema.getVisibilityProperty()) && !name.equals(timestampProperty)) {
+            if (null == valueProperties) {
+                valueProperties = elementConverter.getPropertiesFromValue(group, value);
+                lazyProperties.putAll(valueProperties);
+            }
+            return valueProperties.get(name);
+        }
+
+        final Properties props;
+        if (name.equals(schema.getVisibilityProperty())) {
             props = elementConverter.getPropertiesFromColumnVisibility(group, key.getColumnVisibilityData().getBackingArray());
-        } else if (name.equals(timestampProperty)) {
-            props = elementConverter.getPropertiesFromTimestamp(group, key.getTimestamp());
         } else {
-            props = elementConverter.getPropertiesFromValue(group, value);
+            props = elementConverter.getPropertiesFromTimestamp(group, key.getTimestamp());
         }
         lazyProperties.putAll(props);
         return props.get(name);
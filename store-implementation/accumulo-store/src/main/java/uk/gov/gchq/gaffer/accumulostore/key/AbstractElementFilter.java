@@ -28,6 +28,7 @@ import org.slf4j.LoggerFactory;
 
 import uk.gov.gchq.gaffer.accumulostore.data.element.AccumuloEdgeValueLoader;
 import uk.gov.gchq.gaffer.accumulostore.data.element.AccumuloEntityValueLoader;
+import uk.gov.gchq.gaffer.accumulostore.key.core.AbstractCoreKeyAccumuloElementConverter;
 import uk.gov.gchq.gaffer.accumulostore.key.exception.ElementFilterException;
 import uk.gov.gchq.gaffer.accumulostore.utils.AccumuloStoreConstants;
 import uk.gov.gchq.gaffer.commonutil.StringUtil;
@@ -37,6 +38,7 @@ import uk.gov.gchq.gaffer.data.element.Element;
 import uk.gov.gchq.gaffer.data.element.Entity;
 import uk.gov.gchq.gaffer.data.element.LazyEdge;
 import uk.gov.gchq.gaffer.data.element.LazyEntity;
+import uk.gov.gchq.gaffer.data.element.function.ElementFilter;
 import uk.gov.gchq.gaffer.data.elementdefinition.view.View;
 import uk.gov.gchq.gaffer.data.elementdefinition.view.ViewElementDefinition;
 import uk.gov.gchq.gaffer.store.ElementValidator;
@@ -46,6 +48,7 @@ import uk.gov.gchq.gaffer.store.schema.SchemaElementDefinition;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
@@ -55,6 +58,10 @@ import java.util.function.Predicate;
 /**
  * The AbstractElementFilter will filter out {@link Element}s based on the filtering
  * instructions given in the {@link Schema} or {@link View} that is passed to this iterator.
+ * <p>
+ * Where possible, the {@link View} filters are first evaluated on the serialised
+ * properties using a {@link SerialisedPropertyFilter}, so that only elements that
+ * pass those predicates are deserialised.
  */
 public abstract class AbstractElementFilter extends Filter {
     private static final Logger LOGGER = LoggerFactory.getLogger(AbstractElementFilter.class);
@@ -68,6 +75,8 @@ public abstract class AbstractElementFilter extends Filter {
 
     private Set<String> groupsWithoutFilters = Collections.emptySet();
 
+    private Map<String, SerialisedPropertyFilter> serialisedFilters = Collections.emptyMap();
+
     private final ElementValidator.FilterType filterType;
 
     protected AbstractElementFilter(final ElementValidator.FilterType filterType) {
@@ -81,6 +90,16 @@ public abstract class AbstractElementFilter extends Filter {
             return true;
         }
 
+        final SerialisedPropertyFilter serialisedFilter = serialisedFilters.get(group);
+        if (null != serialisedFilter) {
+            if (!serialisedFilter.test(key, value)) {
+                return false;
+            }
+            if (serialisedFilter.isComplete()) {
+                return true;
+            }
+        }
+
         final Element element;
         if (schema.isEntity(group)) {
             element = new LazyEntity(new Entity(group), new AccumuloEntityValueLoader(group, key, value, elementConverter, schema));
@@ -124,9 +143,11 @@ public abstract class AbstractElementFilter extends Filter {
             LOGGER.debug("Determining groups that don't need to be filtered based on view {}", view);
             if (filterType == ElementValidator.FilterType.PRE_AGGREGATION_FILTER) {
                 updateViewGroupsWithoutFilters(view, ViewElementDefinition::hasPreAggregationFilters);
+                updateSerialisedFilters(view, ViewElementDefinition::getPreAggregationFilter);
                 elementPredicate = new ElementValidator(view)::validateInput;
             } else {
                 updateViewGroupsWithoutFilters(view, ViewElementDefinition::hasPostAggregationFilters);
+                updateSerialisedFilters(view, ViewElementDefinition::getPostAggregationFilter);
                 elementPredicate = new ElementValidator(view)::validateAggregation;
             }
         }
@@ -144,6 +165,8 @@ public abstract class AbstractElementFilter extends Filter {
         newInstance.schema = schema;
         newInstance.elementConverter = elementConverter;
         newInstance.elementPredicate = elementPredicate;
+        newInstance.groupsWithoutFilters = groupsWithoutFilters;
+        newInstance.serialisedFilters = serialisedFilters;
         return newInstance;
     }
 
@@ -172,6 +195,23 @@ public abstract class AbstractElementFilter extends Filter {
         LOGGER.debug("The following groups will not be filtered: {}", StringUtils.join(groupsWithoutFilters, ','));
     }
 
+    private void updateSerialisedFilters(final View view, final Function<ViewElementDefinition, ElementFilter> getFilter) {
+        serialisedFilters = new HashMap<>();
+        if (!(elementConverter instanceof AbstractCoreKeyAccumuloElementConverter)) {
+            // The serialised property layout is only known for the core key converters
+            return;
+        }
+        for (final Map.Entry<String, ViewElementDefinition> entry : new ChainedIterable<Map.Entry<String, ViewElementDefinition>>(view.getEntities().entrySet(), view.getEdges().entrySet())) {
+            if (null != entry.getValue() && !groupsWithoutFilters.contains(entry.getKey())) {
+                final SerialisedPropertyFilter serialisedFilter = SerialisedPropertyFilter.compile(entry.getKey(), getFilter.apply(entry.getValue()), schema);
+                if (null != serialisedFilter) {
+                    serialisedFilters.put(entry.getKey(), serialisedFilter);
+                }
+            }
+        }
+        LOGGER.debug("The following groups will be filtered on serialised properties: {}", StringUtils.join(serialisedFilters.keySet(), ','));
+    }
+
     private void updateSchemaGroupsWithoutFilters() {
         groupsWithoutFilters = new HashSet<>();
         for (final Map.Entry<String, SchemaElementDefinition> entry : new ChainedIterable<Map.Entry<String, SchemaElementDefinition>>(schema.getEntities().entrySet(), schema.getEdges().entrySet())) {
@@ -126,6 +126,20 @@ public interface AccumuloElementConverter {
      */
     Element getFullElement(final Key key, final Value value, final boolean includeMatchedVertex);
 
+    /**
+     * Returns an {@link Element} whose identifiers and properties are only
+     * decoded from the {@link Key} and {@link Value} when they are first
+     * accessed.
+     *
+     * @param key                  the accumulo Key containing serialised parts of the Element
+     * @param value                the accumulo Value containing serialised properties of the Element
+     * @param includeMatchedVertex if true then the matchedVertex field is set on Edges
+     * @return Returns an {@link Element} backed by the {@link Key} and {@link Value}
+     */
+    default Element getLazyElement(final Key key, final Value value, final boolean includeMatchedVertex) {
+        return getFullElement(key, value, includeMatchedVertex);
+    }
+
     /**
      * Helper Used to create Bloom Filters, method Serialises a given object
      * (from an {@link uk.gov.gchq.gaffer.data.element.id.EntityId} ) with the Identifier
@@ -0,0 +1,343 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.accumulostore.key;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import uk.gov.gchq.gaffer.accumulostore.key.exception.AccumuloElementConversionException;
+import uk.gov.gchq.gaffer.accumulostore.utils.AccumuloStoreConstants;
+import uk.gov.gchq.gaffer.accumulostore.utils.ByteUtils;
+import uk.gov.gchq.gaffer.data.element.ElementTuple;
+import uk.gov.gchq.gaffer.data.element.IdentifierType;
+import uk.gov.gchq.gaffer.data.element.function.ElementFilter;
+import uk.gov.gchq.gaffer.exception.SerialisationException;
+import uk.gov.gchq.gaffer.serialisation.ToBytesSerialiser;
+import uk.gov.gchq.gaffer.serialisation.implementation.raw.CompactRawSerialisationUtils;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+import uk.gov.gchq.gaffer.store.schema.SchemaElementDefinition;
+import uk.gov.gchq.gaffer.store.schema.TypeDefinition;
+import uk.gov.gchq.koryphe.impl.predicate.Exists;
+import uk.gov.gchq.koryphe.impl.predicate.IsEqual;
+import uk.gov.gchq.koryphe.impl.predicate.IsIn;
+import uk.gov.gchq.koryphe.impl.predicate.IsLessThan;
+import uk.gov.gchq.koryphe.impl.predicate.IsMoreThan;
+import uk.gov.gchq.koryphe.tuple.predicate.TupleAdaptedPredicate;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * A {@code SerialisedPropertyFilter} evaluates the predicates of an
+ * {@link ElementFilter} directly on the serialised property bytes held in an
+ * Accumulo column qualifier or value, so elements that fail the filter are
+ * rejected without being deserialised.
+ * <p>
+ * {@link IsEqual}, {@link IsIn}, {@link IsMoreThan}, {@link IsLessThan} and
+ * {@link Exists} predicates on a single group-by or value property can be
+ * evaluated. The equality predicates require a consistent serialiser and the
+ * range predicates require a serialiser that preserves object ordering. Any
+ * other predicates in the filter are skipped, so unless the filter is
+ * {@link #isComplete()} an element that passes must still be tested against
+ * the full filter.
+ */
+public final class SerialisedPropertyFilter {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SerialisedPropertyFilter.class);
+
+    private final List<SerialisedPropertyPredicate> predicates;
+    private final boolean complete;
+
+    private SerialisedPropertyFilter(final List<SerialisedPropertyPredicate> predicates, final boolean complete) {
+        this.predicates = predicates;
+        this.complete = complete;
+    }
+
+    /**
+     * Compiles the predicates in an element filter that can be evaluated on
+     * the serialised properties of the group.
+     *
+     * @param group  the group the filter applies to
+     * @param filter the element filter
+     * @param schema the schema
+     * @return the compiled filter, or null if none of the predicates can be
+     * evaluated on the serialised properties
+     */
+    public static SerialisedPropertyFilter compile(final String group, final ElementFilter filter, final Schema schema) {
+        final SchemaElementDefinition elementDef = schema.getElement(group);
+        if (null == filter || null == elementDef) {
+            return null;
+        }
+
+        final List<SerialisedPropertyPredicate> predicates = new ArrayList<>();
+        boolean complete = true;
+        for (final TupleAdaptedPredicate<String, ?> component : filter.getComponents()) {
+            final SerialisedPropertyPredicate predicate = compile(component, elementDef, schema);
+            if (null == predicate) {
+                complete = false;
+            } else {
+                predicates.add(predicate);
+            }
+        }
+
+        if (predicates.isEmpty()) {
+            return null;
+        }
+
+        LOGGER.debug("Compiled {} of {} filter predicates for group {} to run on serialised properties",
+                predicates.size(), filter.getComponents().size(), group);
+        return new SerialisedPropertyFilter(predicates, complete);
+    }
+
+    /**
+     * Tests the compiled predicates against the serialised properties.
+     *
+     * @param key   the Accumulo key
+     * @param value the Accumulo value
+     * @return false if the element fails the filter. If true the element
+     * passes the filter only if this filter is complete.
+     */
+    public boolean test(final Key key, final Value value) {
+        final byte[] columnQualifier = key.getColumnQualifierData().getBackingArray();
+        final byte[] valueBytes = null != value ? value.get() : null;
+        for (final SerialisedPropertyPredicate predicate : predicates) {
+            if (!predicate.test(columnQualifier, valueBytes)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return true if every predicate in the element filter has been
+     * compiled, so passing this filter means passing the element filter.
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    private static SerialisedPropertyPredicate compile(final TupleAdaptedPredicate<String, ?> component,
+                                                       final SchemaElementDefinition elementDef,
+                                                       final Schema schema) {
+        final String[] selection = component.getSelection();
+        if (null == selection || 1 != selection.length) {
+            return null;
+        }
+
+        final String property = selection[0];
+        if (ElementTuple.ELEMENT.equals(property) || ElementTuple.PROPERTIES.equals(property)
+                || null != IdentifierType.fromName(property) || !elementDef.containsProperty(property)) {
+            return null;
+        }
+
+        // Work out where the property is serialised, following the layout
+        // used by AbstractCoreKeyAccumuloElementConverter
+        final boolean inColumnQualifier = elementDef.getGroupBy().contains(property);
+        final List<String> layout = new ArrayList<>();
+        if (inColumnQualifier) {
+            layout.addAll(elementDef.getGroupBy());
+        } else {
+            final String timestampProperty = schema.getConfig(AccumuloStoreConstants.TIMESTAMP_PROPERTY);
+            if (property.equals(schema.getVisibilityProperty()) || property.equals(timestampProperty)) {
+                return null;
+            }
+            for (final String propertyName : elementDef.getProperties()) {
+                if (!elementDef.getGroupBy().contains(propertyName)
+                        && !propertyName.equals(schema.getVisibilityProperty())
+                        && !propertyName.equals(timestampProperty)) {
+                    layout.add(propertyName);
+                }
+            }
+        }
+
+        // The preceding properties can only be skipped if they all have serialisers
+        final int position = layout.indexOf(property);
+        for (int i = 0; i <= position; i++) {
+            if (null == getSerialiser(elementDef, layout.get(i))) {
+                return null;
+            }
+        }
+
+        final ToBytesSerialiser serialiser = getSerialiser(elementDef, property);
+        final Predicate predicate = component.getPredicate();
+        try {
+            final BytesPredicate bytesPredicate = compile(predicate, serialiser, elementDef.getPropertyClass(property));
+            if (null == bytesPredicate) {
+                return null;
+            }
+
+            final byte[] nullBytes = serialiser.serialiseNull();
+            final boolean hasNullBytes = null != nullBytes && nullBytes.length > 0;
+            return new SerialisedPropertyPredicate(
+                    inColumnQualifier,
+                    position,
+                    predicate.test(null),
+                    predicate.test(serialiser.deserialiseEmpty()),
+                    hasNullBytes ? nullBytes : null,
+                    hasNullBytes && predicate.test(serialiser.deserialise(nullBytes)),
+                    bytesPredicate);
+        } catch (final SerialisationException | RuntimeException e) {
+            LOGGER.debug("Unable to compile predicate {} on property {} to run on serialised properties", predicate, property, e);
+            return null;
+        }
+    }
+
+    private static BytesPredicate compile(final Predicate predicate, final ToBytesSerialiser serialiser, final Class<?> propertyClass) throws SerialisationException {
+        if (null == predicate || null == propertyClass) {
+            return null;
+        }
+
+        final Class<?> predicateClass = predicate.getClass();
+        if (Exists.class == predicateClass) {
+            return (bytes, offset, length) -> true;
+        }
+
+        if (IsEqual.class == predicateClass) {
+            final Object controlValue = ((IsEqual) predicate).getControlValue();
+            if (!serialiser.isConsistent() || !isOfClass(controlValue, propertyClass)) {
+                return null;
+            }
+            final byte[] controlBytes = serialiser.serialise(controlValue);
+            return (bytes, offset, length) -> 0 == ByteUtils.compareUnsignedBytes(bytes, offset, length, controlBytes);
+        }
+
+        if (IsIn.class == predicateClass) {
+            final Collection<Object> allowedValues = ((IsIn) predicate).getAllowedValues();
+            if (!serialiser.isConsistent() || null == allowedValues) {
+                return null;
+            }
+            final Set<ByteBuffer> allowedBytes = new HashSet<>();
+            for (final Object allowedValue : allowedValues) {
+                if (null != allowedValue) {
+                    if (!isOfClass(allowedValue, propertyClass)) {
+                        return null;
+                    }
+                    allowedBytes.add(ByteBuffer.wrap(serialiser.serialise(allowedValue)));
+                }
+            }
+            return (bytes, offset, length) -> allowedBytes.contains(ByteBuffer.wrap(bytes, offset, length));
+        }
+
+        if (IsMoreThan.class == predicateClass) {
+            final IsMoreThan isMoreThan = (IsMoreThan) predicate;
+            if (!serialiser.preservesObjectOrdering() || !isOfClass(isMoreThan.getControlValue(), propertyClass)) {
+                return null;
+            }
+            final byte[] controlBytes = serialiser.serialise(isMoreThan.getControlValue());
+            if (isMoreThan.getOrEqualTo()) {
+                return (bytes, offset, length) -> ByteUtils.compareUnsignedBytes(bytes, offset, length, controlBytes) >= 0;
+            }
+            return (bytes, offset, length) -> ByteUtils.compareUnsignedBytes(bytes, offset, length, controlBytes) > 0;
+        }
+
+        if (IsLessThan.class == predicateClass) {
+            final IsLessThan isLessThan = (IsLessThan) predicate;
+            if (!serialiser.preservesObjectOrdering() || !isOfClass(isLessThan.getControlValue(), propertyClass)) {
+                return null;
+            }
+            final byte[] controlBytes = serialiser.serialise(isLessThan.getControlValue());
+            if (isLessThan.getOrEqualTo()) {
+                return (bytes, offset, length) -> ByteUtils.compareUnsignedBytes(bytes, offset, length, controlBytes) <= 0;
+            }
+            return (bytes, offset, length) -> ByteUtils.compareUnsignedBytes(bytes, offset, length, controlBytes) < 0;
+        }
+
+        return null;
+    }
+
+    private static boolean isOfClass(final Object value, final Class<?> propertyClass) {
+        // Arrays are excluded as their equality is not based on their contents
+        return null != value && propertyClass.equals(value.getClass()) && !propertyClass.isArray();
+    }
+
+    private static ToBytesSerialiser getSerialiser(final SchemaElementDefinition elementDef, final String property) {
+        final TypeDefinition typeDef = elementDef.getPropertyTypeDef(property);
+        if (null != typeDef && typeDef.getSerialiser() instanceof ToBytesSerialiser) {
+            return (ToBytesSerialiser) typeDef.getSerialiser();
+        }
+        return null;
+    }
+
+    @FunctionalInterface
+    private interface BytesPredicate {
+        boolean test(final byte[] bytes, final int offset, final int length);
+    }
+
+    private static final class SerialisedPropertyPredicate {
+        private final boolean inColumnQualifier;
+        private final int position;
+        private final boolean resultIfMissing;
+        private final boolean resultIfEmpty;
+        private final byte[] nullBytes;
+        private final boolean resultIfNull;
+        private final BytesPredicate bytesPredicate;
+
+        private SerialisedPropertyPredicate(final boolean inColumnQualifier,
+                                            final int position,
+                                            final boolean resultIfMissing,
+                                            final boolean resultIfEmpty,
+                                            final byte[] nullBytes,
+                                            final boolean resultIfNull,
+                                            final BytesPredicate bytesPredicate) {
+            this.inColumnQualifier = inColumnQualifier;
+            this.position = position;
+            this.resultIfMissing = resultIfMissing;
+            this.resultIfEmpty = resultIfEmpty;
+            this.nullBytes = nullBytes;
+            this.resultIfNull = resultIfNull;
+            this.bytesPredicate = bytesPredicate;
+        }
+
+        private boolean test(final byte[] columnQualifier, final byte[] value) {
+            final byte[] bytes = inColumnQualifier ? columnQualifier : value;
+            if (null == bytes) {
+                return resultIfMissing;
+            }
+
+            try {
+                int carriage = 0;
+                for (int i = 0; i < position && carriage < bytes.length; i++) {
+                    carriage += CompactRawSerialisationUtils.decodeVIntSize(bytes[carriage])
+                            + (int) CompactRawSerialisationUtils.readLong(bytes, carriage);
+                }
+
+                // Properties missing from the end of the bytes are not deserialised at all
+                if (carriage >= bytes.length) {
+                    return resultIfMissing;
+                }
+
+                final int offset = carriage + CompactRawSerialisationUtils.decodeVIntSize(bytes[carriage]);
+                final int length = (int) CompactRawSerialisationUtils.readLong(bytes, carriage);
+                if (0 == length) {
+                    return resultIfEmpty;
+                }
+                if (null != nullBytes && 0 == ByteUtils.compareUnsignedBytes(bytes, offset, length, nullBytes)) {
+                    return resultIfNull;
+                }
+                return bytesPredicate.test(bytes, offset, length);
+            } catch (final SerialisationException e) {
+                throw new AccumuloElementConversionException("Exception reading length of property", e);
+            }
+        }
+    }
+}
@@ -20,6 +20,8 @@ import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Value;
 
+import uk.gov.gchq.gaffer.accumulostore.data.element.AccumuloEdgeValueLoader;
+import uk.gov.gchq.gaffer.accumulostore.data.element.AccumuloEntityValueLoader;
 import uk.gov.gchq.gaffer.accumulostore.key.AccumuloElementConverter;
 import uk.gov.gchq.gaffer.accumulostore.key.exception.AccumuloElementConversionException;
 import uk.gov.gchq.gaffer.accumulostore.utils.AccumuloStoreConstants;
@@ -32,6 +34,8 @@ import uk.gov.gchq.gaffer.data.element.Edge;
 import uk.gov.gchq.gaffer.data.element.EdgeDirection;
 import uk.gov.gchq.gaffer.data.element.Element;
 import uk.gov.gchq.gaffer.data.element.Entity;
+import uk.gov.gchq.gaffer.data.element.LazyEdge;
+import uk.gov.gchq.gaffer.data.element.LazyEntity;
 import uk.gov.gchq.gaffer.data.element.Properties;
 import uk.gov.gchq.gaffer.data.element.id.EdgeId;
 import uk.gov.gchq.gaffer.data.element.id.ElementId;
@@ -177,6 +181,15 @@ public abstract class AbstractCoreKeyAccumuloElementConverter implements Accumul
         return element;
     }
 
+    @Override
+    public Element getLazyElement(final Key key, final Value value, final boolean includeMatchedVertex) {
+        final String group = getGroupFromColumnFamily(key.getColumnFamilyData().getBackingArray());
+        if (doesKeyRepresentEntity(key.getRowData().getBackingArray())) {
+            return new LazyEntity(new Entity(group), new AccumuloEntityValueLoader(group, key, value, this, schema));
+        }
+        return new LazyEdge(new Edge(group, null, null, false), new AccumuloEdgeValueLoader(group, key, value, this, schema, includeMatchedVertex));
+    }
+
     @Override
     public Pair<byte[], byte[]> getRowKeysFromElement(final Element element) {
         if (element instanceof Entity) {
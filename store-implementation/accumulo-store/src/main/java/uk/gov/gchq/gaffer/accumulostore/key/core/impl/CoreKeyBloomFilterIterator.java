@@ -28,6 +28,7 @@ import org.slf4j.LoggerFactory;
 import uk.gov.gchq.gaffer.accumulostore.key.exception.BloomFilterIteratorException;
 import uk.gov.gchq.gaffer.accumulostore.utils.AccumuloStoreConstants;
 import uk.gov.gchq.gaffer.accumulostore.utils.IteratorOptionsBuilder;
+import uk.gov.gchq.gaffer.accumulostore.utils.SeedFilter;
 import uk.gov.gchq.gaffer.commonutil.ByteArrayEscapeUtils;
 
 import java.io.ByteArrayInputStream;
@@ -35,17 +36,20 @@ import java.io.DataInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
+import java.nio.BufferUnderflowException;
 import java.util.Arrays;
 import java.util.Map;
 
 /**
  * The CoreKeyBloomFilterIterator filters out Edges based on their non searched
- * for vertex's membership of the provided {@link BloomFilter}.
+ * for vertex's membership of the provided {@link SeedFilter} or, if one was
+ * not provided, {@link BloomFilter}.
  */
 public class CoreKeyBloomFilterIterator extends Filter {
     private static final Logger LOGGER = LoggerFactory.getLogger(CoreKeyBloomFilterIterator.class);
 
     protected BloomFilter filter;
+    protected SeedFilter seedFilter;
 
     @Override
     public boolean accept(final Key key, final Value value) {
@@ -60,6 +64,9 @@ public class CoreKeyBloomFilterIterator extends Filter {
         if (pos == -1) {
             return true;
         }
+        if (null != seedFilter) {
+            return seedFilter.mightContain(vertices, pos + 1, vertices.length - 3 - pos);
+        }
         return filter.membershipTest(new org.apache.hadoop.util.bloom.Key(Arrays.copyOfRange(vertices, pos + 1, vertices.length - 2)));
     }
 
@@ -68,6 +75,17 @@ public class CoreKeyBloomFilterIterator extends Filter {
                      final IteratorEnvironment env) throws IOException {
         super.init(source, options, env);
 
+        if (options.containsKey(AccumuloStoreConstants.SEED_FILTER)) {
+            try {
+                seedFilter = SeedFilter.fromByteArray(options.get(AccumuloStoreConstants.SEED_FILTER)
+                        .getBytes(AccumuloStoreConstants.BLOOM_FILTER_CHARSET));
+            } catch (final UnsupportedEncodingException | IllegalArgumentException | BufferUnderflowException e) {
+                throw new BloomFilterIteratorException("Failed to re-create serialised seed filter", e);
+            }
+            LOGGER.debug("Initialised CoreKeyBloomFilterIterator with a seed filter");
+            return;
+        }
+
         filter = new BloomFilter();
         final byte[] bytes;
         try {
@@ -90,8 +108,10 @@ public class CoreKeyBloomFilterIterator extends Filter {
         if (!super.validateOptions(options)) {
             return false;
         }
-        if (!options.containsKey(AccumuloStoreConstants.BLOOM_FILTER)) {
-            throw new BloomFilterIteratorException("Must set the " + AccumuloStoreConstants.BLOOM_FILTER + " option");
+        if (!options.containsKey(AccumuloStoreConstants.BLOOM_FILTER)
+                && !options.containsKey(AccumuloStoreConstants.SEED_FILTER)) {
+            throw new BloomFilterIteratorException("Must set the " + AccumuloStoreConstants.BLOOM_FILTER
+                    + " or " + AccumuloStoreConstants.SEED_FILTER + " option");
         }
 
         return true;
@@ -101,7 +121,9 @@ public class CoreKeyBloomFilterIterator extends Filter {
     public IteratorOptions describeOptions() {
         return new IteratorOptionsBuilder(AccumuloStoreConstants.BLOOM_FILTER_ITERATOR_NAME, "Bloom Filter")
                 .addNamedOption(AccumuloStoreConstants.BLOOM_FILTER,
-                        "Required: The serialised form of the bloom filter that keys will be tested against")
+                        "Optional: The serialised form of the bloom filter that keys will be tested against")
+                .addNamedOption(AccumuloStoreConstants.SEED_FILTER,
+                        "Optional: The serialised form of the seed filter that keys will be tested against, used in preference to the bloom filter")
                 .build();
     }
 
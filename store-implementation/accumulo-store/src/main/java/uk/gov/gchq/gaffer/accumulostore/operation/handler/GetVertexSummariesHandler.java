@@ -0,0 +1,51 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.accumulostore.operation.handler;
+
+import uk.gov.gchq.gaffer.accumulostore.AccumuloStore;
+import uk.gov.gchq.gaffer.accumulostore.operation.impl.GetVertexSummaries;
+import uk.gov.gchq.gaffer.accumulostore.summary.VertexSummary;
+import uk.gov.gchq.gaffer.accumulostore.summary.VertexSummaryRetriever;
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
+import uk.gov.gchq.gaffer.operation.OperationException;
+import uk.gov.gchq.gaffer.store.Context;
+import uk.gov.gchq.gaffer.store.Store;
+import uk.gov.gchq.gaffer.store.operation.handler.OutputOperationHandler;
+import uk.gov.gchq.gaffer.user.User;
+
+public class GetVertexSummariesHandler implements OutputOperationHandler<GetVertexSummaries, CloseableIterable<VertexSummary>> {
+
+    @Override
+    public CloseableIterable<VertexSummary> doOperation(final GetVertexSummaries operation,
+                                                        final Context context, final Store store)
+            throws OperationException {
+        return doOperation(operation, context.getUser(), (AccumuloStore) store);
+    }
+
+    public CloseableIterable<VertexSummary> doOperation(final GetVertexSummaries op,
+                                                        final User user,
+                                                        final AccumuloStore store)
+            throws OperationException {
+        if (!store.getProperties().getSummaryTableEnabled()) {
+            throw new OperationException("The summary table is not enabled for this store");
+        }
+        if (op.getTopNeighbours() < 0) {
+            throw new OperationException("topNeighbours must not be negative");
+        }
+        return new VertexSummaryRetriever(store, op.getInput(), op.getGroups(), op.getTopNeighbours(), user);
+    }
+}
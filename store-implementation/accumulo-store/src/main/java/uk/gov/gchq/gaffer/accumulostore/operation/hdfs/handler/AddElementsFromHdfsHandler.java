@@ -30,6 +30,7 @@ import org.slf4j.LoggerFactory;
 import uk.gov.gchq.gaffer.accumulostore.AccumuloStore;
 import uk.gov.gchq.gaffer.accumulostore.operation.hdfs.handler.job.factory.AccumuloAddElementsFromHdfsJobFactory;
 import uk.gov.gchq.gaffer.accumulostore.operation.hdfs.handler.job.tool.ImportElementsToAccumuloTool;
+import uk.gov.gchq.gaffer.accumulostore.operation.hdfs.reducer.SummaryKeyValueReducer;
 import uk.gov.gchq.gaffer.accumulostore.utils.AccumuloStoreConstants;
 import uk.gov.gchq.gaffer.hdfs.operation.AddElementsFromHdfs;
 import uk.gov.gchq.gaffer.hdfs.operation.SampleDataForSplitPoints;
@@ -77,9 +78,17 @@ public class AddElementsFromHdfsHandler implements OperationHandler<AddElementsF
         }
 
         fetchElements(operation, store);
+        final String summaryPath = getPathWithSlashSuffix(operation.getWorkingPath()) + context.getJobId() + "/summary";
+        if (store.getProperties().getSummaryTableEnabled()) {
+            moveSummaries(operation, store, summaryPath);
+        }
+
         final String skipImport = operation.getOption(AccumuloStoreConstants.ADD_ELEMENTS_FROM_HDFS_SKIP_IMPORT);
         if (null == skipImport || !"TRUE".equalsIgnoreCase(skipImport)) {
             importElements(operation, store);
+            if (store.getProperties().getSummaryTableEnabled()) {
+                importSummaries(operation, store, summaryPath, summaryPath + "Failures");
+            }
         } else {
             LOGGER.info("Skipping import as {} was {}", AccumuloStoreConstants.ADD_ELEMENTS_FROM_HDFS_SKIP_IMPORT,
                     skipImport);
@@ -218,6 +227,52 @@ public class AddElementsFromHdfsHandler implements OperationHandler<AddElementsF
         }
     }
 
+    /**
+     * Moves the summary files written by the job out of the output path, so
+     * only the element files are imported into the main table.
+     *
+     * @param operation   the add elements from hdfs operation
+     * @param store       the accumulo store
+     * @param summaryPath the path to move the summary files to
+     * @throws OperationException if the summary files could not be moved
+     */
+    private void moveSummaries(final AddElementsFromHdfs operation, final AccumuloStore store, final String summaryPath)
+            throws OperationException {
+        final Path jobSummaryPath = new Path(operation.getOutputPath(), SummaryKeyValueReducer.SUMMARY_OUTPUT);
+        try {
+            final FileSystem fs = FileSystem.get(new AddElementsFromHdfsTool(new AccumuloAddElementsFromHdfsJobFactory(), operation, store).getConfig());
+            if (!fs.exists(jobSummaryPath)) {
+                LOGGER.info("No summaries were written to {}", jobSummaryPath);
+                fs.mkdirs(new Path(summaryPath));
+            } else if (!fs.mkdirs(new Path(summaryPath).getParent()) || !fs.rename(jobSummaryPath, new Path(summaryPath))) {
+                throw new OperationException("Failed to move summaries from " + jobSummaryPath + " to " + summaryPath);
+            }
+        } catch (final IOException e) {
+            throw new OperationException("Failed to move summaries from " + jobSummaryPath + " to " + summaryPath, e);
+        }
+    }
+
+    private void importSummaries(final AddElementsFromHdfs operation, final AccumuloStore store,
+                                 final String summaryPath, final String failurePath)
+            throws OperationException {
+        final ImportElementsToAccumuloTool importTool = new ImportElementsToAccumuloTool(summaryPath, failurePath, store,
+                operation.getOptions(), store.getSummaryTableName());
+        final int response;
+        try {
+            LOGGER.info("Running summary import job");
+            response = ToolRunner.run(importTool, new String[0]);
+            LOGGER.info("Finished running summary import job");
+        } catch (final Exception e) {
+            LOGGER.error("Failed to import summaries into Accumulo: {}", e.getMessage());
+            throw new OperationException("Failed to import summaries into Accumulo", e);
+        }
+
+        if (ImportElementsToAccumuloTool.SUCCESS_RESPONSE != response) {
+            LOGGER.error("Failed to import summaries into Accumulo. Response code was {}", response);
+            throw new OperationException("Failed to import summaries into Accumulo. Response code was: " + response);
+        }
+    }
+
     private void importElements(final AddElementsFromHdfs operation, final AccumuloStore store)
             throws OperationException {
         final ImportElementsToAccumuloTool importTool;
@@ -24,13 +24,16 @@ import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.mapred.JobConf;
 import org.apache.hadoop.mapreduce.Job;
 import org.apache.hadoop.mapreduce.lib.output.FileOutputFormat;
+import org.apache.hadoop.mapreduce.lib.output.MultipleOutputs;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import uk.gov.gchq.gaffer.accumulostore.AccumuloProperties;
 import uk.gov.gchq.gaffer.accumulostore.AccumuloStore;
 import uk.gov.gchq.gaffer.accumulostore.operation.hdfs.handler.job.partitioner.GafferKeyRangePartitioner;
 import uk.gov.gchq.gaffer.accumulostore.operation.hdfs.mapper.AddElementsFromHdfsMapper;
 import uk.gov.gchq.gaffer.accumulostore.operation.hdfs.reducer.AccumuloKeyValueReducer;
+import uk.gov.gchq.gaffer.accumulostore.operation.hdfs.reducer.SummaryKeyValueReducer;
 import uk.gov.gchq.gaffer.accumulostore.utils.AccumuloStoreConstants;
 import uk.gov.gchq.gaffer.accumulostore.utils.IngestUtils;
 import uk.gov.gchq.gaffer.accumulostore.utils.TableUtils;
@@ -51,6 +54,9 @@ public class AccumuloAddElementsFromHdfsJobFactory implements AddElementsFromHdf
     @Override
     public void prepareStore(final Store store) throws StoreException {
         TableUtils.ensureTableExists(((AccumuloStore) store));
+        if (((AccumuloStore) store).getProperties().getSummaryTableEnabled()) {
+            TableUtils.ensureSummaryTableExists((AccumuloStore) store);
+        }
     }
 
     @Override
@@ -78,6 +84,11 @@ public class AccumuloAddElementsFromHdfsJobFactory implements AddElementsFromHdf
         jobConf.set(AccumuloStoreConstants.ACCUMULO_ELEMENT_CONVERTER_CLASS,
                 ((AccumuloStore) store).getKeyPackage().getKeyConverter().getClass().getName());
 
+        final AccumuloProperties properties = ((AccumuloStore) store).getProperties();
+        jobConf.setBoolean(AccumuloProperties.SUMMARY_TABLE_ENABLED, properties.getSummaryTableEnabled());
+        jobConf.setBoolean(AccumuloProperties.ENABLE_VALIDATOR_ITERATOR, properties.getEnableValidatorIterator());
+        LOGGER.info("Added {} option of {} to job conf", AccumuloProperties.SUMMARY_TABLE_ENABLED, properties.getSummaryTableEnabled());
+
         return jobConf;
     }
 
@@ -94,6 +105,9 @@ public class AccumuloAddElementsFromHdfsJobFactory implements AddElementsFromHdf
         setupCombiner(job);
         setupReducer(job);
         setupOutput(job, operation);
+        if (job.getConfiguration().getBoolean(AccumuloProperties.SUMMARY_TABLE_ENABLED, false)) {
+            setupSummaryOutput(job);
+        }
 
         if (!NoPartitioner.class.equals(operation.getPartitioner())) {
             if (null != operation.getPartitioner()) {
@@ -125,6 +139,17 @@ public class AccumuloAddElementsFromHdfsJobFactory implements AddElementsFromHdf
         FileOutputFormat.setOutputPath(job, new Path(operation.getOutputPath()));
     }
 
+    /**
+     * Writes the summary keys to the {@link SummaryKeyValueReducer#SUMMARY_OUTPUT}
+     * directory of the output path, from the same job as the elements.
+     *
+     * @param job the job
+     */
+    protected void setupSummaryOutput(final Job job) {
+        job.setReducerClass(SummaryKeyValueReducer.class);
+        MultipleOutputs.addNamedOutput(job, SummaryKeyValueReducer.SUMMARY_OUTPUT, AccumuloFileOutputFormat.class, Key.class, Value.class);
+    }
+
     protected void setupPartitioner(final Job job, final AddElementsFromHdfs operation, final AccumuloStore store) throws IOException {
         if (operation.isUseProvidedSplits()) {
             // Use provided splits file
@@ -38,25 +38,41 @@ public class ImportElementsToAccumuloTool extends Configured implements Tool {
     private final String inputPath;
     private final String failurePath;
     private final AccumuloStore store;
+    private final String tableName;
     private Map<String, String> options;
 
     public ImportElementsToAccumuloTool(final String inputPath, final String failurePath, final AccumuloStore store) {
-        this.inputPath = inputPath;
-        this.failurePath = failurePath;
-        this.store = store;
+        this(inputPath, failurePath, store, null);
     }
 
     public ImportElementsToAccumuloTool(final String inputPath, final String failurePath, final AccumuloStore store, final Map<String, String> options) {
+        this(inputPath, failurePath, store, options, store.getTableName());
+    }
+
+    /**
+     * @param inputPath   the directory of files to import
+     * @param failurePath the directory to move files that fail to import to
+     * @param store       the store to import into
+     * @param options     the operation options
+     * @param tableName   the table to import into, either the store's table
+     *                    or its summary table
+     */
+    public ImportElementsToAccumuloTool(final String inputPath, final String failurePath, final AccumuloStore store, final Map<String, String> options, final String tableName) {
         this.inputPath = inputPath;
         this.failurePath = failurePath;
         this.store = store;
         this.options = options;
+        this.tableName = tableName;
     }
 
     @Override
     public int run(final String[] strings) throws Exception {
-        LOGGER.info("Ensuring table {} exists", store.getTableName());
-        TableUtils.ensureTableExists(store);
+        LOGGER.info("Ensuring table {} exists", tableName);
+        if (tableName.equals(store.getSummaryTableName())) {
+            TableUtils.ensureSummaryTableExists(store);
+        } else {
+            TableUtils.ensureTableExists(store);
+        }
 
         // Hadoop configuration
         final Configuration conf = getConf();
@@ -74,8 +90,8 @@ public class ImportElementsToAccumuloTool extends Configured implements Tool {
         }
 
         // Import the files
-        LOGGER.info("Importing files in {} to table {}", inputPath, store.getTableName());
-        store.getConnection().tableOperations().importDirectory(store.getTableName(), inputPath,
+        LOGGER.info("Importing files in {} to table {}", inputPath, tableName);
+        store.getConnection().tableOperations().importDirectory(tableName, inputPath,
                 failurePath, false);
 
         return SUCCESS_RESPONSE;
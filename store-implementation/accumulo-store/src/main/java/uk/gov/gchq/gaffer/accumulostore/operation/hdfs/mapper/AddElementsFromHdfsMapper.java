@@ -18,8 +18,10 @@ package uk.gov.gchq.gaffer.accumulostore.operation.hdfs.mapper;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Value;
 
+import uk.gov.gchq.gaffer.accumulostore.AccumuloProperties;
 import uk.gov.gchq.gaffer.accumulostore.key.AccumuloElementConverter;
 import uk.gov.gchq.gaffer.accumulostore.key.exception.AccumuloElementConversionException;
+import uk.gov.gchq.gaffer.accumulostore.summary.SummaryKeyConverter;
 import uk.gov.gchq.gaffer.accumulostore.utils.AccumuloStoreConstants;
 import uk.gov.gchq.gaffer.commonutil.pair.Pair;
 import uk.gov.gchq.gaffer.data.element.Element;
@@ -28,10 +30,19 @@ import uk.gov.gchq.gaffer.store.schema.Schema;
 
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
+import java.util.List;
 
+/**
+ * Mapper for use in bulk import of data into Accumulo. It converts each
+ * element into its Accumulo keys and value. If the summary table is enabled it
+ * also writes the element's summary keys, marked with
+ * {@link SummaryKeyConverter#markForShuffle(Key)} so the reducer can write
+ * them to the summary table's files.
+ */
 public class AddElementsFromHdfsMapper<KEY_IN, VALUE_IN>
         extends GafferMapper<KEY_IN, VALUE_IN, Key, Value> {
     private AccumuloElementConverter elementConverter;
+    private SummaryKeyConverter summaryKeyConverter;
 
     @Override
     protected void setup(final Context context) {
@@ -48,6 +59,11 @@ public class AddElementsFromHdfsMapper<KEY_IN, VALUE_IN>
             throw new IllegalArgumentException("Element converter could not be created: "
                     + context.getConfiguration().get(AccumuloStoreConstants.ACCUMULO_ELEMENT_CONVERTER_CLASS), e);
         }
+
+        if (context.getConfiguration().getBoolean(AccumuloProperties.SUMMARY_TABLE_ENABLED, false)) {
+            summaryKeyConverter = new SummaryKeyConverter(schema, elementConverter,
+                    context.getConfiguration().getBoolean(AccumuloProperties.ENABLE_VALIDATOR_ITERATOR, false));
+        }
     }
 
     @Override
@@ -71,5 +87,17 @@ public class AddElementsFromHdfsMapper<KEY_IN, VALUE_IN>
             context.write(keyPair.getSecond(), value);
         }
         context.getCounter("Bulk import", element.getClass().getSimpleName() + " count").increment(1L);
+
+        if (null != summaryKeyConverter) {
+            final List<Pair<Key, Value>> summaryKeyValues;
+            try {
+                summaryKeyValues = summaryKeyConverter.getKeyValuesFromElement(element);
+            } catch (final AccumuloElementConversionException e) {
+                throw new IllegalArgumentException(e.getMessage(), e);
+            }
+            for (final Pair<Key, Value> keyValue : summaryKeyValues) {
+                context.write(SummaryKeyConverter.markForShuffle(keyValue.getFirst()), keyValue.getSecond());
+            }
+        }
     }
 }
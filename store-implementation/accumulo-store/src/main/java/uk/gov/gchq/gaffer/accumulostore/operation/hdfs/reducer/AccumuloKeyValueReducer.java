@@ -19,11 +19,13 @@ import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Value;
 
 import uk.gov.gchq.gaffer.accumulostore.key.AccumuloElementConverter;
+import uk.gov.gchq.gaffer.accumulostore.summary.SummaryKeyConverter;
 import uk.gov.gchq.gaffer.accumulostore.utils.AccumuloStoreConstants;
 import uk.gov.gchq.gaffer.data.element.Properties;
 import uk.gov.gchq.gaffer.hdfs.operation.reducer.GafferReducer;
 import uk.gov.gchq.gaffer.store.schema.Schema;
 
+import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 
 /**
@@ -38,9 +40,17 @@ import java.lang.reflect.InvocationTargetException;
  * output it rather than incurring the cost of deserialising them and then
  * reserialising them.
  * </p>
+ * <p>
+ * Summary keys, marked by the {@link uk.gov.gchq.gaffer.accumulostore.operation.hdfs.mapper.AddElementsFromHdfsMapper},
+ * are combined using the {@link SummaryKeyConverter} and written back out
+ * still marked, so this can be used as the combiner of a job that writes
+ * summaries. The {@link SummaryKeyValueReducer} writes them to the summary
+ * table's files.
+ * </p>
  */
 public class AccumuloKeyValueReducer extends GafferReducer<Key, Value> {
     private AccumuloElementConverter elementConverter;
+    private SummaryKeyConverter summaryKeyConverter;
 
     @Override
     protected void setup(final Context context) {
@@ -57,6 +67,32 @@ public class AccumuloKeyValueReducer extends GafferReducer<Key, Value> {
             throw new IllegalArgumentException("Failed to create accumulo element converter from class "
                     + context.getConfiguration().get(AccumuloStoreConstants.ACCUMULO_ELEMENT_CONVERTER_CLASS), e);
         }
+        summaryKeyConverter = new SummaryKeyConverter(schema, elementConverter);
+    }
+
+    @Override
+    protected void reduce(final Key key, final Iterable<Value> values, final Context context)
+            throws IOException, InterruptedException {
+        if (SummaryKeyConverter.isMarkedForShuffle(key)) {
+            writeSummary(key, summaryKeyConverter.combine(key, values.iterator()), context);
+            context.getCounter("Bulk import", "Summary keys").increment(1L);
+        } else {
+            super.reduce(key, values, context);
+        }
+    }
+
+    /**
+     * Writes a combined summary key and value.
+     *
+     * @param key     the summary key, marked for the shuffle
+     * @param value   the combined value
+     * @param context the reducer context
+     * @throws IOException          if the key and value could not be written
+     * @throws InterruptedException if interrupted while writing
+     */
+    protected void writeSummary(final Key key, final Value value, final Context context)
+            throws IOException, InterruptedException {
+        context.write(key, value);
     }
 
     @Override
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.accumulostore.operation.hdfs.reducer;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.hadoop.mapreduce.lib.output.MultipleOutputs;
+
+import uk.gov.gchq.gaffer.accumulostore.summary.SummaryKeyConverter;
+
+import java.io.IOException;
+
+/**
+ * Reducer for use in bulk import of data into Accumulo when the summary table
+ * is enabled. Element keys are reduced by the {@link AccumuloKeyValueReducer}
+ * and written to the job's output. Summary keys are unmarked and written to
+ * the {@link #SUMMARY_OUTPUT} named output, in the {@link #SUMMARY_OUTPUT}
+ * directory of the job's output, so the summary files are created by the
+ * same job as the element files.
+ * <p>
+ * Each reducer receives its keys in order, so the summary keys written by a
+ * reducer are also in order.
+ */
+public class SummaryKeyValueReducer extends AccumuloKeyValueReducer {
+    public static final String SUMMARY_OUTPUT = "summary";
+
+    private MultipleOutputs<Key, Value> multipleOutputs;
+
+    @Override
+    protected void setup(final Context context) {
+        super.setup(context);
+        multipleOutputs = createMultipleOutputs(context);
+    }
+
+    @Override
+    protected void writeSummary(final Key key, final Value value, final Context context)
+            throws IOException, InterruptedException {
+        multipleOutputs.write(SUMMARY_OUTPUT, SummaryKeyConverter.unmarkForShuffle(key), value, SUMMARY_OUTPUT + "/part");
+    }
+
+    @Override
+    protected void cleanup(final Context context) throws IOException, InterruptedException {
+        try {
+            multipleOutputs.close();
+        } finally {
+            super.cleanup(context);
+        }
+    }
+
+    protected MultipleOutputs<Key, Value> createMultipleOutputs(final Context context) {
+        return new MultipleOutputs<>(context);
+    }
+}
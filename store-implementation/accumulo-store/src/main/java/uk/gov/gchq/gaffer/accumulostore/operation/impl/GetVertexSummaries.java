@@ -0,0 +1,136 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.accumulostore.operation.impl;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.google.common.collect.Sets;
+
+import uk.gov.gchq.gaffer.accumulostore.summary.VertexSummary;
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
+import uk.gov.gchq.gaffer.data.element.id.EntityId;
+import uk.gov.gchq.gaffer.operation.Operation;
+import uk.gov.gchq.gaffer.operation.io.InputOutput;
+import uk.gov.gchq.gaffer.operation.io.MultiEntityIdInput;
+import uk.gov.gchq.koryphe.Since;
+import uk.gov.gchq.koryphe.Summary;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A {@code GetVertexSummaries} operation gets the {@link VertexSummary} of
+ * each of the provided vertices from the Accumulo summary table, without
+ * reading the edges themselves. One summary is returned per vertex and group:
+ * the entity count, the outgoing, incoming and undirected degrees and edge
+ * counts, and optionally the neighbours with the highest edge counts.
+ * The summary table must be enabled with
+ * {@link uk.gov.gchq.gaffer.accumulostore.AccumuloProperties#SUMMARY_TABLE_ENABLED}.
+ */
+@JsonPropertyOrder(value = {"class", "input", "groups", "topNeighbours"}, alphabetic = true)
+@Since("1.9.2")
+@Summary("Gets the degrees and counts of vertices from the summary table")
+public class GetVertexSummaries implements
+        InputOutput<Iterable<? extends EntityId>, CloseableIterable<VertexSummary>>,
+        MultiEntityIdInput {
+    private Iterable<? extends EntityId> input;
+    private Set<String> groups;
+    private int topNeighbours;
+    private Map<String, String> options;
+
+    @Override
+    public Iterable<? extends EntityId> getInput() {
+        return input;
+    }
+
+    @Override
+    public void setInput(final Iterable<? extends EntityId> input) {
+        this.input = input;
+    }
+
+    /**
+     * @return the groups to summarise, or null or empty for all groups
+     */
+    public Set<String> getGroups() {
+        return groups;
+    }
+
+    public void setGroups(final Set<String> groups) {
+        this.groups = groups;
+    }
+
+    /**
+     * @return the number of neighbours with the highest edge counts to return
+     * for each vertex and group
+     */
+    public int getTopNeighbours() {
+        return topNeighbours;
+    }
+
+    public void setTopNeighbours(final int topNeighbours) {
+        this.topNeighbours = topNeighbours;
+    }
+
+    @Override
+    public TypeReference<CloseableIterable<VertexSummary>> getOutputTypeReference() {
+        return new TypeReference<CloseableIterable<VertexSummary>>() {
+        };
+    }
+
+    @Override
+    public Map<String, String> getOptions() {
+        return options;
+    }
+
+    @Override
+    public void setOptions(final Map<String, String> options) {
+        this.options = options;
+    }
+
+    @Override
+    public GetVertexSummaries shallowClone() {
+        return new GetVertexSummaries.Builder()
+                .input(input)
+                .groups(groups)
+                .topNeighbours(topNeighbours)
+                .options(options)
+                .build();
+    }
+
+    public static class Builder extends Operation.BaseBuilder<GetVertexSummaries, Builder>
+            implements InputOutput.Builder<GetVertexSummaries, Iterable<? extends EntityId>, CloseableIterable<VertexSummary>, Builder>,
+            MultiEntityIdInput.Builder<GetVertexSummaries, Builder> {
+        public Builder() {
+            super(new GetVertexSummaries());
+        }
+
+        public Builder groups(final String... groups) {
+            _getOp().setGroups(Sets.newHashSet(groups));
+            return _self();
+        }
+
+        public Builder groups(final Set<String> groups) {
+            _getOp().setGroups(groups);
+            return _self();
+        }
+
+        public Builder topNeighbours(final int topNeighbours) {
+            _getOp().setTopNeighbours(topNeighbours);
+            return _self();
+        }
+    }
+}
@@ -25,6 +25,7 @@ import org.apache.accumulo.core.data.Value;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import uk.gov.gchq.gaffer.accumulostore.AccumuloProperties;
 import uk.gov.gchq.gaffer.accumulostore.AccumuloStore;
 import uk.gov.gchq.gaffer.accumulostore.key.exception.AccumuloElementConversionException;
 import uk.gov.gchq.gaffer.accumulostore.key.exception.RangeFactoryException;
@@ -33,23 +34,33 @@ import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
 import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterator;
 import uk.gov.gchq.gaffer.commonutil.iterable.EmptyCloseableIterator;
 import uk.gov.gchq.gaffer.data.element.Element;
-import uk.gov.gchq.gaffer.data.elementdefinition.view.ViewUtil;
 import uk.gov.gchq.gaffer.operation.graph.GraphFilters;
 import uk.gov.gchq.gaffer.operation.io.Input;
 import uk.gov.gchq.gaffer.operation.io.Output;
 import uk.gov.gchq.gaffer.store.StoreException;
 import uk.gov.gchq.gaffer.user.User;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map.Entry;
 import java.util.NoSuchElementException;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
 public abstract class AccumuloItemRetriever<OP extends Output<CloseableIterable<? extends Element>> & GraphFilters, I_ITEM>
         extends AccumuloRetriever<OP, Element> {
     private static final Logger LOGGER = LoggerFactory.getLogger(AccumuloItemRetriever.class);
+    private static final long POLL_TIMEOUT_MS = 100;
 
     protected final boolean includeMatchedVertex;
     private final Iterable<? extends I_ITEM> ids;
@@ -76,6 +87,11 @@ public abstract class AccumuloItemRetriever<OP extends Output<CloseableIterable<
             return new EmptyCloseableIterator<>();
         }
 
+        if (store.getProperties().getAdaptiveScanPlanning()) {
+            iterator = new PlannedElementIterator(idIterator);
+            return iterator;
+        }
+
         try {
             iterator = new ElementIterator(idIterator);
         } catch (final RetrieverException e) {
@@ -129,21 +145,18 @@ public abstract class AccumuloItemRetriever<OP extends Output<CloseableIterable<
             while (scannerIterator.hasNext()) {
                 final Entry<Key, Value> entry = scannerIterator.next();
                 try {
-                    nextElm = elementConverter.getFullElement(
+                    final Element element = elementConverter.getLazyElement(
                             entry.getKey(),
                             entry.getValue(),
                             includeMatchedVertex);
+                    doTransformation(element);
+                    if (doPostFilter(element)) {
+                        nextElm = loadElement(element);
+                        return true;
+                    }
                 } catch (final AccumuloElementConversionException e) {
                     LOGGER.error("Failed to re-create an element from a key value entry set returning next element as null",
                             e);
-                    continue;
-                }
-                doTransformation(nextElm);
-                if (doPostFilter(nextElm)) {
-                    ViewUtil.removeProperties(operation.getView(), nextElm);
-                    return true;
-                } else {
-                    nextElm = null;
                 }
             }
             // If current scanner is spent then go back to the iterator
@@ -202,4 +215,311 @@ public abstract class AccumuloItemRetriever<OP extends Output<CloseableIterable<
             }
         }
     }
+
+    /**
+     * An iterator that reads the seeds in windows, plans each window into
+     * batches using a {@link ScanPlanner} and scans the batches concurrently
+     * on the store's shared scan executor. The number of threads each batch
+     * scanner uses is chosen by a {@link BatchScannerThreadSizer}. The scans
+     * are planned and submitted by the thread consuming the iterator, as scan
+     * permits become available, so no thread is held waiting for a permit.
+     * <p>
+     * Results are passed back through a bounded queue, so the scanners are
+     * held back when the client falls behind. A scan never waits for space in
+     * the queue: when the queue is full the scan is paused, keeping its open
+     * batch scanner, and its executor thread is returned to the shared pool.
+     * Paused scans are resubmitted by the consumer once it has taken results
+     * from the queue, so slow or abandoned iterators cannot starve the other
+     * queries on the store of scan threads. The iterator must be closed if it
+     * is not fully consumed, so the paused batch scanners are released.
+     * </p>
+     */
+    protected class PlannedElementIterator implements CloseableIterator<Element> {
+        private final Iterator<? extends I_ITEM> idsIterator;
+        private final int concurrentScanners;
+        private final ScanPlanner planner;
+        private final BatchScannerThreadSizer threadSizer;
+        private final BlockingQueue<Entry<Key, Value>> results;
+        private final Semaphore scanPermits;
+        private final ExecutorService executor;
+        private final Queue<ScanTask> pausedScans = new ConcurrentLinkedQueue<>();
+        private final List<Future<?>> scans = new ArrayList<>();
+        private Iterator<List<Range>> batches = Collections.emptyIterator();
+        private volatile boolean closed;
+        private volatile boolean failed;
+        private Element nextElm;
+
+        public PlannedElementIterator(final Iterator<? extends I_ITEM> idIterator) {
+            final AccumuloProperties properties = store.getProperties();
+            idsIterator = idIterator;
+            concurrentScanners = Math.max(1, properties.getConcurrentBatchScanners());
+            planner = ScanPlanner.fromTable(store, properties.getMaxEntriesForBatchScanner());
+            threadSizer = new BatchScannerThreadSizer(properties.getThreadsForBatchScanner(),
+                    properties.getMaxThreadsForBatchScanner());
+            results = new ArrayBlockingQueue<>(Math.max(1, properties.getResultQueueSizeForBatchScanner()));
+            scanPermits = new Semaphore(concurrentScanners);
+            executor = store.getScanExecutor();
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (null == nextElm && !closed) {
+                final Entry<Key, Value> entry;
+                try {
+                    entry = nextEntry();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    LOGGER.error("Interrupted while waiting for results, returning iterator doesn't have any more elements", e);
+                    close();
+                    break;
+                }
+                if (null == entry) {
+                    close();
+                    break;
+                }
+
+                try {
+                    final Element element = elementConverter.getLazyElement(
+                            entry.getKey(),
+                            entry.getValue(),
+                            includeMatchedVertex);
+                    doTransformation(element);
+                    if (doPostFilter(element)) {
+                        nextElm = loadElement(element);
+                    }
+                } catch (final AccumuloElementConversionException e) {
+                    LOGGER.error("Failed to re-create an element from a key value entry set returning next element as null",
+                            e);
+                }
+            }
+            return null != nextElm;
+        }
+
+        @Override
+        public Element next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final Element nextReturn = nextElm;
+            nextElm = null;
+            return nextReturn;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("Unable to remove elements from this iterator");
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                for (final Future<?> scan : scans) {
+                    scan.cancel(true);
+                }
+                closePausedScans();
+                results.clear();
+            }
+        }
+
+        /**
+         * Gets the next result, submitting more scans whenever a scan permit
+         * is free and resuming paused scans once there is space in the queue.
+         *
+         * @return the next result, or null if there are no more results
+         * @throws InterruptedException if interrupted while waiting for a result
+         */
+        private Entry<Key, Value> nextEntry() throws InterruptedException {
+            try {
+                while (!closed) {
+                    submitScans();
+                    // Checked before polling, as a scan releases its permit after adding its last result
+                    final boolean finished = !batches.hasNext() && !idsIterator.hasNext()
+                            && concurrentScanners == scanPermits.availablePermits();
+                    final Entry<Key, Value> entry = finished
+                            ? results.poll()
+                            : results.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                    resumePausedScans();
+                    if (null != entry) {
+                        return entry;
+                    }
+                    if (finished || failed) {
+                        // The results of a failed scan end once the results added before the failure are returned
+                        return null;
+                    }
+                }
+            } catch (final RuntimeException e) {
+                LOGGER.error("Failed to plan the scans, returning iterator doesn't have any more elements", e);
+            } catch (final Error e) {
+                close();
+                throw e;
+            }
+            return null;
+        }
+
+        /**
+         * Submits the planned batches while scan permits are free, reading and
+         * planning the next window of seeds, big enough to give every
+         * concurrent scanner a full batch, when the planned batches run out.
+         */
+        private void submitScans() {
+            while (!closed && scanPermits.tryAcquire()) {
+                if (!batches.hasNext()) {
+                    batches = planNextWindow();
+                }
+                if (!batches.hasNext()) {
+                    scanPermits.release();
+                    return;
+                }
+
+                final ScanTask task = new ScanTask(batches.next());
+                try {
+                    submit(task);
+                } catch (final RuntimeException e) {
+                    scanPermits.release();
+                    throw e;
+                }
+            }
+        }
+
+        private void submit(final ScanTask task) {
+            scans.removeIf(Future::isDone);
+            scans.add(executor.submit(task));
+        }
+
+        /**
+         * Resubmits the paused scans while there is space in the queue. Each
+         * paused scan is taken from the paused scans before it is resubmitted,
+         * so it is only resubmitted once.
+         */
+        private void resumePausedScans() {
+            while (!closed && results.remainingCapacity() > 0) {
+                final ScanTask task = pausedScans.poll();
+                if (null == task) {
+                    return;
+                }
+                try {
+                    submit(task);
+                } catch (final RuntimeException e) {
+                    LOGGER.error("Failed to resume a scan, returning iterator doesn't have any more elements", e);
+                    task.finish(false);
+                    throw e;
+                }
+            }
+        }
+
+        private void closePausedScans() {
+            ScanTask task = pausedScans.poll();
+            while (null != task) {
+                task.finish(false);
+                task = pausedScans.poll();
+            }
+        }
+
+        private Iterator<List<Range>> planNextWindow() {
+            final int windowSize = (int) Math.min(Integer.MAX_VALUE,
+                    (long) planner.getMaxRangesPerBatch() * concurrentScanners);
+            int count = 0;
+            final Set<Range> ranges = new HashSet<>();
+            while (idsIterator.hasNext() && count < windowSize) {
+                count++;
+                try {
+                    addToRanges(idsIterator.next(), ranges);
+                } catch (final RangeFactoryException e) {
+                    LOGGER.error("Failed to create a range from given seed", e);
+                }
+            }
+            return planner.plan(ranges).iterator();
+        }
+
+        /**
+         * Scans a batch of ranges, adding the results to the queue until it is
+         * full. The scan then pauses, keeping its scanner and the result that
+         * did not fit, and continues from there when it is resubmitted.
+         */
+        private final class ScanTask implements Runnable {
+            private final List<Range> batch;
+            private BatchScanner scanner;
+            private Iterator<Entry<Key, Value>> scannerIterator;
+            private Entry<Key, Value> pending;
+            private long scanTime;
+
+            private ScanTask(final List<Range> batch) {
+                this.batch = batch;
+            }
+
+            @Override
+            public void run() {
+                final long startTime = System.nanoTime();
+                try {
+                    if (null == scanner) {
+                        scanner = getScanner(batch, threadSizer.getThreads());
+                        scannerIterator = scanner.iterator();
+                    }
+                    while (!closed) {
+                        if (null == pending) {
+                            if (!scannerIterator.hasNext()) {
+                                scanTime += System.nanoTime() - startTime;
+                                threadSizer.record(batch.size(), scanTime);
+                                finish(true);
+                                return;
+                            }
+                            pending = scannerIterator.next();
+                        }
+                        if (!results.offer(pending)) {
+                            scanTime += System.nanoTime() - startTime;
+                            pause();
+                            return;
+                        }
+                        pending = null;
+                    }
+                    finish(true);
+                } catch (final TableNotFoundException | StoreException | RuntimeException e) {
+                    if (!closed) {
+                        LOGGER.error("{} returning iterator doesn't have any more elements", e.getMessage(), e);
+                    }
+                    finish(false);
+                } catch (final Error e) {
+                    finish(false);
+                    throw e;
+                }
+            }
+
+            /**
+             * Adds the scan to the paused scans. If the consumer has closed the
+             * iterator, or made space in the queue, since the result was
+             * offered then the paused scans are closed or resumed here, as the
+             * consumer may not check them again.
+             */
+            private void pause() {
+                pausedScans.add(this);
+                if (closed) {
+                    closePausedScans();
+                } else if (results.remainingCapacity() > 0) {
+                    final ScanTask task = pausedScans.poll();
+                    if (null != task) {
+                        try {
+                            executor.submit(task);
+                        } catch (final RuntimeException e) {
+                            LOGGER.error("Failed to resume a scan, returning iterator doesn't have any more elements", e);
+                            task.finish(false);
+                        }
+                    }
+                }
+            }
+
+            private void finish(final boolean complete) {
+                if (!complete) {
+                    failed = true;
+                }
+                try {
+                    if (null != scanner) {
+                        scanner.close();
+                    }
+                } finally {
+                    scanPermits.release();
+                }
+            }
+        }
+    }
 }
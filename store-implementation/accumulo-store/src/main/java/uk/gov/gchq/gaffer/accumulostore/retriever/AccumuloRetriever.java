@@ -32,14 +32,19 @@ import uk.gov.gchq.gaffer.accumulostore.key.RangeFactory;
 import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
 import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterator;
 import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.LazyEdge;
+import uk.gov.gchq.gaffer.data.element.LazyEntity;
 import uk.gov.gchq.gaffer.data.element.function.ElementFilter;
 import uk.gov.gchq.gaffer.data.element.function.ElementTransformer;
 import uk.gov.gchq.gaffer.data.elementdefinition.view.ViewElementDefinition;
+import uk.gov.gchq.gaffer.data.elementdefinition.view.ViewUtil;
 import uk.gov.gchq.gaffer.operation.graph.GraphFilters;
 import uk.gov.gchq.gaffer.operation.io.Output;
 import uk.gov.gchq.gaffer.store.StoreException;
+import uk.gov.gchq.gaffer.store.schema.SchemaElementDefinition;
 import uk.gov.gchq.gaffer.user.User;
 
+import java.util.Collection;
 import java.util.Set;
 
 public abstract class AccumuloRetriever<OP extends Output & GraphFilters, O_ITEM> implements CloseableIterable<O_ITEM> {
@@ -117,10 +122,25 @@ public abstract class AccumuloRetriever<OP extends Output & GraphFilters, O_ITEM
      * @throws StoreException         if a connection to accumulo could not be created.
      */
     protected BatchScanner getScanner(final Set<Range> ranges) throws TableNotFoundException, StoreException {
+        return getScanner(ranges, store.getProperties().getThreadsForBatchScanner());
+    }
+
+    /**
+     * Create a scanner to use used in your query, with a given number of
+     * query threads.
+     *
+     * @param ranges     the ranges to get the scanner for
+     * @param numThreads the number of query threads the scanner should use
+     * @return A {@link org.apache.accumulo.core.client.BatchScanner} for the
+     * table specified in the properties with the ranges provided.
+     * @throws TableNotFoundException if an accumulo table could not be found
+     * @throws StoreException         if a connection to accumulo could not be created.
+     */
+    protected BatchScanner getScanner(final Collection<Range> ranges, final int numThreads) throws TableNotFoundException, StoreException {
         final BatchScanner scanner = store.getConnection().createBatchScanner(store.getTableName(),
-                authorisations, store.getProperties().getThreadsForBatchScanner());
+                authorisations, numThreads);
         LOGGER.debug("Initialised BatchScanner on table {} with authorisations {} using {} threads",
-                store.getTableName(), authorisations, store.getProperties().getThreadsForBatchScanner());
+                store.getTableName(), authorisations, numThreads);
         if (null != iteratorSettings) {
             for (final IteratorSetting iteratorSetting : iteratorSettings) {
                 if (null != iteratorSetting) {
@@ -143,6 +163,49 @@ public abstract class AccumuloRetriever<OP extends Output & GraphFilters, O_ITEM
         return scanner;
     }
 
+    /**
+     * Loads the identifiers, and the properties kept by the view, of an
+     * element returned by {@link AccumuloElementConverter#getLazyElement},
+     * and removes the properties excluded by the view. This is only called
+     * once an element has passed the post aggregation filter, so rejected
+     * elements are never fully loaded. The column qualifier and value are
+     * each decoded at most once, and only if the view keeps one of their
+     * properties. Decoding failures are thrown from here, so callers load the
+     * element where they handle failures to convert it.
+     *
+     * @param element the lazily decoded element
+     * @return the fully loaded element
+     */
+    protected Element loadElement(final Element element) {
+        final ViewElementDefinition viewDef = operation.getView().getElement(element.getGroup());
+        final Element loadedElement;
+        if (element instanceof LazyEntity) {
+            ((LazyEntity) element).getVertex();
+            loadProperties(element, viewDef);
+            loadedElement = ((LazyEntity) element).getElement();
+        } else if (element instanceof LazyEdge) {
+            ((LazyEdge) element).getSource();
+            loadProperties(element, viewDef);
+            loadedElement = ((LazyEdge) element).getElement();
+        } else {
+            loadedElement = element;
+        }
+        ViewUtil.removeProperties(viewDef, loadedElement);
+        return loadedElement;
+    }
+
+    private void loadProperties(final Element element, final ViewElementDefinition viewDef) {
+        final SchemaElementDefinition schemaDef = store.getSchema().getElement(element.getGroup());
+        if (null != schemaDef) {
+            for (final String property : schemaDef.getProperties()) {
+                if (null == viewDef || viewDef.isAllProperties()
+                        || (null != viewDef.getProperties() ? viewDef.getProperties().contains(property) : !viewDef.getExcludeProperties().contains(property))) {
+                    element.getProperty(property);
+                }
+            }
+        }
+    }
+
     protected void transform(final Element element, final ElementTransformer transformer) {
         if (null != transformer) {
             transformer.apply(element);
@@ -22,7 +22,6 @@ import org.apache.accumulo.core.client.TableNotFoundException;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Range;
 import org.apache.accumulo.core.data.Value;
-import org.apache.hadoop.util.bloom.BloomFilter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -32,6 +31,7 @@ import uk.gov.gchq.gaffer.accumulostore.key.exception.IteratorSettingException;
 import uk.gov.gchq.gaffer.accumulostore.key.exception.RangeFactoryException;
 import uk.gov.gchq.gaffer.accumulostore.retriever.impl.AccumuloSingleIDRetriever;
 import uk.gov.gchq.gaffer.accumulostore.utils.BloomFilterUtils;
+import uk.gov.gchq.gaffer.accumulostore.utils.SeedFilter;
 import uk.gov.gchq.gaffer.commonutil.CloseableUtil;
 import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
 import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterator;
@@ -129,24 +129,24 @@ public abstract class AccumuloSetRetriever<OP extends InputOutput<Iterable<? ext
         return vertices;
     }
 
-    protected void addToBloomFilter(final Iterable<? extends Object> vertices, final BloomFilter filter)
+    protected void addToBloomFilter(final Iterable<? extends Object> vertices, final SeedFilter filter)
             throws RetrieverException {
         addToBloomFilter(vertices.iterator(), filter);
     }
 
-    protected void addToBloomFilter(final Iterator<? extends Object> vertices, final BloomFilter filter)
+    protected void addToBloomFilter(final Iterator<? extends Object> vertices, final SeedFilter filter)
             throws RetrieverException {
         try {
             while (vertices.hasNext()) {
-                addToBloomFilter(vertices.next(), filter);
+                filter.add(serialiseVertex(vertices.next()));
             }
         } finally {
             CloseableUtil.close(vertices);
         }
     }
 
-    protected void addToBloomFilter(final Iterator<? extends EntityId> seeds, final BloomFilter filter1,
-                                    final BloomFilter filter2) throws RetrieverException {
+    protected void addToBloomFilter(final Iterator<? extends EntityId> seeds, final SeedFilter filter1,
+                                    final SeedFilter filter2) throws RetrieverException {
         try {
             while (seeds.hasNext()) {
                 addToBloomFilter(seeds.next(), filter1, filter2);
@@ -156,15 +156,30 @@ public abstract class AccumuloSetRetriever<OP extends InputOutput<Iterable<? ext
         }
     }
 
-    protected void addToBloomFilter(final EntityId seed, final BloomFilter filter1, final BloomFilter filter2)
+    protected void addToBloomFilter(final EntityId seed, final SeedFilter filter1, final SeedFilter filter2)
             throws RetrieverException {
-        addToBloomFilter(seed.getVertex(), filter1);
-        addToBloomFilter(seed.getVertex(), filter2);
+        // Serialise the vertex once and add it to both filters
+        final byte[] serialisedVertex = serialiseVertex(seed.getVertex());
+        filter1.add(serialisedVertex);
+        filter2.add(serialisedVertex);
     }
 
-    private void addToBloomFilter(final Object vertex, final BloomFilter filter) throws RetrieverException {
+    /**
+     * Creates the {@link SeedFilter} passed to the iterators for the given
+     * number of seeds.
+     *
+     * @param numSeeds the number of seeds that will be added
+     * @return a new seed filter
+     */
+    protected SeedFilter createIteratorFilter(final int numSeeds) {
+        return BloomFilterUtils.getSeedFilter(store.getProperties().getFalsePositiveRate(), numSeeds,
+                store.getProperties().getMaxBloomFilterToPassToAnIterator(),
+                store.getProperties().getMaxExactSeedFilterSize());
+    }
+
+    private byte[] serialiseVertex(final Object vertex) throws RetrieverException {
         try {
-            filter.add(new org.apache.hadoop.util.bloom.Key(elementConverter.serialiseVertex(vertex)));
+            return elementConverter.serialiseVertex(vertex);
         } catch (final AccumuloElementConversionException e) {
             throw new RetrieverException("Failed to add identifier to the bloom key", e);
         }
@@ -175,7 +190,7 @@ public abstract class AccumuloSetRetriever<OP extends InputOutput<Iterable<? ext
         private Iterator<Element> iterator;
         private Element nextElm;
 
-        protected void initialise(final BloomFilter filter) throws RetrieverException {
+        protected void initialise(final SeedFilter filter) throws RetrieverException {
             IteratorSetting bloomFilter = null;
             IteratorSetting[] iteratorSettings1 = Arrays.copyOf(iteratorSettings, iteratorSettings.length + 1);
             try {
@@ -268,21 +283,22 @@ public abstract class AccumuloSetRetriever<OP extends InputOutput<Iterable<? ext
         protected Iterator<? extends EntityId> idsAIterator;
         // The Bloom filter that is maintained client-side
         // as a secondary defeat of false positives.
-        protected BloomFilter clientSideFilter;
+        protected SeedFilter clientSideFilter;
         protected Set<Object> currentSeeds;
         protected BatchScanner scanner;
-        protected BloomFilter filter;
+        protected SeedFilter filter;
         private Iterator<Entry<Key, Value>> scannerIterator;
+        // The iterator setting for the filter, reused until the filter changes
+        private IteratorSetting filterSetting;
+        private int filterSettingVersion;
         private Element nextElm;
         private int count;
 
         public AbstractElementIteratorFromBatches() {
             // Set up client side filter
-            clientSideFilter = BloomFilterUtils.getBloomFilter(store.getProperties().getClientSideBloomFilterSize());
+            clientSideFilter = BloomFilterUtils.getSeedFilter(store.getProperties().getClientSideBloomFilterSize());
             // Create Bloom filter to be passed to iterators.
-            filter = BloomFilterUtils.getBloomFilter(store.getProperties().getFalsePositiveRate(),
-                    store.getProperties().getMaxEntriesForBatchScanner(),
-                    store.getProperties().getMaxBloomFilterToPassToAnIterator());
+            filter = createIteratorFilter(store.getProperties().getMaxEntriesForBatchScanner());
             currentSeeds = new HashSet<>();
         }
 
@@ -295,16 +311,16 @@ public abstract class AccumuloSetRetriever<OP extends InputOutput<Iterable<? ext
                 while (_hasNext()) {
                     final Entry<Key, Value> entry = scannerIterator.next();
                     try {
-                        nextElm = elementConverter.getFullElement(entry.getKey(), entry.getValue(), true);
+                        final Element element = elementConverter.getLazyElement(entry.getKey(), entry.getValue(), true);
+                        if (secondaryCheck(element)) {
+                            doTransformation(element);
+                            if (doPostFilter(element)) {
+                                nextElm = loadElement(element);
+                                return true;
+                            }
+                        }
                     } catch (final AccumuloElementConversionException e) {
                         LOGGER.error("Failed to create next element from key and value entry set", e);
-                        continue;
-                    }
-                    if (secondaryCheck(nextElm)) {
-                        doTransformation(nextElm);
-                        if (doPostFilter(nextElm)) {
-                            return true;
-                        }
                     }
                 }
             } catch (final RetrieverException e) {
@@ -368,7 +384,11 @@ public abstract class AccumuloSetRetriever<OP extends InputOutput<Iterable<? ext
                 throw new RetrieverException(e);
             }
             try {
-                scanner.addScanIterator(iteratorSettingFactory.getBloomFilterIteratorSetting(filter));
+                if (null == filterSetting || filterSettingVersion != filter.getVersion()) {
+                    filterSetting = iteratorSettingFactory.getBloomFilterIteratorSetting(filter);
+                    filterSettingVersion = filter.getVersion();
+                }
+                scanner.addScanIterator(filterSetting);
             } catch (final IteratorSettingException e) {
                 LOGGER.error("Failed to apply the bloom filter iterator setting continuing without bloom filter", e);
             }
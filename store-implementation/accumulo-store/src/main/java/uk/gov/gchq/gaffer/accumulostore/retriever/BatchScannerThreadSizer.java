@@ -0,0 +1,87 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.accumulostore.retriever;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@code BatchScannerThreadSizer} chooses the number of threads to give
+ * each batch scanner from the latency observed on previous batches.
+ * <p>
+ * After each batch the time taken per range is compared with a moving
+ * average of previous batches. If the latency has held steady the tablet
+ * servers have spare capacity and one more thread is used for the next
+ * batch. If the latency has grown sharply the servers (or the client
+ * consuming the results) are saturated and the number of threads is halved.
+ * The number of threads always stays between 1 and the configured maximum.
+ */
+public class BatchScannerThreadSizer {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BatchScannerThreadSizer.class);
+
+    static final double SMOOTHING = 0.2;
+    static final double INCREASE_THRESHOLD = 1.1;
+    static final double DECREASE_THRESHOLD = 1.5;
+
+    private final int maxThreads;
+    private int threads;
+    private double averageNanosPerRange = -1;
+
+    public BatchScannerThreadSizer(final int initialThreads, final int maxThreads) {
+        if (maxThreads < 1) {
+            throw new IllegalArgumentException("Max threads must be at least 1, but was: " + maxThreads);
+        }
+        this.maxThreads = maxThreads;
+        this.threads = Math.max(1, Math.min(initialThreads, maxThreads));
+    }
+
+    public synchronized int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Records the time taken to scan a batch and adjusts the number of
+     * threads for the following batches.
+     *
+     * @param numRanges   the number of ranges in the batch
+     * @param durationNs  the time taken to scan the batch, in nanoseconds
+     */
+    public synchronized void record(final int numRanges, final long durationNs) {
+        if (numRanges < 1 || durationNs < 0) {
+            return;
+        }
+
+        final double nanosPerRange = (double) durationNs / numRanges;
+        if (averageNanosPerRange < 0) {
+            averageNanosPerRange = nanosPerRange;
+            return;
+        }
+
+        final int previousThreads = threads;
+        if (nanosPerRange > averageNanosPerRange * DECREASE_THRESHOLD) {
+            threads = Math.max(1, threads / 2);
+        } else if (nanosPerRange <= averageNanosPerRange * INCREASE_THRESHOLD) {
+            threads = Math.min(maxThreads, threads + 1);
+        }
+        averageNanosPerRange = SMOOTHING * nanosPerRange + (1 - SMOOTHING) * averageNanosPerRange;
+
+        if (previousThreads != threads) {
+            LOGGER.debug("Batch scanner threads changed from {} to {} ({} ns per range, average {} ns per range)",
+                    previousThreads, threads, nanosPerRange, averageNanosPerRange);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.accumulostore.retriever;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.hadoop.io.Text;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import uk.gov.gchq.gaffer.accumulostore.AccumuloStore;
+import uk.gov.gchq.gaffer.store.StoreException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A {@code ScanPlanner} turns the ranges produced from a batch of seeds into
+ * a list of batches, each of which can be handed to its own
+ * {@link org.apache.accumulo.core.client.BatchScanner}.
+ * <p>
+ * The ranges are sorted and overlapping ranges are merged. They are then
+ * grouped by the tablet that contains their start row, using the table's
+ * split points, and consecutive tablets are packed into batches of at most
+ * {@code maxRangesPerBatch} ranges. Each batch therefore covers a contiguous
+ * run of tablets, so concurrent scanners tend to talk to different tablet
+ * servers rather than all contacting every server.
+ */
+public class ScanPlanner {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ScanPlanner.class);
+
+    private final List<Text> splits;
+    private final int maxRangesPerBatch;
+
+    public ScanPlanner(final Collection<Text> splits, final int maxRangesPerBatch) {
+        if (maxRangesPerBatch < 1) {
+            throw new IllegalArgumentException("Max ranges per batch must be at least 1, but was: " + maxRangesPerBatch);
+        }
+        this.splits = null != splits ? new ArrayList<>(splits) : new ArrayList<>();
+        Collections.sort(this.splits);
+        this.maxRangesPerBatch = maxRangesPerBatch;
+    }
+
+    /**
+     * Creates a planner using the split points of the store's table, which
+     * the store caches for a short time. If the splits cannot be read the
+     * table is treated as a single tablet.
+     *
+     * @param store             the store to read the table splits from
+     * @param maxRangesPerBatch the maximum number of ranges in a batch
+     * @return a new scan planner
+     */
+    public static ScanPlanner fromTable(final AccumuloStore store, final int maxRangesPerBatch) {
+        Collection<Text> splits;
+        try {
+            splits = store.getTableSplits();
+        } catch (final StoreException e) {
+            LOGGER.warn("Unable to list the splits for table {}, ranges will not be grouped by tablet: {}",
+                    store.getTableName(), e.getMessage());
+            splits = Collections.emptyList();
+        }
+        return new ScanPlanner(splits, maxRangesPerBatch);
+    }
+
+    /**
+     * Sorts, merges and groups the given ranges into batches.
+     *
+     * @param ranges the ranges to plan
+     * @return the batches of ranges, in table order
+     */
+    public List<List<Range>> plan(final Collection<Range> ranges) {
+        final List<List<Range>> batches = new ArrayList<>();
+        if (null == ranges || ranges.isEmpty()) {
+            return batches;
+        }
+
+        final List<Range> merged = new ArrayList<>(Range.mergeOverlapping(ranges));
+        Collections.sort(merged);
+
+        List<Range> batch = new ArrayList<>();
+        List<Range> tabletRanges = new ArrayList<>();
+        int tablet = -1;
+        for (final Range range : merged) {
+            final int rangeTablet = getTablet(range, Math.max(tablet, 0));
+            if (rangeTablet != tablet && !tabletRanges.isEmpty()) {
+                batch = addTablet(tabletRanges, batch, batches);
+                tabletRanges = new ArrayList<>();
+            }
+            tablet = rangeTablet;
+            tabletRanges.add(range);
+        }
+        batch = addTablet(tabletRanges, batch, batches);
+        if (!batch.isEmpty()) {
+            batches.add(batch);
+        }
+
+        LOGGER.debug("Planned {} ranges into {} batches across {} splits", merged.size(), batches.size(), splits.size());
+        return batches;
+    }
+
+    public int getMaxRangesPerBatch() {
+        return maxRangesPerBatch;
+    }
+
+    /**
+     * Adds the ranges of a single tablet to the current batch, starting a new
+     * batch if the tablet does not fit. A tablet with more ranges than a
+     * single batch allows is split across batches.
+     *
+     * @param tabletRanges the ranges of the tablet
+     * @param batch        the current batch
+     * @param batches      the completed batches
+     * @return the batch to add the next tablet to
+     */
+    private List<Range> addTablet(final List<Range> tabletRanges, final List<Range> batch, final List<List<Range>> batches) {
+        List<Range> current = batch;
+        if (!current.isEmpty() && current.size() + tabletRanges.size() > maxRangesPerBatch) {
+            batches.add(current);
+            current = new ArrayList<>();
+        }
+        for (final Range range : tabletRanges) {
+            if (current.size() >= maxRangesPerBatch) {
+                batches.add(current);
+                current = new ArrayList<>();
+            }
+            current.add(range);
+        }
+        return current;
+    }
+
+    /**
+     * Finds the index of the tablet containing the start of the range. Tablet
+     * {@code i} holds the rows after split {@code i - 1} up to and including
+     * split {@code i}. The ranges are visited in sorted order, so the search
+     * starts from the tablet of the previous range.
+     *
+     * @param range      the range
+     * @param fromTablet the tablet of the previous range
+     * @return the index of the tablet containing the start of the range
+     */
+    private int getTablet(final Range range, final int fromTablet) {
+        final Key startKey = range.getStartKey();
+        if (null == startKey) {
+            return 0;
+        }
+        final Text row = startKey.getRow();
+        int tablet = fromTablet;
+        while (tablet < splits.size() && splits.get(tablet).compareTo(row) < 0) {
+            tablet++;
+        }
+        return tablet;
+    }
+}
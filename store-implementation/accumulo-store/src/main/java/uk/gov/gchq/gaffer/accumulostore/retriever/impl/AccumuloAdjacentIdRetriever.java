@@ -143,7 +143,7 @@ public class AccumuloAdjacentIdRetriever extends AccumuloRetriever<GetAdjacentId
                 if (transformGroups.contains(group)) {
                     final Element element;
                     try {
-                        element = elementConverter.getFullElement(
+                        element = elementConverter.getLazyElement(
                                 entry.getKey(),
                                 entry.getValue(),
                                 true);
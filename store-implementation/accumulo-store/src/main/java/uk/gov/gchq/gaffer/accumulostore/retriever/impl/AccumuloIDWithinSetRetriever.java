@@ -17,15 +17,13 @@
 package uk.gov.gchq.gaffer.accumulostore.retriever.impl;
 
 import org.apache.accumulo.core.client.IteratorSetting;
-import org.apache.hadoop.util.bloom.BloomFilter;
-import org.apache.hadoop.util.bloom.Key;
 
 import uk.gov.gchq.gaffer.accumulostore.AccumuloStore;
 import uk.gov.gchq.gaffer.accumulostore.key.exception.AccumuloElementConversionException;
 import uk.gov.gchq.gaffer.accumulostore.operation.impl.GetElementsWithinSet;
 import uk.gov.gchq.gaffer.accumulostore.retriever.AccumuloSetRetriever;
 import uk.gov.gchq.gaffer.accumulostore.retriever.RetrieverException;
-import uk.gov.gchq.gaffer.accumulostore.utils.BloomFilterUtils;
+import uk.gov.gchq.gaffer.accumulostore.utils.SeedFilter;
 import uk.gov.gchq.gaffer.commonutil.CloseableUtil;
 import uk.gov.gchq.gaffer.data.element.Edge;
 import uk.gov.gchq.gaffer.data.element.Element;
@@ -42,34 +40,34 @@ import java.util.Set;
  * set of {@link uk.gov.gchq.gaffer.data.element.id.EntityId}'s and
  * {@link uk.gov.gchq.gaffer.data.element.Entity}s where the vertex is in the set.
  * <p>
- * {@link org.apache.hadoop.util.bloom.BloomFilter}s are used to identify on the
+ * {@link SeedFilter}s are used to identify on the
  * server edges that are likely to be between members of the set and to send
  * only these to the client. This reduces the amount of data sent to the client.
  * <p>
  * This operates in two modes. In the first mode the seeds are loaded into
  * memory (client-side). They are also loaded into a
- * {@link org.apache.hadoop.util.bloom.BloomFilter}. This is passed to the
+ * {@link SeedFilter}. This is passed to the
  * iterators to filter out all edges that are definitely not between elements of
  * the set. A secondary check is done within this class to check that the edge
  * is definitely between elements of the set (this defeats any false positives,
- * i.e. edges that passed the {@link org.apache.hadoop.util.bloom.BloomFilter}
+ * i.e. edges that passed the {@link SeedFilter}
  * check in the iterators). This secondary check uses the in memory set of seeds
  * (and hence there are guaranteed to be no false positives returned to the
  * user).
  * <p>
  * In the second mode, where there are too many seeds to be loaded into memory,
  * the seeds are queried one batch at a time. When the first batch is queried
- * for, a {@link org.apache.hadoop.util.bloom.BloomFilter} of the first batch is
+ * for, a {@link SeedFilter} of the first batch is
  * created and passed to the iterators. This filters out all edges that are
  * definitely not between elements of the first batch. When the second batch is
- * queried for, the same {@link org.apache.hadoop.util.bloom.BloomFilter} has
+ * queried for, the same {@link SeedFilter} has
  * the second batch added to it. This is passed to the iterators, which filters
  * out all edges that are definitely not between elements of the second batch
  * and the first or second batch. This process repeats until all seeds have been
  * queried for. This is best thought of as a square split into a grid (with the
  * same number of squares in both dimensions). As there are too many seeds to
  * load into memory, we use a client-side
- * {@link org.apache.hadoop.util.bloom.BloomFilter} to further reduce the
+ * {@link SeedFilter} to further reduce the
  * chances of false positives making it to the user.
  */
 public class AccumuloIDWithinSetRetriever extends AccumuloSetRetriever<GetElementsWithinSet> {
@@ -122,8 +120,7 @@ public class AccumuloIDWithinSetRetriever extends AccumuloSetRetriever<GetElemen
 
             // Create Bloom filter, read through set of entities and add them to
             // Bloom filter
-            final BloomFilter filter = BloomFilterUtils.getBloomFilter(store.getProperties().getFalsePositiveRate(),
-                    vertices.size(), store.getProperties().getMaxBloomFilterToPassToAnIterator());
+            final SeedFilter filter = createIteratorFilter(vertices.size());
             addToBloomFilter(vertices, filter);
 
             initialise(filter);
@@ -170,24 +167,16 @@ public class AccumuloIDWithinSetRetriever extends AccumuloSetRetriever<GetElemen
             if (sourceIsInCurrent && destIsInCurrent) {
                 return true;
             }
-            boolean destMatchesClientFilter;
+            // Only serialise a vertex for the client side filter when the
+            // other end is in the current batch of seeds
             try {
-                destMatchesClientFilter = clientSideFilter.membershipTest(
-                        new Key(elementConverter.serialiseVertex(destination)));
+                if (sourceIsInCurrent) {
+                    return clientSideFilter.mightContain(elementConverter.serialiseVertex(destination));
+                }
+                return destIsInCurrent && clientSideFilter.mightContain(elementConverter.serialiseVertex(source));
             } catch (final AccumuloElementConversionException e) {
                 return false;
             }
-            if (sourceIsInCurrent && destMatchesClientFilter) {
-                return true;
-            }
-            boolean sourceMatchesClientFilter;
-            try {
-                sourceMatchesClientFilter = clientSideFilter.membershipTest(
-                        new Key(elementConverter.serialiseVertex(source)));
-            } catch (final AccumuloElementConversionException e) {
-                return false;
-            }
-            return destIsInCurrent && sourceMatchesClientFilter;
         }
     }
 }
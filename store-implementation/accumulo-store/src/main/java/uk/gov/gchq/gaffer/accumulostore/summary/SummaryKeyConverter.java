@@ -0,0 +1,363 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.accumulostore.summary;
+
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.LongCombiner;
+
+import uk.gov.gchq.gaffer.accumulostore.key.AccumuloElementConverter;
+import uk.gov.gchq.gaffer.accumulostore.key.exception.AccumuloElementConversionException;
+import uk.gov.gchq.gaffer.accumulostore.key.exception.AggregationException;
+import uk.gov.gchq.gaffer.accumulostore.utils.AccumuloStoreConstants;
+import uk.gov.gchq.gaffer.commonutil.ByteArrayEscapeUtils;
+import uk.gov.gchq.gaffer.commonutil.StringUtil;
+import uk.gov.gchq.gaffer.commonutil.pair.Pair;
+import uk.gov.gchq.gaffer.data.element.Edge;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.Entity;
+import uk.gov.gchq.gaffer.data.element.Properties;
+import uk.gov.gchq.gaffer.data.element.function.ElementAggregator;
+import uk.gov.gchq.gaffer.exception.SerialisationException;
+import uk.gov.gchq.gaffer.serialisation.ToBytesSerialiser;
+import uk.gov.gchq.gaffer.serialisation.implementation.raw.CompactRawSerialisationUtils;
+import uk.gov.gchq.gaffer.store.ElementValidator;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+import uk.gov.gchq.gaffer.store.schema.SchemaElementDefinition;
+
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@code SummaryKeyConverter} converts {@link Element}s into keys for the
+ * summary table and reads vertices back out of those keys.
+ * <p>
+ * Each key has the serialised vertex as its row and the group as its column
+ * family. The column qualifier is a single type byte which, for edges, is
+ * followed by the serialised vertex at the other end of the edge:
+ * <ul>
+ * <li>{@link #ENTITY} - an entity on the vertex</li>
+ * <li>{@link #OUTGOING} - a directed edge with the vertex as its source</li>
+ * <li>{@link #INCOMING} - a directed edge with the vertex as its destination</li>
+ * <li>{@link #UNDIRECTED} - an undirected edge on the vertex</li>
+ * <li>{@link #PROPERTIES} - the summary properties of the elements on the vertex</li>
+ * </ul>
+ * The column visibility is the visibility of the element, so users only see
+ * the summaries of data they are allowed to see. Every count key is written
+ * with a count of 1 and the summary table sums identical keys, so the value of
+ * a key is the number of times the element has been added.
+ * <p>
+ * For groups that are aggregated, the properties key holds the element's
+ * properties, excluding the group by, visibility and timestamp properties.
+ * They are aggregated with the group's ingest aggregator, so the summary
+ * properties of a vertex are the aggregate of every element of the group on
+ * the vertex, whatever its group by properties or its other vertex.
+ */
+public class SummaryKeyConverter {
+    public static final byte ENTITY = 'E';
+    public static final byte OUTGOING = 'O';
+    public static final byte INCOMING = 'I';
+    public static final byte UNDIRECTED = 'U';
+    public static final byte PROPERTIES = 'P';
+
+    private final Schema schema;
+    private final AccumuloElementConverter elementConverter;
+    private final ElementValidator validator;
+
+    public SummaryKeyConverter(final Schema schema, final AccumuloElementConverter elementConverter) {
+        this(schema, elementConverter, false);
+    }
+
+    /**
+     * @param schema           the schema
+     * @param elementConverter the element converter of the main table
+     * @param validateElements true if elements that fail the schema validation
+     *                         should not be summarised, as they are removed
+     *                         from the main table by the ValidatorFilter
+     */
+    public SummaryKeyConverter(final Schema schema, final AccumuloElementConverter elementConverter,
+                               final boolean validateElements) {
+        this.schema = schema;
+        this.elementConverter = elementConverter;
+        this.validator = validateElements && schema.hasValidation() ? new ElementValidator(schema) : null;
+    }
+
+    /**
+     * Creates a {@code SummaryKeyConverter} from the
+     * {@link AccumuloStoreConstants#SCHEMA} and
+     * {@link AccumuloStoreConstants#ACCUMULO_ELEMENT_CONVERTER_CLASS} options
+     * of an iterator.
+     *
+     * @param options the iterator options
+     * @return the summary key converter
+     */
+    public static SummaryKeyConverter fromIteratorOptions(final Map<String, String> options) {
+        if (!options.containsKey(AccumuloStoreConstants.SCHEMA)) {
+            throw new IllegalArgumentException("Must specify the " + AccumuloStoreConstants.SCHEMA);
+        }
+        final String elementConverterClass = options.get(AccumuloStoreConstants.ACCUMULO_ELEMENT_CONVERTER_CLASS);
+        if (null == elementConverterClass) {
+            throw new IllegalArgumentException("Must specify the " + AccumuloStoreConstants.ACCUMULO_ELEMENT_CONVERTER_CLASS);
+        }
+
+        final Schema schema = Schema.fromJson(StringUtil.toBytes(options.get(AccumuloStoreConstants.SCHEMA)));
+        try {
+            return new SummaryKeyConverter(schema, Class
+                    .forName(elementConverterClass)
+                    .asSubclass(AccumuloElementConverter.class)
+                    .getConstructor(Schema.class)
+                    .newInstance(schema));
+        } catch (final ClassNotFoundException | InstantiationException | IllegalAccessException | IllegalArgumentException
+                | InvocationTargetException | NoSuchMethodException | SecurityException e) {
+            throw new AggregationException("Failed to create element converter of the class name provided ("
+                    + elementConverterClass + ")", e);
+        }
+    }
+
+    /**
+     * Gets the summary table keys and values for an element. An entity has a
+     * count key on its vertex, an edge has a count key on each of its vertices
+     * (only 1 for an undirected edge that starts and ends on the same vertex).
+     * Elements in aggregated groups also have a properties key on each of
+     * their vertices.
+     *
+     * @param element the element to convert
+     * @return the summary table keys and values, empty if the element failed
+     * validation
+     */
+    public List<Pair<Key, Value>> getKeyValuesFromElement(final Element element) {
+        if (null != validator && !validator.validateWithSchema(element)) {
+            return Collections.emptyList();
+        }
+
+        final byte[] columnFamily = elementConverter.buildColumnFamily(element.getGroup());
+        final byte[] columnVisibility = elementConverter.buildColumnVisibility(element.getGroup(), element.getProperties());
+        final Value properties = getPropertiesValue(element);
+
+        final List<Pair<Key, Value>> keyValues = new ArrayList<>(4);
+        if (element instanceof Entity) {
+            final byte[] vertex = serialiseVertex(((Entity) element).getVertex());
+            keyValues.add(createCount(vertex, columnFamily, new byte[]{ENTITY}, columnVisibility));
+            addProperties(keyValues, vertex, columnFamily, columnVisibility, properties);
+        } else {
+            final Edge edge = (Edge) element;
+            final byte[] source = serialiseVertex(edge.getSource());
+            final byte[] destination = serialiseVertex(edge.getDestination());
+            if (edge.isDirected()) {
+                keyValues.add(createCount(source, columnFamily, buildColumnQualifier(OUTGOING, destination), columnVisibility));
+                keyValues.add(createCount(destination, columnFamily, buildColumnQualifier(INCOMING, source), columnVisibility));
+            } else {
+                keyValues.add(createCount(source, columnFamily, buildColumnQualifier(UNDIRECTED, destination), columnVisibility));
+                if (!Arrays.equals(source, destination)) {
+                    keyValues.add(createCount(destination, columnFamily, buildColumnQualifier(UNDIRECTED, source), columnVisibility));
+                }
+            }
+            addProperties(keyValues, source, columnFamily, columnVisibility, properties);
+            if (!Arrays.equals(source, destination)) {
+                addProperties(keyValues, destination, columnFamily, columnVisibility, properties);
+            }
+        }
+        return keyValues;
+    }
+
+    /**
+     * Combines the values of identical summary keys. The counts of count keys
+     * are added together and the properties of properties keys are aggregated
+     * with the group's ingest aggregator.
+     *
+     * @param key    the summary key
+     * @param values the values to combine, there must be at least 1
+     * @return the combined value
+     */
+    public Value combine(final Key key, final Iterator<Value> values) {
+        final Value firstValue = values.next();
+        if (!values.hasNext()) {
+            return firstValue;
+        }
+
+        if (isPropertiesKey(key)) {
+            final String group = getGroupFromColumnFamily(key.getColumnFamilyData().getBackingArray());
+            final ElementAggregator aggregator = schema.getElement(group).getIngestAggregator();
+            Properties properties = elementConverter.getPropertiesFromValue(group, firstValue);
+            while (values.hasNext()) {
+                properties = aggregator.apply(properties, elementConverter.getPropertiesFromValue(group, values.next()));
+            }
+            return elementConverter.getValueFromProperties(group, properties);
+        }
+
+        long count = getCountFromValue(firstValue);
+        while (values.hasNext()) {
+            count += getCountFromValue(values.next());
+        }
+        return createCountValue(count);
+    }
+
+    public byte[] serialiseVertex(final Object vertex) {
+        return elementConverter.serialiseVertex(vertex);
+    }
+
+    public Object deserialiseVertex(final byte[] bytes, final int offset, final int length) {
+        try {
+            return ((ToBytesSerialiser) schema.getVertexSerialiser())
+                    .deserialise(ByteArrayEscapeUtils.unEscapeByLength(bytes, offset, length));
+        } catch (final SerialisationException e) {
+            throw new AccumuloElementConversionException("Failed to deserialise vertex from summary key", e);
+        }
+    }
+
+    public byte[] getColumnFamily(final String group) {
+        return elementConverter.buildColumnFamily(group);
+    }
+
+    public String getGroupFromColumnFamily(final byte[] columnFamily) {
+        return elementConverter.getGroupFromColumnFamily(columnFamily);
+    }
+
+    /**
+     * Reads a result of the {@link VertexSummaryIterator}.
+     *
+     * @param key   the key of the result
+     * @param value the value of the result
+     * @return the vertex summary
+     */
+    public VertexSummary getVertexSummary(final Key key, final Value value) {
+        final byte[] row = key.getRowData().getBackingArray();
+        final VertexSummary summary = new VertexSummary(
+                deserialiseVertex(row, 0, row.length),
+                getGroupFromColumnFamily(key.getColumnFamilyData().getBackingArray()));
+
+        final ByteArrayInputStream stream = new ByteArrayInputStream(value.get());
+        try {
+            summary.setEntityCount(CompactRawSerialisationUtils.read(stream));
+            summary.setOutDegree(CompactRawSerialisationUtils.read(stream));
+            summary.setInDegree(CompactRawSerialisationUtils.read(stream));
+            summary.setUndirectedDegree(CompactRawSerialisationUtils.read(stream));
+            summary.setOutEdgeCount(CompactRawSerialisationUtils.read(stream));
+            summary.setInEdgeCount(CompactRawSerialisationUtils.read(stream));
+            summary.setUndirectedEdgeCount(CompactRawSerialisationUtils.read(stream));
+
+            final long numNeighbours = CompactRawSerialisationUtils.read(stream);
+            final List<VertexSummary.Neighbour> neighbours = new ArrayList<>();
+            for (long i = 0; i < numNeighbours; i++) {
+                final byte[] columnQualifier = new byte[(int) CompactRawSerialisationUtils.read(stream)];
+                if (columnQualifier.length != stream.read(columnQualifier, 0, columnQualifier.length)) {
+                    throw new AccumuloElementConversionException("Vertex summary value is truncated");
+                }
+                neighbours.add(new VertexSummary.Neighbour(
+                        deserialiseVertex(columnQualifier, 1, columnQualifier.length - 1),
+                        getDirection(columnQualifier[0]),
+                        CompactRawSerialisationUtils.read(stream)));
+            }
+            summary.setTopNeighbours(neighbours);
+
+            final byte[] properties = new byte[(int) CompactRawSerialisationUtils.read(stream)];
+            if (properties.length != stream.read(properties, 0, properties.length)) {
+                throw new AccumuloElementConversionException("Vertex summary value is truncated");
+            }
+            if (properties.length > 0) {
+                summary.setProperties(elementConverter.getPropertiesFromValue(summary.getGroup(), new Value(properties)));
+            }
+        } catch (final SerialisationException e) {
+            throw new AccumuloElementConversionException("Failed to read vertex summary", e);
+        }
+        return summary;
+    }
+
+    public static boolean isPropertiesKey(final Key key) {
+        final ByteSequence columnQualifier = key.getColumnQualifierData();
+        return columnQualifier.length() > 0 && PROPERTIES == columnQualifier.byteAt(0);
+    }
+
+    /**
+     * Marks a summary key so it can share the shuffle of the bulk import job
+     * with the element keys. The key's delete flag is used, as element keys
+     * never set it.
+     *
+     * @param key the summary key
+     * @return the marked key
+     */
+    public static Key markForShuffle(final Key key) {
+        key.setDeleted(true);
+        return key;
+    }
+
+    public static boolean isMarkedForShuffle(final Key key) {
+        return key.isDeleted();
+    }
+
+    public static Key unmarkForShuffle(final Key key) {
+        final Key unmarked = new Key(key);
+        unmarked.setDeleted(false);
+        return unmarked;
+    }
+
+    public static Value createCountValue(final long count) {
+        return new Value(LongCombiner.VAR_LEN_ENCODER.encode(count));
+    }
+
+    public static long getCountFromValue(final Value value) {
+        return LongCombiner.VAR_LEN_ENCODER.decode(value.get());
+    }
+
+    private static VertexSummary.Direction getDirection(final byte type) {
+        switch (type) {
+            case OUTGOING:
+                return VertexSummary.Direction.OUTGOING;
+            case INCOMING:
+                return VertexSummary.Direction.INCOMING;
+            case UNDIRECTED:
+                return VertexSummary.Direction.UNDIRECTED;
+            default:
+                throw new AccumuloElementConversionException("Unknown summary key type: " + type);
+        }
+    }
+
+    private Value getPropertiesValue(final Element element) {
+        final SchemaElementDefinition elementDef = schema.getElement(element.getGroup());
+        if (null == elementDef || !elementDef.isAggregate()) {
+            return null;
+        }
+        final Value value = elementConverter.getValueFromProperties(element.getGroup(), element.getProperties());
+        return value.getSize() > 0 ? value : null;
+    }
+
+    private static Pair<Key, Value> createCount(final byte[] row, final byte[] columnFamily,
+                                                final byte[] columnQualifier, final byte[] columnVisibility) {
+        return new Pair<>(new Key(row, columnFamily, columnQualifier, columnVisibility, Long.MAX_VALUE), createCountValue(1L));
+    }
+
+    private static void addProperties(final List<Pair<Key, Value>> keyValues, final byte[] row, final byte[] columnFamily,
+                                      final byte[] columnVisibility, final Value properties) {
+        if (null != properties) {
+            keyValues.add(new Pair<>(new Key(row, columnFamily, new byte[]{PROPERTIES}, columnVisibility, Long.MAX_VALUE), properties));
+        }
+    }
+
+    private static byte[] buildColumnQualifier(final byte type, final byte[] otherVertex) {
+        final byte[] columnQualifier = new byte[otherVertex.length + 1];
+        columnQualifier[0] = type;
+        System.arraycopy(otherVertex, 0, columnQualifier, 1, otherVertex.length);
+        return columnQualifier;
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.accumulostore.summary;
+
+import org.apache.accumulo.core.client.BatchWriter;
+import org.apache.accumulo.core.client.MutationsRejectedException;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.security.ColumnVisibility;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import uk.gov.gchq.gaffer.accumulostore.key.exception.AccumuloElementConversionException;
+import uk.gov.gchq.gaffer.commonutil.pair.Pair;
+import uk.gov.gchq.gaffer.data.element.Element;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@code SummaryWriter} writes the summary table mutations for elements that
+ * have been added to the main table.
+ * <p>
+ * The summary mutations are buffered and only written once the main table's
+ * {@link BatchWriter} has flushed the elements they summarise, so elements
+ * rejected by the main table are not summarised. A {@link BatchWriter} does
+ * not report which mutations it rejected, so once the main table has rejected
+ * a mutation no more summaries are written.
+ */
+public class SummaryWriter {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SummaryWriter.class);
+
+    private final BatchWriter mainWriter;
+    private final BatchWriter summaryWriter;
+    private final SummaryKeyConverter summaryKeyConverter;
+    private final long maxBufferSize;
+    private final List<Mutation> buffer = new ArrayList<>();
+    private long bufferSize;
+    private boolean failed;
+
+    /**
+     * @param mainWriter          the writer of the main table
+     * @param summaryWriter       the writer of the summary table
+     * @param summaryKeyConverter the converter used to create the summary keys
+     * @param maxBufferSize       the size in bytes of the summary mutations
+     *                            buffered before the main writer is flushed
+     */
+    public SummaryWriter(final BatchWriter mainWriter, final BatchWriter summaryWriter,
+                         final SummaryKeyConverter summaryKeyConverter, final long maxBufferSize) {
+        this.mainWriter = mainWriter;
+        this.summaryWriter = summaryWriter;
+        this.summaryKeyConverter = summaryKeyConverter;
+        this.maxBufferSize = maxBufferSize;
+    }
+
+    /**
+     * Buffers the summary mutations of an element. This should only be called
+     * once the element's mutations have been added to the main writer.
+     *
+     * @param element the element to summarise
+     */
+    public void add(final Element element) {
+        if (failed) {
+            return;
+        }
+
+        final List<Pair<Key, Value>> keyValues;
+        try {
+            keyValues = summaryKeyConverter.getKeyValuesFromElement(element);
+        } catch (final AccumuloElementConversionException e) {
+            LOGGER.error("Failed to create an accumulo summary key from element of type {} when trying to insert elements", element.getGroup());
+            return;
+        }
+        for (final Pair<Key, Value> keyValue : keyValues) {
+            final Key key = keyValue.getFirst();
+            final Mutation m = new Mutation(key.getRow());
+            m.put(key.getColumnFamily(), key.getColumnQualifier(),
+                    new ColumnVisibility(key.getColumnVisibility()), keyValue.getSecond());
+            buffer.add(m);
+            bufferSize += m.estimatedMemoryUsed();
+        }
+
+        if (bufferSize >= maxBufferSize) {
+            flush();
+        }
+    }
+
+    /**
+     * Writes the buffered summary mutations, once the main writer has been
+     * flushed, then closes the summary writer. The main writer is not closed.
+     */
+    public void close() {
+        flush();
+        try {
+            summaryWriter.close();
+        } catch (final MutationsRejectedException e) {
+            LOGGER.warn("Accumulo summary table batch writer failed to close", e);
+        }
+    }
+
+    private void flush() {
+        if (failed || buffer.isEmpty()) {
+            return;
+        }
+
+        try {
+            mainWriter.flush();
+        } catch (final MutationsRejectedException e) {
+            LOGGER.warn("The main table rejected mutations, so no more elements will be added to the summary table", e);
+            failed = true;
+            buffer.clear();
+            bufferSize = 0;
+            return;
+        }
+
+        try {
+            summaryWriter.addMutations(buffer);
+        } catch (final MutationsRejectedException e) {
+            LOGGER.error("Failed to create an accumulo summary key mutation", e);
+        }
+        buffer.clear();
+        bufferSize = 0;
+    }
+}
@@ -0,0 +1,311 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.accumulostore.summary;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+
+import uk.gov.gchq.gaffer.commonutil.ToStringBuilder;
+import uk.gov.gchq.gaffer.data.element.Properties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@code VertexSummary} holds the summary of a single vertex for a single
+ * group, as held in the Accumulo summary table.
+ * <p>
+ * The degrees are the number of distinct neighbours connected to the vertex
+ * by edges of the group. The counts are the number of times entities or edges
+ * have been added, so an edge added twice is counted twice. For aggregated
+ * groups, the properties are the aggregate of the properties of every element
+ * of the group on the vertex, excluding the group by properties.
+ */
+@JsonPropertyOrder(value = {"vertex", "group"}, alphabetic = true)
+public class VertexSummary {
+    private Object vertex;
+    private String group;
+    private long entityCount;
+    private long outDegree;
+    private long inDegree;
+    private long undirectedDegree;
+    private long outEdgeCount;
+    private long inEdgeCount;
+    private long undirectedEdgeCount;
+    private List<Neighbour> topNeighbours = new ArrayList<>();
+    private Properties properties = new Properties();
+
+    public VertexSummary() {
+    }
+
+    public VertexSummary(final Object vertex, final String group) {
+        this.vertex = vertex;
+        this.group = group;
+    }
+
+    public Object getVertex() {
+        return vertex;
+    }
+
+    public void setVertex(final Object vertex) {
+        this.vertex = vertex;
+    }
+
+    public String getGroup() {
+        return group;
+    }
+
+    public void setGroup(final String group) {
+        this.group = group;
+    }
+
+    public long getEntityCount() {
+        return entityCount;
+    }
+
+    public void setEntityCount(final long entityCount) {
+        this.entityCount = entityCount;
+    }
+
+    public long getOutDegree() {
+        return outDegree;
+    }
+
+    public void setOutDegree(final long outDegree) {
+        this.outDegree = outDegree;
+    }
+
+    public long getInDegree() {
+        return inDegree;
+    }
+
+    public void setInDegree(final long inDegree) {
+        this.inDegree = inDegree;
+    }
+
+    public long getUndirectedDegree() {
+        return undirectedDegree;
+    }
+
+    public void setUndirectedDegree(final long undirectedDegree) {
+        this.undirectedDegree = undirectedDegree;
+    }
+
+    /**
+     * @return the total of the outgoing, incoming and undirected degrees
+     */
+    @JsonIgnore
+    public long getDegree() {
+        return outDegree + inDegree + undirectedDegree;
+    }
+
+    public long getOutEdgeCount() {
+        return outEdgeCount;
+    }
+
+    public void setOutEdgeCount(final long outEdgeCount) {
+        this.outEdgeCount = outEdgeCount;
+    }
+
+    public long getInEdgeCount() {
+        return inEdgeCount;
+    }
+
+    public void setInEdgeCount(final long inEdgeCount) {
+        this.inEdgeCount = inEdgeCount;
+    }
+
+    public long getUndirectedEdgeCount() {
+        return undirectedEdgeCount;
+    }
+
+    public void setUndirectedEdgeCount(final long undirectedEdgeCount) {
+        this.undirectedEdgeCount = undirectedEdgeCount;
+    }
+
+    /**
+     * @return the neighbours with the highest edge counts, highest first
+     */
+    public List<Neighbour> getTopNeighbours() {
+        return topNeighbours;
+    }
+
+    public void setTopNeighbours(final List<Neighbour> topNeighbours) {
+        this.topNeighbours = null != topNeighbours ? topNeighbours : new ArrayList<>();
+    }
+
+    /**
+     * @return the aggregated properties of the elements of the group on the
+     * vertex, empty if the group is not aggregated
+     */
+    public Properties getProperties() {
+        return properties;
+    }
+
+    public void setProperties(final Properties properties) {
+        this.properties = null != properties ? properties : new Properties();
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (null == obj || getClass() != obj.getClass()) {
+            return false;
+        }
+
+        final VertexSummary that = (VertexSummary) obj;
+
+        return new EqualsBuilder()
+                .append(vertex, that.vertex)
+                .append(group, that.group)
+                .append(entityCount, that.entityCount)
+                .append(outDegree, that.outDegree)
+                .append(inDegree, that.inDegree)
+                .append(undirectedDegree, that.undirectedDegree)
+                .append(outEdgeCount, that.outEdgeCount)
+                .append(inEdgeCount, that.inEdgeCount)
+                .append(undirectedEdgeCount, that.undirectedEdgeCount)
+                .append(topNeighbours, that.topNeighbours)
+                .append(properties, that.properties)
+                .isEquals();
+    }
+
+    @Override
+    public int hashCode() {
+        return new HashCodeBuilder(17, 37)
+                .append(vertex)
+                .append(group)
+                .append(entityCount)
+                .append(outDegree)
+                .append(inDegree)
+                .append(undirectedDegree)
+                .append(outEdgeCount)
+                .append(inEdgeCount)
+                .append(undirectedEdgeCount)
+                .append(topNeighbours)
+                .append(properties)
+                .toHashCode();
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this)
+                .append("vertex", vertex)
+                .append("group", group)
+                .append("entityCount", entityCount)
+                .append("outDegree", outDegree)
+                .append("inDegree", inDegree)
+                .append("undirectedDegree", undirectedDegree)
+                .append("outEdgeCount", outEdgeCount)
+                .append("inEdgeCount", inEdgeCount)
+                .append("undirectedEdgeCount", undirectedEdgeCount)
+                .append("topNeighbours", topNeighbours)
+                .append("properties", properties)
+                .toString();
+    }
+
+    /**
+     * The direction of the edges between a vertex and a neighbour.
+     */
+    public enum Direction {
+        OUTGOING, INCOMING, UNDIRECTED
+    }
+
+    /**
+     * A vertex connected to the summarised vertex, with the number of edges
+     * that have been added between them.
+     */
+    @JsonPropertyOrder(value = {"vertex", "direction", "count"})
+    public static class Neighbour {
+        private Object vertex;
+        private Direction direction;
+        private long count;
+
+        public Neighbour() {
+        }
+
+        public Neighbour(final Object vertex, final Direction direction, final long count) {
+            this.vertex = vertex;
+            this.direction = direction;
+            this.count = count;
+        }
+
+        public Object getVertex() {
+            return vertex;
+        }
+
+        public void setVertex(final Object vertex) {
+            this.vertex = vertex;
+        }
+
+        public Direction getDirection() {
+            return direction;
+        }
+
+        public void setDirection(final Direction direction) {
+            this.direction = direction;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public void setCount(final long count) {
+            this.count = count;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (null == obj || getClass() != obj.getClass()) {
+                return false;
+            }
+
+            final Neighbour that = (Neighbour) obj;
+
+            return new EqualsBuilder()
+                    .append(vertex, that.vertex)
+                    .append(direction, that.direction)
+                    .append(count, that.count)
+                    .isEquals();
+        }
+
+        @Override
+        public int hashCode() {
+            return new HashCodeBuilder(17, 37)
+                    .append(vertex)
+                    .append(direction)
+                    .append(count)
+                    .toHashCode();
+        }
+
+        @Override
+        public String toString() {
+            return new ToStringBuilder(this)
+                    .append("vertex", vertex)
+                    .append("direction", direction)
+                    .append("count", count)
+                    .toString();
+        }
+    }
+}
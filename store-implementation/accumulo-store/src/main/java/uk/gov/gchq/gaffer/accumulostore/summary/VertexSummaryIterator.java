@@ -0,0 +1,255 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.accumulostore.summary;
+
+import org.apache.accumulo.core.data.ByteSequence;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.PartialKey;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.IteratorEnvironment;
+import org.apache.accumulo.core.iterators.OptionDescriber;
+import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
+import org.apache.accumulo.core.iterators.WrappingIterator;
+
+import uk.gov.gchq.gaffer.accumulostore.utils.AccumuloStoreConstants;
+import uk.gov.gchq.gaffer.accumulostore.utils.ByteUtils;
+import uk.gov.gchq.gaffer.accumulostore.utils.IteratorOptionsBuilder;
+import uk.gov.gchq.gaffer.serialisation.implementation.raw.CompactRawSerialisationUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * The {@code VertexSummaryIterator} runs on the summary table and reduces all
+ * of the keys for a vertex and group to a single key, so only one result per
+ * vertex and group is returned to the client however many edges the vertex
+ * has.
+ * <p>
+ * The value of the result holds, in order: the entity count; the outgoing,
+ * incoming and undirected degrees (the number of distinct neighbours); the
+ * outgoing, incoming and undirected edge counts; and the
+ * {@link AccumuloStoreConstants#TOP_NEIGHBOURS} neighbours with the highest
+ * edge counts; and the summary properties, aggregated over all visibilities
+ * the user can see. Use {@link SummaryKeyConverter#getVertexSummary} to read
+ * it.
+ * <p>
+ * A row never spans more than one tablet, so the results are exact.
+ */
+public class VertexSummaryIterator extends WrappingIterator implements OptionDescriber {
+    private static final Comparator<NeighbourCount> LOWEST_COUNT_FIRST = Comparator
+            .comparingLong((NeighbourCount n) -> n.count)
+            .thenComparing((n1, n2) -> ByteUtils.compareBytes(n2.columnQualifier, n1.columnQualifier));
+
+    private int topNeighbours;
+    private SummaryKeyConverter summaryKeyConverter;
+    private Key topKey;
+    private Value topValue;
+
+    @Override
+    public IteratorOptions describeOptions() {
+        return new IteratorOptionsBuilder(AccumuloStoreConstants.VERTEX_SUMMARY_ITERATOR_NAME,
+                "Reduces the summary table keys for each vertex and group to degrees, counts and top neighbours")
+                .addNamedOption(AccumuloStoreConstants.TOP_NEIGHBOURS, "Optional number of neighbours with the highest edge counts to return")
+                .addSchemaNamedOption()
+                .addElementConverterClassNamedOption()
+                .build();
+    }
+
+    @Override
+    public boolean validateOptions(final Map<String, String> options) {
+        if (!options.containsKey(AccumuloStoreConstants.SCHEMA)) {
+            throw new IllegalArgumentException("Must specify the " + AccumuloStoreConstants.SCHEMA);
+        }
+        if (!options.containsKey(AccumuloStoreConstants.ACCUMULO_ELEMENT_CONVERTER_CLASS)) {
+            throw new IllegalArgumentException("Must specify the " + AccumuloStoreConstants.ACCUMULO_ELEMENT_CONVERTER_CLASS);
+        }
+        if (options.containsKey(AccumuloStoreConstants.TOP_NEIGHBOURS)
+                && Integer.parseInt(options.get(AccumuloStoreConstants.TOP_NEIGHBOURS)) < 0) {
+            throw new IllegalArgumentException(AccumuloStoreConstants.TOP_NEIGHBOURS + " must not be negative");
+        }
+        return true;
+    }
+
+    @Override
+    public void init(final SortedKeyValueIterator<Key, Value> source, final Map<String, String> options, final IteratorEnvironment env) throws IOException {
+        super.init(source, options, env);
+        validateOptions(options);
+        topNeighbours = options.containsKey(AccumuloStoreConstants.TOP_NEIGHBOURS)
+                ? Integer.parseInt(options.get(AccumuloStoreConstants.TOP_NEIGHBOURS)) : 0;
+        summaryKeyConverter = SummaryKeyConverter.fromIteratorOptions(options);
+    }
+
+    @Override
+    public SortedKeyValueIterator<Key, Value> deepCopy(final IteratorEnvironment env) {
+        final VertexSummaryIterator copy = new VertexSummaryIterator();
+        copy.setSource(getSource().deepCopy(env));
+        copy.topNeighbours = topNeighbours;
+        copy.summaryKeyConverter = summaryKeyConverter;
+        return copy;
+    }
+
+    @Override
+    public void seek(final Range range, final Collection<ByteSequence> columnFamilies, final boolean inclusive) throws IOException {
+        Range seekRange = range;
+        if (!range.isInfiniteStartKey() && !range.isStartKeyInclusive()) {
+            // The previous result summarised the whole of this row and column family, so skip the rest of it
+            final Key followingKey = range.getStartKey().followingKey(PartialKey.ROW_COLFAM);
+            if (range.afterEndKey(followingKey)) {
+                topKey = null;
+                topValue = null;
+                return;
+            }
+            seekRange = new Range(followingKey, true, range.getEndKey(), range.isEndKeyInclusive());
+        }
+        super.seek(seekRange, columnFamilies, inclusive);
+        findTop();
+    }
+
+    @Override
+    public void next() throws IOException {
+        findTop();
+    }
+
+    @Override
+    public Key getTopKey() {
+        return topKey;
+    }
+
+    @Override
+    public Value getTopValue() {
+        return topValue;
+    }
+
+    @Override
+    public boolean hasTop() {
+        return null != topKey;
+    }
+
+    private void findTop() throws IOException {
+        topKey = null;
+        topValue = null;
+        final SortedKeyValueIterator<Key, Value> source = getSource();
+        if (!source.hasTop()) {
+            return;
+        }
+
+        final Key groupKey = new Key(source.getTopKey().getRow(), source.getTopKey().getColumnFamily());
+        final long[] degrees = new long[3];
+        final long[] edgeCounts = new long[3];
+        long entityCount = 0;
+        final PriorityQueue<NeighbourCount> top = new PriorityQueue<>(Math.max(1, topNeighbours), LOWEST_COUNT_FIRST);
+        NeighbourCount current = null;
+        Key propertiesKey = null;
+        final List<Value> properties = new ArrayList<>();
+        while (source.hasTop() && source.getTopKey().equals(groupKey, PartialKey.ROW_COLFAM)) {
+            final Key key = source.getTopKey();
+            final byte[] columnQualifier = key.getColumnQualifierData().toArray();
+            if (!key.isDeleted() && columnQualifier.length > 0) {
+                if (SummaryKeyConverter.PROPERTIES == columnQualifier[0]) {
+                    // Properties with different visibilities are aggregated together
+                    propertiesKey = new Key(key);
+                    properties.add(new Value(source.getTopValue()));
+                    source.next();
+                    continue;
+                }
+                final long count = SummaryKeyConverter.getCountFromValue(source.getTopValue());
+                final int index = getDirectionIndex(columnQualifier[0]);
+                if (index < 0) {
+                    entityCount += count;
+                } else {
+                    // Keys for the same neighbour with different visibilities are adjacent
+                    if (null == current || !Arrays.equals(current.columnQualifier, columnQualifier)) {
+                        offer(top, current);
+                        current = new NeighbourCount(columnQualifier);
+                        degrees[index]++;
+                    }
+                    current.count += count;
+                    edgeCounts[index] += count;
+                }
+            }
+            source.next();
+        }
+        offer(top, current);
+
+        final List<NeighbourCount> neighbours = new ArrayList<>(top);
+        neighbours.sort(LOWEST_COUNT_FIRST.reversed());
+
+        final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        CompactRawSerialisationUtils.write(entityCount, stream);
+        for (final long degree : degrees) {
+            CompactRawSerialisationUtils.write(degree, stream);
+        }
+        for (final long edgeCount : edgeCounts) {
+            CompactRawSerialisationUtils.write(edgeCount, stream);
+        }
+        CompactRawSerialisationUtils.write(neighbours.size(), stream);
+        for (final NeighbourCount neighbour : neighbours) {
+            CompactRawSerialisationUtils.write(neighbour.columnQualifier.length, stream);
+            stream.write(neighbour.columnQualifier);
+            CompactRawSerialisationUtils.write(neighbour.count, stream);
+        }
+        final byte[] aggregatedProperties = null != propertiesKey
+                ? summaryKeyConverter.combine(propertiesKey, properties.iterator()).get() : new byte[0];
+        CompactRawSerialisationUtils.write(aggregatedProperties.length, stream);
+        stream.write(aggregatedProperties);
+
+        topKey = groupKey;
+        topValue = new Value(stream.toByteArray());
+    }
+
+    private void offer(final PriorityQueue<NeighbourCount> top, final NeighbourCount neighbour) {
+        if (null == neighbour || topNeighbours < 1) {
+            return;
+        }
+        if (top.size() < topNeighbours) {
+            top.add(neighbour);
+        } else if (LOWEST_COUNT_FIRST.compare(neighbour, top.peek()) > 0) {
+            top.poll();
+            top.add(neighbour);
+        }
+    }
+
+    static int getDirectionIndex(final byte type) {
+        switch (type) {
+            case SummaryKeyConverter.OUTGOING:
+                return 0;
+            case SummaryKeyConverter.INCOMING:
+                return 1;
+            case SummaryKeyConverter.UNDIRECTED:
+                return 2;
+            default:
+                return -1;
+        }
+    }
+
+    private static final class NeighbourCount {
+        private final byte[] columnQualifier;
+        private long count;
+
+        private NeighbourCount(final byte[] columnQualifier) {
+            this.columnQualifier = columnQualifier;
+        }
+    }
+}
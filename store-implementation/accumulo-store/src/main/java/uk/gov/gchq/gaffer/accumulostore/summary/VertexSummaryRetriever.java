@@ -0,0 +1,179 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.accumulostore.summary;
+
+import org.apache.accumulo.core.client.BatchScanner;
+import org.apache.accumulo.core.client.IteratorSetting;
+import org.apache.accumulo.core.client.TableNotFoundException;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.security.Authorizations;
+import org.apache.hadoop.io.Text;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import uk.gov.gchq.gaffer.accumulostore.AccumuloStore;
+import uk.gov.gchq.gaffer.accumulostore.key.exception.AccumuloElementConversionException;
+import uk.gov.gchq.gaffer.accumulostore.utils.AccumuloStoreConstants;
+import uk.gov.gchq.gaffer.accumulostore.utils.IteratorSettingBuilder;
+import uk.gov.gchq.gaffer.commonutil.CloseableUtil;
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterator;
+import uk.gov.gchq.gaffer.data.element.id.EntityId;
+import uk.gov.gchq.gaffer.store.StoreException;
+import uk.gov.gchq.gaffer.user.User;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A {@code VertexSummaryRetriever} looks up the {@link VertexSummary}s of the
+ * provided vertices in the summary table. The seeds are looked up in batches
+ * of {@code accumulo.entriesForBatchScanner} and each vertex and group is
+ * reduced on the tablet servers by the {@link VertexSummaryIterator}.
+ */
+public class VertexSummaryRetriever implements CloseableIterable<VertexSummary> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(VertexSummaryRetriever.class);
+
+    private final AccumuloStore store;
+    private final Iterable<? extends EntityId> ids;
+    private final Set<String> groups;
+    private final int topNeighbours;
+    private final Authorizations authorisations;
+    private final SummaryKeyConverter summaryKeyConverter;
+    private CloseableIterator<VertexSummary> iterator;
+
+    public VertexSummaryRetriever(final AccumuloStore store, final Iterable<? extends EntityId> ids,
+                                  final Set<String> groups, final int topNeighbours, final User user) {
+        this.store = store;
+        this.ids = ids;
+        this.groups = null != groups ? groups : Collections.emptySet();
+        this.topNeighbours = topNeighbours;
+        this.summaryKeyConverter = store.getSummaryKeyConverter();
+        if (null != user && null != user.getDataAuths()) {
+            this.authorisations = new Authorizations(
+                    user.getDataAuths().toArray(new String[user.getDataAuths().size()]));
+        } else {
+            this.authorisations = new Authorizations();
+        }
+    }
+
+    /**
+     * Only 1 iterator can be open at a time.
+     *
+     * @return a closeable iterator of vertex summaries.
+     */
+    @Override
+    public CloseableIterator<VertexSummary> iterator() {
+        CloseableUtil.close(iterator);
+        iterator = new SummaryIterator(null != ids ? ids.iterator() : Collections.emptyIterator());
+        return iterator;
+    }
+
+    @Override
+    public void close() {
+        CloseableUtil.close(iterator);
+    }
+
+    private BatchScanner getScanner(final Set<Range> ranges) throws TableNotFoundException, StoreException {
+        final BatchScanner scanner = store.getConnection().createBatchScanner(store.getSummaryTableName(),
+                authorisations, store.getProperties().getThreadsForBatchScanner());
+        final IteratorSetting iteratorSetting = new IteratorSettingBuilder(AccumuloStoreConstants.VERTEX_SUMMARY_ITERATOR_PRIORITY,
+                AccumuloStoreConstants.VERTEX_SUMMARY_ITERATOR_NAME, VertexSummaryIterator.class)
+                .option(AccumuloStoreConstants.TOP_NEIGHBOURS, Integer.toString(topNeighbours))
+                .schema(store.getSchema())
+                .keyConverter(store.getKeyPackage().getKeyConverter())
+                .build();
+        scanner.addScanIterator(iteratorSetting);
+        scanner.setRanges(ranges);
+        for (final String group : groups) {
+            scanner.fetchColumnFamily(new Text(summaryKeyConverter.getColumnFamily(group)));
+        }
+        LOGGER.debug("Initialised BatchScanner on table {} with {} ranges", store.getSummaryTableName(), ranges.size());
+        return scanner;
+    }
+
+    private class SummaryIterator implements CloseableIterator<VertexSummary> {
+        private final Iterator<? extends EntityId> idsIterator;
+        private BatchScanner scanner;
+        private Iterator<Entry<Key, Value>> scannerIterator = Collections.emptyIterator();
+
+        SummaryIterator(final Iterator<? extends EntityId> idsIterator) {
+            this.idsIterator = idsIterator;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!scannerIterator.hasNext()) {
+                closeScanner();
+                if (!idsIterator.hasNext()) {
+                    return false;
+                }
+
+                final Set<Range> ranges = new HashSet<>();
+                int count = 0;
+                while (idsIterator.hasNext() && count < store.getProperties().getMaxEntriesForBatchScanner()) {
+                    count++;
+                    try {
+                        ranges.add(Range.exact(new Text(summaryKeyConverter.serialiseVertex(idsIterator.next().getVertex()))));
+                    } catch (final AccumuloElementConversionException e) {
+                        LOGGER.error("Failed to create a range from given seed", e);
+                    }
+                }
+                if (ranges.isEmpty()) {
+                    continue;
+                }
+
+                try {
+                    scanner = getScanner(ranges);
+                } catch (final TableNotFoundException | StoreException e) {
+                    LOGGER.error("{} returning iterator doesn't have any more vertex summaries", e.getMessage(), e);
+                    return false;
+                }
+                scannerIterator = scanner.iterator();
+            }
+            return true;
+        }
+
+        @Override
+        public VertexSummary next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final Entry<Key, Value> entry = scannerIterator.next();
+            return summaryKeyConverter.getVertexSummary(entry.getKey(), entry.getValue());
+        }
+
+        @Override
+        public void close() {
+            closeScanner();
+            CloseableUtil.close(idsIterator);
+        }
+
+        private void closeScanner() {
+            if (null != scanner) {
+                scanner.close();
+                scanner = null;
+            }
+        }
+    }
+}
@@ -28,6 +28,11 @@ public final class AccumuloStoreConstants {
     public static final String COLUMN_QUALIFIER_AGGREGATOR_ITERATOR_NAME = "Column_Qualifier_Aggregator";
     public static final String ROW_ID_AGGREGATOR_ITERATOR_NAME = "Row_ID_Aggregator";
     public static final String RANGE_ELEMENT_PROPERTY_FILTER_ITERATOR_NAME = "Range_Element_Property_Filter";
+    public static final String SUMMARY_COMBINER_ITERATOR_NAME = "Summary_Combiner";
+    public static final String VERTEX_SUMMARY_ITERATOR_NAME = "Vertex_Summary";
+
+    // Suffix added to the table name to give the name of the summary table
+    public static final String SUMMARY_TABLE_SUFFIX = "_summary";
 
     // Converter class to be used in iterators must be on classpath of all
     // iterators
@@ -57,7 +62,9 @@ public final class AccumuloStoreConstants {
     public static final String DEDUPLICATE_UNDIRECTED_EDGES = "Deduplicate_Undirected_Edges";
     public static final String BLOOM_FILTER = "Bloom_Filter";
     public static final String BLOOM_FILTER_CHARSET = "ISO-8859-1";
+    public static final String SEED_FILTER = "Seed_Filter";
     public static final String COLUMN_FAMILY = "columnFamily";
+    public static final String TOP_NEIGHBOURS = "Top_Neighbours";
 
     // Iterator priorities
     // Applied during major compactions, minor compactions  and scans.
@@ -78,6 +85,10 @@ public final class AccumuloStoreConstants {
     public static final int COLUMN_QUALIFIER_AGGREGATOR_ITERATOR_PRIORITY = 36;
     // Applied only during scans.
     public static final int ELEMENT_POST_AGGREGATION_FILTER_ITERATOR_PRIORITY = 37;
+    // Applied to the summary table during major compactions, minor compactions and scans.
+    public static final int SUMMARY_COMBINER_ITERATOR_PRIORITY = 10;
+    // Applied to the summary table only during scans.
+    public static final int VERTEX_SUMMARY_ITERATOR_PRIORITY = 30;
 
     // Operations options
     public static final String ADD_ELEMENTS_FROM_HDFS_SKIP_IMPORT = "accumulostore.operation.hdfs.skip_import";
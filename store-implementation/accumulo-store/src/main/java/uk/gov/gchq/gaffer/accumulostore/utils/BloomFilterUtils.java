@@ -89,4 +89,36 @@ public final class BloomFilterUtils {
     public static BloomFilter getBloomFilter(final int size) {
         return new BloomFilter(size, 13, Hash.MURMUR_HASH);
     }
+
+    /**
+     * Returns a {@link SeedFilter} that holds up to the given number of
+     * vertices exactly, and then becomes a Bloom filter of the necessary size
+     * to achieve the given false positive rate (subject to the given maximum
+     * size), configured with the optimal number of hash functions.
+     *
+     * @param falsePositiveRate the false positive rate
+     * @param numItemsToBeAdded the number of items to be added
+     * @param maximumSize       the maximum size
+     * @param maxExactSize      the maximum number of vertices to hold exactly
+     * @return A new SeedFilter with the desired Settings
+     */
+    public static SeedFilter getSeedFilter(final double falsePositiveRate, final int numItemsToBeAdded,
+            final int maximumSize, final int maxExactSize) {
+        final int numItems = Math.max(1, numItemsToBeAdded);
+        final int size = Math.max(1, calculateBloomFilterSize(falsePositiveRate, numItems, maximumSize));
+        final int numHashes = calculateNumHashes(size, numItems);
+        return new SeedFilter(maxExactSize, size, numHashes);
+    }
+
+    /**
+     * Returns a {@link SeedFilter} whose Bloom filter is of the given size.
+     * It holds vertices exactly for as long as that takes no more memory than
+     * the Bloom filter would.
+     *
+     * @param size the size of the bloom filter to create
+     * @return A new SeedFilter of the desired size
+     */
+    public static SeedFilter getSeedFilter(final int size) {
+        return new SeedFilter(size / 64, size, 13);
+    }
 }
@@ -38,6 +38,31 @@ public final class ByteUtils {
         return bytes1.length - bytes2.length;
     }
 
+    /**
+     * Compares a range of bytes with an array of bytes lexicographically,
+     * treating each byte as unsigned. This is the order Accumulo sorts keys in
+     * and the order preserved by ordered serialisers.
+     *
+     * @param bytes1  the bytes containing the range to compare
+     * @param offset1 the start of the range
+     * @param length1 the length of the range
+     * @param bytes2  the bytes to compare the range with
+     * @return a negative number, zero or a positive number as the range is
+     * less than, equal to or greater than the second array of bytes
+     */
+    public static int compareUnsignedBytes(final byte[] bytes1, final int offset1, final int length1, final byte[] bytes2) {
+        final int minLength = Math.min(length1, bytes2.length);
+        for (int i = 0; i < minLength; i++) {
+            final int b1 = bytes1[offset1 + i] & 0xff;
+            final int b2 = bytes2[i] & 0xff;
+            if (b1 != b2) {
+                return b1 - b2;
+            }
+        }
+
+        return length1 - bytes2.length;
+    }
+
     /**
      * Copy of the isEqual method in {@link org.apache.accumulo.core.data.Key}.
      *
@@ -92,6 +92,16 @@ public class IteratorSettingBuilder {
         return this;
     }
 
+    public IteratorSettingBuilder seedFilter(final SeedFilter filter) throws IteratorSettingException {
+        try {
+            setting.addOption(AccumuloStoreConstants.SEED_FILTER, new String(filter.toByteArray(), AccumuloStoreConstants.BLOOM_FILTER_CHARSET));
+        } catch (final UnsupportedEncodingException e) {
+            throw new IteratorSettingException("Failed to encode the seed filter to a string", e);
+        }
+
+        return this;
+    }
+
     public IteratorSettingBuilder includeEdges(final boolean includeEdges) {
         if (includeEdges) {
             setting.addOption(AccumuloStoreConstants.INCLUDE_EDGES, "true");
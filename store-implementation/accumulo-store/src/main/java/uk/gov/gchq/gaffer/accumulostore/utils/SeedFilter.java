@@ -0,0 +1,344 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.accumulostore.utils;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * A {@code SeedFilter} is a compact set membership filter for serialised
+ * vertices, used to filter out edges whose other end is not in a set of seeds.
+ * <p>
+ * Each vertex is hashed once to 64 bits. While the filter holds no more than
+ * {@code maxExactSize} vertices it keeps their sorted hashes, so membership
+ * tests are exact apart from 64 bit hash collisions. When more vertices are
+ * added it switches to a blocked Bloom filter: all the bits for a vertex are
+ * set within a single 512 bit block, i.e. one cache line, so a membership test
+ * reads one block rather than one random word per hash function.
+ * <p>
+ * The filter can be serialised with {@link #toByteArray()} and recreated with
+ * {@link #fromByteArray(byte[])} to pass it to an iterator.
+ */
+public class SeedFilter {
+    private static final byte EXACT = 0;
+    private static final byte BLOOM = 1;
+    private static final int LONGS_PER_BLOCK = 8;
+    private static final int BITS_PER_BLOCK = 64 * LONGS_PER_BLOCK;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final long MURMUR_MULTIPLIER = 0xc6a4a7935bd1e995L;
+    private static final int MURMUR_SHIFT = 47;
+    private static final long LCG_MULTIPLIER = 6364136223846793005L;
+    private static final long LCG_INCREMENT = 1442695040888963407L;
+
+    private final int maxExactSize;
+    private final int numBlocks;
+    private final int numHashes;
+
+    private long[] hashes;
+    private int size;
+    private int sortedSize;
+    private long[] bits;
+    private int version;
+
+    /**
+     * @param maxExactSize  the maximum number of vertices to hold exactly
+     *                      before switching to a Bloom filter
+     * @param sizeInBits    the size in bits of the Bloom filter, rounded up to
+     *                      a whole number of blocks
+     * @param numHashes     the number of hash functions the Bloom filter uses
+     */
+    public SeedFilter(final int maxExactSize, final int sizeInBits, final int numHashes) {
+        if (maxExactSize < 0) {
+            throw new IllegalArgumentException("maxExactSize must not be negative");
+        }
+        if (sizeInBits < 1 || numHashes < 1) {
+            throw new IllegalArgumentException("sizeInBits and numHashes must be at least 1");
+        }
+        this.maxExactSize = maxExactSize;
+        this.numBlocks = (int) ((sizeInBits + (long) BITS_PER_BLOCK - 1) / BITS_PER_BLOCK);
+        this.numHashes = numHashes;
+        if (0 == maxExactSize) {
+            bits = new long[numBlocks * LONGS_PER_BLOCK];
+        } else {
+            hashes = new long[Math.min(INITIAL_CAPACITY, maxExactSize)];
+        }
+    }
+
+    private SeedFilter(final long[] hashes) {
+        this.maxExactSize = hashes.length;
+        this.numBlocks = 1;
+        this.numHashes = 1;
+        this.hashes = hashes;
+        this.size = hashes.length;
+        this.sortedSize = hashes.length;
+    }
+
+    private SeedFilter(final int numBlocks, final int numHashes, final long[] bits) {
+        this.maxExactSize = 0;
+        this.numBlocks = numBlocks;
+        this.numHashes = numHashes;
+        this.bits = bits;
+    }
+
+    /**
+     * Adds a serialised vertex to the filter.
+     *
+     * @param vertex the serialised vertex
+     */
+    public void add(final byte[] vertex) {
+        final long hash = hash(vertex, 0, vertex.length);
+        if (null != bits) {
+            if (setBits(hash)) {
+                version++;
+            }
+            return;
+        }
+
+        if (size == hashes.length) {
+            if (size < maxExactSize) {
+                hashes = Arrays.copyOf(hashes, (int) Math.min(2L * size, maxExactSize));
+            } else {
+                compact();
+                if (Arrays.binarySearch(hashes, 0, size, hash) >= 0) {
+                    return;
+                }
+                if (size == maxExactSize) {
+                    switchToBloomFilter();
+                    if (setBits(hash)) {
+                        version++;
+                    }
+                    return;
+                }
+            }
+        }
+        hashes[size++] = hash;
+        version++;
+    }
+
+    /**
+     * Tests whether a serialised vertex may have been added to the filter.
+     *
+     * @param vertex the serialised vertex
+     * @return false if the vertex was definitely not added, otherwise true
+     */
+    public boolean mightContain(final byte[] vertex) {
+        return mightContain(vertex, 0, vertex.length);
+    }
+
+    /**
+     * Tests whether a serialised vertex held in a range of bytes may have
+     * been added to the filter, without copying the range.
+     *
+     * @param bytes  the bytes containing the serialised vertex
+     * @param offset the start of the serialised vertex
+     * @param length the length of the serialised vertex
+     * @return false if the vertex was definitely not added, otherwise true
+     */
+    public boolean mightContain(final byte[] bytes, final int offset, final int length) {
+        final long hash = hash(bytes, offset, length);
+        if (null != bits) {
+            return testBits(hash);
+        }
+        compact();
+        return Arrays.binarySearch(hashes, 0, size, hash) >= 0;
+    }
+
+    /**
+     * @return true if the filter holds the hashes of its vertices rather than
+     * a Bloom filter
+     */
+    public boolean isExact() {
+        return null == bits;
+    }
+
+    /**
+     * Gets a number that changes whenever the filter changes, so a serialised
+     * copy of the filter can be reused until it is out of date.
+     *
+     * @return the version of the filter
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Serialises the filter. Only the hashes or the bits are written, so an
+     * exact filter of n vertices takes 8n bytes.
+     *
+     * @return the serialised filter
+     */
+    public byte[] toByteArray() {
+        final ByteBuffer buffer;
+        if (null != bits) {
+            buffer = ByteBuffer.allocate(1 + 4 + 4 + 8 * bits.length);
+            buffer.put(BLOOM);
+            buffer.putInt(numHashes);
+            buffer.putInt(numBlocks);
+            buffer.asLongBuffer().put(bits);
+        } else {
+            compact();
+            buffer = ByteBuffer.allocate(1 + 4 + 8 * size);
+            buffer.put(EXACT);
+            buffer.putInt(size);
+            buffer.asLongBuffer().put(hashes, 0, size);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Recreates a filter serialised with {@link #toByteArray()}. The
+     * recreated filter is intended for membership tests only.
+     *
+     * @param bytes the serialised filter
+     * @return the filter
+     */
+    public static SeedFilter fromByteArray(final byte[] bytes) {
+        final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        final byte type = buffer.get();
+        if (EXACT == type) {
+            final long[] hashes = new long[buffer.getInt()];
+            buffer.asLongBuffer().get(hashes);
+            return new SeedFilter(hashes);
+        }
+        if (BLOOM == type) {
+            final int numHashes = buffer.getInt();
+            final int numBlocks = buffer.getInt();
+            final long[] bits = new long[numBlocks * LONGS_PER_BLOCK];
+            buffer.asLongBuffer().get(bits);
+            return new SeedFilter(numBlocks, numHashes, bits);
+        }
+        throw new IllegalArgumentException("Unknown seed filter type: " + type);
+    }
+
+    private void switchToBloomFilter() {
+        bits = new long[numBlocks * LONGS_PER_BLOCK];
+        for (int i = 0; i < size; i++) {
+            setBits(hashes[i]);
+        }
+        hashes = null;
+        size = 0;
+        sortedSize = 0;
+    }
+
+    /**
+     * Sorts the hashes added since the last call and merges them into the
+     * sorted hashes, removing duplicates.
+     */
+    private void compact() {
+        if (sortedSize == size) {
+            return;
+        }
+        Arrays.sort(hashes, sortedSize, size);
+
+        // Merge from the back so only the new hashes need copying
+        final long[] added = Arrays.copyOfRange(hashes, sortedSize, size);
+        int i = sortedSize - 1;
+        int j = added.length - 1;
+        for (int k = size - 1; j >= 0; k--) {
+            if (i >= 0 && hashes[i] > added[j]) {
+                hashes[k] = hashes[i--];
+            } else {
+                hashes[k] = added[j--];
+            }
+        }
+
+        int n = 1;
+        for (int k = 1; k < size; k++) {
+            if (hashes[k] != hashes[n - 1]) {
+                hashes[n++] = hashes[k];
+            }
+        }
+        size = n;
+        sortedSize = n;
+    }
+
+    private boolean setBits(final long hash) {
+        final int offset = getBlock(hash) * LONGS_PER_BLOCK;
+        boolean changed = false;
+        long h = hash;
+        for (int i = 0; i < numHashes; i++) {
+            h = h * LCG_MULTIPLIER + LCG_INCREMENT;
+            final int bit = (int) (h >>> 55);
+            final long mask = 1L << bit;
+            final int word = offset + (bit >>> 6);
+            if (0 == (bits[word] & mask)) {
+                bits[word] |= mask;
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    private boolean testBits(final long hash) {
+        final int offset = getBlock(hash) * LONGS_PER_BLOCK;
+        long h = hash;
+        for (int i = 0; i < numHashes; i++) {
+            h = h * LCG_MULTIPLIER + LCG_INCREMENT;
+            final int bit = (int) (h >>> 55);
+            if (0 == (bits[offset + (bit >>> 6)] & (1L << bit))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int getBlock(final long hash) {
+        return (int) (((hash >>> 32) * numBlocks) >>> 32);
+    }
+
+    /**
+     * MurmurHash64A of a range of bytes.
+     *
+     * @param bytes  the bytes
+     * @param offset the offset of the range
+     * @param length the length of the range
+     * @return the hash of the range
+     */
+    static long hash(final byte[] bytes, final int offset, final int length) {
+        long h = length * MURMUR_MULTIPLIER;
+        final int end = offset + (length & ~7);
+        int i = offset;
+        for (; i < end; i += 8) {
+            long k = (bytes[i] & 0xffL)
+                    | (bytes[i + 1] & 0xffL) << 8
+                    | (bytes[i + 2] & 0xffL) << 16
+                    | (bytes[i + 3] & 0xffL) << 24
+                    | (bytes[i + 4] & 0xffL) << 32
+                    | (bytes[i + 5] & 0xffL) << 40
+                    | (bytes[i + 6] & 0xffL) << 48
+                    | (bytes[i + 7] & 0xffL) << 56;
+            k *= MURMUR_MULTIPLIER;
+            k ^= k >>> MURMUR_SHIFT;
+            k *= MURMUR_MULTIPLIER;
+            h ^= k;
+            h *= MURMUR_MULTIPLIER;
+        }
+
+        final int remaining = length & 7;
+        if (remaining > 0) {
+            for (int j = remaining - 1; j >= 0; j--) {
+                h ^= (bytes[i + j] & 0xffL) << (8 * j);
+            }
+            h *= MURMUR_MULTIPLIER;
+        }
+
+        h ^= h >>> MURMUR_SHIFT;
+        h *= MURMUR_MULTIPLIER;
+        h ^= h >>> MURMUR_SHIFT;
+        return h;
+    }
+}
@@ -40,6 +40,7 @@ import uk.gov.gchq.gaffer.accumulostore.AccumuloStore;
 import uk.gov.gchq.gaffer.accumulostore.key.AccumuloRuntimeException;
 import uk.gov.gchq.gaffer.accumulostore.key.core.impl.CoreKeyBloomFunctor;
 import uk.gov.gchq.gaffer.accumulostore.key.exception.IteratorSettingException;
+import uk.gov.gchq.gaffer.accumulostore.summary.SummaryCombiner;
 import uk.gov.gchq.gaffer.store.StoreException;
 import uk.gov.gchq.koryphe.ValidationResult;
 
@@ -169,6 +170,47 @@ public final class TableUtils {
         setLocalityGroups(store);
     }
 
+    /**
+     * Ensures that the summary table exists, otherwise it creates it. The
+     * summary table has the versioning iterator removed and a
+     * {@link SummaryCombiner} added for all scopes, so the counts written for
+     * identical keys are added together and their properties are aggregated.
+     *
+     * @param store the accumulo store
+     * @throws StoreException if a connection to accumulo could not be created or there is a failure to create the table/iterator
+     */
+    public static synchronized void ensureSummaryTableExists(final AccumuloStore store) throws StoreException {
+        final String tableName = store.getSummaryTableName();
+        final Connector connector = store.getConnection();
+        if (connector.tableOperations().exists(tableName)) {
+            return;
+        }
+        try {
+            LOGGER.info("Creating summary table {} as user {}", tableName, connector.whoami());
+            connector.tableOperations().create(tableName);
+            final String repFactor = store.getProperties().getTableFileReplicationFactor();
+            if (null != repFactor) {
+                connector.tableOperations().setProperty(tableName, Property.TABLE_FILE_REPLICATION.getKey(), repFactor);
+            }
+
+            LOGGER.info("Removing versioning iterator from summary table {}", tableName);
+            connector.tableOperations().removeIterator(tableName, "vers", EnumSet.allOf(IteratorScope.class));
+
+            LOGGER.info("Adding summary combiner to summary table {} for all scopes", tableName);
+            final IteratorSetting combinerSetting = new IteratorSettingBuilder(AccumuloStoreConstants.SUMMARY_COMBINER_ITERATOR_PRIORITY,
+                    AccumuloStoreConstants.SUMMARY_COMBINER_ITERATOR_NAME, SummaryCombiner.class)
+                    .all()
+                    .schema(store.getSchema())
+                    .keyConverter(store.getKeyPackage().getKeyConverter())
+                    .build();
+            connector.tableOperations().attachIterator(tableName, combinerSetting);
+        } catch (final TableExistsException e) {
+            // Someone else got there first, never mind...
+        } catch (final AccumuloSecurityException | TableNotFoundException | AccumuloException e) {
+            throw new StoreException(e.getMessage(), e);
+        }
+    }
+
     public static void setLocalityGroups(final AccumuloStore store) throws StoreException {
         final String tableName = store.getTableName();
         Map<String, Set<Text>> localityGroups =
@@ -247,8 +289,7 @@ public final class TableUtils {
      * gaffer.accumulostore properties
      * @throws StoreException if the table could not be found or other table issues
      */
-
-    private static BatchWriter createBatchWriter(final AccumuloStore store, final String tableName)
+    public static BatchWriter createBatchWriter(final AccumuloStore store, final String tableName)
             throws StoreException {
         final BatchWriterConfig batchConfig = new BatchWriterConfig();
         batchConfig.setMaxMemory(store.getProperties().getMaxBufferSizeForBatchWriterInBytes());
@@ -259,7 +300,7 @@ public final class TableUtils {
             return store.getConnection().createBatchWriter(tableName, batchConfig);
         } catch (final TableNotFoundException e) {
             throw new StoreException("Table not set up! Use table gaffer.accumulostore.utils to create the table"
-                    + store.getTableName(), e);
+                    + tableName, e);
         }
     }
 
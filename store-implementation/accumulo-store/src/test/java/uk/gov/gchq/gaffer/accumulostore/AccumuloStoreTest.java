@@ -21,6 +21,7 @@ import org.apache.accumulo.core.client.AccumuloException;
 import org.apache.accumulo.core.client.AccumuloSecurityException;
 import org.apache.accumulo.core.client.Connector;
 import org.apache.accumulo.core.client.TableNotFoundException;
+import org.apache.hadoop.io.Text;
 import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.BeforeClass;
@@ -82,12 +83,18 @@ import uk.gov.gchq.koryphe.impl.binaryoperator.StringConcat;
 import uk.gov.gchq.koryphe.impl.binaryoperator.Sum;
 import uk.gov.gchq.koryphe.impl.predicate.IsMoreThan;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static uk.gov.gchq.gaffer.store.StoreTrait.INGEST_AGGREGATION;
@@ -143,6 +150,41 @@ public class AccumuloStoreTest {
         assertTrue(connector.tableOperations().exists(byteEntityStore.getTableName()));
     }
 
+    @Test
+    public void shouldCacheTableSplitsUntilTheCacheTimesOut() throws Exception {
+        // Given
+        final AccumuloProperties properties = PROPERTIES.clone();
+        properties.setSplitsCacheTimeoutForBatchScannerInMilliseconds("3600000");
+        final SingleUseMockAccumuloStore store = new SingleUseMockAccumuloStore();
+        store.initialise("splitsGraph", SCHEMA, properties);
+        assertTrue(store.getTableSplits().isEmpty());
+        store.getConnection().tableOperations().addSplits(store.getTableName(), new TreeSet<>(Collections.singleton(new Text("5"))));
+
+        // When
+        final Collection<Text> cachedSplits = store.getTableSplits();
+        store.getProperties().setSplitsCacheTimeoutForBatchScannerInMilliseconds("0");
+        final Collection<Text> splits = store.getTableSplits();
+
+        // Then
+        assertTrue(cachedSplits.isEmpty());
+        assertEquals(Collections.singletonList(new Text("5")), new ArrayList<>(splits));
+    }
+
+    @Test
+    public void shouldShareTheScanExecutorUntilReinitialised() throws Exception {
+        // Given
+        final ExecutorService executor = byteEntityStore.getScanExecutor();
+
+        // When
+        final ExecutorService sameExecutor = byteEntityStore.getScanExecutor();
+        byteEntityStore.initialise(BYTE_ENTITY_GRAPH, SCHEMA, PROPERTIES);
+
+        // Then
+        assertSame(executor, sameExecutor);
+        assertTrue(executor.isShutdown());
+        assertNotSame(executor, byteEntityStore.getScanExecutor());
+    }
+
     @Test
     public void shouldCreateAStoreUsingTableName() throws Exception {
         // Given
@@ -36,9 +36,11 @@ import uk.gov.gchq.gaffer.store.schema.Schema;
 import uk.gov.gchq.gaffer.store.schema.SchemaEntityDefinition;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 public class AccumuloEntityValueLoaderTest {
@@ -123,6 +125,42 @@ public class AccumuloEntityValueLoaderTest {
         verify(converter, never()).getPropertiesFromColumnQualifier(Mockito.eq(group), Mockito.any(byte[].class));
     }
 
+    @Test
+    public void shouldDecodeColumnQualifierAndValueOnceWhenGetProperties() throws SerialisationException {
+        // Given
+        final String group = TestGroups.ENTITY;
+        final Key key = mock(Key.class);
+        final Value value = mock(Value.class);
+        final AccumuloElementConverter converter = mock(AccumuloElementConverter.class);
+        final Schema schema = createSchema();
+        final AccumuloEntityValueLoader loader = new AccumuloEntityValueLoader(group, key, value, converter, schema);
+        final LazyProperties lazyProperties = mock(LazyProperties.class);
+        final ByteSequence cqData = mock(ByteSequence.class);
+        given(key.getColumnQualifierData()).willReturn(cqData);
+        final byte[] cqBytes = {0, 1, 2, 3, 4};
+        given(cqData.getBackingArray()).willReturn(cqBytes);
+        final Properties cqProperties = new Properties(TestPropertyNames.PROP_1, "propValue1");
+        given(converter.getPropertiesFromColumnQualifier(group, cqBytes)).willReturn(cqProperties);
+        final Properties valueProperties = new Properties(TestPropertyNames.PROP_3, "propValue3");
+        given(converter.getPropertiesFromValue(group, value)).willReturn(valueProperties);
+
+        // When
+        final Object prop1 = loader.getProperty(TestPropertyNames.PROP_1, lazyProperties);
+        final Object prop2 = loader.getProperty(TestPropertyNames.PROP_2, lazyProperties);
+        final Object prop3 = loader.getProperty(TestPropertyNames.PROP_3, lazyProperties);
+        final Object prop3Again = loader.getProperty(TestPropertyNames.PROP_3, lazyProperties);
+
+        // Then
+        assertEquals("propValue1", prop1);
+        assertNull(prop2);
+        assertEquals("propValue3", prop3);
+        assertEquals("propValue3", prop3Again);
+        verify(converter, times(1)).getPropertiesFromColumnQualifier(group, cqBytes);
+        verify(converter, times(1)).getPropertiesFromValue(group, value);
+        verify(lazyProperties).putAll(cqProperties);
+        verify(lazyProperties).putAll(valueProperties);
+    }
+
     @Test
     public void shouldLoadAllVisibilityPropertiesWhenGetVisProperty() throws SerialisationException {
         // Given
@@ -30,6 +30,7 @@ import uk.gov.gchq.gaffer.commonutil.TestPropertyNames;
 import uk.gov.gchq.gaffer.commonutil.pair.Pair;
 import uk.gov.gchq.gaffer.data.element.Edge;
 import uk.gov.gchq.gaffer.data.element.Entity;
+import uk.gov.gchq.gaffer.data.element.LazyEdge;
 import uk.gov.gchq.gaffer.data.element.Properties;
 import uk.gov.gchq.gaffer.data.element.id.EdgeId;
 import uk.gov.gchq.gaffer.data.element.id.ElementId;
@@ -290,6 +291,33 @@ public abstract class AbstractAccumuloElementConverterTest<T extends AccumuloEle
         assertEquals(8, deSerialisedProperties.get(AccumuloPropertyNames.COUNT));
     }
 
+    @Test
+    public void shouldGetLazyElementEqualToFullElement() {
+        // Given
+        final Edge edge = new Edge.Builder()
+                .group(TestGroups.EDGE)
+                .source("1")
+                .dest("2")
+                .directed(true)
+                .property(AccumuloPropertyNames.COLUMN_QUALIFIER, 100)
+                .property(AccumuloPropertyNames.PROP_3, 299)
+                .property(AccumuloPropertyNames.COUNT, 8)
+                .build();
+        final Key key = converter.getKeysFromElement(edge).getFirst();
+        final Value value = converter.getValueFromElement(edge);
+
+        // When
+        final Edge lazyEdge = (Edge) converter.getLazyElement(key, value, false);
+
+        // Then
+        assertEquals(299, lazyEdge.getProperty(AccumuloPropertyNames.PROP_3));
+        assertEquals(100, lazyEdge.getProperty(AccumuloPropertyNames.COLUMN_QUALIFIER));
+        assertEquals("1", lazyEdge.getSource());
+        assertEquals("2", lazyEdge.getDestination());
+        assertEquals(8, lazyEdge.getProperty(AccumuloPropertyNames.COUNT));
+        assertEquals(converter.getFullElement(key, value, false), ((LazyEdge) lazyEdge).getElement());
+    }
+
     @Test
     public void shouldSerialiseAndDeSerialiseBetweenPropertyAndValueWithNullProperty() {
         Properties properties = new Properties();
@@ -0,0 +1,214 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.accumulostore.key;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.junit.Test;
+
+import uk.gov.gchq.gaffer.accumulostore.key.core.impl.byteEntity.ByteEntityAccumuloElementConverter;
+import uk.gov.gchq.gaffer.commonutil.TestGroups;
+import uk.gov.gchq.gaffer.data.element.Edge;
+import uk.gov.gchq.gaffer.data.element.function.ElementFilter;
+import uk.gov.gchq.gaffer.serialisation.implementation.StringSerialiser;
+import uk.gov.gchq.gaffer.serialisation.implementation.TreeSetStringSerialiser;
+import uk.gov.gchq.gaffer.serialisation.implementation.ordered.OrderedLongSerialiser;
+import uk.gov.gchq.gaffer.serialisation.implementation.raw.CompactRawLongSerialiser;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+import uk.gov.gchq.gaffer.store.schema.SchemaEdgeDefinition;
+import uk.gov.gchq.gaffer.store.schema.TypeDefinition;
+import uk.gov.gchq.koryphe.impl.predicate.Exists;
+import uk.gov.gchq.koryphe.impl.predicate.IsA;
+import uk.gov.gchq.koryphe.impl.predicate.IsEqual;
+import uk.gov.gchq.koryphe.impl.predicate.IsIn;
+import uk.gov.gchq.koryphe.impl.predicate.IsLessThan;
+import uk.gov.gchq.koryphe.impl.predicate.IsMoreThan;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SerialisedPropertyFilterTest {
+    private static final List<Long> COUNTS = Arrays.asList(null, Long.MIN_VALUE, -10L, -1L, 0L, 1L, 5L, 10L, 300L, Long.MAX_VALUE);
+    private static final List<String> NAMES = Arrays.asList(null, "", "a", "b", "ba", "c");
+
+    private final Schema schema = new Schema.Builder()
+            .type("string", new TypeDefinition.Builder()
+                    .clazz(String.class)
+                    .serialiser(new StringSerialiser())
+                    .build())
+            .type("long", new TypeDefinition.Builder()
+                    .clazz(Long.class)
+                    .serialiser(new OrderedLongSerialiser())
+                    .build())
+            .type("compactLong", new TypeDefinition.Builder()
+                    .clazz(Long.class)
+                    .serialiser(new CompactRawLongSerialiser())
+                    .build())
+            .type("set", new TypeDefinition.Builder()
+                    .clazz(TreeSet.class)
+                    .serialiser(new TreeSetStringSerialiser())
+                    .build())
+            .edge(TestGroups.EDGE, new SchemaEdgeDefinition.Builder()
+                    .source("string")
+                    .destination("string")
+                    .property("name", "string")
+                    .property("set", "set")
+                    .property("count", "long")
+                    .property("compactCount", "compactLong")
+                    .groupBy("name")
+                    .build())
+            .vertexSerialiser(new StringSerialiser())
+            .build();
+
+    private final ByteEntityAccumuloElementConverter converter = new ByteEntityAccumuloElementConverter(schema);
+
+    @Test
+    public void shouldEvaluateRangePredicatesOnSerialisedValueProperty() {
+        assertSameResultsForCounts(new IsMoreThan(5L));
+        assertSameResultsForCounts(new IsMoreThan(5L, true));
+        assertSameResultsForCounts(new IsLessThan(0L));
+        assertSameResultsForCounts(new IsLessThan(0L, true));
+        assertSameResultsForCounts(new IsMoreThan(Long.MIN_VALUE, true));
+    }
+
+    @Test
+    public void shouldEvaluateEqualityPredicatesOnSerialisedValueProperty() {
+        assertSameResultsForCounts(new IsEqual(10L));
+        assertSameResultsForCounts(new IsIn(-1L, 300L, null));
+        assertSameResultsForCounts(new Exists());
+    }
+
+    @Test
+    public void shouldEvaluatePredicatesOnSerialisedGroupByProperty() {
+        assertSameResultsForNames(new IsEqual("b"));
+        assertSameResultsForNames(new IsIn("a", "ba"));
+        assertSameResultsForNames(new IsMoreThan("b"));
+        assertSameResultsForNames(new IsLessThan("b", true));
+        assertSameResultsForNames(new Exists());
+    }
+
+    @Test
+    public void shouldOnlyCompileRangePredicatesForOrderedSerialisers() {
+        // Given
+        final ElementFilter filter = new ElementFilter.Builder()
+                .select("compactCount")
+                .execute(new IsMoreThan(5L))
+                .build();
+
+        // When
+        final SerialisedPropertyFilter serialisedFilter = SerialisedPropertyFilter.compile(TestGroups.EDGE, filter, schema);
+
+        // Then
+        assertNull(serialisedFilter);
+    }
+
+    @Test
+    public void shouldNotCompileControlValuesOfADifferentClass() {
+        // Given
+        final ElementFilter filter = new ElementFilter.Builder()
+                .select("count")
+                .execute(new IsEqual(10))
+                .build();
+
+        // When
+        final SerialisedPropertyFilter serialisedFilter = SerialisedPropertyFilter.compile(TestGroups.EDGE, filter, schema);
+
+        // Then
+        assertNull(serialisedFilter);
+    }
+
+    @Test
+    public void shouldPartiallyCompileFiltersWithUnsupportedPredicates() {
+        // Given
+        final ElementFilter filter = new ElementFilter.Builder()
+                .select("count")
+                .execute(new IsMoreThan(5L))
+                .select("set")
+                .execute(new IsA(TreeSet.class))
+                .build();
+
+        // When
+        final SerialisedPropertyFilter serialisedFilter = SerialisedPropertyFilter.compile(TestGroups.EDGE, filter, schema);
+
+        // Then
+        assertFalse(serialisedFilter.isComplete());
+        assertFalse(serialisedFilter.test(getKey("a", 1L), getValue("a", 1L)));
+        assertTrue(serialisedFilter.test(getKey("a", 10L), getValue("a", 10L)));
+    }
+
+    private void assertSameResultsForCounts(final Predicate predicate) {
+        final ElementFilter filter = new ElementFilter.Builder()
+                .select("count")
+                .execute(predicate)
+                .build();
+        final SerialisedPropertyFilter serialisedFilter = SerialisedPropertyFilter.compile(TestGroups.EDGE, filter, schema);
+        assertTrue(serialisedFilter.isComplete());
+
+        for (final Long count : COUNTS) {
+            final Key key = getKey("a", count);
+            final Value value = getValue("a", count);
+            final boolean expected = filter.test(converter.getFullElement(key, value, false));
+            assertEquals(predicate + " on " + count, expected, serialisedFilter.test(key, value));
+        }
+    }
+
+    private void assertSameResultsForNames(final Predicate predicate) {
+        final ElementFilter filter = new ElementFilter.Builder()
+                .select("name")
+                .execute(predicate)
+                .build();
+        final SerialisedPropertyFilter serialisedFilter = SerialisedPropertyFilter.compile(TestGroups.EDGE, filter, schema);
+        assertTrue(serialisedFilter.isComplete());
+
+        for (final String name : NAMES) {
+            final Key key = getKey(name, 1L);
+            final Value value = getValue(name, 1L);
+            final boolean expected = filter.test(converter.getFullElement(key, value, false));
+            assertEquals(predicate + " on " + name, expected, serialisedFilter.test(key, value));
+        }
+    }
+
+    private Edge createEdge(final String name, final Long count) {
+        final TreeSet<String> set = new TreeSet<>();
+        set.add("x");
+        return new Edge.Builder()
+                .group(TestGroups.EDGE)
+                .source("source")
+                .dest("dest")
+                .directed(true)
+                .property("name", name)
+                .property("set", set)
+                .property("count", count)
+                .property("compactCount", count)
+                .build();
+    }
+
+    private Key getKey(final String name, final Long count) {
+        return converter.getKeysFromElement(createEdge(name, count)).getFirst();
+    }
+
+    private Value getValue(final String name, final Long count) {
+        return converter.getValueFromElement(createEdge(name, count));
+    }
+}
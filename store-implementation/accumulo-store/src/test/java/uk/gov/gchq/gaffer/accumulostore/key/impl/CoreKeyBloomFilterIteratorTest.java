@@ -59,5 +59,18 @@ public class CoreKeyBloomFilterIteratorTest {
         // Then
         assertTrue(result);
     }
-}
 
+    @Test
+    public void shouldValidateOptionsWithSeedFilterSuccessfully() throws OperationException, IOException {
+        // Given
+        final CoreKeyBloomFilterIterator filter = new CoreKeyBloomFilterIterator();
+        final Map<String, String> options = new HashMap<>();
+        options.put(AccumuloStoreConstants.SEED_FILTER, "some value");
+
+        // When
+        final boolean result = filter.validateOptions(options);
+
+        // Then
+        assertTrue(result);
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.accumulostore.operation.handler;
+
+import com.google.common.collect.Lists;
+import org.junit.Before;
+import org.junit.Test;
+
+import uk.gov.gchq.gaffer.accumulostore.AccumuloProperties;
+import uk.gov.gchq.gaffer.accumulostore.AccumuloStore;
+import uk.gov.gchq.gaffer.accumulostore.SingleUseMockAccumuloStore;
+import uk.gov.gchq.gaffer.accumulostore.operation.impl.GetVertexSummaries;
+import uk.gov.gchq.gaffer.accumulostore.summary.VertexSummary;
+import uk.gov.gchq.gaffer.accumulostore.summary.VertexSummary.Direction;
+import uk.gov.gchq.gaffer.accumulostore.summary.VertexSummary.Neighbour;
+import uk.gov.gchq.gaffer.accumulostore.utils.AccumuloPropertyNames;
+import uk.gov.gchq.gaffer.commonutil.StreamUtil;
+import uk.gov.gchq.gaffer.commonutil.TestGroups;
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
+import uk.gov.gchq.gaffer.data.element.Edge;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.Entity;
+import uk.gov.gchq.gaffer.operation.OperationException;
+import uk.gov.gchq.gaffer.operation.data.EntitySeed;
+import uk.gov.gchq.gaffer.operation.impl.add.AddElements;
+import uk.gov.gchq.gaffer.store.Context;
+import uk.gov.gchq.gaffer.store.StoreException;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+import uk.gov.gchq.gaffer.user.User;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class GetVertexSummariesHandlerTest {
+    private static final Schema SCHEMA = Schema.fromJson(StreamUtil.schemas(GetVertexSummariesHandlerTest.class));
+    private static final AccumuloProperties PROPERTIES = AccumuloProperties.loadStoreProperties(StreamUtil.storeProps(GetVertexSummariesHandlerTest.class));
+
+    private AccumuloStore store;
+
+    @Before
+    public void setup() throws StoreException, OperationException {
+        final AccumuloProperties properties = PROPERTIES.clone();
+        properties.setSummaryTableEnabled(true);
+        store = new SingleUseMockAccumuloStore();
+        store.initialise("summaryGraph", SCHEMA, properties);
+
+        final List<Element> elements = Lists.newArrayList(
+                new Entity.Builder().group(TestGroups.ENTITY).vertex("A").property(AccumuloPropertyNames.COUNT, 1).build(),
+                createEdge("A", "B", true, 1),
+                createEdge("A", "B", true, 2),
+                createEdge("A", "C", true, 1),
+                createEdge("D", "A", true, 1),
+                createEdge("A", "E", false, 1));
+        store.execute(new AddElements.Builder().input(elements).build(), new Context(new User()));
+    }
+
+    @Test
+    public void shouldGetDegreesAndCountsOfAVertex() throws OperationException {
+        // Given
+        final GetVertexSummaries op = new GetVertexSummaries.Builder()
+                .input(new EntitySeed("A"))
+                .topNeighbours(1)
+                .build();
+
+        // When
+        final List<VertexSummary> results = execute(op);
+
+        // Then
+        assertEquals(2, results.size());
+        final VertexSummary entitySummary = getSummary(results, TestGroups.ENTITY);
+        assertEquals("A", entitySummary.getVertex());
+        assertEquals(1L, entitySummary.getEntityCount());
+        assertEquals(0L, entitySummary.getDegree());
+        assertEquals(1, entitySummary.getProperties().get(AccumuloPropertyNames.COUNT));
+
+        final VertexSummary edgeSummary = getSummary(results, TestGroups.EDGE);
+        assertEquals("A", edgeSummary.getVertex());
+        assertEquals(0L, edgeSummary.getEntityCount());
+        assertEquals(2L, edgeSummary.getOutDegree());
+        assertEquals(3L, edgeSummary.getOutEdgeCount());
+        assertEquals(1L, edgeSummary.getInDegree());
+        assertEquals(1L, edgeSummary.getInEdgeCount());
+        assertEquals(1L, edgeSummary.getUndirectedDegree());
+        assertEquals(1L, edgeSummary.getUndirectedEdgeCount());
+        assertEquals(Collections.singletonList(new Neighbour("B", Direction.OUTGOING, 2L)), edgeSummary.getTopNeighbours());
+        assertEquals(5, edgeSummary.getProperties().get(AccumuloPropertyNames.COUNT));
+    }
+
+    @Test
+    public void shouldOnlyGetSummariesOfRequestedGroups() throws OperationException {
+        // Given
+        final GetVertexSummaries op = new GetVertexSummaries.Builder()
+                .input(new EntitySeed("A"), new EntitySeed("B"))
+                .groups(TestGroups.EDGE)
+                .build();
+
+        // When
+        final List<VertexSummary> results = execute(op);
+
+        // Then
+        assertEquals(2, results.size());
+        for (final VertexSummary summary : results) {
+            assertEquals(TestGroups.EDGE, summary.getGroup());
+            assertTrue(summary.getTopNeighbours().isEmpty());
+        }
+    }
+
+    @Test
+    public void shouldNotReturnSummariesOfUnknownVertices() throws OperationException {
+        // Given
+        final GetVertexSummaries op = new GetVertexSummaries.Builder()
+                .input(new EntitySeed("Z"))
+                .build();
+
+        // When
+        final List<VertexSummary> results = execute(op);
+
+        // Then
+        assertTrue(results.isEmpty());
+    }
+
+    @Test
+    public void shouldFailWhenTheSummaryTableIsNotEnabled() throws StoreException {
+        // Given
+        final AccumuloStore storeWithoutSummaries = new SingleUseMockAccumuloStore();
+        storeWithoutSummaries.initialise("noSummaryGraph", SCHEMA, PROPERTIES);
+        final GetVertexSummaries op = new GetVertexSummaries.Builder()
+                .input(new EntitySeed("A"))
+                .build();
+
+        // When / Then
+        try {
+            new GetVertexSummariesHandler().doOperation(op, new Context(new User()), storeWithoutSummaries);
+            fail("Exception expected");
+        } catch (final OperationException e) {
+            assertTrue(e.getMessage().contains("summary table is not enabled"));
+        }
+    }
+
+    private List<VertexSummary> execute(final GetVertexSummaries op) throws OperationException {
+        final List<VertexSummary> results = new ArrayList<>();
+        try (final CloseableIterable<VertexSummary> summaries = new GetVertexSummariesHandler().doOperation(op, new Context(new User()), store)) {
+            for (final VertexSummary summary : summaries) {
+                results.add(summary);
+            }
+        }
+        return results;
+    }
+
+    private static VertexSummary getSummary(final List<VertexSummary> summaries, final String group) {
+        for (final VertexSummary summary : summaries) {
+            if (group.equals(summary.getGroup())) {
+                return summary;
+            }
+        }
+        throw new AssertionError("No summary for group " + group);
+    }
+
+    private static Edge createEdge(final String source, final String destination, final boolean directed, final int columnQualifier) {
+        return new Edge.Builder()
+                .group(TestGroups.EDGE)
+                .source(source)
+                .dest(destination)
+                .directed(directed)
+                .property(AccumuloPropertyNames.COLUMN_QUALIFIER, columnQualifier)
+                .property(AccumuloPropertyNames.COUNT, 1)
+                .build();
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.accumulostore.operation.hdfs.mapper;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.mapreduce.Counter;
+import org.apache.hadoop.mapreduce.Mapper;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import uk.gov.gchq.gaffer.accumulostore.AccumuloProperties;
+import uk.gov.gchq.gaffer.accumulostore.key.core.impl.byteEntity.ByteEntityAccumuloElementConverter;
+import uk.gov.gchq.gaffer.accumulostore.operation.hdfs.handler.job.factory.AccumuloAddElementsFromHdfsJobFactoryTest;
+import uk.gov.gchq.gaffer.accumulostore.summary.SummaryKeyConverter;
+import uk.gov.gchq.gaffer.accumulostore.utils.AccumuloStoreConstants;
+import uk.gov.gchq.gaffer.commonutil.StreamUtil;
+import uk.gov.gchq.gaffer.commonutil.StringUtil;
+import uk.gov.gchq.gaffer.commonutil.TestGroups;
+import uk.gov.gchq.gaffer.data.element.Entity;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static uk.gov.gchq.gaffer.hdfs.operation.handler.job.factory.JobFactory.MAPPER_GENERATOR;
+import static uk.gov.gchq.gaffer.hdfs.operation.handler.job.factory.JobFactory.SCHEMA;
+import static uk.gov.gchq.gaffer.hdfs.operation.handler.job.factory.JobFactory.VALIDATE;
+
+public class AddElementsFromHdfsMapperTest {
+    private static final Schema SCHEMA_OBJ = Schema.fromJson(StreamUtil.schemas(AddElementsFromHdfsMapperTest.class));
+
+    @Test
+    public void shouldWriteMarkedSummaryKeysWhenSummaryTableIsEnabled() throws IOException, InterruptedException {
+        // Given
+        final Mapper.Context context = createContext(true);
+        final AddElementsFromHdfsMapper<Object, Object> mapper = new AddElementsFromHdfsMapper<>();
+        mapper.setup(context);
+
+        // When
+        mapper.map(new Entity(TestGroups.ENTITY, "A"), context);
+
+        // Then
+        final ArgumentCaptor<Key> keys = ArgumentCaptor.forClass(Key.class);
+        verify(context, times(3)).write(keys.capture(), any(Value.class));
+        final List<Key> writtenKeys = keys.getAllValues();
+        assertFalse(SummaryKeyConverter.isMarkedForShuffle(writtenKeys.get(0)));
+        assertTrue(SummaryKeyConverter.isMarkedForShuffle(writtenKeys.get(1)));
+        assertTrue(SummaryKeyConverter.isMarkedForShuffle(writtenKeys.get(2)));
+    }
+
+    @Test
+    public void shouldOnlyWriteElementKeysWhenSummaryTableIsDisabled() throws IOException, InterruptedException {
+        // Given
+        final Mapper.Context context = createContext(false);
+        final AddElementsFromHdfsMapper<Object, Object> mapper = new AddElementsFromHdfsMapper<>();
+        mapper.setup(context);
+
+        // When
+        mapper.map(new Entity(TestGroups.ENTITY, "A"), context);
+
+        // Then
+        final ArgumentCaptor<Key> keys = ArgumentCaptor.forClass(Key.class);
+        verify(context, times(1)).write(keys.capture(), any(Value.class));
+        assertFalse(SummaryKeyConverter.isMarkedForShuffle(keys.getValue()));
+    }
+
+    private Mapper.Context createContext(final boolean summaryTableEnabled) {
+        final Mapper.Context context = mock(Mapper.Context.class);
+        final Configuration conf = new Configuration();
+        conf.set(SCHEMA, StringUtil.toString(SCHEMA_OBJ.toCompactJson()));
+        conf.set(MAPPER_GENERATOR, AccumuloAddElementsFromHdfsJobFactoryTest.TextMapperGeneratorImpl.class.getName());
+        conf.set(VALIDATE, "false");
+        conf.set(AccumuloStoreConstants.ACCUMULO_ELEMENT_CONVERTER_CLASS, ByteEntityAccumuloElementConverter.class.getName());
+        conf.setBoolean(AccumuloProperties.SUMMARY_TABLE_ENABLED, summaryTableEnabled);
+        given(context.getConfiguration()).willReturn(conf);
+        given(context.getCounter(any(), any())).willReturn(mock(Counter.class));
+        return context;
+    }
+}
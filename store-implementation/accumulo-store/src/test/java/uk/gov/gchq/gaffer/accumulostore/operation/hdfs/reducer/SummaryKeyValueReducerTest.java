@@ -0,0 +1,106 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.accumulostore.operation.hdfs.reducer;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.mapreduce.Counter;
+import org.apache.hadoop.mapreduce.Reducer;
+import org.apache.hadoop.mapreduce.lib.output.MultipleOutputs;
+import org.junit.Test;
+
+import uk.gov.gchq.gaffer.accumulostore.key.core.impl.byteEntity.ByteEntityAccumuloElementConverter;
+import uk.gov.gchq.gaffer.accumulostore.summary.SummaryKeyConverter;
+import uk.gov.gchq.gaffer.accumulostore.utils.AccumuloStoreConstants;
+import uk.gov.gchq.gaffer.commonutil.StreamUtil;
+import uk.gov.gchq.gaffer.commonutil.StringUtil;
+import uk.gov.gchq.gaffer.commonutil.TestGroups;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static uk.gov.gchq.gaffer.hdfs.operation.handler.job.factory.JobFactory.SCHEMA;
+
+public class SummaryKeyValueReducerTest {
+    private static final Schema SCHEMA_OBJ = Schema.fromJson(StreamUtil.schemas(SummaryKeyValueReducerTest.class));
+
+    @Test
+    public void shouldCombineSummaryKeysAndWriteThemToTheSummaryOutput() throws IOException, InterruptedException {
+        // Given
+        final Key summaryKey = new Key("A", TestGroups.EDGE, "OB");
+        final Reducer.Context context = createContext(SummaryKeyConverter.markForShuffle(new Key(summaryKey)),
+                Arrays.asList(SummaryKeyConverter.createCountValue(1L), SummaryKeyConverter.createCountValue(2L)));
+        final MultipleOutputs<Key, Value> multipleOutputs = mock(MultipleOutputs.class);
+        final SummaryKeyValueReducer reducer = createReducer(multipleOutputs);
+
+        // When
+        reducer.run(context);
+
+        // Then
+        verify(multipleOutputs).write(SummaryKeyValueReducer.SUMMARY_OUTPUT, summaryKey,
+                SummaryKeyConverter.createCountValue(3L), SummaryKeyValueReducer.SUMMARY_OUTPUT + "/part");
+        verify(multipleOutputs).close();
+        verify(context, never()).write(any(), any());
+    }
+
+    @Test
+    public void shouldWriteElementKeysToTheJobOutput() throws IOException, InterruptedException {
+        // Given
+        final Key elementKey = new Key("A", TestGroups.EDGE, "B");
+        final Value value = new Value(new byte[0]);
+        final Reducer.Context context = createContext(elementKey, Collections.singletonList(value));
+        final MultipleOutputs<Key, Value> multipleOutputs = mock(MultipleOutputs.class);
+        final SummaryKeyValueReducer reducer = createReducer(multipleOutputs);
+
+        // When
+        reducer.run(context);
+
+        // Then
+        verify(context).write(elementKey, value);
+        verify(multipleOutputs, never()).write(any(), any(), any(), any());
+    }
+
+    private SummaryKeyValueReducer createReducer(final MultipleOutputs<Key, Value> multipleOutputs) {
+        return new SummaryKeyValueReducer() {
+            @Override
+            protected MultipleOutputs<Key, Value> createMultipleOutputs(final Context context) {
+                return multipleOutputs;
+            }
+        };
+    }
+
+    private Reducer.Context createContext(final Key key, final Iterable<Value> values) throws IOException, InterruptedException {
+        final Reducer.Context context = mock(Reducer.Context.class);
+        final Configuration conf = new Configuration();
+        conf.set(SCHEMA, StringUtil.toString(SCHEMA_OBJ.toCompactJson()));
+        conf.set(AccumuloStoreConstants.ACCUMULO_ELEMENT_CONVERTER_CLASS, ByteEntityAccumuloElementConverter.class.getName());
+        given(context.nextKey()).willReturn(true, false);
+        given(context.getCurrentKey()).willReturn(key);
+        given(context.getValues()).willReturn(values);
+        given(context.getConfiguration()).willReturn(conf);
+        given(context.getCounter(any(), any())).willReturn(mock(Counter.class));
+        return context;
+    }
+}
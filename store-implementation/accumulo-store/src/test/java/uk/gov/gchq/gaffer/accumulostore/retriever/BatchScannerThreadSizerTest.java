@@ -0,0 +1,103 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.accumulostore.retriever;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class BatchScannerThreadSizerTest {
+
+    @Test
+    public void shouldStartWithInitialThreadsWithinMax() {
+        assertEquals(5, new BatchScannerThreadSizer(5, 10).getThreads());
+        assertEquals(10, new BatchScannerThreadSizer(20, 10).getThreads());
+        assertEquals(1, new BatchScannerThreadSizer(0, 10).getThreads());
+    }
+
+    @Test
+    public void shouldIncreaseThreadsWhileLatencyIsSteady() {
+        // Given
+        final BatchScannerThreadSizer sizer = new BatchScannerThreadSizer(2, 4);
+
+        // When
+        sizer.record(10, 1000);
+        sizer.record(10, 1000);
+        sizer.record(20, 2000);
+
+        // Then
+        assertEquals(4, sizer.getThreads());
+
+        // When
+        sizer.record(10, 1000);
+
+        // Then
+        assertEquals(4, sizer.getThreads());
+    }
+
+    @Test
+    public void shouldHalveThreadsWhenLatencyGrows() {
+        // Given
+        final BatchScannerThreadSizer sizer = new BatchScannerThreadSizer(8, 10);
+        sizer.record(10, 1000);
+
+        // When
+        sizer.record(10, 2000);
+
+        // Then
+        assertEquals(4, sizer.getThreads());
+    }
+
+    @Test
+    public void shouldKeepThreadsWhenLatencyGrowsSlightly() {
+        // Given
+        final BatchScannerThreadSizer sizer = new BatchScannerThreadSizer(8, 10);
+        sizer.record(10, 1000);
+
+        // When
+        sizer.record(10, 1300);
+
+        // Then
+        assertEquals(8, sizer.getThreads());
+    }
+
+    @Test
+    public void shouldNotDropBelowOneThread() {
+        // Given
+        final BatchScannerThreadSizer sizer = new BatchScannerThreadSizer(1, 10);
+        sizer.record(1, 1000);
+
+        // When
+        sizer.record(1, 100000);
+
+        // Then
+        assertEquals(1, sizer.getThreads());
+    }
+
+    @Test
+    public void shouldIgnoreEmptyBatches() {
+        // Given
+        final BatchScannerThreadSizer sizer = new BatchScannerThreadSizer(3, 10);
+
+        // When
+        sizer.record(0, 1000);
+        sizer.record(10, 1000);
+
+        // Then
+        assertEquals(3, sizer.getThreads());
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.accumulostore.retriever;
+
+import org.apache.accumulo.core.data.Range;
+import org.apache.hadoop.io.Text;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ScanPlannerTest {
+
+    @Test
+    public void shouldSortAndMergeOverlappingRanges() {
+        // Given
+        final ScanPlanner planner = new ScanPlanner(Collections.emptyList(), 10);
+
+        // When
+        final List<List<Range>> batches = planner.plan(Arrays.asList(
+                new Range("c", "e"),
+                new Range("a", "b"),
+                new Range("d", "f"),
+                new Range("a", "b")));
+
+        // Then
+        assertEquals(Collections.singletonList(Arrays.asList(
+                new Range("a", "b"),
+                new Range("c", "f"))), batches);
+    }
+
+    @Test
+    public void shouldGroupRangesByTablet() {
+        // Given
+        final ScanPlanner planner = new ScanPlanner(Arrays.asList(new Text("m"), new Text("f")), 2);
+
+        // When
+        final List<List<Range>> batches = planner.plan(Arrays.asList(
+                new Range("a"), new Range("b"),
+                new Range("g"), new Range("h"),
+                new Range("x")));
+
+        // Then
+        assertEquals(Arrays.asList(
+                Arrays.asList(new Range("a"), new Range("b")),
+                Arrays.asList(new Range("g"), new Range("h")),
+                Collections.singletonList(new Range("x"))), batches);
+    }
+
+    @Test
+    public void shouldPackConsecutiveTabletsIntoABatchWithoutSplittingATablet() {
+        // Given
+        final ScanPlanner planner = new ScanPlanner(Arrays.asList(new Text("f"), new Text("m")), 3);
+
+        // When
+        final List<List<Range>> batches = planner.plan(Arrays.asList(
+                new Range("a"), new Range("g"), new Range("n"), new Range("x")));
+
+        // Then
+        assertEquals(Arrays.asList(
+                Arrays.asList(new Range("a"), new Range("g")),
+                Arrays.asList(new Range("n"), new Range("x"))), batches);
+    }
+
+    @Test
+    public void shouldSplitLargeTabletAcrossBatches() {
+        // Given
+        final ScanPlanner planner = new ScanPlanner(Collections.singletonList(new Text("m")), 2);
+
+        // When
+        final List<List<Range>> batches = planner.plan(Arrays.asList(
+                new Range("a"), new Range("b"), new Range("c"), new Range("x")));
+
+        // Then
+        assertEquals(Arrays.asList(
+                Arrays.asList(new Range("a"), new Range("b")),
+                Arrays.asList(new Range("c"), new Range("x"))), batches);
+    }
+
+    @Test
+    public void shouldPlanUnboundedRange() {
+        // Given
+        final ScanPlanner planner = new ScanPlanner(Collections.singletonList(new Text("m")), 2);
+
+        // When
+        final List<List<Range>> batches = planner.plan(Arrays.asList(new Range(), new Range("x")));
+
+        // Then
+        assertEquals(Collections.singletonList(Collections.singletonList(new Range())), batches);
+    }
+
+    @Test
+    public void shouldReturnNoBatchesForNoRanges() {
+        // Given
+        final ScanPlanner planner = new ScanPlanner(null, 2);
+
+        // When / Then
+        assertTrue(planner.plan(Collections.emptyList()).isEmpty());
+    }
+
+    @Test
+    public void shouldNotAllowEmptyBatches() {
+        try {
+            new ScanPlanner(Collections.emptyList(), 0);
+            fail("Exception expected");
+        } catch (final IllegalArgumentException e) {
+            assertEquals("Max ranges per batch must be at least 1, but was: 0", e.getMessage());
+        }
+    }
+}
@@ -16,6 +16,7 @@
 
 package uk.gov.gchq.gaffer.accumulostore.retriever.impl;
 
+import com.google.common.collect.Sets;
 import org.apache.accumulo.core.client.TableExistsException;
 import org.apache.hadoop.util.bloom.BloomFilter;
 import org.apache.hadoop.util.bloom.Key;
@@ -467,6 +468,36 @@ public class AccumuloIDWithinSetRetrieverTest {
         assertThat(a1A23Results, IsCollectionContaining.hasItems(AccumuloTestData.A1_ENTITY, AccumuloTestData.A2_ENTITY));
     }
 
+    @Test
+    public void shouldSkipElementsThatCannotBeDecodedFromByteEntityStore() throws Exception {
+        shouldSkipElementsThatCannotBeDecoded(byteEntityStore);
+    }
+
+    @Test
+    public void shouldSkipElementsThatCannotBeDecodedFromGaffer1Store() throws Exception {
+        shouldSkipElementsThatCannotBeDecoded(gaffer1KeyStore);
+    }
+
+    private void shouldSkipElementsThatCannotBeDecoded(final AccumuloStore store) throws Exception {
+        // Given
+        AccumuloTestData.addUndecodableEntity(store, "corrupt");
+        final GetElementsWithinSet op = new GetElementsWithinSet.Builder()
+                .view(new View.Builder()
+                        .entity(TestGroups.ENTITY)
+                        .build())
+                .input(AccumuloTestData.SEED_A0, AccumuloTestData.SEED_A23, new EntitySeed("corrupt"))
+                .build();
+
+        // When
+        final Set<Element> results = returnElementsFromOperation(store, op, new User(), false);
+        final Set<Element> resultsInMemory = returnElementsFromOperation(store, op, new User(), true);
+
+        // Then
+        final Set<Element> expectedResults = Sets.newHashSet(AccumuloTestData.A0_ENTITY, AccumuloTestData.A23_ENTITY);
+        assertEquals(expectedResults, results);
+        assertEquals(expectedResults, resultsInMemory);
+    }
+
     private static void setupGraph(final AccumuloStore store) {
         try {
             // Create table
@@ -17,7 +17,10 @@
 package uk.gov.gchq.gaffer.accumulostore.retriever.impl;
 
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 import org.apache.accumulo.core.client.AccumuloException;
+import org.apache.hadoop.io.Text;
 import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.BeforeClass;
@@ -27,8 +30,10 @@ import uk.gov.gchq.gaffer.accumulostore.AccumuloProperties;
 import uk.gov.gchq.gaffer.accumulostore.AccumuloStore;
 import uk.gov.gchq.gaffer.accumulostore.SingleUseMockAccumuloStore;
 import uk.gov.gchq.gaffer.accumulostore.key.exception.IteratorSettingException;
+import uk.gov.gchq.gaffer.accumulostore.utils.AccumuloTestData;
 import uk.gov.gchq.gaffer.commonutil.StreamUtil;
 import uk.gov.gchq.gaffer.commonutil.TestGroups;
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterator;
 import uk.gov.gchq.gaffer.data.element.Edge;
 import uk.gov.gchq.gaffer.data.element.Element;
 import uk.gov.gchq.gaffer.data.element.Entity;
@@ -47,11 +52,15 @@ import uk.gov.gchq.gaffer.store.schema.Schema;
 import uk.gov.gchq.gaffer.user.User;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.TreeSet;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.fail;
 
 public class AccumuloSingleIDRetrieverTest {
@@ -114,6 +123,98 @@ public class AccumuloSingleIDRetrieverTest {
         //Should find both i-B and i-C edges and entities i
     }
 
+    @Test
+    public void testEntityIdQueryEdgesAndEntitiesWithAdaptiveScanPlanning() throws Exception {
+        // Given
+        final AccumuloProperties properties = PROPERTIES.clone();
+        properties.setAdaptiveScanPlanning(true);
+        properties.setMaxEntriesForBatchScanner("50");
+        properties.setConcurrentBatchScanners("3");
+        properties.setResultQueueSizeForBatchScanner("10");
+        final AccumuloStore store = new SingleUseMockAccumuloStore();
+        store.initialise("adaptiveGraph", SCHEMA, properties);
+        store.getConnection().tableOperations().addSplits(store.getTableName(),
+                new TreeSet<>(Arrays.asList(new Text("2"), new Text("5"), new Text("8"))));
+        setupGraph(store, NUM_ENTRIES);
+
+        final Set<ElementId> ids = new HashSet<>();
+        for (int i = 0; i < NUM_ENTRIES; i++) {
+            ids.add(new EntitySeed("" + i));
+        }
+        final View view = new View.Builder().edge(TestGroups.EDGE).entity(TestGroups.ENTITY).build();
+        final GetElements operation = new GetElements.Builder().view(view).input(ids).build();
+
+        // When
+        final AccumuloSingleIDRetriever retriever = new AccumuloSingleIDRetriever(store, operation, new User());
+
+        // Then
+        assertEquals(NUM_ENTRIES * 3, Iterables.size(retriever));
+        assertEquals(NUM_ENTRIES * 3, Sets.newHashSet(retriever).size());
+    }
+
+    @Test
+    public void testAdaptiveScanPlanningIteratorCanBeClosedEarly() throws Exception {
+        // Given
+        final AccumuloProperties properties = PROPERTIES.clone();
+        properties.setAdaptiveScanPlanning(true);
+        properties.setMaxEntriesForBatchScanner("10");
+        properties.setResultQueueSizeForBatchScanner("1");
+        final AccumuloStore store = new SingleUseMockAccumuloStore();
+        store.initialise("adaptiveGraph", SCHEMA, properties);
+        setupGraph(store, NUM_ENTRIES);
+
+        final Set<ElementId> ids = new HashSet<>();
+        for (int i = 0; i < NUM_ENTRIES; i++) {
+            ids.add(new EntitySeed("" + i));
+        }
+        final GetElements operation = new GetElements.Builder()
+                .view(new View.Builder().entity(TestGroups.ENTITY).build())
+                .input(ids)
+                .build();
+        final AccumuloSingleIDRetriever retriever = new AccumuloSingleIDRetriever(store, operation, new User());
+
+        // When
+        final CloseableIterator<Element> itr = retriever.iterator();
+        final Element first = itr.next();
+        itr.close();
+
+        // Then
+        assertEquals(TestGroups.ENTITY, first.getGroup());
+        assertFalse(itr.hasNext());
+    }
+
+    @Test(timeout = 60000L)
+    public void testAdaptiveScanPlanningDoesNotStarveOtherQueriesOfScanThreads() throws Exception {
+        // Given
+        final AccumuloProperties properties = PROPERTIES.clone();
+        properties.setAdaptiveScanPlanning(true);
+        properties.setMaxEntriesForBatchScanner("10");
+        properties.setConcurrentBatchScanners("4");
+        properties.setResultQueueSizeForBatchScanner("1");
+        properties.setScanThreadsForBatchScanner("1");
+        final AccumuloStore store = new SingleUseMockAccumuloStore();
+        store.initialise("adaptiveGraph", SCHEMA, properties);
+        setupGraph(store, NUM_ENTRIES);
+
+        final Set<ElementId> ids = new HashSet<>();
+        for (int i = 0; i < NUM_ENTRIES; i++) {
+            ids.add(new EntitySeed("" + i));
+        }
+        final GetElements operation = new GetElements.Builder()
+                .view(new View.Builder().entity(TestGroups.ENTITY).build())
+                .input(ids)
+                .build();
+
+        // When
+        final CloseableIterator<Element> abandonedItr = new AccumuloSingleIDRetriever(store, operation, new User()).iterator();
+        abandonedItr.next();
+        final int count = Iterables.size(new AccumuloSingleIDRetriever(store, operation, new User()));
+        abandonedItr.close();
+
+        // Then
+        assertEquals(NUM_ENTRIES, count);
+    }
+
     @Test
     public void testEntityIdQueryEdgesOnly() throws AccumuloException, StoreException {
         testEntityIdQueryEdgesOnly(byteEntityStore);
@@ -306,6 +407,31 @@ public class AccumuloSingleIDRetrieverTest {
         assertEquals(NUM_ENTRIES * 2, count);
     }
 
+    @Test
+    public void shouldSkipElementsThatCannotBeDecoded() throws Exception {
+        shouldSkipElementsThatCannotBeDecoded(byteEntityStore);
+        shouldSkipElementsThatCannotBeDecoded(gaffer1KeyStore);
+    }
+
+    private void shouldSkipElementsThatCannotBeDecoded(final AccumuloStore store) throws Exception {
+        // Given
+        AccumuloTestData.addUndecodableEntity(store, "corrupt");
+        final View view = new View.Builder()
+                .entity(TestGroups.ENTITY)
+                .build();
+        final GetElements operation = new GetElements.Builder()
+                .view(view)
+                .input(new EntitySeed("corrupt"), new EntitySeed("0"))
+                .build();
+
+        // When
+        final AccumuloSingleIDRetriever<?> retriever = new AccumuloSingleIDRetriever<>(store, operation, new User());
+        final List<Element> results = Lists.newArrayList(retriever);
+
+        // Then
+        assertEquals(Collections.singletonList(new Entity(TestGroups.ENTITY, "0")), results);
+    }
+
     private static void setupGraph(final AccumuloStore store, final int numEntries) {
         final List<Element> elements = new ArrayList<>();
         for (int i = 0; i < numEntries; i++) {
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.accumulostore.summary;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.junit.Test;
+
+import uk.gov.gchq.gaffer.accumulostore.key.core.impl.byteEntity.ByteEntityAccumuloElementConverter;
+import uk.gov.gchq.gaffer.accumulostore.utils.AccumuloPropertyNames;
+import uk.gov.gchq.gaffer.commonutil.StreamUtil;
+import uk.gov.gchq.gaffer.commonutil.TestGroups;
+import uk.gov.gchq.gaffer.commonutil.pair.Pair;
+import uk.gov.gchq.gaffer.data.element.Edge;
+import uk.gov.gchq.gaffer.data.element.Entity;
+import uk.gov.gchq.gaffer.data.element.IdentifierType;
+import uk.gov.gchq.gaffer.data.element.function.ElementFilter;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+import uk.gov.gchq.gaffer.store.schema.SchemaEntityDefinition;
+import uk.gov.gchq.koryphe.impl.predicate.IsEqual;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SummaryKeyConverterTest {
+    private static final Schema SCHEMA = Schema.fromJson(StreamUtil.schemas(SummaryKeyConverterTest.class));
+    private static final String VALIDATED_ENTITY = "ValidatedEntity";
+
+    private final ByteEntityAccumuloElementConverter elementConverter = new ByteEntityAccumuloElementConverter(SCHEMA);
+    private final SummaryKeyConverter converter = new SummaryKeyConverter(SCHEMA, elementConverter);
+
+    @Test
+    public void shouldCreateCountAndPropertiesKeysOnBothVerticesOfAnEdge() {
+        // Given
+        final Edge edge = createEdge(3);
+
+        // When
+        final List<Pair<Key, Value>> keyValues = converter.getKeyValuesFromElement(edge);
+
+        // Then
+        assertEquals(4, keyValues.size());
+        int propertiesKeys = 0;
+        for (final Pair<Key, Value> keyValue : keyValues) {
+            if (SummaryKeyConverter.isPropertiesKey(keyValue.getFirst())) {
+                propertiesKeys++;
+                assertEquals(3, elementConverter.getPropertiesFromValue(TestGroups.EDGE, keyValue.getSecond()).get(AccumuloPropertyNames.COUNT));
+            } else {
+                assertEquals(1L, SummaryKeyConverter.getCountFromValue(keyValue.getSecond()));
+            }
+        }
+        assertEquals(2, propertiesKeys);
+    }
+
+    @Test
+    public void shouldAddCountsAndAggregateProperties() {
+        // Given
+        final Pair<Key, Value> properties1 = getPropertiesKeyValue(converter.getKeyValuesFromElement(createEdge(3)));
+        final Pair<Key, Value> properties2 = getPropertiesKeyValue(converter.getKeyValuesFromElement(createEdge(4)));
+        final Key countKey = converter.getKeyValuesFromElement(createEdge(1)).get(0).getFirst();
+
+        // When
+        final Value properties = converter.combine(properties1.getFirst(), Arrays.asList(properties1.getSecond(), properties2.getSecond()).iterator());
+        final Value count = converter.combine(countKey, Arrays.asList(SummaryKeyConverter.createCountValue(1L), SummaryKeyConverter.createCountValue(2L)).iterator());
+
+        // Then
+        assertEquals(7, elementConverter.getPropertiesFromValue(TestGroups.EDGE, properties).get(AccumuloPropertyNames.COUNT));
+        assertEquals(3L, SummaryKeyConverter.getCountFromValue(count));
+    }
+
+    @Test
+    public void shouldNotSummariseElementsThatFailValidation() {
+        // Given
+        final Schema schema = new Schema.Builder()
+                .merge(SCHEMA)
+                .entity(VALIDATED_ENTITY, new SchemaEntityDefinition.Builder()
+                        .vertex("vertex.string")
+                        .validator(new ElementFilter.Builder()
+                                .select(IdentifierType.VERTEX.name())
+                                .execute(new IsEqual("A"))
+                                .build())
+                        .build())
+                .build();
+        final SummaryKeyConverter validatingConverter = new SummaryKeyConverter(schema, new ByteEntityAccumuloElementConverter(schema), true);
+
+        // When
+        final List<Pair<Key, Value>> validKeyValues = validatingConverter.getKeyValuesFromElement(new Entity(VALIDATED_ENTITY, "A"));
+        final List<Pair<Key, Value>> invalidKeyValues = validatingConverter.getKeyValuesFromElement(new Entity(VALIDATED_ENTITY, "B"));
+
+        // Then
+        assertEquals(1, validKeyValues.size());
+        assertTrue(invalidKeyValues.isEmpty());
+    }
+
+    @Test
+    public void shouldMarkAndUnmarkKeysForTheShuffle() {
+        // Given
+        final Key key = converter.getKeyValuesFromElement(createEdge(1)).get(0).getFirst();
+        final Key original = new Key(key);
+
+        // When
+        final Key marked = SummaryKeyConverter.markForShuffle(key);
+        final Key unmarked = SummaryKeyConverter.unmarkForShuffle(marked);
+
+        // Then
+        assertTrue(SummaryKeyConverter.isMarkedForShuffle(marked));
+        assertFalse(SummaryKeyConverter.isMarkedForShuffle(unmarked));
+        assertEquals(original, unmarked);
+    }
+
+    private static Pair<Key, Value> getPropertiesKeyValue(final List<Pair<Key, Value>> keyValues) {
+        for (final Pair<Key, Value> keyValue : keyValues) {
+            if (SummaryKeyConverter.isPropertiesKey(keyValue.getFirst())) {
+                return keyValue;
+            }
+        }
+        throw new AssertionError("No properties key");
+    }
+
+    private static Edge createEdge(final int count) {
+        return new Edge.Builder()
+                .group(TestGroups.EDGE)
+                .source("A")
+                .dest("B")
+                .directed(true)
+                .property(AccumuloPropertyNames.COLUMN_QUALIFIER, 1)
+                .property(AccumuloPropertyNames.COUNT, count)
+                .build();
+    }
+}
@@ -17,13 +17,25 @@
 package uk.gov.gchq.gaffer.accumulostore.utils;
 
 import com.google.common.collect.Sets;
-
+import org.apache.accumulo.core.client.BatchWriter;
+import org.apache.accumulo.core.client.BatchWriterConfig;
+import org.apache.accumulo.core.client.MutationsRejectedException;
+import org.apache.accumulo.core.client.TableNotFoundException;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.security.ColumnVisibility;
+
+import uk.gov.gchq.gaffer.accumulostore.AccumuloStore;
 import uk.gov.gchq.gaffer.commonutil.TestGroups;
 import uk.gov.gchq.gaffer.data.element.Edge;
 import uk.gov.gchq.gaffer.data.element.Element;
 import uk.gov.gchq.gaffer.data.element.Entity;
 import uk.gov.gchq.gaffer.data.element.id.EntityId;
+import uk.gov.gchq.gaffer.exception.SerialisationException;
 import uk.gov.gchq.gaffer.operation.data.EntitySeed;
+import uk.gov.gchq.gaffer.serialisation.implementation.raw.CompactRawLongSerialiser;
+import uk.gov.gchq.gaffer.store.StoreException;
 
 import java.util.Collections;
 import java.util.Set;
@@ -153,6 +165,40 @@ public final class AccumuloTestData {
                     .property(AccumuloPropertyNames.COUNT, 23)
                     .build();
 
+    /**
+     * Writes an entity directly to the store's table with a value whose
+     * properties cannot be deserialised.
+     *
+     * @param store  the store
+     * @param vertex the vertex of the entity
+     * @throws SerialisationException     if the value cannot be serialised
+     * @throws StoreException             if the store's connection cannot be created
+     * @throws TableNotFoundException     if the store's table does not exist
+     * @throws MutationsRejectedException if the entity cannot be written
+     */
+    public static void addUndecodableEntity(final AccumuloStore store, final String vertex)
+            throws SerialisationException, StoreException, TableNotFoundException, MutationsRejectedException {
+        final Key key = store.getKeyPackage()
+                .getKeyConverter()
+                .getKeysFromElement(new Entity(TestGroups.ENTITY, vertex))
+                .getFirst();
+        // The first property is an integer, so a long value cannot be deserialised
+        final byte[] property = new CompactRawLongSerialiser().serialise(Long.MAX_VALUE);
+        final byte[] value = new byte[property.length + 1];
+        value[0] = (byte) property.length;
+        System.arraycopy(property, 0, value, 1, property.length);
+
+        final Mutation mutation = new Mutation(key.getRow());
+        mutation.put(key.getColumnFamily(), key.getColumnQualifier(), new ColumnVisibility(key.getColumnVisibility()),
+                key.getTimestamp(), new Value(value));
+        final BatchWriter writer = store.getConnection().createBatchWriter(store.getTableName(), new BatchWriterConfig());
+        try {
+            writer.addMutation(mutation);
+        } finally {
+            writer.close();
+        }
+    }
+
     private AccumuloTestData() {
         // private to prevent instantiation
     }
@@ -18,6 +18,7 @@ package uk.gov.gchq.gaffer.accumulostore.utils;
 import org.junit.Before;
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -167,4 +168,13 @@ public class ByteUtilsTest {
     }
 
 
+
+    @Test
+    public void shouldCompareByteRangesAsUnsigned() throws Exception {
+        assertEquals(0, ByteUtils.compareUnsignedBytes(e, 5, 5, a));
+        assertTrue(ByteUtils.compareUnsignedBytes(e, 5, 4, a) < 0);
+        assertTrue(ByteUtils.compareUnsignedBytes(d, 0, d.length, a) > 0);
+        assertTrue(ByteUtils.compareUnsignedBytes(new byte[]{(byte) 0x80}, 0, 1, new byte[]{0x7f}) > 0);
+        assertEquals(0, ByteUtils.compareUnsignedBytes(f, 0, 0, f));
+    }
 }
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.accumulostore.utils;
+
+import org.junit.Test;
+
+import uk.gov.gchq.gaffer.commonutil.StringUtil;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SeedFilterTest {
+    private static final int NUM_SEEDS = 10000;
+
+    @Test
+    public void shouldContainAllAddedVerticesWhenExact() {
+        // Given
+        final SeedFilter filter = new SeedFilter(NUM_SEEDS, 100000, 7);
+
+        // When
+        addSeeds(filter);
+
+        // Then
+        assertTrue(filter.isExact());
+        assertContainsSeeds(filter);
+        assertFalse(filter.mightContain(StringUtil.toBytes("not a seed")));
+    }
+
+    @Test
+    public void shouldContainAllAddedVerticesWhenBloomFilter() {
+        // Given
+        final SeedFilter filter = new SeedFilter(0, 100000, 7);
+
+        // When
+        addSeeds(filter);
+
+        // Then
+        assertFalse(filter.isExact());
+        assertContainsSeeds(filter);
+    }
+
+    @Test
+    public void shouldSwitchToBloomFilterWhenMaxExactSizeExceeded() {
+        // Given
+        final SeedFilter filter = new SeedFilter(100, 100000, 7);
+
+        // When
+        addSeeds(filter);
+
+        // Then
+        assertFalse(filter.isExact());
+        assertContainsSeeds(filter);
+    }
+
+    @Test
+    public void shouldNotCountDuplicatesTowardsMaxExactSize() {
+        // Given
+        final SeedFilter filter = new SeedFilter(10, 100000, 7);
+
+        // When
+        for (int i = 0; i < 100; i++) {
+            filter.add(StringUtil.toBytes("seed" + (i % 10)));
+            filter.mightContain(StringUtil.toBytes("seed0"));
+        }
+
+        // Then
+        assertTrue(filter.isExact());
+    }
+
+    @Test
+    public void shouldHaveFewFalsePositivesWhenBloomFilter() {
+        // Given
+        final SeedFilter filter = BloomFilterUtils.getSeedFilter(0.001, NUM_SEEDS, Integer.MAX_VALUE, 0);
+        addSeeds(filter);
+
+        // When
+        int falsePositives = 0;
+        for (int i = 0; i < 100000; i++) {
+            if (filter.mightContain(StringUtil.toBytes("other" + i))) {
+                falsePositives++;
+            }
+        }
+
+        // Then - allow for the higher false positive rate of a blocked filter
+        assertTrue("Too many false positives: " + falsePositives, falsePositives < 500);
+    }
+
+    @Test
+    public void shouldTestRangesOfBytesAfterSerialisation() {
+        for (final int maxExactSize : new int[]{0, NUM_SEEDS}) {
+            // Given
+            final SeedFilter filter = new SeedFilter(maxExactSize, 100000, 7);
+            addSeeds(filter);
+
+            // When
+            final SeedFilter deserialised = SeedFilter.fromByteArray(filter.toByteArray());
+
+            // Then
+            for (int i = 0; i < NUM_SEEDS; i++) {
+                final byte[] bytes = StringUtil.toBytes("ab" + "seed" + i + "cd");
+                assertTrue(deserialised.mightContain(bytes, 2, bytes.length - 4));
+            }
+        }
+    }
+
+    @Test
+    public void shouldChangeVersionOnlyWhenFilterChanges() {
+        // Given
+        final SeedFilter filter = new SeedFilter(0, 100000, 7);
+        filter.add(StringUtil.toBytes("seed"));
+        final int version = filter.getVersion();
+
+        // When
+        filter.add(StringUtil.toBytes("seed"));
+
+        // Then
+        assertEquals(version, filter.getVersion());
+        filter.add(StringUtil.toBytes("another seed"));
+        assertNotEquals(version, filter.getVersion());
+    }
+
+    private static void addSeeds(final SeedFilter filter) {
+        for (int i = 0; i < NUM_SEEDS; i++) {
+            filter.add(StringUtil.toBytes("seed" + i));
+            if (0 == i % 1000) {
+                // Interleave membership tests with additions as the batched retrievers do
+                filter.mightContain(StringUtil.toBytes("seed0"));
+            }
+        }
+    }
+
+    private static void assertContainsSeeds(final SeedFilter filter) {
+        for (int i = 0; i < NUM_SEEDS; i++) {
+            assertTrue(filter.mightContain(StringUtil.toBytes("seed" + i)));
+        }
+    }
+}
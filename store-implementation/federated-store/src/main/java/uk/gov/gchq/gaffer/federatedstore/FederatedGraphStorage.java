@@ -41,6 +41,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -58,7 +59,9 @@ public class FederatedGraphStorage {
     public static final String ACCESS_IS_NULL = "Can not put graph into storage without a FederatedAccess key.";
     public static final String GRAPH_IDS_NOT_VISIBLE = "The following graphIds are not visible or do not exist: %s";
     public static final String UNABLE_TO_MERGE_THE_SCHEMAS_FOR_ALL_OF_YOUR_FEDERATED_GRAPHS = "Unable to merge the schemas for all of your federated graphs: %s. You can limit which graphs to query for using the operation option: %s";
+    public static final int MERGED_CACHE_MAX_SIZE = 100;
     private Map<FederatedAccess, Set<Graph>> storage = new HashMap<>();
+    private volatile MergedCache mergedCache = new MergedCache();
     private FederatedStoreCache federatedStoreCache = new FederatedStoreCache();
     private Boolean isCacheEnabled = false;
     private GraphLibrary graphLibrary;
@@ -121,6 +124,7 @@ public class FederatedGraphStorage {
                 } else {
                     existingGraphs.add(builtGraph);
                 }
+                invalidateMergedCache();
             } catch (final Exception e) {
                 throw new StorageException("Error adding graph " + graphId + " to storage due to: " + e.getMessage(), e);
             }
@@ -181,6 +185,9 @@ public class FederatedGraphStorage {
                         }
                     }
                     graphs.removeAll(remove);
+                    if (!remove.isEmpty()) {
+                        invalidateMergedCache();
+                    }
                 }
             }
         }
@@ -225,24 +232,24 @@ public class FederatedGraphStorage {
             return getSchema((Map<String, String>) null, context);
         }
 
+        if (!operation.isCompact()) {
+            return getSchema(operation.getOptions(), context.getUser());
+        }
+
         final List<String> graphIds = FederatedStoreUtil.getGraphIds(operation.getOptions());
         final Stream<Graph> graphs = getStream(context.getUser(), graphIds);
         final Builder schemaBuilder = new Builder();
         try {
-            if (operation.isCompact()) {
-                final GetSchema getSchema = new GetSchema.Builder()
-                        .compact(true)
-                        .build();
-                graphs.forEach(g -> {
-                    try {
-                        schemaBuilder.merge(g.execute(getSchema, context));
-                    } catch (final OperationException e) {
-                        throw new RuntimeException("Unable to fetch schema from graph " + g.getGraphId(), e);
-                    }
-                });
-            } else {
-                graphs.forEach(g -> schemaBuilder.merge(g.getSchema()));
-            }
+            final GetSchema getSchema = new GetSchema.Builder()
+                    .compact(true)
+                    .build();
+            graphs.forEach(g -> {
+                try {
+                    schemaBuilder.merge(g.execute(getSchema, context));
+                } catch (final OperationException e) {
+                    throw new RuntimeException("Unable to fetch schema from graph " + g.getGraphId(), e);
+                }
+            });
         } catch (final SchemaException e) {
             final List<String> resultGraphIds = getStream(context.getUser(), graphIds).map(Graph::getGraphId).collect(Collectors.toList());
             throw new SchemaException("Unable to merge the schemas for all of your federated graphs: " + resultGraphIds + ". You can limit which graphs to query for using the operation option: " + KEY_OPERATION_OPTIONS_GRAPH_IDS, e);
@@ -264,22 +271,40 @@ public class FederatedGraphStorage {
         return getSchema(config, context.getUser());
     }
 
+    /**
+     * Merged schemas are cached by the ids of the graphs that were merged, so
+     * the schemas are only merged again when the graphs that are visible to
+     * the user change or a graph is added or removed.
+     *
+     * @param config configuration containing optional graphIds
+     * @param user   the user to match visibility against.
+     * @return merged schema of the visible graphs.
+     */
     public Schema getSchema(final Map<String, String> config, final User user) {
         if (null == user) {
             // no user then return an empty schema
             return new Schema();
         }
 
+        // Get the cache before the graphs so a schema merged from graphs that
+        // have since changed is not added to the new cache.
+        final MergedCache cache = mergedCache;
         final List<String> graphIds = FederatedStoreUtil.getGraphIds(config);
-        final Stream<Graph> graphs = getStream(user, graphIds);
-        final Builder schemaBuilder = new Builder();
-        try {
-            graphs.forEach(g -> schemaBuilder.merge(g.getSchema()));
-        } catch (final SchemaException e) {
-            final List<String> resultGraphIds = getStream(user, graphIds).map(Graph::getGraphId).collect(Collectors.toList());
-            throw new SchemaException(String.format(UNABLE_TO_MERGE_THE_SCHEMAS_FOR_ALL_OF_YOUR_FEDERATED_GRAPHS, resultGraphIds, KEY_OPERATION_OPTIONS_GRAPH_IDS), e);
+        final List<Graph> graphs = getStream(user, graphIds).collect(Collectors.toList());
+        final List<String> resultGraphIds = graphs.stream().map(Graph::getGraphId).collect(Collectors.toList());
+
+        Schema schema = cache.schemas.get(resultGraphIds);
+        if (null == schema) {
+            final Builder schemaBuilder = new Builder();
+            try {
+                graphs.forEach(g -> schemaBuilder.merge(g.getSchema()));
+            } catch (final SchemaException e) {
+                throw new SchemaException(String.format(UNABLE_TO_MERGE_THE_SCHEMAS_FOR_ALL_OF_YOUR_FEDERATED_GRAPHS, resultGraphIds, KEY_OPERATION_OPTIONS_GRAPH_IDS), e);
+            }
+            schema = schemaBuilder.build();
+            cache.schemas.put(resultGraphIds, schema);
         }
-        return schemaBuilder.build();
+        return schema;
     }
 
     /**
@@ -323,14 +348,25 @@ public class FederatedGraphStorage {
      * @return the set of {@link StoreTrait} that are common for all visible graphs
      */
     public Set<StoreTrait> getTraits(final Map<String, String> config, final User user) {
+        final MergedCache cache = mergedCache;
         final List<String> graphIds = FederatedStoreUtil.getGraphIds(config);
-        Collection<Graph> graphs = get(user, graphIds);
-
-        final Set<StoreTrait> traits = graphs.isEmpty() ? Sets.newHashSet() : Sets.newHashSet(StoreTrait.values());
-        for (final Graph graph : graphs) {
-            traits.retainAll(graph.getStoreTraits());
+        final Collection<Graph> graphs = get(user, graphIds);
+        final List<String> resultGraphIds = graphs.stream().map(Graph::getGraphId).collect(Collectors.toList());
+
+        Set<StoreTrait> traits = cache.traits.get(resultGraphIds);
+        if (null == traits) {
+            traits = graphs.isEmpty() ? Sets.newHashSet() : Sets.newHashSet(StoreTrait.values());
+            for (final Graph graph : graphs) {
+                traits.retainAll(graph.getStoreTraits());
+            }
+            traits = Collections.unmodifiableSet(traits);
+            cache.traits.put(resultGraphIds, traits);
         }
-        return traits;
+        return Sets.newHashSet(traits);
+    }
+
+    private void invalidateMergedCache() {
+        mergedCache = new MergedCache();
     }
 
     private void validateAllGivenGraphIdsAreVisibleForUser(final User user, final Collection<String> graphIds) {
@@ -460,6 +496,27 @@ public class FederatedGraphStorage {
 
     }
 
+    /**
+     * The merged schemas and traits for a version of the storage, keyed by the
+     * ids of the graphs they were merged from. A new instance is created each
+     * time a graph is added or removed.
+     */
+    private static final class MergedCache {
+        private final Map<List<String>, Schema> schemas = createLruMap();
+        private final Map<List<String>, Set<StoreTrait>> traits = createLruMap();
+
+        private static <V> Map<List<String>, V> createLruMap() {
+            return Collections.synchronizedMap(new LinkedHashMap<List<String>, V>(16, 0.75f, true) {
+                private static final long serialVersionUID = 2470212178423698345L;
+
+                @Override
+                protected boolean removeEldestEntry(final Map.Entry<List<String>, V> eldest) {
+                    return size() > MERGED_CACHE_MAX_SIZE;
+                }
+            });
+        }
+    }
+
     private Boolean isCacheEnabled() {
         boolean rtn = false;
         if (isCacheEnabled) {
@@ -19,6 +19,7 @@ package uk.gov.gchq.gaffer.federatedstore;
 import com.google.common.base.Strings;
 import com.google.common.collect.Sets;
 
+import uk.gov.gchq.gaffer.commonutil.executor.FixedThreadPoolJobExecutorFactory;
 import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
 import uk.gov.gchq.gaffer.data.element.Element;
 import uk.gov.gchq.gaffer.data.element.id.EntityId;
@@ -45,6 +46,7 @@ import uk.gov.gchq.gaffer.federatedstore.operation.handler.impl.FederatedGetTrai
 import uk.gov.gchq.gaffer.federatedstore.operation.handler.impl.FederatedOperationChainHandler;
 import uk.gov.gchq.gaffer.federatedstore.operation.handler.impl.FederatedRemoveGraphHandler;
 import uk.gov.gchq.gaffer.federatedstore.schema.FederatedViewValidator;
+import uk.gov.gchq.gaffer.federatedstore.util.FederatedGraphRouter;
 import uk.gov.gchq.gaffer.federatedstore.util.FederatedStoreUtil;
 import uk.gov.gchq.gaffer.graph.Graph;
 import uk.gov.gchq.gaffer.graph.GraphSerialisable;
@@ -79,6 +81,9 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import static uk.gov.gchq.gaffer.federatedstore.FederatedStoreProperties.IS_PUBLIC_ACCESS_ALLOWED_DEFAULT;
 import static uk.gov.gchq.gaffer.federatedstore.util.FederatedStoreUtil.getCleanStrings;
@@ -97,9 +102,14 @@ import static uk.gov.gchq.gaffer.federatedstore.util.FederatedStoreUtil.getClean
  * @see Graph
  */
 public class FederatedStore extends Store {
+    private static final long GRAPH_EXECUTOR_KEEP_ALIVE_SECONDS = 60;
     private FederatedGraphStorage graphStorage = new FederatedGraphStorage();
     private Set<String> customPropertiesAuths;
     private Boolean isPublicAccessAllowed = Boolean.valueOf(IS_PUBLIC_ACCESS_ALLOWED_DEFAULT);
+    private ExecutorService graphExecutor;
+    private long graphExecutorTimeout;
+    private int graphExecutorBufferSize;
+    private FederatedGraphRouter graphRouter;
 
     /**
      * Initialise this FederatedStore with any sub-graphs defined within the
@@ -116,6 +126,61 @@ public class FederatedStore extends Store {
         super.initialise(graphId, new Schema(), properties);
         customPropertiesAuths = getCustomPropertiesAuths();
         isPublicAccessAllowed = Boolean.valueOf(getProperties().getIsPublicAccessAllowed());
+        initialiseGraphExecutor();
+        initialiseGraphRouter();
+    }
+
+    /**
+     * Releases the threads used to execute operations on the federated graphs
+     * concurrently and to build the routing summaries. Operations should not
+     * be executed on this store once it has been closed, unless it is
+     * initialised again.
+     */
+    public void close() {
+        if (null != graphExecutor) {
+            graphExecutor.shutdownNow();
+            graphExecutor = null;
+        }
+        if (null != graphRouter) {
+            graphRouter.close();
+            graphRouter = null;
+        }
+    }
+
+    /**
+     * Get the executor used to execute operations on the federated graphs
+     * concurrently.
+     *
+     * @return the executor, or null if the graphs are executed one at a time
+     */
+    public ExecutorService getGraphExecutor() {
+        return graphExecutor;
+    }
+
+    /**
+     * @return the time in milliseconds to wait for each graph when the graphs
+     * are executed concurrently, less than 1 means no timeout
+     */
+    public long getGraphExecutorTimeout() {
+        return graphExecutorTimeout;
+    }
+
+    /**
+     * @return the number of results to buffer when the results from the graphs
+     * are read concurrently
+     */
+    public int getGraphExecutorBufferSize() {
+        return graphExecutorBufferSize;
+    }
+
+    /**
+     * Get the router used to prune the graphs that seeded operations are
+     * executed on.
+     *
+     * @return the router, or null if routing is not enabled
+     */
+    public FederatedGraphRouter getGraphRouter() {
+        return graphRouter;
     }
 
     @Override
@@ -226,7 +291,9 @@ public class FederatedStore extends Store {
      * @param user    to match visibility against
      */
     public void remove(final String graphId, final User user) {
-        graphStorage.remove(graphId, user);
+        if (graphStorage.remove(graphId, user) && null != graphRouter) {
+            graphRouter.remove(graphId);
+        }
     }
 
     /**
@@ -396,6 +463,37 @@ public class FederatedStore extends Store {
         }
     }
 
+    private void initialiseGraphExecutor() {
+        if (null != graphExecutor) {
+            graphExecutor.shutdown();
+            graphExecutor = null;
+        }
+        graphExecutorTimeout = getProperties().getExecutorGraphTimeout();
+        graphExecutorBufferSize = getProperties().getExecutorResultsBufferSize();
+        final int threadCount = getProperties().getExecutorThreadCount();
+        if (threadCount > 0) {
+            final ThreadPoolExecutor executor = (ThreadPoolExecutor) new FixedThreadPoolJobExecutorFactory().createExecutor(threadCount);
+            // Let idle threads die so an unused store does not hold on to them
+            executor.setKeepAliveTime(GRAPH_EXECUTOR_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS);
+            executor.allowCoreThreadTimeOut(true);
+            graphExecutor = executor;
+        }
+    }
+
+    private void initialiseGraphRouter() {
+        if (null != graphRouter) {
+            graphRouter.close();
+            graphRouter = null;
+        }
+        if (getProperties().isRoutingEnabled()) {
+            graphRouter = new FederatedGraphRouter(
+                    getProperties().getRoutingExpectedVertices(),
+                    getProperties().getRoutingFalsePositiveRate(),
+                    getProperties().getRoutingRefreshInterval(),
+                    getCleanStrings(getProperties().getRoutingDataAuths()));
+        }
+    }
+
     private Set<String> getCustomPropertiesAuths() {
         final String value = getProperties().getCustomPropsValue();
         return (Strings.isNullOrEmpty(value)) ? null : Sets.newHashSet(getCleanStrings(value));
@@ -23,6 +23,10 @@ public final class FederatedStoreConstants {
     public static final String KEY_OPERATION_OPTIONS_GRAPH_IDS = "gaffer.federatedstore.operation.graphIds";
     public static final String KEY_SKIP_FAILED_FEDERATED_STORE_EXECUTE = "gaffer.federatedstore.operation.skipFailedFederatedStoreExecute";
     public static final String DEFAULT_VALUE_KEY_SKIP_FAILED_FEDERATED_STORE_EXECUTE = String.valueOf(false);
+    public static final String KEY_MERGE_SORTED_RESULTS = "gaffer.federatedstore.operation.mergeSortedResults";
+    public static final String DEFAULT_VALUE_KEY_MERGE_SORTED_RESULTS = String.valueOf(false);
+    public static final String KEY_MERGE_SORTED_MAX_ELEMENTS_IN_MEMORY = "gaffer.federatedstore.operation.mergeSortedMaxElementsInMemory";
+    public static final String DEFAULT_VALUE_KEY_MERGE_SORTED_MAX_ELEMENTS_IN_MEMORY = String.valueOf(100000);
     public static final String DEFAULT_VALUE_IS_PUBLIC = String.valueOf(false);
 
     private FederatedStoreConstants() {
@@ -33,4 +37,12 @@ public final class FederatedStoreConstants {
     public static String getSkipFailedFederatedStoreExecute(final Operation op) {
         return op.getOption(KEY_SKIP_FAILED_FEDERATED_STORE_EXECUTE, DEFAULT_VALUE_KEY_SKIP_FAILED_FEDERATED_STORE_EXECUTE);
     }
+
+    public static String getMergeSortedResults(final Operation op) {
+        return op.getOption(KEY_MERGE_SORTED_RESULTS, DEFAULT_VALUE_KEY_MERGE_SORTED_RESULTS);
+    }
+
+    public static String getMergeSortedMaxElementsInMemory(final Operation op) {
+        return op.getOption(KEY_MERGE_SORTED_MAX_ELEMENTS_IN_MEMORY, DEFAULT_VALUE_KEY_MERGE_SORTED_MAX_ELEMENTS_IN_MEMORY);
+    }
 }
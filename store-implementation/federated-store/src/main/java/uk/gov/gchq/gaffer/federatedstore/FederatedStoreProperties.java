@@ -47,6 +47,73 @@ public class FederatedStoreProperties extends StoreProperties {
     public static final String CACHE_SERVICE_CLASS = CacheProperties.CACHE_SERVICE_CLASS;
     public static final String CACHE_SERVICE_CLASS_DEFAULT = null;
 
+    /**
+     * The number of threads used to execute operations on the federated graphs
+     * concurrently. With the default of 0 the graphs are executed one at a time.
+     * e.g gaffer.federatedstore.executor.threads=12
+     */
+    public static final String EXECUTOR_THREAD_COUNT = "gaffer.federatedstore.executor.threads";
+    public static final String EXECUTOR_THREAD_COUNT_DEFAULT = "0";
+
+    /**
+     * The time in milliseconds to wait for each graph when the graphs are
+     * executed concurrently. A graph that times out is treated as having
+     * failed. With the default of 0 there is no timeout.
+     * e.g gaffer.federatedstore.executor.graph.timeout=30000
+     */
+    public static final String EXECUTOR_GRAPH_TIMEOUT = "gaffer.federatedstore.executor.graph.timeout";
+    public static final String EXECUTOR_GRAPH_TIMEOUT_DEFAULT = "0";
+
+    /**
+     * The number of results buffered while merging the results streamed
+     * concurrently from the graphs.
+     * e.g gaffer.federatedstore.executor.results.buffer=1000
+     */
+    public static final String EXECUTOR_RESULTS_BUFFER_SIZE = "gaffer.federatedstore.executor.results.buffer";
+    public static final String EXECUTOR_RESULTS_BUFFER_SIZE_DEFAULT = "1000";
+
+    /**
+     * If true, seeded queries are only sent to the graphs that may contain
+     * the seeds, using a summary of the vertices in each graph.
+     * e.g gaffer.federatedstore.routing.enabled=true
+     */
+    public static final String ROUTING_ENABLED = "gaffer.federatedstore.routing.enabled";
+    public static final String ROUTING_ENABLED_DEFAULT = String.valueOf(false);
+
+    /**
+     * The number of vertices each graph's vertex summary is sized for.
+     * e.g gaffer.federatedstore.routing.expected.vertices=1000000
+     */
+    public static final String ROUTING_EXPECTED_VERTICES = "gaffer.federatedstore.routing.expected.vertices";
+    public static final String ROUTING_EXPECTED_VERTICES_DEFAULT = "1000000";
+
+    /**
+     * The false positive rate of each graph's vertex summary at the expected
+     * number of vertices.
+     * e.g gaffer.federatedstore.routing.false.positive.rate=0.01
+     */
+    public static final String ROUTING_FALSE_POSITIVE_RATE = "gaffer.federatedstore.routing.false.positive.rate";
+    public static final String ROUTING_FALSE_POSITIVE_RATE_DEFAULT = "0.01";
+
+    /**
+     * The time in milliseconds between rebuilding each graph's vertex summary.
+     * A graph is not pruned if its summary has not been rebuilt within two
+     * intervals, and elements written directly to a graph may be missed by
+     * routed queries until the next rebuild. Less than 1 disables pruning.
+     * e.g gaffer.federatedstore.routing.refresh.interval=600000
+     */
+    public static final String ROUTING_REFRESH_INTERVAL = "gaffer.federatedstore.routing.refresh.interval";
+    public static final String ROUTING_REFRESH_INTERVAL_DEFAULT = "600000";
+
+    /**
+     * A csv of the data auths used to read all the vertices in each graph
+     * when building the vertex summaries. These must include every auth used
+     * in the graphs' visibilities, graphs with a visibility property are not
+     * pruned unless this is set.
+     * e.g gaffer.federatedstore.routing.data.auths=public,private
+     */
+    public static final String ROUTING_DATA_AUTHS = "gaffer.federatedstore.routing.data.auths";
+
     public FederatedStoreProperties() {
         super(FederatedStore.class);
     }
@@ -94,4 +161,68 @@ public class FederatedStoreProperties extends StoreProperties {
     public void setGraphsCanHavePublicAccess(final boolean b) {
         set(IS_PUBLIC_ACCESS_ALLOWED, Boolean.toString(b));
     }
+
+    public int getExecutorThreadCount() {
+        return Integer.parseInt(get(EXECUTOR_THREAD_COUNT, EXECUTOR_THREAD_COUNT_DEFAULT));
+    }
+
+    public void setExecutorThreadCount(final int executorThreadCount) {
+        set(EXECUTOR_THREAD_COUNT, Integer.toString(executorThreadCount));
+    }
+
+    public long getExecutorGraphTimeout() {
+        return Long.parseLong(get(EXECUTOR_GRAPH_TIMEOUT, EXECUTOR_GRAPH_TIMEOUT_DEFAULT));
+    }
+
+    public void setExecutorGraphTimeout(final long executorGraphTimeout) {
+        set(EXECUTOR_GRAPH_TIMEOUT, Long.toString(executorGraphTimeout));
+    }
+
+    public int getExecutorResultsBufferSize() {
+        return Integer.parseInt(get(EXECUTOR_RESULTS_BUFFER_SIZE, EXECUTOR_RESULTS_BUFFER_SIZE_DEFAULT));
+    }
+
+    public void setExecutorResultsBufferSize(final int executorResultsBufferSize) {
+        set(EXECUTOR_RESULTS_BUFFER_SIZE, Integer.toString(executorResultsBufferSize));
+    }
+
+    public boolean isRoutingEnabled() {
+        return Boolean.parseBoolean(get(ROUTING_ENABLED, ROUTING_ENABLED_DEFAULT));
+    }
+
+    public void setRoutingEnabled(final boolean routingEnabled) {
+        set(ROUTING_ENABLED, Boolean.toString(routingEnabled));
+    }
+
+    public int getRoutingExpectedVertices() {
+        return Integer.parseInt(get(ROUTING_EXPECTED_VERTICES, ROUTING_EXPECTED_VERTICES_DEFAULT));
+    }
+
+    public void setRoutingExpectedVertices(final int routingExpectedVertices) {
+        set(ROUTING_EXPECTED_VERTICES, Integer.toString(routingExpectedVertices));
+    }
+
+    public double getRoutingFalsePositiveRate() {
+        return Double.parseDouble(get(ROUTING_FALSE_POSITIVE_RATE, ROUTING_FALSE_POSITIVE_RATE_DEFAULT));
+    }
+
+    public void setRoutingFalsePositiveRate(final double routingFalsePositiveRate) {
+        set(ROUTING_FALSE_POSITIVE_RATE, Double.toString(routingFalsePositiveRate));
+    }
+
+    public long getRoutingRefreshInterval() {
+        return Long.parseLong(get(ROUTING_REFRESH_INTERVAL, ROUTING_REFRESH_INTERVAL_DEFAULT));
+    }
+
+    public void setRoutingRefreshInterval(final long routingRefreshInterval) {
+        set(ROUTING_REFRESH_INTERVAL, Long.toString(routingRefreshInterval));
+    }
+
+    public String getRoutingDataAuths() {
+        return get(ROUTING_DATA_AUTHS);
+    }
+
+    public void setRoutingDataAuths(final String routingDataAuths) {
+        set(ROUTING_DATA_AUTHS, routingDataAuths);
+    }
 }
@@ -17,40 +17,73 @@
 package uk.gov.gchq.gaffer.federatedstore.operation.handler;
 
 import uk.gov.gchq.gaffer.federatedstore.FederatedStore;
-import uk.gov.gchq.gaffer.federatedstore.util.FederatedStoreUtil;
+import uk.gov.gchq.gaffer.federatedstore.util.FederatedGraphExecutor;
+import uk.gov.gchq.gaffer.federatedstore.util.FederatedGraphRouter;
 import uk.gov.gchq.gaffer.graph.Graph;
 import uk.gov.gchq.gaffer.operation.Operation;
 import uk.gov.gchq.gaffer.operation.OperationException;
+import uk.gov.gchq.gaffer.operation.impl.add.AddElements;
 import uk.gov.gchq.gaffer.store.Context;
 import uk.gov.gchq.gaffer.store.Store;
 import uk.gov.gchq.gaffer.store.operation.handler.OperationHandler;
 
 import java.util.Collection;
+import java.util.concurrent.ExecutorService;
 
 import static uk.gov.gchq.gaffer.federatedstore.FederatedStoreConstants.KEY_OPERATION_OPTIONS_GRAPH_IDS;
-import static uk.gov.gchq.gaffer.federatedstore.FederatedStoreConstants.getSkipFailedFederatedStoreExecute;
 
 /**
- * A handler for Operations with no output for FederatedStore
+ * A handler for Operations with no output for FederatedStore.
+ * The operation is executed on the graphs one at a time, or concurrently if
+ * the FederatedStore has been configured with executor threads.
  *
  * @see OperationHandler
  * @see FederatedStore
  */
 public class FederatedOperationHandler implements OperationHandler<Operation> {
     public Object doOperation(final Operation operation, final Context context, final Store store) throws OperationException {
-        final Collection<Graph> graphs = ((FederatedStore) store).getGraphs(context.getUser(), operation.getOption(KEY_OPERATION_OPTIONS_GRAPH_IDS));
-        for (final Graph graph : graphs) {
-            final Operation updatedOp = FederatedStoreUtil.updateOperationForGraph(operation, graph);
-            if (null != updatedOp) {
-                try {
-                    graph.execute(updatedOp, context);
-                } catch (final Exception e) {
-                    if (!Boolean.valueOf(getSkipFailedFederatedStoreExecute(updatedOp))) {
-                        throw new OperationException(FederatedStoreUtil.createOperationErrorMsg(operation, graph.getGraphId(), e), e);
-                    }
-                }
+        final FederatedStore federatedStore = (FederatedStore) store;
+        final Collection<Graph> graphs = federatedStore.getGraphs(context.getUser(), operation.getOption(KEY_OPERATION_OPTIONS_GRAPH_IDS));
+        final ExecutorService executor = federatedStore.getGraphExecutor();
+        FederatedGraphExecutor.execute(
+                executor,
+                federatedStore.getGraphExecutorTimeout(),
+                graphs,
+                operation,
+                (graph, updatedOp) -> {
+                    // Graphs executed concurrently must not share the mutable context
+                    execute(graph, updatedOp, null != executor ? context.shallowClone() : context, federatedStore.getGraphRouter());
+                    return null;
+                });
+        return null;
+    }
+
+    /**
+     * Executes the operation on a graph, keeping the graph's routing summary
+     * up to date. Elements added are added to the summary as they are added
+     * to the graph. The graph is not pruned during other writes and its
+     * summary is rebuilt after them.
+     *
+     * @param graph     the graph to execute the operation on
+     * @param operation the operation
+     * @param context   the context
+     * @param router    the graph router, or null if routing is disabled
+     * @throws OperationException if the operation fails
+     */
+    private void execute(final Graph graph, final Operation operation, final Context context, final FederatedGraphRouter router) throws OperationException {
+        if (null == router || !FederatedGraphRouter.isWrite(operation)) {
+            graph.execute(operation, context);
+        } else if (operation instanceof AddElements) {
+            final AddElements addElements = (AddElements) operation;
+            addElements.setInput(router.addElements(graph, addElements.getInput()));
+            graph.execute(addElements, context);
+        } else {
+            router.startWrite(graph);
+            try {
+                graph.execute(operation, context);
+            } finally {
+                router.finishWrite(graph);
             }
         }
-        return null;
     }
 }
@@ -17,7 +17,7 @@
 package uk.gov.gchq.gaffer.federatedstore.operation.handler;
 
 import uk.gov.gchq.gaffer.federatedstore.FederatedStore;
-import uk.gov.gchq.gaffer.federatedstore.util.FederatedStoreUtil;
+import uk.gov.gchq.gaffer.federatedstore.util.FederatedGraphExecutor;
 import uk.gov.gchq.gaffer.graph.Graph;
 import uk.gov.gchq.gaffer.operation.OperationException;
 import uk.gov.gchq.gaffer.operation.io.Output;
@@ -25,15 +25,16 @@ import uk.gov.gchq.gaffer.store.Context;
 import uk.gov.gchq.gaffer.store.Store;
 import uk.gov.gchq.gaffer.store.operation.handler.OutputOperationHandler;
 
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 
 import static uk.gov.gchq.gaffer.federatedstore.FederatedStoreConstants.KEY_OPERATION_OPTIONS_GRAPH_IDS;
-import static uk.gov.gchq.gaffer.federatedstore.FederatedStoreConstants.getSkipFailedFederatedStoreExecute;
 
 /**
- * A abstract handler for Operations with output for FederatedStore
+ * A abstract handler for Operations with output for FederatedStore.
+ * The operation is executed on the graphs one at a time, or concurrently if
+ * the FederatedStore has been configured with executor threads.
  *
  * @see uk.gov.gchq.gaffer.store.operation.handler.OperationHandler
  * @see uk.gov.gchq.gaffer.federatedstore.FederatedStore
@@ -43,24 +44,15 @@ public abstract class FederatedOperationOutputHandler<OP extends Output<O>, O> i
 
     @Override
     public O doOperation(final OP operation, final Context context, final Store store) throws OperationException {
-        final Collection<Graph> graphs = ((FederatedStore) store).getGraphs(context.getUser(), operation.getOption(KEY_OPERATION_OPTIONS_GRAPH_IDS));
-        final List<O> results = new ArrayList<>(graphs.size());
-        for (final Graph graph : graphs) {
-            final OP updatedOp = FederatedStoreUtil.updateOperationForGraph(operation, graph);
-            if (null != updatedOp) {
-                O execute = null;
-                try {
-                    execute = graph.execute(updatedOp, context);
-                } catch (final Exception e) {
-                    if (!Boolean.valueOf(getSkipFailedFederatedStoreExecute(updatedOp))) {
-                        throw new OperationException(FederatedStoreUtil.createOperationErrorMsg(operation, graph.getGraphId(), e), e);
-                    }
-                }
-                if (null != execute) {
-                    results.add(execute);
-                }
-            }
-        }
+        final FederatedStore federatedStore = (FederatedStore) store;
+        final ExecutorService executor = federatedStore.getGraphExecutor();
+        final List<O> results = FederatedGraphExecutor.execute(
+                executor,
+                federatedStore.getGraphExecutorTimeout(),
+                getGraphs(operation, context, federatedStore),
+                operation,
+                // Graphs executed concurrently must not share the mutable context
+                (graph, updatedOp) -> graph.execute(updatedOp, null != executor ? context.shallowClone() : context));
         try {
             return mergeResults(results, operation, context, store);
         } catch (final Exception e) {
@@ -68,5 +60,22 @@ public abstract class FederatedOperationOutputHandler<OP extends Output<O>, O> i
         }
     }
 
+    /**
+     * Gets the graphs the user can execute the operation on, pruned by the
+     * graph router if routing is enabled.
+     *
+     * @param operation      the operation
+     * @param context        the context of the user executing the operation
+     * @param federatedStore the federated store
+     * @return the graphs to execute the operation on
+     */
+    protected Collection<Graph> getGraphs(final OP operation, final Context context, final FederatedStore federatedStore) {
+        final Collection<Graph> graphs = federatedStore.getGraphs(context.getUser(), operation.getOption(KEY_OPERATION_OPTIONS_GRAPH_IDS));
+        if (null != federatedStore.getGraphRouter()) {
+            return federatedStore.getGraphRouter().route(graphs, operation);
+        }
+        return graphs;
+    }
+
     protected abstract O mergeResults(final List<O> results, final OP operation, final Context context, final Store store);
 }
@@ -21,6 +21,7 @@ import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
 import uk.gov.gchq.gaffer.commonutil.iterable.WrappedCloseableIterable;
 import uk.gov.gchq.gaffer.federatedstore.FederatedStore;
 import uk.gov.gchq.gaffer.federatedstore.operation.FederatedOperationChain;
+import uk.gov.gchq.gaffer.federatedstore.util.FederatedGraphRouter;
 import uk.gov.gchq.gaffer.federatedstore.util.FederatedStoreUtil;
 import uk.gov.gchq.gaffer.graph.Graph;
 import uk.gov.gchq.gaffer.operation.OperationChain;
@@ -48,12 +49,21 @@ public class FederatedOperationChainHandler<I, O_ITEM> implements OutputOperatio
             final OperationChain updatedOp = FederatedStoreUtil.updateOperationForGraph(opChain, graph);
             if (null != updatedOp) {
                 Object result = null;
+                final FederatedGraphRouter router = ((FederatedStore) store).getGraphRouter();
+                final boolean isWrite = null != router && FederatedGraphRouter.isWrite(updatedOp);
                 try {
+                    if (isWrite) {
+                        router.startWrite(graph);
+                    }
                     result = graph.execute(updatedOp, context);
                 } catch (final Exception e) {
                     if (!Boolean.valueOf(updatedOp.getOption(KEY_SKIP_FAILED_FEDERATED_STORE_EXECUTE))) {
                         throw new OperationException(FederatedStoreUtil.createOperationErrorMsg(operation, graph.getGraphId(), e), e);
                     }
+                } finally {
+                    if (isWrite) {
+                        router.finishWrite(graph);
+                    }
                 }
                 if (null != result) {
                     results.add(result);
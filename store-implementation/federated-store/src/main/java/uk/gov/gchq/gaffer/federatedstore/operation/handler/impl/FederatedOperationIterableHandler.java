@@ -16,31 +16,194 @@
 
 package uk.gov.gchq.gaffer.federatedstore.operation.handler.impl;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import uk.gov.gchq.gaffer.commonutil.CloseableUtil;
 import uk.gov.gchq.gaffer.commonutil.CollectionUtil;
 import uk.gov.gchq.gaffer.commonutil.iterable.ChainedIterable;
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterator;
 import uk.gov.gchq.gaffer.commonutil.iterable.EmptyClosableIterable;
+import uk.gov.gchq.gaffer.commonutil.iterable.WrappedCloseableIterator;
+import uk.gov.gchq.gaffer.data.element.function.ElementAggregator;
+import uk.gov.gchq.gaffer.data.elementdefinition.view.View;
+import uk.gov.gchq.gaffer.data.elementdefinition.view.ViewElementDefinition;
+import uk.gov.gchq.gaffer.federatedstore.FederatedStore;
 import uk.gov.gchq.gaffer.federatedstore.operation.handler.FederatedOperationOutputHandler;
+import uk.gov.gchq.gaffer.federatedstore.util.ConcurrentChainedIterable;
+import uk.gov.gchq.gaffer.federatedstore.util.ElementKeyComparator;
+import uk.gov.gchq.gaffer.federatedstore.util.FederatedStoreUtil;
+import uk.gov.gchq.gaffer.federatedstore.util.SortedMergeIterable;
+import uk.gov.gchq.gaffer.graph.Graph;
+import uk.gov.gchq.gaffer.operation.OperationException;
+import uk.gov.gchq.gaffer.operation.graph.OperationView;
 import uk.gov.gchq.gaffer.operation.io.Output;
 import uk.gov.gchq.gaffer.store.Context;
 import uk.gov.gchq.gaffer.store.Store;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+import uk.gov.gchq.gaffer.store.util.AggregatorUtil;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+
+import static uk.gov.gchq.gaffer.federatedstore.FederatedStoreConstants.getMergeSortedMaxElementsInMemory;
+import static uk.gov.gchq.gaffer.federatedstore.FederatedStoreConstants.getMergeSortedResults;
+import static uk.gov.gchq.gaffer.federatedstore.FederatedStoreConstants.getSkipFailedFederatedStoreExecute;
 
 /**
  * A generic handler for Operations with CloseableIterable of elements for FederatedStore.
  * Simply executes the operation on each delegate graph then chains the results together
- * using a {@link ChainedIterable}.
+ * using a {@link ChainedIterable}. If the FederatedStore has been configured with
+ * executor threads the operation is instead executed lazily on each graph when the
+ * results are iterated, and the results are read from the graphs concurrently using a
+ * {@link ConcurrentChainedIterable}, so results are returned as soon as any graph
+ * produces them without holding any graph's results in memory. The executor timeout
+ * then applies to each graph separately, and a graph that fails or times out is
+ * reported, or skipped if the skip failed execute option is set.
+ * <p>
+ * Setting the {@link uk.gov.gchq.gaffer.federatedstore.FederatedStoreConstants#KEY_MERGE_SORTED_RESULTS} option
+ * merges the results with a {@link SortedMergeIterable}, aggregating elements
+ * with the same key from different graphs using the merged schema. Results
+ * from a graph that are not already in {@link ElementKeyComparator} order,
+ * which is all results other than those merged by a nested federated store
+ * with the same group-by properties, are sorted first. At most
+ * {@link uk.gov.gchq.gaffer.federatedstore.FederatedStoreConstants#KEY_MERGE_SORTED_MAX_ELEMENTS_IN_MEMORY}
+ * elements from each graph are sorted in memory, larger results are sorted in
+ * runs that are written to temporary files. Sorting is blocking, so all the
+ * results of those graphs are read before the first merged element is
+ * returned. If the schema has identifiers or group-by properties that can not
+ * be ordered the results are chained together instead.
+ * </p>
  *
  * @see FederatedOperationOutputHandler
  */
 public class FederatedOperationIterableHandler<OP extends Output<O>, O extends Iterable> extends FederatedOperationOutputHandler<OP, O> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(FederatedOperationIterableHandler.class);
+
+    @Override
+    public O doOperation(final OP operation, final Context context, final Store store) throws OperationException {
+        final FederatedStore federatedStore = (FederatedStore) store;
+        final ExecutorService executor = federatedStore.getGraphExecutor();
+        if (null == executor || Boolean.valueOf(getMergeSortedResults(operation))) {
+            return super.doOperation(operation, context, store);
+        }
+
+        final List<GraphResultIterable> results = new ArrayList<>();
+        final List<String> graphIds = new ArrayList<>();
+        for (final Graph graph : getGraphs(operation, context, federatedStore)) {
+            final OP updatedOp = FederatedStoreUtil.updateOperationForGraph(operation, graph);
+            if (null != updatedOp) {
+                results.add(new GraphResultIterable(graph, operation, updatedOp, context.shallowClone()));
+                graphIds.add(graph.getGraphId());
+            }
+        }
+
+        if (results.size() < 2) {
+            // Nothing to read concurrently
+            return super.doOperation(operation, context, store);
+        }
+
+        return (O) new ConcurrentChainedIterable<>(executor, results, graphIds,
+                federatedStore.getGraphExecutorBufferSize(),
+                federatedStore.getGraphExecutorTimeout(),
+                Boolean.valueOf(getSkipFailedFederatedStoreExecute(operation)));
+    }
+
     @Override
     protected O mergeResults(final List<O> results, final OP operation, final Context context, final Store store) {
         if (results.isEmpty()) {
             return (O) new EmptyClosableIterable<>();
         }
 
+        if (results.size() > 1 && operation instanceof OperationView
+                && Boolean.valueOf(getMergeSortedResults(operation))) {
+            final View operationView = ((OperationView) operation).getView();
+            final View view = null != operationView ? operationView : new View();
+            final Schema schema = ((FederatedStore) store).getSchema(operation, context);
+            final Map<String, Set<String>> groupToGroupBys = AggregatorUtil.getQueryGroupBys(schema, view);
+            if (ElementKeyComparator.canCompare(schema, groupToGroupBys)) {
+                return (O) createSortedMergeIterable(results, view, schema, groupToGroupBys,
+                        Integer.parseInt(getMergeSortedMaxElementsInMemory(operation)));
+            }
+            LOGGER.warn("Unable to merge sorted results as the schema contains identifiers or group-by properties that are not Comparable, the results will be chained instead");
+        }
+
         // Concatenate all the results into 1 iterable
         return (O) new ChainedIterable<>(CollectionUtil.toIterableArray(results));
     }
+
+    private SortedMergeIterable createSortedMergeIterable(final List<O> results, final View view, final Schema schema,
+                                                          final Map<String, Set<String>> groupToGroupBys,
+                                                          final int maxElementsInMemory) {
+        final ElementKeyComparator comparator = new ElementKeyComparator(groupToGroupBys);
+        // The merge is read on a single thread, so the aggregators can be cached without synchronisation
+        final Map<String, ElementAggregator> aggregators = new HashMap<>();
+        return new SortedMergeIterable(
+                (List) results,
+                comparator,
+                (a, b) -> aggregators.computeIfAbsent(a.getGroup(), group -> {
+                    final ViewElementDefinition elementDef = view.getElement(group);
+                    return schema.getElement(group)
+                            .getQueryAggregator(groupToGroupBys.get(group), null != elementDef ? elementDef.getAggregator() : null);
+                }).apply(a, b),
+                new AggregatorUtil.IsElementAggregated(schema),
+                result -> isSorted(result, comparator),
+                maxElementsInMemory);
+    }
+
+    private static boolean isSorted(final Iterable<?> result, final ElementKeyComparator comparator) {
+        if (result instanceof SortedMergeIterable) {
+            return comparator.equals(((SortedMergeIterable) result).getComparator());
+        }
+        return result instanceof Collection && ((Collection<?>) result).size() < 2;
+    }
+
+    /**
+     * The results of executing an operation on a single graph. The operation
+     * is executed each time the results are iterated, on the thread reading
+     * them.
+     */
+    private final class GraphResultIterable implements CloseableIterable<Object> {
+        private final Graph graph;
+        private final OP operation;
+        private final OP updatedOp;
+        private final Context context;
+        private O result;
+
+        private GraphResultIterable(final Graph graph, final OP operation, final OP updatedOp, final Context context) {
+            this.graph = graph;
+            this.operation = operation;
+            this.updatedOp = updatedOp;
+            this.context = context;
+        }
+
+        @Override
+        public CloseableIterator<Object> iterator() {
+            final O graphResult;
+            try {
+                graphResult = graph.execute(updatedOp, context);
+            } catch (final OperationException e) {
+                throw new RuntimeException(FederatedStoreUtil.createOperationErrorMsg(operation, graph.getGraphId(), e), e);
+            }
+            if (null == graphResult) {
+                return new EmptyClosableIterable<>().iterator();
+            }
+            synchronized (this) {
+                result = graphResult;
+            }
+            return new WrappedCloseableIterator<>(graphResult.iterator());
+        }
+
+        @Override
+        public synchronized void close() {
+            CloseableUtil.close(result);
+            result = null;
+        }
+    }
 }
@@ -0,0 +1,380 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.federatedstore.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import uk.gov.gchq.gaffer.commonutil.CloseableUtil;
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterator;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A {@code ConcurrentChainedIterable} is an iterable composed of other
+ * {@link Iterable}s, like a
+ * {@link uk.gov.gchq.gaffer.commonutil.iterable.ChainedIterable}, except the
+ * child iterables are consumed concurrently.
+ * <p>
+ * Each iterator reads the child iterables on the threads of an
+ * {@link ExecutorService} into a bounded buffer, so the results from all of
+ * the children are returned in the order they arrive rather than one child
+ * after another.
+ * </p>
+ * <p>
+ * The timeout applies to each child separately. It is measured from when
+ * the child is asked for its next item, not including any time spent waiting
+ * for space in the buffer. A child that times out is cancelled and reported,
+ * and the other children carry on if failures are skipped.
+ * </p>
+ * <p>
+ * Iterators should be closed if they are not fully consumed, so the threads
+ * reading the children are released. If an iterator is abandoned without
+ * being closed, the threads reading into its full buffer give up once the
+ * iterator has been garbage collected.
+ * </p>
+ *
+ * @param <T> the type of items in the iterable.
+ */
+public class ConcurrentChainedIterable<T> implements CloseableIterable<T> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConcurrentChainedIterable.class);
+    private static final long OFFER_TIMEOUT_MS = 100;
+    private static final Object NULL_ITEM = new Object();
+
+    private final ExecutorService executor;
+    private final List<? extends Iterable<? extends T>> iterables;
+    private final List<String> names;
+    private final int bufferSize;
+    private final long timeout;
+    private final boolean skipFailures;
+    private final List<IteratorState> states = new ArrayList<>();
+
+    /**
+     * @param executor     the executor used to read the child iterables
+     * @param iterables    the child iterables
+     * @param bufferSize   the maximum number of items to buffer
+     * @param timeout      the time in milliseconds to wait for the next item
+     *                     from each child, less than 1 means no timeout
+     * @param skipFailures true if a child that fails, or times out, should be
+     *                     skipped rather than failing the iteration
+     */
+    public ConcurrentChainedIterable(final ExecutorService executor,
+                                     final List<? extends Iterable<? extends T>> iterables,
+                                     final int bufferSize,
+                                     final long timeout,
+                                     final boolean skipFailures) {
+        this(executor, iterables, null, bufferSize, timeout, skipFailures);
+    }
+
+    /**
+     * @param executor     the executor used to read the child iterables
+     * @param iterables    the child iterables
+     * @param names        the names of the child iterables, used to report
+     *                     failures, or null
+     * @param bufferSize   the maximum number of items to buffer
+     * @param timeout      the time in milliseconds to wait for the next item
+     *                     from each child, less than 1 means no timeout
+     * @param skipFailures true if a child that fails, or times out, should be
+     *                     skipped rather than failing the iteration
+     */
+    public ConcurrentChainedIterable(final ExecutorService executor,
+                                     final List<? extends Iterable<? extends T>> iterables,
+                                     final List<String> names,
+                                     final int bufferSize,
+                                     final long timeout,
+                                     final boolean skipFailures) {
+        if (null == executor) {
+            throw new IllegalArgumentException("An executor is required");
+        }
+        if (null == iterables || iterables.isEmpty()) {
+            throw new IllegalArgumentException("At least 1 iterable is required.");
+        }
+        if (null != names && names.size() != iterables.size()) {
+            throw new IllegalArgumentException("A name is required for each iterable");
+        }
+        this.executor = executor;
+        this.iterables = iterables;
+        this.names = names;
+        this.bufferSize = Math.max(1, bufferSize);
+        this.timeout = timeout;
+        this.skipFailures = skipFailures;
+    }
+
+    @Override
+    public CloseableIterator<T> iterator() {
+        final IteratorState state = new IteratorState();
+        synchronized (states) {
+            states.add(state);
+        }
+        final ConcurrentIterator iterator = new ConcurrentIterator(state);
+        state.start(iterator);
+        return iterator;
+    }
+
+    @Override
+    public void close() {
+        synchronized (states) {
+            states.forEach(IteratorState::close);
+            states.clear();
+        }
+        for (final Iterable<? extends T> iterable : iterables) {
+            CloseableUtil.close(iterable);
+        }
+    }
+
+    private String getName(final int index) {
+        return null != names ? names.get(index) : "iterable " + index;
+    }
+
+    private final class ConcurrentIterator implements CloseableIterator<T> {
+        private final IteratorState state;
+        private int remaining;
+        private Object next;
+
+        private ConcurrentIterator(final IteratorState state) {
+            this.state = state;
+            this.remaining = iterables.size();
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (null == next && remaining > 0) {
+                final Object item = poll();
+                if (null == item) {
+                    removeTimedOutChildren();
+                } else if (item instanceof End) {
+                    finish(((End) item).child);
+                } else if (item instanceof Failure) {
+                    final Failure failure = (Failure) item;
+                    if (finish(failure.child)) {
+                        handleFailure(failure.child, failure.exception);
+                    }
+                } else {
+                    next = item;
+                }
+            }
+            return null != next;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final Object item = next;
+            next = null;
+            return NULL_ITEM == item ? null : (T) item;
+        }
+
+        @Override
+        public void close() {
+            remaining = 0;
+            state.close();
+        }
+
+        private Object poll() {
+            try {
+                if (timeout < 1) {
+                    return state.queue.take();
+                }
+                return state.queue.poll(getPollTime(), TimeUnit.MILLISECONDS);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                close();
+                throw new RuntimeException("Interrupted while waiting for results", e);
+            }
+        }
+
+        /**
+         * Gets the time until the next child that is waiting for its next
+         * item would time out.
+         *
+         * @return the time to wait in milliseconds
+         */
+        private long getPollTime() {
+            final long now = System.currentTimeMillis();
+            long pollTime = timeout;
+            for (final Child child : state.children) {
+                final long waitingSince = child.waitingSince;
+                if (!child.finished && waitingSince > 0) {
+                    pollTime = Math.min(pollTime, waitingSince + timeout - now);
+                }
+            }
+            return Math.max(1, pollTime);
+        }
+
+        private void removeTimedOutChildren() {
+            final long now = System.currentTimeMillis();
+            for (final Child child : state.children) {
+                final long waitingSince = child.waitingSince;
+                if (!child.finished && waitingSince > 0 && now - waitingSince >= timeout) {
+                    finish(child);
+                    child.future.cancel(true);
+                    handleFailure(child, new RuntimeException(new TimeoutException(
+                            getName(child.index) + " did not return its next result within " + timeout + "ms")));
+                }
+            }
+        }
+
+        /**
+         * @param child the child to finish
+         * @return false if the child had already finished, for example if it
+         * timed out before it ended
+         */
+        private boolean finish(final Child child) {
+            if (child.finished) {
+                return false;
+            }
+            child.finished = true;
+            remaining--;
+            return true;
+        }
+
+        private void handleFailure(final Child child, final Throwable e) {
+            if (!skipFailures || e instanceof Error) {
+                close();
+                if (e instanceof Error) {
+                    throw (Error) e;
+                }
+                throw e instanceof RuntimeException ? (RuntimeException) e : new RuntimeException(e);
+            }
+            LOGGER.warn("Skipping the remaining results from {} as they failed to be read", getName(child.index), e);
+        }
+    }
+
+    /**
+     * The state shared by an iterator and the threads reading the children
+     * for it. This does not reference the iterator, so an abandoned iterator
+     * can be garbage collected and the readers can then give up.
+     */
+    private final class IteratorState {
+        private final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(bufferSize);
+        private final List<Child> children = new ArrayList<>(iterables.size());
+        private volatile boolean closed;
+        private WeakReference<ConcurrentIterator> owner;
+
+        private synchronized void start(final ConcurrentIterator iterator) {
+            owner = new WeakReference<>(iterator);
+            for (int i = 0; i < iterables.size(); i++) {
+                final Child child = new Child(i);
+                children.add(child);
+                child.future = executor.submit(() -> read(child));
+            }
+        }
+
+        private synchronized void close() {
+            if (!closed) {
+                closed = true;
+                children.forEach(child -> {
+                    if (null != child.future) {
+                        child.future.cancel(true);
+                    }
+                });
+                queue.clear();
+            }
+        }
+
+        private void read(final Child child) {
+            Iterator<? extends T> itr = null;
+            Object last = new End(child);
+            try {
+                child.startWaiting();
+                itr = iterables.get(child.index).iterator();
+                while (!closed && !child.finished) {
+                    child.startWaiting();
+                    if (!itr.hasNext()) {
+                        break;
+                    }
+                    final T item = itr.next();
+                    child.waitingSince = 0;
+                    if (!offer(child, null == item ? NULL_ITEM : item)) {
+                        return;
+                    }
+                }
+            } catch (final Throwable e) {
+                // Any failure must be reported, otherwise the consumer would
+                // wait for this child until it times out, or forever
+                last = new Failure(child, e);
+            } finally {
+                child.waitingSince = 0;
+                CloseableUtil.close(itr);
+            }
+            offer(child, last);
+        }
+
+        private boolean offer(final Child child, final Object item) {
+            try {
+                while (!closed && !child.finished) {
+                    if (queue.offer(item, OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                        return true;
+                    }
+                    if (null == owner.get()) {
+                        LOGGER.debug("Closing the readers of an iterator that was not closed");
+                        close();
+                    }
+                }
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return false;
+        }
+    }
+
+    private static final class Child {
+        private final int index;
+        private Future<?> future;
+        private volatile long waitingSince;
+        private volatile boolean finished;
+
+        private Child(final int index) {
+            this.index = index;
+        }
+
+        private void startWaiting() {
+            waitingSince = System.currentTimeMillis();
+        }
+    }
+
+    private static final class End {
+        private final Child child;
+
+        private End(final Child child) {
+            this.child = child;
+        }
+    }
+
+    private static final class Failure {
+        private final Child child;
+        private final Throwable exception;
+
+        private Failure(final Child child, final Throwable exception) {
+            this.child = child;
+            this.exception = exception;
+        }
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.federatedstore.util;
+
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+
+import uk.gov.gchq.gaffer.data.element.Edge;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.Entity;
+import uk.gov.gchq.gaffer.data.element.IdentifierType;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+import uk.gov.gchq.gaffer.store.schema.SchemaElementDefinition;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A {@code ElementKeyComparator} orders {@link Element}s by their key: the
+ * group, the identifiers and then the values of the group-by properties.
+ * Elements that compare as equal have the same key, so can be aggregated
+ * together.
+ * <p>
+ * Values of the same {@link Comparable} class are compared naturally and byte
+ * arrays are compared by their unsigned bytes. Values of different classes are
+ * ordered by class name. Any other values can not be ordered consistently, so
+ * an {@link IllegalArgumentException} is thrown; use
+ * {@link #canCompare(Schema, Map)} to check a schema first. Null values are
+ * ordered first.
+ * </p>
+ */
+public class ElementKeyComparator implements Comparator<Element>, Serializable {
+    private static final long serialVersionUID = -1878469627539346839L;
+
+    private final Map<String, Set<String>> groupToGroupBys;
+
+    public ElementKeyComparator(final Map<String, Set<String>> groupToGroupBys) {
+        if (null == groupToGroupBys) {
+            throw new IllegalArgumentException("groupToGroupBys map is required");
+        }
+        this.groupToGroupBys = groupToGroupBys;
+    }
+
+    @Override
+    public int compare(final Element a, final Element b) {
+        int result = a.getGroup().compareTo(b.getGroup());
+        if (0 != result) {
+            return result;
+        }
+
+        if (a instanceof Entity) {
+            if (!(b instanceof Entity)) {
+                return -1;
+            }
+            result = compareValues(((Entity) a).getVertex(), ((Entity) b).getVertex());
+        } else {
+            if (b instanceof Entity) {
+                return 1;
+            }
+            final Edge edgeA = (Edge) a;
+            final Edge edgeB = (Edge) b;
+            result = compareValues(edgeA.getSource(), edgeB.getSource());
+            if (0 == result) {
+                result = compareValues(edgeA.getDestination(), edgeB.getDestination());
+            }
+            if (0 == result) {
+                result = Boolean.compare(edgeA.isDirected(), edgeB.isDirected());
+            }
+        }
+
+        if (0 == result) {
+            for (final String propertyName : groupToGroupBys.getOrDefault(a.getGroup(), Collections.emptySet())) {
+                result = compareValues(a.getProperty(propertyName), b.getProperty(propertyName));
+                if (0 != result) {
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+
+        if (null == obj || getClass() != obj.getClass()) {
+            return false;
+        }
+
+        // The group-by properties are compared in iteration order, so the order must match too
+        final Map<String, Set<String>> otherGroupToGroupBys = ((ElementKeyComparator) obj).groupToGroupBys;
+        if (!groupToGroupBys.keySet().equals(otherGroupToGroupBys.keySet())) {
+            return false;
+        }
+        for (final Map.Entry<String, Set<String>> entry : groupToGroupBys.entrySet()) {
+            final Set<String> otherGroupBys = otherGroupToGroupBys.get(entry.getKey());
+            if (null == entry.getValue() || null == otherGroupBys) {
+                if (entry.getValue() != otherGroupBys) {
+                    return false;
+                }
+            } else if (!new ArrayList<>(entry.getValue()).equals(new ArrayList<>(otherGroupBys))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        return new HashCodeBuilder(17, 37)
+                .append(groupToGroupBys)
+                .toHashCode();
+    }
+
+    /**
+     * Checks whether the keys of all the groups can be compared, i.e. all the
+     * identifiers and group-by properties are {@link Comparable} or byte
+     * arrays.
+     *
+     * @param schema          the schema of the elements
+     * @param groupToGroupBys the group-by properties of each group
+     * @return true if elements in all the groups can be compared
+     */
+    public static boolean canCompare(final Schema schema, final Map<String, Set<String>> groupToGroupBys) {
+        for (final Map.Entry<String, Set<String>> entry : groupToGroupBys.entrySet()) {
+            final SchemaElementDefinition elementDef = schema.getElement(entry.getKey());
+            if (null == elementDef) {
+                continue;
+            }
+            for (final IdentifierType idType : elementDef.getIdentifiers()) {
+                if (!isComparable(elementDef.getIdentifierClass(idType))) {
+                    return false;
+                }
+            }
+            for (final String propertyName : entry.getValue()) {
+                if (!isComparable(elementDef.getPropertyClass(propertyName))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static boolean isComparable(final Class<?> clazz) {
+        return null == clazz || byte[].class.equals(clazz) || Comparable.class.isAssignableFrom(clazz);
+    }
+
+    private static int compareValues(final Object a, final Object b) {
+        if (a == b) {
+            return 0;
+        }
+        if (null == a) {
+            return -1;
+        }
+        if (null == b) {
+            return 1;
+        }
+        if (a.getClass().equals(b.getClass())) {
+            if (a instanceof Comparable) {
+                return ((Comparable) a).compareTo(b);
+            }
+            if (a instanceof byte[]) {
+                return compareBytes((byte[]) a, (byte[]) b);
+            }
+        } else {
+            final int result = a.getClass().getName().compareTo(b.getClass().getName());
+            if (0 != result) {
+                return result;
+            }
+        }
+        throw new IllegalArgumentException("Unable to order " + a.getClass().getName() + " values as the class is not Comparable");
+    }
+
+    private static int compareBytes(final byte[] a, final byte[] b) {
+        final int length = Math.min(a.length, b.length);
+        for (int i = 0; i < length; i++) {
+            final int result = Integer.compare(a[i] & 0xFF, b[i] & 0xFF);
+            if (0 != result) {
+                return result;
+            }
+        }
+        return Integer.compare(a.length, b.length);
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.federatedstore.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import uk.gov.gchq.gaffer.graph.Graph;
+import uk.gov.gchq.gaffer.operation.Operation;
+import uk.gov.gchq.gaffer.operation.OperationException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static uk.gov.gchq.gaffer.federatedstore.FederatedStoreConstants.getSkipFailedFederatedStoreExecute;
+
+/**
+ * Executes an operation on each of a collection of federated graphs, either
+ * one graph at a time or concurrently using an {@link ExecutorService}.
+ * <p>
+ * When executing concurrently the results are returned in the order the
+ * graphs complete, and each graph can be given a timeout, measured from when
+ * it starts executing. A graph that fails or times out is skipped if the
+ * operation has the skip failed execute option set, otherwise the remaining
+ * graphs are cancelled and an {@link OperationException} is thrown.
+ * </p>
+ */
+public final class FederatedGraphExecutor {
+    private static final Logger LOGGER = LoggerFactory.getLogger(FederatedGraphExecutor.class);
+
+    private FederatedGraphExecutor() {
+        // Private constructor to prevent instantiation.
+    }
+
+    /**
+     * Executes an operation on a single graph.
+     *
+     * @param <OP> the operation type
+     * @param <T>  the result type
+     */
+    @FunctionalInterface
+    public interface GraphTask<OP extends Operation, T> {
+        T execute(final Graph graph, final OP operation) throws Exception;
+    }
+
+    /**
+     * Executes the operation on each graph. The operation is updated for each
+     * graph, and graphs the operation cannot be executed on are skipped.
+     *
+     * @param executor  the executor to run the graphs concurrently on, or
+     *                  null to run the graphs one at a time
+     * @param timeout   the time in milliseconds to wait for each graph when
+     *                  executing concurrently, less than 1 means no timeout
+     * @param graphs    the graphs
+     * @param operation the operation
+     * @param task      executes the updated operation on a graph
+     * @param <OP>      the operation type
+     * @param <T>       the result type
+     * @return the non null results
+     * @throws OperationException if a graph fails and failures are not skipped
+     */
+    public static <OP extends Operation, T> List<T> execute(final ExecutorService executor,
+                                                            final long timeout,
+                                                            final Collection<Graph> graphs,
+                                                            final OP operation,
+                                                            final GraphTask<OP, T> task) throws OperationException {
+        if (null == executor || graphs.size() < 2) {
+            return executeSequentially(graphs, operation, task);
+        }
+        return executeConcurrently(executor, timeout, graphs, operation, task);
+    }
+
+    private static <OP extends Operation, T> List<T> executeSequentially(final Collection<Graph> graphs,
+                                                                         final OP operation,
+                                                                         final GraphTask<OP, T> task) throws OperationException {
+        final List<T> results = new ArrayList<>(graphs.size());
+        for (final Graph graph : graphs) {
+            final OP updatedOp = FederatedStoreUtil.updateOperationForGraph(operation, graph);
+            if (null != updatedOp) {
+                T result = null;
+                try {
+                    result = task.execute(graph, updatedOp);
+                } catch (final Exception e) {
+                    handleFailure(operation, updatedOp, graph, e);
+                }
+                if (null != result) {
+                    results.add(result);
+                }
+            }
+        }
+        return results;
+    }
+
+    private static <OP extends Operation, T> List<T> executeConcurrently(final ExecutorService executor,
+                                                                         final long timeout,
+                                                                         final Collection<Graph> graphs,
+                                                                         final OP operation,
+                                                                         final GraphTask<OP, T> task) throws OperationException {
+        final CompletionService<T> completionService = new ExecutorCompletionService<>(executor);
+        final Map<Future<T>, GraphExecution<OP>> pending = new LinkedHashMap<>();
+        final List<T> results = new ArrayList<>(graphs.size());
+        try {
+            for (final Graph graph : graphs) {
+                final OP updatedOp = FederatedStoreUtil.updateOperationForGraph(operation, graph);
+                if (null != updatedOp) {
+                    final GraphExecution<OP> execution = new GraphExecution<>(graph, updatedOp);
+                    pending.put(completionService.submit(() -> {
+                        execution.startTime = System.currentTimeMillis();
+                        return task.execute(graph, updatedOp);
+                    }), execution);
+                }
+            }
+
+            while (!pending.isEmpty()) {
+                final Future<T> future = timeout > 0
+                        ? completionService.poll(getPollTime(pending.values(), timeout), TimeUnit.MILLISECONDS)
+                        : completionService.take();
+                if (null == future) {
+                    removeTimedOut(pending, timeout, operation);
+                    continue;
+                }
+
+                final GraphExecution<OP> execution = pending.remove(future);
+                if (null == execution) {
+                    // The graph has already timed out and been cancelled
+                    continue;
+                }
+                try {
+                    final T result = future.get();
+                    if (null != result) {
+                        results.add(result);
+                    }
+                } catch (final ExecutionException e) {
+                    final Throwable cause = e.getCause();
+                    if (cause instanceof Error) {
+                        throw (Error) cause;
+                    }
+                    handleFailure(operation, execution.operation, execution.graph, (Exception) cause);
+                }
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OperationException("Interrupted while executing " + operation.getClass().getSimpleName() + " on the federated graphs", e);
+        } finally {
+            pending.keySet().forEach(future -> future.cancel(true));
+        }
+        return results;
+    }
+
+    /**
+     * Gets the time to wait until the next graph that has started would time
+     * out. If no graphs have started then the full timeout is used.
+     *
+     * @param executions the graph executions
+     * @param timeout    the timeout for each graph in milliseconds
+     * @return the time to wait in milliseconds
+     */
+    private static long getPollTime(final Collection<? extends GraphExecution<?>> executions, final long timeout) {
+        final long now = System.currentTimeMillis();
+        long pollTime = timeout;
+        for (final GraphExecution<?> execution : executions) {
+            final long startTime = execution.startTime;
+            if (startTime > 0) {
+                pollTime = Math.min(pollTime, startTime + timeout - now);
+            }
+        }
+        return Math.max(1, pollTime);
+    }
+
+    private static <OP extends Operation, T> void removeTimedOut(final Map<Future<T>, GraphExecution<OP>> pending,
+                                                                  final long timeout,
+                                                                  final OP operation) throws OperationException {
+        final long now = System.currentTimeMillis();
+        final Iterator<Map.Entry<Future<T>, GraphExecution<OP>>> itr = pending.entrySet().iterator();
+        while (itr.hasNext()) {
+            final Map.Entry<Future<T>, GraphExecution<OP>> entry = itr.next();
+            final GraphExecution<OP> execution = entry.getValue();
+            final long startTime = execution.startTime;
+            if (startTime > 0 && now - startTime >= timeout && !entry.getKey().isDone()) {
+                entry.getKey().cancel(true);
+                itr.remove();
+                handleFailure(operation, execution.operation, execution.graph,
+                        new TimeoutException("Graph did not respond within " + timeout + "ms"));
+            }
+        }
+    }
+
+    private static void handleFailure(final Operation operation, final Operation updatedOp, final Graph graph, final Exception e) throws OperationException {
+        if (!Boolean.valueOf(getSkipFailedFederatedStoreExecute(updatedOp))) {
+            throw new OperationException(FederatedStoreUtil.createOperationErrorMsg(operation, graph.getGraphId(), e), e);
+        }
+        LOGGER.warn("Skipping graph {} as it failed to execute {}", graph.getGraphId(), operation.getClass().getSimpleName(), e);
+    }
+
+    private static final class GraphExecution<OP extends Operation> {
+        private final Graph graph;
+        private final OP operation;
+        private volatile long startTime;
+
+        private GraphExecution(final Graph graph, final OP operation) {
+            this.graph = graph;
+            this.operation = operation;
+        }
+    }
+}
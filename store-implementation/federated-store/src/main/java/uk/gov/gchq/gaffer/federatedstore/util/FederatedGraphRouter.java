@@ -0,0 +1,610 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.federatedstore.util;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import uk.gov.gchq.gaffer.commonutil.CloseableUtil;
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
+import uk.gov.gchq.gaffer.commonutil.iterable.TransformIterable;
+import uk.gov.gchq.gaffer.data.element.Edge;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.Entity;
+import uk.gov.gchq.gaffer.data.element.id.EdgeId;
+import uk.gov.gchq.gaffer.data.element.id.ElementId;
+import uk.gov.gchq.gaffer.data.element.id.EntityId;
+import uk.gov.gchq.gaffer.data.elementdefinition.view.View;
+import uk.gov.gchq.gaffer.exception.SerialisationException;
+import uk.gov.gchq.gaffer.graph.Graph;
+import uk.gov.gchq.gaffer.jsonserialisation.JSONSerialiser;
+import uk.gov.gchq.gaffer.operation.Operation;
+import uk.gov.gchq.gaffer.operation.Operations;
+import uk.gov.gchq.gaffer.operation.SeedMatching.SeedMatchingType;
+import uk.gov.gchq.gaffer.operation.impl.add.AddElements;
+import uk.gov.gchq.gaffer.operation.impl.get.GetAdjacentIds;
+import uk.gov.gchq.gaffer.operation.impl.get.GetAllElements;
+import uk.gov.gchq.gaffer.operation.impl.get.GetElements;
+import uk.gov.gchq.gaffer.operation.io.Output;
+import uk.gov.gchq.gaffer.user.User;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@code FederatedGraphRouter} keeps a summary of the vertices in each
+ * federated graph, held in a {@link BloomFilter}, and uses the summaries to
+ * only send seeded operations to the graphs that may contain the seeds.
+ * <p>
+ * Graphs are routed by group by {@link FederatedStoreUtil#updateOperationForGraph(Operation, Graph)},
+ * which removes groups that are not in a graph's schema from the view, so this
+ * only prunes graphs by their vertices.
+ * </p>
+ * <p>
+ * A graph's summary is built by reading all of the vertices in the graph on a
+ * background thread and is rebuilt every refresh interval, replacing the
+ * previous summary once the new one is complete. Elements added through the
+ * FederatedStore are added to the summary as they are written. Other writes
+ * through the FederatedStore, such as bulk imports, stop the graph being
+ * pruned until its summary has been rebuilt after the write.
+ * </p>
+ * <p>
+ * A graph is only pruned whilst its summary is complete. That requires the
+ * summary to have been rebuilt within the last two refresh intervals, so
+ * elements written directly to the graph are picked up, and to have been read
+ * with data auths that can see every element. Graphs with a visibility
+ * property are only pruned if routing data auths have been configured, and
+ * these must include every auth used in the graph's visibilities. If the
+ * refresh interval is less than 1 graphs are never pruned. Otherwise the
+ * operation is sent to the graph.
+ * </p>
+ */
+public class FederatedGraphRouter {
+    public static final int MAX_ROUTED_SEEDS = 1000;
+    public static final String ROUTING_USER_ID = "federatedStoreRouting";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FederatedGraphRouter.class);
+    private static final int BATCH_SIZE = 1000;
+
+    private final Map<String, VertexSummary> summaries = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "federatedGraphRouter");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final int expectedVertices;
+    private final double falsePositiveRate;
+    private final long refreshInterval;
+    private final boolean hasDataAuths;
+    private final User user;
+
+    /**
+     * @param expectedVertices  the number of vertices each summary is sized for
+     * @param falsePositiveRate the false positive rate of each summary at the
+     *                          expected number of vertices
+     * @param refreshInterval   the time in milliseconds between rebuilding the
+     *                          summaries, less than 1 means graphs are never pruned
+     * @param dataAuths         the data auths used to read the vertices in the
+     *                          graphs, these must include every auth used in the
+     *                          visibilities of the graphs
+     */
+    public FederatedGraphRouter(final int expectedVertices, final double falsePositiveRate,
+                                final long refreshInterval, final Collection<String> dataAuths) {
+        if (expectedVertices < 1) {
+            throw new IllegalArgumentException("The expected number of vertices must be at least 1");
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("The false positive rate must be between 0 and 1");
+        }
+        if (refreshInterval < 1) {
+            LOGGER.warn("The routing refresh interval is {}, so graphs will not be pruned", refreshInterval);
+        }
+        this.expectedVertices = expectedVertices;
+        this.falsePositiveRate = falsePositiveRate;
+        this.refreshInterval = refreshInterval;
+        this.hasDataAuths = null != dataAuths && !dataAuths.isEmpty();
+        this.user = new User.Builder()
+                .userId(ROUTING_USER_ID)
+                .dataAuths(null != dataAuths ? dataAuths : Collections.emptySet())
+                .build();
+    }
+
+    /**
+     * Gets the graphs that the operation should be executed on. Only
+     * {@link GetElements} and {@link GetAdjacentIds} operations with a
+     * collection of at most {@link #MAX_ROUTED_SEEDS} seeds are routed, all the
+     * graphs are returned for other operations.
+     * <p>
+     * A graph is kept if it may contain any vertex of a seed, as an
+     * {@link EdgeId} seed also matches the entities at either end of the edge.
+     * Only when the seeds are matched with {@link SeedMatchingType#EQUAL} and
+     * the view only contains edges must a graph contain all the vertices of a
+     * seed.
+     * </p>
+     *
+     * @param graphs    the graphs
+     * @param operation the operation
+     * @return the graphs that may contain results for the operation
+     */
+    public Collection<Graph> route(final Collection<Graph> graphs, final Operation operation) {
+        if (refreshInterval < 1) {
+            return graphs;
+        }
+
+        final Iterable<?> seeds;
+        boolean matchAllVertices = false;
+        if (operation instanceof GetElements) {
+            final GetElements getElements = (GetElements) operation;
+            seeds = getElements.getInput();
+            final View view = getElements.getView();
+            matchAllVertices = SeedMatchingType.EQUAL == getElements.getSeedMatching()
+                    && null != view && view.hasEdges() && !view.hasEntities();
+        } else if (operation instanceof GetAdjacentIds) {
+            seeds = ((GetAdjacentIds) operation).getInput();
+        } else {
+            return graphs;
+        }
+        if (!(seeds instanceof Collection) || ((Collection) seeds).size() > MAX_ROUTED_SEEDS) {
+            return graphs;
+        }
+
+        final List<List<byte[]>> seedKeys = getSeedKeys((Collection<?>) seeds);
+        if (null == seedKeys) {
+            return graphs;
+        }
+
+        final long now = System.currentTimeMillis();
+        final Set<Graph> routedGraphs = new LinkedHashSet<>(graphs.size());
+        for (final Graph graph : graphs) {
+            final VertexSummary summary = getSummary(graph);
+            final boolean mightContainSeeds = matchAllVertices
+                    ? seedKeys.stream().anyMatch(summary::mightContainAll)
+                    : seedKeys.stream().anyMatch(summary::mightContainAny);
+            if (!summary.isComplete(now, refreshInterval) || mightContainSeeds) {
+                routedGraphs.add(graph);
+            }
+        }
+        if (routedGraphs.size() < graphs.size()) {
+            LOGGER.debug("Routed {} to {} of {} graphs", operation.getClass().getSimpleName(), routedGraphs.size(), graphs.size());
+        }
+        return Collections.unmodifiableSet(routedGraphs);
+    }
+
+    /**
+     * Adds the vertices of elements that are being added to a graph to the
+     * graph's summary. A collection of elements is added to the summary
+     * straight away. Any other iterable is wrapped, so each element is added
+     * to the summary as it is read from the returned iterable and before it is
+     * written to the graph.
+     *
+     * @param graph    the graph the elements are being added to
+     * @param elements the elements
+     * @return the elements to add to the graph
+     */
+    public Iterable<? extends Element> addElements(final Graph graph, final Iterable<? extends Element> elements) {
+        if (null == elements) {
+            return null;
+        }
+
+        final VertexSummary summary = getSummary(graph);
+        if (!(elements instanceof Collection)) {
+            return new TransformIterable<Element, Element>(elements) {
+                @Override
+                protected Element transform(final Element element) {
+                    final List<byte[]> keys = new ArrayList<>(2);
+                    try {
+                        addVertexKeys(element, keys);
+                        summary.putAll(keys);
+                    } catch (final SerialisationException e) {
+                        LOGGER.warn("Unable to summarise the vertices added to graph {}", graph.getGraphId(), e);
+                        invalidate(graph.getGraphId(), summary);
+                    }
+                    return element;
+                }
+            };
+        }
+
+        final List<byte[]> keys = new ArrayList<>(BATCH_SIZE);
+        try {
+            for (final Element element : elements) {
+                addVertexKeys(element, keys);
+                if (keys.size() >= BATCH_SIZE) {
+                    summary.putAll(keys);
+                    keys.clear();
+                }
+            }
+            summary.putAll(keys);
+        } catch (final SerialisationException e) {
+            LOGGER.warn("Unable to summarise the vertices added to graph {}", graph.getGraphId(), e);
+            invalidate(graph.getGraphId(), summary);
+        }
+        return elements;
+    }
+
+    /**
+     * Stops the graph being pruned whilst it is written to by an operation
+     * that can't be followed by {@link #addElements(Graph, Iterable)}. This
+     * must be called before the write starts and followed by
+     * {@link #finishWrite(Graph)} when it has finished.
+     *
+     * @param graph the graph
+     */
+    public void startWrite(final Graph graph) {
+        getSummary(graph).startWrite();
+    }
+
+    /**
+     * Rebuilds the graph's summary after a write started with
+     * {@link #startWrite(Graph)} has finished. The graph can be pruned again
+     * once the summary has been rebuilt and no other writes are in progress.
+     *
+     * @param graph the graph
+     */
+    public void finishWrite(final Graph graph) {
+        final VertexSummary summary = getSummary(graph);
+        if (summary.finishWrite()) {
+            scheduleBuild(graph.getGraphId(), summary, 0);
+        }
+    }
+
+    /**
+     * Removes the summary of a graph, for when the graph is removed.
+     *
+     * @param graphId the graph id
+     */
+    public void remove(final String graphId) {
+        final VertexSummary summary = summaries.remove(graphId);
+        if (null != summary) {
+            summary.invalidate();
+        }
+    }
+
+    /**
+     * @param graphId the graph id
+     * @return true if the graph has a complete summary that can be used to
+     * prune it
+     */
+    public boolean isReady(final String graphId) {
+        final VertexSummary summary = summaries.get(graphId);
+        return refreshInterval > 0 && null != summary && summary.isComplete(System.currentTimeMillis(), refreshInterval);
+    }
+
+    public void close() {
+        executor.shutdownNow();
+        summaries.clear();
+    }
+
+    /**
+     * Operations that may change the elements in a graph. These are
+     * {@link AddElements} and the other operations without an output that
+     * add or import elements, or chains containing them.
+     *
+     * @param operation the operation
+     * @return true if the operation may write to a graph
+     */
+    public static boolean isWrite(final Operation operation) {
+        if (operation instanceof Operations) {
+            for (final Operation nestedOp : ((Operations<?>) operation).getOperations()) {
+                if (isWrite(nestedOp)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        if (operation instanceof AddElements) {
+            return true;
+        }
+        if (null == operation || operation instanceof Output) {
+            return false;
+        }
+        final String name = operation.getClass().getSimpleName();
+        return name.startsWith("AddElements") || name.startsWith("Import");
+    }
+
+    private VertexSummary getSummary(final Graph graph) {
+        final String graphId = graph.getGraphId();
+        VertexSummary summary = summaries.get(graphId);
+        if (null == summary) {
+            final VertexSummary newSummary = new VertexSummary(graph);
+            summary = summaries.putIfAbsent(graphId, newSummary);
+            if (null == summary) {
+                // The build can only be scheduled once the summary has been
+                // added, otherwise it would treat the graph as removed
+                summary = newSummary;
+                scheduleBuild(graphId, summary, 0);
+            }
+        }
+        return summary;
+    }
+
+    private void invalidate(final String graphId, final VertexSummary summary) {
+        summary.invalidate();
+        scheduleBuild(graphId, summary, 0);
+    }
+
+    private void scheduleBuild(final String graphId, final VertexSummary summary, final long delay) {
+        final long task = summary.scheduleBuild(System.currentTimeMillis() + delay);
+        if (task > 0) {
+            executor.schedule(() -> build(graphId, summary, task), delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void build(final String graphId, final VertexSummary summary, final long task) {
+        if (summary != summaries.get(graphId)) {
+            // The graph has been removed
+            return;
+        }
+
+        final long startTime = System.currentTimeMillis();
+        final Long version = summary.startBuild(task, createFilter());
+        if (null == version) {
+            // The build has been replaced by an earlier build
+            return;
+        }
+        CloseableIterable<? extends Element> elements = null;
+        boolean built = false;
+        try {
+            elements = summary.graph.execute(new GetAllElements(), user);
+            final List<byte[]> keys = new ArrayList<>(BATCH_SIZE);
+            for (final Element element : elements) {
+                addVertexKeys(element, keys);
+                if (keys.size() >= BATCH_SIZE) {
+                    summary.putAll(keys);
+                    keys.clear();
+                }
+            }
+            summary.putAll(keys);
+            built = summary.finishBuild(version, startTime, isReadable(summary.graph));
+            LOGGER.debug("Built the vertex summary for graph {}", graphId);
+        } catch (final Exception e) {
+            LOGGER.warn("Unable to build the vertex summary for graph {}", graphId, e);
+            summary.abortBuild();
+        } finally {
+            CloseableUtil.close(elements);
+        }
+
+        if (!built && summary.isInvalidatedSince(version) && !summary.isWriting()) {
+            // The graph changed while it was being read, so read it again
+            scheduleBuild(graphId, summary, 0);
+        } else if (refreshInterval > 0) {
+            scheduleBuild(graphId, summary, refreshInterval);
+        }
+    }
+
+    /**
+     * A graph can only be read completely by the routing user if it has no
+     * visibilities, or if the routing data auths have been configured.
+     *
+     * @param graph the graph
+     * @return true if the routing user can read every element in the graph
+     */
+    private boolean isReadable(final Graph graph) {
+        return hasDataAuths || (null != graph.getSchema() && null == graph.getSchema().getVisibilityProperty());
+    }
+
+    private BloomFilter<byte[]> createFilter() {
+        return BloomFilter.create(Funnels.byteArrayFunnel(), expectedVertices, falsePositiveRate);
+    }
+
+    /**
+     * Gets the vertex keys of each seed, or null if a seed could not be
+     * converted to keys.
+     *
+     * @param seeds the seeds
+     * @return the keys of each seed
+     */
+    private static List<List<byte[]>> getSeedKeys(final Collection<?> seeds) {
+        final List<List<byte[]>> seedKeys = new ArrayList<>(seeds.size());
+        try {
+            for (final Object seed : seeds) {
+                final List<byte[]> keys = new ArrayList<>(2);
+                if (seed instanceof EntityId) {
+                    keys.add(toKey(((EntityId) seed).getVertex()));
+                } else if (seed instanceof EdgeId) {
+                    keys.add(toKey(((EdgeId) seed).getSource()));
+                    keys.add(toKey(((EdgeId) seed).getDestination()));
+                } else if (!(seed instanceof ElementId) && null != seed) {
+                    keys.add(toKey(seed));
+                } else {
+                    return null;
+                }
+                seedKeys.add(keys);
+            }
+        } catch (final SerialisationException e) {
+            LOGGER.debug("Unable to route by seeds", e);
+            return null;
+        }
+        return seedKeys;
+    }
+
+    private static void addVertexKeys(final Element element, final List<byte[]> keys) throws SerialisationException {
+        if (element instanceof Entity) {
+            keys.add(toKey(((Entity) element).getVertex()));
+        } else if (element instanceof Edge) {
+            keys.add(toKey(((Edge) element).getSource()));
+            keys.add(toKey(((Edge) element).getDestination()));
+        }
+    }
+
+    private static byte[] toKey(final Object vertex) throws SerialisationException {
+        return JSONSerialiser.serialise(vertex);
+    }
+
+    private static final class VertexSummary {
+        private final Graph graph;
+        private BloomFilter<byte[]> filter;
+        private BloomFilter<byte[]> pendingFilter;
+        private boolean readable;
+        private long builtTime;
+        private long buildDuration;
+        private int writesInProgress;
+        private long version;
+        private long scheduledTask;
+        private long scheduledTime = Long.MAX_VALUE;
+
+        private VertexSummary(final Graph graph) {
+            this.graph = graph;
+        }
+
+        /**
+         * The summary is complete if it was read with auths that can see
+         * every element and the build it came from started recently enough
+         * to have been refreshed since, allowing for the time the builds take.
+         *
+         * @param now             the current time
+         * @param refreshInterval the interval between summary builds
+         * @return true if the summary is complete
+         */
+        private synchronized boolean isComplete(final long now, final long refreshInterval) {
+            return null != filter
+                    && readable
+                    && 0 == writesInProgress
+                    && now - builtTime <= 2 * (refreshInterval + buildDuration);
+        }
+
+        private synchronized boolean mightContainAll(final List<byte[]> keys) {
+            if (null == filter) {
+                return true;
+            }
+            for (final byte[] key : keys) {
+                if (!filter.mightContain(key)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private synchronized boolean mightContainAny(final List<byte[]> keys) {
+            if (null == filter) {
+                return true;
+            }
+            for (final byte[] key : keys) {
+                if (filter.mightContain(key)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private synchronized void putAll(final List<byte[]> keys) {
+            for (final byte[] key : keys) {
+                if (null != filter) {
+                    filter.put(key);
+                }
+                if (null != pendingFilter) {
+                    pendingFilter.put(key);
+                }
+            }
+        }
+
+        private synchronized void invalidate() {
+            filter = null;
+            version++;
+        }
+
+        private synchronized void startWrite() {
+            writesInProgress++;
+            invalidate();
+        }
+
+        /**
+         * @return true if there are no more writes in progress, so the
+         * summary should be rebuilt
+         */
+        private synchronized boolean finishWrite() {
+            if (writesInProgress > 0) {
+                writesInProgress--;
+            }
+            invalidate();
+            return 0 == writesInProgress;
+        }
+
+        private synchronized boolean isWriting() {
+            return writesInProgress > 0;
+        }
+
+        /**
+         * @param time the time the build should run
+         * @return the id of the build task to schedule, or 0 if a build is
+         * already scheduled to run by the given time
+         */
+        private synchronized long scheduleBuild(final long time) {
+            if (time >= scheduledTime) {
+                return 0;
+            }
+            scheduledTime = time;
+            return ++scheduledTask;
+        }
+
+        /**
+         * @param task      the id of the build task
+         * @param newFilter the filter to build the summary into
+         * @return the version being built, or null if the task is no longer
+         * the scheduled build
+         */
+        private synchronized Long startBuild(final long task, final BloomFilter<byte[]> newFilter) {
+            if (task != scheduledTask) {
+                return null;
+            }
+            scheduledTime = Long.MAX_VALUE;
+            pendingFilter = newFilter;
+            return version;
+        }
+
+        /**
+         * Replaces the summary with the newly built filter, unless the graph
+         * has been written to by an operation that can't be followed since
+         * the build started, or is still being written to.
+         *
+         * @param buildVersion the version that was built
+         * @param startTime    the time the build started
+         * @param isReadable   true if the build could read every element
+         * @return true if the built filter replaced the summary
+         */
+        private synchronized boolean finishBuild(final long buildVersion, final long startTime, final boolean isReadable) {
+            final BloomFilter<byte[]> builtFilter = pendingFilter;
+            pendingFilter = null;
+            if (buildVersion != version || 0 != writesInProgress || null == builtFilter) {
+                return false;
+            }
+            filter = builtFilter;
+            readable = isReadable;
+            builtTime = startTime;
+            buildDuration = System.currentTimeMillis() - startTime;
+            return true;
+        }
+
+        private synchronized void abortBuild() {
+            pendingFilter = null;
+        }
+
+        private synchronized boolean isInvalidatedSince(final long buildVersion) {
+            return buildVersion != version;
+        }
+    }
+}
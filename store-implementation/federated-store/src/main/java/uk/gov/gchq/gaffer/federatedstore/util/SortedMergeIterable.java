@@ -0,0 +1,423 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.federatedstore.util;
+
+import uk.gov.gchq.gaffer.commonutil.CloseableUtil;
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterator;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.exception.SerialisationException;
+import uk.gov.gchq.gaffer.jsonserialisation.JSONSerialiser;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.function.BinaryOperator;
+import java.util.function.Predicate;
+
+/**
+ * A {@code SortedMergeIterable} merges {@link Iterable}s of {@link Element}s
+ * that are each sorted with the same {@link Comparator}, aggregating
+ * elements with the same key as they are read.
+ * <p>
+ * This is a streaming k-way merge, so only the next element from each of the
+ * iterables is held in memory. Elements that the comparator orders as equal
+ * are aggregated together if they are in an aggregated group, otherwise they
+ * are all returned. If an iterable is found not to be sorted an
+ * {@link IllegalStateException} is thrown, as the elements could no longer be
+ * aggregated correctly.
+ * </p>
+ * <p>
+ * Iterables that are not known to be sorted can be sorted first, when an
+ * iterator is created. Each such iterable is read in runs of at most
+ * {@code maxElementsInMemory} elements, each run is sorted and, if the
+ * iterable has more elements, written to a temporary file as JSON. The runs
+ * are then merged with the other iterables, so at most
+ * {@code maxElementsInMemory} elements of each iterable are held in memory.
+ * Sorting is blocking: creating an iterator reads every iterable that needs
+ * sorting in full before the first element is returned. Iterables that are
+ * already sorted are streamed, so the merge is only fully streaming when none
+ * of the iterables need sorting.
+ * </p>
+ * <p>
+ * The first element of each aggregated key is deep copied, by round tripping
+ * it through JSON, before it is aggregated, so the elements and properties
+ * returned by the iterables are never changed.
+ * </p>
+ */
+public class SortedMergeIterable implements CloseableIterable<Element> {
+    public static final int DEFAULT_MAX_ELEMENTS_IN_MEMORY = 100000;
+
+    private final List<? extends Iterable<? extends Element>> iterables;
+    private final Comparator<Element> comparator;
+    private final BinaryOperator<Element> aggregator;
+    private final Predicate<Element> isAggregated;
+    private final Predicate<Iterable<? extends Element>> isSorted;
+    private final int maxElementsInMemory;
+    private final List<SortedMergeIterator> iterators = new ArrayList<>();
+
+    /**
+     * @param iterables    the sorted iterables to merge
+     * @param comparator   the comparator the iterables are sorted with, elements
+     *                     that are equal have the same key
+     * @param aggregator   aggregates 2 elements with the same key
+     * @param isAggregated tests if an element is in an aggregated group
+     */
+    public SortedMergeIterable(final List<? extends Iterable<? extends Element>> iterables,
+                               final Comparator<Element> comparator,
+                               final BinaryOperator<Element> aggregator,
+                               final Predicate<Element> isAggregated) {
+        this(iterables, comparator, aggregator, isAggregated, false);
+    }
+
+    /**
+     * @param iterables     the iterables to merge
+     * @param comparator    the comparator to merge the iterables with, elements
+     *                      that are equal have the same key
+     * @param aggregator    aggregates 2 elements with the same key
+     * @param isAggregated  tests if an element is in an aggregated group
+     * @param sortIterables true if each iterable should be sorted before it
+     *                      is merged, false if the iterables are already
+     *                      sorted by the comparator
+     */
+    public SortedMergeIterable(final List<? extends Iterable<? extends Element>> iterables,
+                               final Comparator<Element> comparator,
+                               final BinaryOperator<Element> aggregator,
+                               final Predicate<Element> isAggregated,
+                               final boolean sortIterables) {
+        this(iterables, comparator, aggregator, isAggregated, sortIterables, DEFAULT_MAX_ELEMENTS_IN_MEMORY);
+    }
+
+    /**
+     * @param iterables           the iterables to merge
+     * @param comparator          the comparator to merge the iterables with,
+     *                            elements that are equal have the same key
+     * @param aggregator          aggregates 2 elements with the same key
+     * @param isAggregated        tests if an element is in an aggregated group
+     * @param sortIterables       true if each iterable should be sorted before
+     *                            it is merged, false if the iterables are
+     *                            already sorted by the comparator
+     * @param maxElementsInMemory the maximum number of elements of each
+     *                            iterable to sort in memory before the sorted
+     *                            run is written to disk
+     */
+    public SortedMergeIterable(final List<? extends Iterable<? extends Element>> iterables,
+                               final Comparator<Element> comparator,
+                               final BinaryOperator<Element> aggregator,
+                               final Predicate<Element> isAggregated,
+                               final boolean sortIterables,
+                               final int maxElementsInMemory) {
+        this(iterables, comparator, aggregator, isAggregated, iterable -> !sortIterables, maxElementsInMemory);
+    }
+
+    /**
+     * @param iterables           the iterables to merge
+     * @param comparator          the comparator to merge the iterables with,
+     *                            elements that are equal have the same key
+     * @param aggregator          aggregates 2 elements with the same key
+     * @param isAggregated        tests if an element is in an aggregated group
+     * @param isSorted            tests if an iterable is already sorted by the
+     *                            comparator, iterables that are not are sorted
+     *                            before they are merged
+     * @param maxElementsInMemory the maximum number of elements of each
+     *                            iterable to sort in memory before the sorted
+     *                            run is written to disk
+     */
+    public SortedMergeIterable(final List<? extends Iterable<? extends Element>> iterables,
+                               final Comparator<Element> comparator,
+                               final BinaryOperator<Element> aggregator,
+                               final Predicate<Element> isAggregated,
+                               final Predicate<Iterable<? extends Element>> isSorted,
+                               final int maxElementsInMemory) {
+        if (null == iterables || iterables.isEmpty()) {
+            throw new IllegalArgumentException("At least 1 iterable is required.");
+        }
+        if (null == comparator || null == aggregator || null == isAggregated || null == isSorted) {
+            throw new IllegalArgumentException("A comparator, aggregator, aggregated group predicate and sorted predicate are required.");
+        }
+        if (maxElementsInMemory < 1) {
+            throw new IllegalArgumentException("The maximum number of elements in memory must be at least 1, but was " + maxElementsInMemory);
+        }
+        this.iterables = iterables;
+        this.comparator = comparator;
+        this.aggregator = aggregator;
+        this.isAggregated = isAggregated;
+        this.isSorted = isSorted;
+        this.maxElementsInMemory = maxElementsInMemory;
+    }
+
+    @Override
+    public CloseableIterator<Element> iterator() {
+        final SortedMergeIterator iterator = new SortedMergeIterator();
+        iterators.add(iterator);
+        return iterator;
+    }
+
+    public Comparator<Element> getComparator() {
+        return comparator;
+    }
+
+    @Override
+    public void close() {
+        iterators.forEach(SortedMergeIterator::close);
+        iterators.clear();
+        for (final Iterable<? extends Element> iterable : iterables) {
+            CloseableUtil.close(iterable);
+        }
+    }
+
+    private final class SortedMergeIterator implements CloseableIterator<Element> {
+        private final PriorityQueue<Source> sources;
+        private final List<Source> allSources;
+
+        private SortedMergeIterator() {
+            sources = new PriorityQueue<>(iterables.size(), (a, b) -> {
+                final int result = comparator.compare(a.head, b.head);
+                return 0 != result ? result : Integer.compare(a.index, b.index);
+            });
+            allSources = new ArrayList<>(iterables.size());
+            try {
+                for (final Iterable<? extends Element> iterable : iterables) {
+                    if (isSorted.test(iterable)) {
+                        addSource(iterable.iterator());
+                    } else {
+                        // The runs are added in order, so equal elements keep their order
+                        for (final Iterator<? extends Element> run : sort(iterable)) {
+                            addSource(run);
+                        }
+                    }
+                }
+            } catch (final RuntimeException | Error e) {
+                close();
+                throw e;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !sources.isEmpty();
+        }
+
+        @Override
+        public Element next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            Element result = take();
+            if (isAggregated.test(result)) {
+                boolean cloned = false;
+                while (!sources.isEmpty() && 0 == comparator.compare(result, sources.peek().head)) {
+                    if (!cloned) {
+                        // Aggregation updates the first element and its
+                        // properties, so deep copy it rather than changing
+                        // an element or property owned by a graph.
+                        result = deepClone(result);
+                        cloned = true;
+                    }
+                    result = aggregator.apply(result, take());
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public void close() {
+            sources.clear();
+            allSources.forEach(source -> CloseableUtil.close(source.iterator));
+        }
+
+        private void addSource(final Iterator<? extends Element> iterator) {
+            final Source source = new Source(allSources.size(), iterator);
+            allSources.add(source);
+            if (source.advance()) {
+                sources.add(source);
+            }
+        }
+
+        /**
+         * Sorts the iterable in runs of at most maxElementsInMemory elements.
+         * All but the last run are written to temporary files.
+         *
+         * @param iterable the iterable to sort
+         * @return the sorted runs
+         */
+        private List<Iterator<? extends Element>> sort(final Iterable<? extends Element> iterable) {
+            final List<Iterator<? extends Element>> runs = new ArrayList<>();
+            final List<Element> elements = new ArrayList<>();
+            final Iterator<? extends Element> iterator = iterable.iterator();
+            try {
+                while (iterator.hasNext()) {
+                    final Element element = iterator.next();
+                    if (null != element) {
+                        elements.add(element);
+                        if (elements.size() >= maxElementsInMemory && iterator.hasNext()) {
+                            elements.sort(comparator);
+                            runs.add(new SpilledRun(elements));
+                            elements.clear();
+                        }
+                    }
+                }
+            } catch (final RuntimeException | Error e) {
+                for (final Iterator<? extends Element> run : runs) {
+                    CloseableUtil.close(run);
+                }
+                throw e;
+            } finally {
+                CloseableUtil.close(iterator);
+            }
+            elements.sort(comparator);
+            runs.add(elements.iterator());
+            return runs;
+        }
+
+        private Element take() {
+            final Source source = sources.poll();
+            final Element element = source.head;
+            if (source.advance()) {
+                sources.add(source);
+            }
+            return element;
+        }
+    }
+
+    private static Element deepClone(final Element element) {
+        try {
+            return JSONSerialiser.deserialise(JSONSerialiser.serialise(element), Element.class);
+        } catch (final SerialisationException e) {
+            throw new RuntimeException("Unable to copy element before aggregating it: " + element, e);
+        }
+    }
+
+    /**
+     * A sorted run of elements written to a temporary file, 1 JSON element
+     * per line. The file is deleted when the run is closed, which happens
+     * when it has been read.
+     */
+    private static final class SpilledRun implements CloseableIterator<Element> {
+        private final Path file;
+        private final BufferedReader reader;
+        private String nextLine;
+
+        private SpilledRun(final List<Element> elements) {
+            try {
+                file = Files.createTempFile("gaffer-sorted-merge", ".json");
+            } catch (final IOException e) {
+                throw new UncheckedIOException("Unable to create a file to sort the results in", e);
+            }
+            try {
+                try (final BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                    for (final Element element : elements) {
+                        writer.write(new String(JSONSerialiser.serialise(element), StandardCharsets.UTF_8));
+                        writer.newLine();
+                    }
+                }
+                reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+            } catch (final IOException e) {
+                delete();
+                throw new UncheckedIOException("Unable to write sorted results to " + file, e);
+            } catch (final RuntimeException e) {
+                delete();
+                throw e;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (null == nextLine) {
+                try {
+                    nextLine = reader.readLine();
+                } catch (final IOException e) {
+                    throw new UncheckedIOException("Unable to read sorted results from " + file, e);
+                }
+            }
+            return null != nextLine;
+        }
+
+        @Override
+        public Element next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final String line = nextLine;
+            nextLine = null;
+            try {
+                return JSONSerialiser.deserialise(line, Element.class);
+            } catch (final SerialisationException e) {
+                throw new RuntimeException("Unable to read sorted results from " + file, e);
+            }
+        }
+
+        @Override
+        public void close() {
+            CloseableUtil.close(reader);
+            delete();
+        }
+
+        private void delete() {
+            try {
+                Files.deleteIfExists(file);
+            } catch (final IOException e) {
+                file.toFile().deleteOnExit();
+            }
+        }
+    }
+
+    private final class Source {
+        private final int index;
+        private final Iterator<? extends Element> iterator;
+        private Element head;
+
+        private Source(final int index, final Iterator<? extends Element> iterator) {
+            this.index = index;
+            this.iterator = iterator;
+        }
+
+        /**
+         * Moves to the next non null element.
+         *
+         * @return false if there are no more elements
+         */
+        private boolean advance() {
+            final Element previous = head;
+            head = null;
+            while (null == head && iterator.hasNext()) {
+                head = iterator.next();
+            }
+            if (null == head) {
+                CloseableUtil.close(iterator);
+                return false;
+            }
+            if (null != previous && comparator.compare(previous, head) > 0) {
+                CloseableUtil.close(iterator);
+                throw new IllegalStateException("Unable to merge results as they are not sorted, "
+                        + previous + " was returned before " + head);
+            }
+            return true;
+        }
+    }
+}
@@ -46,6 +46,7 @@ import java.util.Set;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -294,6 +295,28 @@ public class FederatedGraphStorageTest {
     }
 
 
+    @Test
+    public void shouldCacheMergedSchemaUntilGraphIsRemoved() throws Exception {
+        graphStorage.put(a, access);
+        graphStorage.put(b, access);
+        final Schema schemaAB = graphStorage.getSchema((Map<String, String>) null, testUserContext);
+        assertSame(schemaAB, graphStorage.getSchema((Map<String, String>) null, authUserContext));
+        graphStorage.remove(GRAPH_ID_B, testUser);
+        final Schema schemaA = graphStorage.getSchema((Map<String, String>) null, testUserContext);
+        assertNotSame(schemaAB, schemaA);
+        assertEquals(1, schemaA.getTypes().size());
+    }
+
+    @Test
+    public void shouldNotShareCachedSchemaBetweenUsersWithDifferentVisibleGraphs() throws Exception {
+        graphStorage.put(a, access);
+        graphStorage.put(b, new FederatedAccess(Sets.newHashSet(X), X));
+        final Schema blankUserSchema = graphStorage.getSchema((Map<String, String>) null, blankUserContext);
+        final Schema testUserSchema = graphStorage.getSchema((Map<String, String>) null, testUserContext);
+        assertEquals(0, blankUserSchema.getTypes().size());
+        assertEquals(1, testUserSchema.getTypes().size());
+    }
+
     @Test
     public void shouldGetSchemaForAddingUser() throws Exception {
         graphStorage.put(a, access);
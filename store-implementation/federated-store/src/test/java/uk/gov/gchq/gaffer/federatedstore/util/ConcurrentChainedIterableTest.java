@@ -0,0 +1,245 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.federatedstore.util;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import org.junit.After;
+import org.junit.Test;
+
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ConcurrentChainedIterableTest {
+    private final ExecutorService executor = Executors.newFixedThreadPool(3);
+
+    @After
+    public void after() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void shouldReturnAllItemsFromAllIterables() {
+        // Given
+        final List<Integer> itr1 = Arrays.asList(1, 2, 3);
+        final List<Integer> itr2 = Collections.emptyList();
+        final List<Integer> itr3 = Arrays.asList(4, null, 5);
+
+        // When
+        final ConcurrentChainedIterable<Integer> wrappedItr = new ConcurrentChainedIterable<>(executor,
+                Lists.newArrayList(itr1, itr2, itr3), 2, 0, false);
+
+        // Then
+        final List<Integer> items = Lists.newArrayList(wrappedItr);
+        assertEquals(6, items.size());
+        assertEquals(Sets.newHashSet(1, 2, 3, 4, null, 5), Sets.newHashSet(items));
+    }
+
+    @Test
+    public void shouldReturnItemsBeforeSlowIterableCompletes() {
+        // Given
+        final CountDownLatch latch = new CountDownLatch(1);
+        final Iterable<Integer> slowItr = () -> {
+            try {
+                latch.await(10, TimeUnit.SECONDS);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return Collections.singletonList(2).iterator();
+        };
+        final ConcurrentChainedIterable<Integer> wrappedItr = new ConcurrentChainedIterable<>(executor,
+                Lists.newArrayList(slowItr, Collections.singletonList(1)), 10, 0, false);
+
+        // When
+        final CloseableIterator<Integer> itr = wrappedItr.iterator();
+
+        // Then
+        assertEquals(1, (int) itr.next());
+        latch.countDown();
+        assertEquals(2, (int) itr.next());
+        assertFalse(itr.hasNext());
+    }
+
+    @Test
+    public void shouldSkipFailedIterablesWhenSkipFailuresIsSet() {
+        // Given
+        final Iterable<Integer> failingItr = () -> {
+            throw new IllegalStateException("Failed");
+        };
+        final ConcurrentChainedIterable<Integer> wrappedItr = new ConcurrentChainedIterable<>(executor,
+                Lists.newArrayList(failingItr, Arrays.asList(1, 2)), 10, 0, true);
+
+        // When
+        final List<Integer> items = Lists.newArrayList(wrappedItr);
+
+        // Then
+        assertEquals(Sets.newHashSet(1, 2), Sets.newHashSet(items));
+    }
+
+    @Test
+    public void shouldThrowExceptionWhenIterableFails() {
+        // Given
+        final Iterable<Integer> failingItr = () -> {
+            throw new IllegalStateException("Failed");
+        };
+        final ConcurrentChainedIterable<Integer> wrappedItr = new ConcurrentChainedIterable<>(executor,
+                Lists.newArrayList(failingItr, Arrays.asList(1, 2)), 10, 0, false);
+
+        // When / Then
+        try {
+            Lists.newArrayList(wrappedItr);
+            fail("Exception expected");
+        } catch (final IllegalStateException e) {
+            assertEquals("Failed", e.getMessage());
+        }
+    }
+
+    @Test
+    public void shouldThrowErrorsFromIterablesEvenWhenSkipFailuresIsSet() {
+        // Given
+        final Iterable<Integer> failingItr = () -> {
+            throw new AssertionError("Failed");
+        };
+        final ConcurrentChainedIterable<Integer> wrappedItr = new ConcurrentChainedIterable<>(executor,
+                Lists.newArrayList(failingItr, Arrays.asList(1, 2)), 10, 0, true);
+
+        // When / Then
+        try {
+            Lists.newArrayList(wrappedItr);
+            fail("Exception expected");
+        } catch (final AssertionError e) {
+            assertEquals("Failed", e.getMessage());
+        }
+    }
+
+    @Test
+    public void shouldThrowExceptionWhenNoItemsAreReceivedWithinTimeout() {
+        // Given
+        final Iterable<Integer> slowItr = () -> {
+            try {
+                Thread.sleep(10000);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return Collections.<Integer>emptyList().iterator();
+        };
+        final ConcurrentChainedIterable<Integer> wrappedItr = new ConcurrentChainedIterable<>(executor,
+                Lists.newArrayList(slowItr, Arrays.asList(1, 2)), 10, 200, false);
+        final List<Integer> items = new ArrayList<>();
+
+        // When / Then
+        try {
+            wrappedItr.forEach(items::add);
+            fail("Exception expected");
+        } catch (final RuntimeException e) {
+            assertTrue(e.getMessage().contains("200ms"));
+        }
+        assertEquals(Sets.newHashSet(1, 2), Sets.newHashSet(items));
+    }
+
+    @Test
+    public void shouldTimeOutEachIterableSeparately() {
+        // Given
+        final Iterable<Integer> steadyItr = () -> new SlowIterator(5, 100);
+        final Iterable<Integer> stuckItr = () -> new SlowIterator(1, 10000);
+        final ConcurrentChainedIterable<Integer> wrappedItr = new ConcurrentChainedIterable<>(executor,
+                Lists.newArrayList(steadyItr, stuckItr), Arrays.asList("steady", "stuck"), 10, 300, true);
+
+        // When
+        final List<Integer> items = Lists.newArrayList(wrappedItr);
+
+        // Then
+        assertEquals(Arrays.asList(0, 0, 1, 2, 3, 4), items.stream().sorted().collect(Collectors.toList()));
+    }
+
+    @Test
+    public void shouldNameTheIterableThatTimedOut() {
+        // Given
+        final Iterable<Integer> stuckItr = () -> new SlowIterator(1, 10000);
+        final ConcurrentChainedIterable<Integer> wrappedItr = new ConcurrentChainedIterable<>(executor,
+                Lists.newArrayList(Arrays.asList(1, 2), stuckItr), Arrays.asList("fast", "stuck"), 10, 200, false);
+
+        // When / Then
+        try {
+            Lists.newArrayList(wrappedItr);
+            fail("Exception expected");
+        } catch (final RuntimeException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("stuck did not return its next result within 200ms"));
+        }
+    }
+
+    @Test
+    public void shouldReleaseReaderThreadsWhenIteratorIsClosed() throws InterruptedException {
+        // Given
+        final Iterable<Integer> endlessItr = () -> new SlowIterator(Integer.MAX_VALUE, 0);
+        final ConcurrentChainedIterable<Integer> wrappedItr = new ConcurrentChainedIterable<>(executor,
+                Lists.newArrayList(endlessItr, endlessItr), 1, 0, false);
+        final CloseableIterator<Integer> itr = wrappedItr.iterator();
+        itr.next();
+
+        // When
+        itr.close();
+
+        // Then
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+    }
+
+    private static final class SlowIterator implements Iterator<Integer> {
+        private final int size;
+        private final long delay;
+        private int count;
+
+        private SlowIterator(final int size, final long delay) {
+            this.size = size;
+            this.delay = delay;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (count > 0 && delay > 0) {
+                try {
+                    Thread.sleep(delay);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            return count < size;
+        }
+
+        @Override
+        public Integer next() {
+            return count++;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.federatedstore.util;
+
+import org.junit.Test;
+
+import uk.gov.gchq.gaffer.commonutil.TestGroups;
+import uk.gov.gchq.gaffer.data.element.Entity;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+import uk.gov.gchq.gaffer.store.schema.SchemaEntityDefinition;
+import uk.gov.gchq.gaffer.store.schema.TypeDefinition;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ElementKeyComparatorTest {
+    private static final Map<String, Set<String>> GROUP_BYS = Collections.singletonMap(TestGroups.ENTITY, Collections.emptySet());
+
+    @Test
+    public void shouldCompareComparableAndByteArrayVertices() {
+        assertTrue(ElementKeyComparator.canCompare(createSchema(String.class), GROUP_BYS));
+        assertTrue(ElementKeyComparator.canCompare(createSchema(Date.class), GROUP_BYS));
+        assertTrue(ElementKeyComparator.canCompare(createSchema(byte[].class), GROUP_BYS));
+    }
+
+    @Test
+    public void shouldNotCompareVerticesThatAreNotComparable() {
+        assertFalse(ElementKeyComparator.canCompare(createSchema(Object.class), GROUP_BYS));
+    }
+
+    @Test
+    public void shouldThrowExceptionWhenValuesAreNotComparable() {
+        // Given
+        final ElementKeyComparator comparator = new ElementKeyComparator(GROUP_BYS);
+        final Entity entity1 = new Entity(TestGroups.ENTITY, new Object());
+        final Entity entity2 = new Entity(TestGroups.ENTITY, new Object());
+
+        // When / Then
+        try {
+            comparator.compare(entity1, entity2);
+            fail("Exception expected");
+        } catch (final IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("not Comparable"));
+        }
+    }
+
+    private static Schema createSchema(final Class<?> vertexClass) {
+        return new Schema.Builder()
+                .entity(TestGroups.ENTITY, new SchemaEntityDefinition.Builder()
+                        .vertex("vertex")
+                        .build())
+                .type("vertex", new TypeDefinition(vertexClass))
+                .build();
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.federatedstore.util;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import org.junit.After;
+import org.junit.Test;
+
+import uk.gov.gchq.gaffer.federatedstore.FederatedStoreConstants;
+import uk.gov.gchq.gaffer.graph.Graph;
+import uk.gov.gchq.gaffer.graph.GraphConfig;
+import uk.gov.gchq.gaffer.operation.OperationException;
+import uk.gov.gchq.gaffer.operation.impl.get.GetAllElements;
+import uk.gov.gchq.gaffer.store.Store;
+import uk.gov.gchq.gaffer.store.StoreProperties;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+public class FederatedGraphExecutorTest {
+    private final ExecutorService executor = Executors.newFixedThreadPool(3);
+
+    @After
+    public void after() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void shouldExecuteOnGraphsSequentiallyWithoutExecutor() throws OperationException {
+        // Given
+        final List<Graph> graphs = Lists.newArrayList(mockGraph("graph1"), mockGraph("graph2"));
+
+        // When
+        final List<String> results = FederatedGraphExecutor.execute(null, 0, graphs, new GetAllElements(),
+                (graph, op) -> graph.getGraphId());
+
+        // Then
+        assertEquals(Lists.newArrayList("graph1", "graph2"), results);
+    }
+
+    @Test
+    public void shouldExecuteOnGraphsConcurrently() throws OperationException {
+        // Given
+        final List<Graph> graphs = Lists.newArrayList(mockGraph("graph1"), mockGraph("graph2"), mockGraph("graph3"));
+        final CountDownLatch latch = new CountDownLatch(graphs.size());
+
+        // When
+        final List<String> results = FederatedGraphExecutor.execute(executor, 0, graphs, new GetAllElements(),
+                (graph, op) -> {
+                    // Each graph waits for the others to start, so this only completes if they run concurrently
+                    latch.countDown();
+                    assertTrue(latch.await(10, TimeUnit.SECONDS));
+                    return graph.getGraphId();
+                });
+
+        // Then
+        assertEquals(Sets.newHashSet("graph1", "graph2", "graph3"), Sets.newHashSet(results));
+    }
+
+    @Test
+    public void shouldSkipGraphsThatFailOrTimeOutWhenSkipFailedExecuteIsSet() throws OperationException {
+        // Given
+        final List<Graph> graphs = Lists.newArrayList(mockGraph("graph1"), mockGraph("slowGraph"), mockGraph("failingGraph"));
+        final GetAllElements operation = new GetAllElements.Builder()
+                .option(FederatedStoreConstants.KEY_SKIP_FAILED_FEDERATED_STORE_EXECUTE, "true")
+                .build();
+
+        // When
+        final List<String> results = FederatedGraphExecutor.execute(executor, 200, graphs, operation,
+                (graph, op) -> execute(graph));
+
+        // Then
+        assertEquals(Lists.newArrayList("graph1"), results);
+    }
+
+    @Test
+    public void shouldThrowExceptionWhenGraphTimesOut() {
+        // Given
+        final List<Graph> graphs = Lists.newArrayList(mockGraph("graph1"), mockGraph("slowGraph"));
+
+        // When / Then
+        try {
+            FederatedGraphExecutor.execute(executor, 200, graphs, new GetAllElements(), (graph, op) -> execute(graph));
+            fail("Exception expected");
+        } catch (final OperationException e) {
+            assertTrue(e.getMessage().contains("slowGraph"));
+        }
+    }
+
+    private static String execute(final Graph graph) throws InterruptedException {
+        if ("slowGraph".equals(graph.getGraphId())) {
+            Thread.sleep(10000);
+        } else if ("failingGraph".equals(graph.getGraphId())) {
+            throw new IllegalStateException("Graph failed");
+        }
+        return graph.getGraphId();
+    }
+
+    private static Graph mockGraph(final String graphId) {
+        final Store store = mock(Store.class);
+        given(store.getGraphId()).willReturn(graphId);
+        given(store.getSchema()).willReturn(new Schema());
+        given(store.getProperties()).willReturn(new StoreProperties());
+        return new Graph.Builder()
+                .config(new GraphConfig(graphId))
+                .store(store)
+                .build();
+    }
+}
@@ -0,0 +1,288 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.federatedstore.util;
+
+import com.google.common.collect.Lists;
+import org.junit.After;
+import org.junit.Test;
+import org.mockito.stubbing.Answer;
+
+import uk.gov.gchq.gaffer.commonutil.TestGroups;
+import uk.gov.gchq.gaffer.commonutil.iterable.WrappedCloseableIterable;
+import uk.gov.gchq.gaffer.data.element.Edge;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.Entity;
+import uk.gov.gchq.gaffer.data.element.id.ElementId;
+import uk.gov.gchq.gaffer.data.elementdefinition.view.View;
+import uk.gov.gchq.gaffer.graph.Graph;
+import uk.gov.gchq.gaffer.graph.GraphConfig;
+import uk.gov.gchq.gaffer.operation.OperationException;
+import uk.gov.gchq.gaffer.operation.SeedMatching.SeedMatchingType;
+import uk.gov.gchq.gaffer.operation.data.EdgeSeed;
+import uk.gov.gchq.gaffer.operation.data.EntitySeed;
+import uk.gov.gchq.gaffer.operation.impl.get.GetAllElements;
+import uk.gov.gchq.gaffer.operation.impl.get.GetElements;
+import uk.gov.gchq.gaffer.store.Context;
+import uk.gov.gchq.gaffer.store.Store;
+import uk.gov.gchq.gaffer.store.StoreProperties;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+
+public class FederatedGraphRouterTest {
+    private final FederatedGraphRouter router = new FederatedGraphRouter(1000, 0.001, 60000, Collections.emptySet());
+
+    @After
+    public void after() {
+        router.close();
+    }
+
+    @Test
+    public void shouldRouteSeededOperationsToGraphsContainingTheSeeds() throws Exception {
+        // Given
+        final Graph graph1 = mockGraph("graph1", new Entity(TestGroups.ENTITY, "A"));
+        final Graph graph2 = mockGraph("graph2", new Edge(TestGroups.EDGE, "B", "C", true));
+        final List<Graph> graphs = Arrays.asList(graph1, graph2);
+        buildSummaries(graphs);
+
+        // When / Then
+        assertEquals(Lists.newArrayList(graph1), Lists.newArrayList(router.route(graphs, getElements(new EntitySeed("A")))));
+        assertEquals(Lists.newArrayList(graph2), Lists.newArrayList(router.route(graphs, getElements(new EntitySeed("C")))));
+        assertEquals(Lists.newArrayList(graph2), Lists.newArrayList(router.route(graphs, getElements(new EdgeSeed("B", "C")))));
+        assertEquals(graphs, Lists.newArrayList(router.route(graphs, getElements(new EntitySeed("A"), new EntitySeed("B")))));
+        assertTrue(router.route(graphs, getElements(new EntitySeed("D"), new EdgeSeed("D", "E"))).isEmpty());
+    }
+
+    @Test
+    public void shouldRouteEdgeSeedsToGraphsContainingEitherVertex() throws Exception {
+        // Given
+        final Graph graph1 = mockGraph("graph1", new Entity(TestGroups.ENTITY, "A"));
+        final Graph graph2 = mockGraph("graph2", new Edge(TestGroups.EDGE, "B", "C", true));
+        final List<Graph> graphs = Arrays.asList(graph1, graph2);
+        buildSummaries(graphs);
+
+        // When
+        final Collection<Graph> relatedGraphs = router.route(graphs, getElements(new EdgeSeed("A", "C")));
+        final Collection<Graph> equalGraphs = router.route(graphs, new GetElements.Builder()
+                .input(new EdgeSeed("A", "C"))
+                .seedMatching(SeedMatchingType.EQUAL)
+                .build());
+        final Collection<Graph> equalEdgeGraphs = router.route(graphs, new GetElements.Builder()
+                .input(new EdgeSeed("A", "C"), new EdgeSeed("B", "C"))
+                .seedMatching(SeedMatchingType.EQUAL)
+                .view(new View.Builder()
+                        .edge(TestGroups.EDGE)
+                        .build())
+                .build());
+
+        // Then
+        assertEquals(graphs, Lists.newArrayList(relatedGraphs));
+        assertEquals(graphs, Lists.newArrayList(equalGraphs));
+        assertEquals(Lists.newArrayList(graph2), Lists.newArrayList(equalEdgeGraphs));
+    }
+
+    @Test
+    public void shouldNotPruneGraphsUntilTheirSummaryHasBeenBuilt() throws Exception {
+        // Given
+        final CountDownLatch latch = new CountDownLatch(1);
+        final Graph graph1 = mockGraph("graph1", new Schema(), invocation -> {
+            latch.await(10, TimeUnit.SECONDS);
+            return new WrappedCloseableIterable<>(Collections.singletonList(new Entity(TestGroups.ENTITY, "A")));
+        });
+        final List<Graph> graphs = Collections.singletonList(graph1);
+
+        // When
+        final Collection<Graph> routedGraphs = router.route(graphs, getElements(new EntitySeed("B")));
+        latch.countDown();
+
+        // Then
+        assertEquals(graphs, Lists.newArrayList(routedGraphs));
+    }
+
+    @Test
+    public void shouldNotRouteOperationsWithoutSeeds() throws Exception {
+        // Given
+        final Graph graph1 = mockGraph("graph1", new Entity(TestGroups.ENTITY, "A"));
+        final List<Graph> graphs = Collections.singletonList(graph1);
+        buildSummaries(graphs);
+
+        // When
+        final Collection<Graph> routedGraphs = router.route(graphs, new GetAllElements());
+
+        // Then
+        assertEquals(graphs, Lists.newArrayList(routedGraphs));
+    }
+
+    @Test
+    public void shouldAddVerticesOfAddedElementsToSummary() throws Exception {
+        // Given
+        final Graph graph1 = mockGraph("graph1", new Entity(TestGroups.ENTITY, "A"));
+        final List<Graph> graphs = Collections.singletonList(graph1);
+        buildSummaries(graphs);
+
+        // When
+        router.addElements(graph1, Collections.singletonList(new Edge(TestGroups.EDGE, "B", "C", true)));
+
+        // Then
+        assertEquals(graphs, Lists.newArrayList(router.route(graphs, getElements(new EntitySeed("B")))));
+        assertTrue(router.isReady("graph1"));
+    }
+
+    @Test
+    public void shouldAddVerticesOfStreamedElementsToSummaryAsTheyAreRead() throws Exception {
+        // Given
+        final Graph graph1 = mockGraph("graph1", new Entity(TestGroups.ENTITY, "A"));
+        final List<Graph> graphs = Collections.singletonList(graph1);
+        buildSummaries(graphs);
+        final Iterable<Element> elements = () -> Collections.<Element>singletonList(new Edge(TestGroups.EDGE, "B", "C", true)).iterator();
+
+        // When
+        final Iterable<? extends Element> wrappedElements = router.addElements(graph1, elements);
+
+        // Then
+        assertTrue(router.route(graphs, getElements(new EntitySeed("B"))).isEmpty());
+        assertEquals(1, Lists.newArrayList(wrappedElements).size());
+        assertEquals(graphs, Lists.newArrayList(router.route(graphs, getElements(new EntitySeed("B")))));
+        assertTrue(router.isReady("graph1"));
+    }
+
+    @Test
+    public void shouldNotPruneGraphsWhilstTheyAreWrittenTo() throws Exception {
+        // Given
+        final Graph graph1 = mockGraph("graph1", new Entity(TestGroups.ENTITY, "A"));
+        final List<Graph> graphs = Collections.singletonList(graph1);
+        buildSummaries(graphs);
+
+        // When
+        router.startWrite(graph1);
+
+        // Then
+        assertFalse(router.isReady("graph1"));
+        assertEquals(graphs, Lists.newArrayList(router.route(graphs, getElements(new EntitySeed("B")))));
+
+        // When
+        router.finishWrite(graph1);
+
+        // Then
+        buildSummaries(graphs);
+        assertTrue(router.route(graphs, getElements(new EntitySeed("B"))).isEmpty());
+    }
+
+    @Test
+    public void shouldNotPruneGraphsWithVisibilitiesWithoutRoutingDataAuths() throws Exception {
+        // Given
+        final Graph graph1 = mockGraph("graph1", new Schema.Builder()
+                .visibilityProperty("visibility")
+                .build(), new Entity(TestGroups.ENTITY, "A"));
+        final List<Graph> graphs = Collections.singletonList(graph1);
+        router.route(graphs, getElements(new EntitySeed("unknown")));
+        Thread.sleep(500);
+
+        // When
+        final Collection<Graph> routedGraphs = router.route(graphs, getElements(new EntitySeed("B")));
+
+        // Then
+        assertFalse(router.isReady("graph1"));
+        assertEquals(graphs, Lists.newArrayList(routedGraphs));
+    }
+
+    @Test
+    public void shouldNotPruneGraphsIfSummariesAreNotRefreshed() throws Exception {
+        // Given
+        final FederatedGraphRouter unrefreshedRouter = new FederatedGraphRouter(1000, 0.001, 0, Collections.emptySet());
+        final Graph graph1 = mockGraph("graph1", new Entity(TestGroups.ENTITY, "A"));
+        final List<Graph> graphs = Collections.singletonList(graph1);
+
+        try {
+            // When
+            unrefreshedRouter.route(graphs, getElements(new EntitySeed("unknown")));
+            final Collection<Graph> routedGraphs = unrefreshedRouter.route(graphs, getElements(new EntitySeed("B")));
+
+            // Then
+            assertFalse(unrefreshedRouter.isReady("graph1"));
+            assertEquals(graphs, Lists.newArrayList(routedGraphs));
+        } finally {
+            unrefreshedRouter.close();
+        }
+    }
+
+    @Test
+    public void shouldRemoveSummaryOfRemovedGraph() throws Exception {
+        // Given
+        final Graph graph1 = mockGraph("graph1", new Entity(TestGroups.ENTITY, "A"));
+        buildSummaries(Collections.singletonList(graph1));
+
+        // When
+        router.remove("graph1");
+
+        // Then
+        assertFalse(router.isReady("graph1"));
+    }
+
+    private void buildSummaries(final List<Graph> graphs) throws InterruptedException {
+        router.route(graphs, getElements(new EntitySeed("unknown")));
+        for (final Graph graph : graphs) {
+            for (int i = 0; i < 100 && !router.isReady(graph.getGraphId()); i++) {
+                Thread.sleep(100);
+            }
+            assertTrue(router.isReady(graph.getGraphId()));
+        }
+    }
+
+    private static GetElements getElements(final ElementId... seeds) {
+        return new GetElements.Builder()
+                .input(seeds)
+                .build();
+    }
+
+    private static Graph mockGraph(final String graphId, final Element... elements) {
+        return mockGraph(graphId, new Schema(), elements);
+    }
+
+    private static Graph mockGraph(final String graphId, final Schema schema, final Element... elements) {
+        return mockGraph(graphId, schema, invocation -> new WrappedCloseableIterable<>(Arrays.asList(elements)));
+    }
+
+    private static Graph mockGraph(final String graphId, final Schema schema, final Answer<?> getAllElements) {
+        final Store store = mock(Store.class);
+        given(store.getGraphId()).willReturn(graphId);
+        given(store.getSchema()).willReturn(schema);
+        given(store.getOriginalSchema()).willReturn(schema);
+        given(store.getProperties()).willReturn(new StoreProperties());
+        try {
+            given(store.execute(any(GetAllElements.class), any(Context.class))).willAnswer(getAllElements);
+        } catch (final OperationException e) {
+            throw new RuntimeException(e);
+        }
+        return new Graph.Builder()
+                .config(new GraphConfig(graphId))
+                .store(store)
+                .build();
+    }
+}
@@ -0,0 +1,254 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.federatedstore.util;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import org.junit.Test;
+
+import uk.gov.gchq.gaffer.commonutil.TestGroups;
+import uk.gov.gchq.gaffer.commonutil.TestPropertyNames;
+import uk.gov.gchq.gaffer.data.element.Edge;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.Entity;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.BinaryOperator;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SortedMergeIterableTest {
+    private static final BinaryOperator<Element> SUM_COUNT = (a, b) -> {
+        a.putProperty(TestPropertyNames.COUNT, (int) a.getProperty(TestPropertyNames.COUNT) + (int) b.getProperty(TestPropertyNames.COUNT));
+        return a;
+    };
+
+    private final ElementKeyComparator comparator = new ElementKeyComparator(getGroupBys());
+
+    @Test
+    public void shouldMergeSortedIterablesAndAggregateElementsWithTheSameKey() {
+        // Given
+        final Entity entityA = createEntity("A", 1);
+        final List<Element> graph1 = Arrays.asList(createEdge("A", "B", 3), entityA, createEntity("C", 2));
+        final List<Element> graph2 = Arrays.asList(createEdge("A", "B", 6), createEntity("A", 4), createEntity("B", 5));
+        final List<Element> graph3 = Collections.emptyList();
+
+        // When
+        final List<Element> results = Lists.newArrayList(new SortedMergeIterable(
+                Arrays.asList(graph1, graph2, graph3), comparator, SUM_COUNT, e -> true));
+
+        // Then
+        assertEquals(Arrays.asList(
+                createEdge("A", "B", 9),
+                createEntity("A", 5),
+                createEntity("B", 5),
+                createEntity("C", 2)), results);
+        assertEquals(1, entityA.getProperty(TestPropertyNames.COUNT));
+    }
+
+    @Test
+    public void shouldNotAggregateElementsInNonAggregatedGroups() {
+        // Given
+        final List<Element> graph1 = Collections.singletonList(createEntity("A", 1));
+        final List<Element> graph2 = Collections.singletonList(createEntity("A", 2));
+
+        // When
+        final List<Element> results = Lists.newArrayList(new SortedMergeIterable(
+                Arrays.asList(graph1, graph2), comparator, SUM_COUNT, e -> false));
+
+        // Then
+        assertEquals(Arrays.asList(createEntity("A", 1), createEntity("A", 2)), results);
+    }
+
+    @Test
+    public void shouldOrderElementsByGroupByProperties() {
+        // Given
+        final Entity entity1 = createEntity("A", 1);
+        entity1.putProperty(TestPropertyNames.PROP_1, "x");
+        final Entity entity2 = createEntity("A", 2);
+        entity2.putProperty(TestPropertyNames.PROP_1, "y");
+
+        // When
+        final List<Element> results = Lists.newArrayList(new SortedMergeIterable(
+                Arrays.asList(Collections.singletonList(entity2), Collections.singletonList(entity1)),
+                comparator, SUM_COUNT, e -> true));
+
+        // Then
+        assertEquals(Arrays.asList(entity1, entity2), results);
+    }
+
+    @Test
+    public void shouldThrowExceptionWhenIterableIsNotSorted() {
+        // Given
+        final List<Element> graph1 = Arrays.asList(createEntity("B", 1), createEntity("A", 1));
+        final List<Element> graph2 = Collections.singletonList(createEntity("C", 1));
+
+        // When / Then
+        try {
+            Lists.newArrayList(new SortedMergeIterable(Arrays.asList(graph1, graph2), comparator, SUM_COUNT, e -> true));
+            fail("Exception expected");
+        } catch (final IllegalStateException e) {
+            assertTrue(e.getMessage().contains("not sorted"));
+        }
+    }
+
+    @Test
+    public void shouldSortIterablesBeforeMergingWhenRequested() {
+        // Given
+        final List<Element> graph1 = Arrays.asList(createEntity("C", 2), createEntity("A", 1), createEdge("A", "B", 3));
+        final List<Element> graph2 = Arrays.asList(createEntity("B", 5), createEntity("A", 4), createEdge("A", "B", 6));
+
+        // When
+        final List<Element> results = Lists.newArrayList(new SortedMergeIterable(
+                Arrays.asList(graph1, graph2), comparator, SUM_COUNT, e -> true, true));
+
+        // Then
+        assertEquals(Arrays.asList(
+                createEdge("A", "B", 9),
+                createEntity("A", 5),
+                createEntity("B", 5),
+                createEntity("C", 2)), results);
+    }
+
+    @Test
+    public void shouldSortIterablesLargerThanMaxElementsInMemoryUsingTemporaryFiles() throws IOException {
+        // Given
+        final List<Element> graph1 = Arrays.asList(createEntity("E", 1), createEntity("C", 2), createEntity("A", 1),
+                createEntity("D", 4), createEntity("A", 2), createEdge("A", "B", 3));
+        final List<Element> graph2 = Arrays.asList(createEntity("B", 5), createEntity("E", 4), createEdge("A", "B", 6));
+        final long tempFilesBefore = countTempFiles();
+
+        // When
+        final List<Element> results = Lists.newArrayList(new SortedMergeIterable(
+                Arrays.asList(graph1, graph2), comparator, SUM_COUNT, e -> true, true, 2));
+
+        // Then
+        assertEquals(Arrays.asList(
+                createEdge("A", "B", 9),
+                createEntity("A", 3),
+                createEntity("B", 5),
+                createEntity("C", 2),
+                createEntity("D", 4),
+                createEntity("E", 5)), results);
+        assertEquals(tempFilesBefore, countTempFiles());
+    }
+
+    @Test
+    public void shouldOnlySortIterablesThatAreNotAlreadySorted() {
+        // Given
+        final List<Element> graph1 = Arrays.asList(createEntity("C", 2), createEntity("A", 1));
+        final List<Element> graph2 = Arrays.asList(createEntity("B", 5), createEntity("A", 4));
+
+        // When / Then
+        try {
+            Lists.newArrayList(new SortedMergeIterable(Arrays.asList(graph1, graph2), comparator, SUM_COUNT, e -> true,
+                    iterable -> iterable == graph1, SortedMergeIterable.DEFAULT_MAX_ELEMENTS_IN_MEMORY));
+            fail("Exception expected");
+        } catch (final IllegalStateException e) {
+            assertTrue(e.getMessage().contains("not sorted"));
+        }
+    }
+
+    @Test
+    public void shouldMergeAndAggregateElementsWithByteArrayVertices() {
+        // Given
+        final List<Element> graph1 = Arrays.asList(createEntity(new byte[]{1, 2}, 1), createEntity(new byte[]{(byte) 0xFF}, 2));
+        final List<Element> graph2 = Arrays.asList(createEntity(new byte[]{1}, 3), createEntity(new byte[]{1, 2}, 4));
+
+        // When
+        final List<Element> results = Lists.newArrayList(new SortedMergeIterable(
+                Arrays.asList(graph1, graph2), comparator, SUM_COUNT, e -> true, true));
+
+        // Then
+        assertEquals(3, results.size());
+        assertArrayEquals(new byte[]{1}, (byte[]) ((Entity) results.get(0)).getVertex());
+        assertEquals(3, results.get(0).getProperty(TestPropertyNames.COUNT));
+        assertArrayEquals(new byte[]{1, 2}, (byte[]) ((Entity) results.get(1)).getVertex());
+        assertEquals(5, results.get(1).getProperty(TestPropertyNames.COUNT));
+        assertArrayEquals(new byte[]{(byte) 0xFF}, (byte[]) ((Entity) results.get(2)).getVertex());
+        assertEquals(2, results.get(2).getProperty(TestPropertyNames.COUNT));
+    }
+
+    @Test
+    public void shouldNotChangePropertiesOwnedByTheGraphsWhenAggregating() {
+        // Given
+        final Entity entity1 = createEntity("A", 1);
+        entity1.putProperty(TestPropertyNames.PROP_2, new TreeSet<>(Collections.singleton("x")));
+        final Entity entity2 = createEntity("A", 2);
+        entity2.putProperty(TestPropertyNames.PROP_2, new TreeSet<>(Collections.singleton("y")));
+        final BinaryOperator<Element> unionSets = (a, b) -> {
+            ((Set<String>) a.getProperty(TestPropertyNames.PROP_2)).addAll((Set<String>) b.getProperty(TestPropertyNames.PROP_2));
+            return a;
+        };
+
+        // When
+        final List<Element> results = Lists.newArrayList(new SortedMergeIterable(
+                Arrays.asList(Collections.singletonList(entity1), Collections.singletonList(entity2)),
+                comparator, unionSets, e -> true));
+
+        // Then
+        assertEquals(1, results.size());
+        assertEquals(Sets.newHashSet("x", "y"), results.get(0).getProperty(TestPropertyNames.PROP_2));
+        assertEquals(Sets.newHashSet("x"), entity1.getProperty(TestPropertyNames.PROP_2));
+        assertEquals(Sets.newHashSet("y"), entity2.getProperty(TestPropertyNames.PROP_2));
+    }
+
+    private static long countTempFiles() throws IOException {
+        try (final Stream<Path> files = Files.list(Paths.get(System.getProperty("java.io.tmpdir")))) {
+            return files.filter(file -> file.getFileName().toString().startsWith("gaffer-sorted-merge")).count();
+        }
+    }
+
+    private static Map<String, Set<String>> getGroupBys() {
+        final Map<String, Set<String>> groupBys = new HashMap<>();
+        groupBys.put(TestGroups.ENTITY, Sets.newHashSet(TestPropertyNames.PROP_1));
+        groupBys.put(TestGroups.EDGE, Collections.emptySet());
+        return groupBys;
+    }
+
+    private static Entity createEntity(final Object vertex, final int count) {
+        return new Entity.Builder()
+                .group(TestGroups.ENTITY)
+                .vertex(vertex)
+                .property(TestPropertyNames.COUNT, count)
+                .build();
+    }
+
+    private static Edge createEdge(final String source, final String destination, final int count) {
+        return new Edge.Builder()
+                .group(TestGroups.EDGE)
+                .source(source)
+                .dest(destination)
+                .directed(true)
+                .property(TestPropertyNames.COUNT, count)
+                .build();
+    }
+}
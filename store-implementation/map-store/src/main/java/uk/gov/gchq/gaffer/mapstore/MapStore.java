@@ -19,16 +19,19 @@ import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import uk.gov.gchq.gaffer.commonutil.CloseableUtil;
 import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
 import uk.gov.gchq.gaffer.data.element.Element;
 import uk.gov.gchq.gaffer.data.element.id.EntityId;
 import uk.gov.gchq.gaffer.mapstore.impl.AddElementsHandler;
 import uk.gov.gchq.gaffer.mapstore.impl.CountAllElementsDefaultViewHandler;
+import uk.gov.gchq.gaffer.mapstore.impl.CreateSnapshotHandler;
 import uk.gov.gchq.gaffer.mapstore.impl.GetAdjacentIdsHandler;
 import uk.gov.gchq.gaffer.mapstore.impl.GetAllElementsHandler;
 import uk.gov.gchq.gaffer.mapstore.impl.GetElementsHandler;
 import uk.gov.gchq.gaffer.mapstore.impl.MapImpl;
 import uk.gov.gchq.gaffer.mapstore.operation.CountAllElementsDefaultView;
+import uk.gov.gchq.gaffer.mapstore.operation.CreateSnapshot;
 import uk.gov.gchq.gaffer.operation.impl.add.AddElements;
 import uk.gov.gchq.gaffer.operation.impl.get.GetAdjacentIds;
 import uk.gov.gchq.gaffer.operation.impl.get.GetAllElements;
@@ -74,6 +77,7 @@ public class MapStore extends Store {
     private MapImpl mapImpl;
 
     public static void resetStaticMap() {
+        CloseableUtil.close(staticMapImpl);
         staticMapImpl = null;
     }
 
@@ -82,6 +86,12 @@ public class MapStore extends Store {
         // Initialise store
         super.initialise(graphId, schema, properties);
 
+        // Release any maps from a previous initialisation, so their persisted
+        // files can be reopened.
+        if (null != mapImpl && staticMapImpl != mapImpl) {
+            CloseableUtil.close(mapImpl);
+        }
+
         // Initialise maps
         mapImpl = createMapImpl();
     }
@@ -123,6 +133,9 @@ public class MapStore extends Store {
     protected void addAdditionalOperationHandlers() {
         addOperationHandler(CountAllElementsDefaultView.class, new CountAllElementsDefaultViewHandler());
         addOperationHandler(GetAllJobDetails.class, new GetAllJobDetailsHandler());
+        if (null != getProperties().getSnapshotFile()) {
+            addOperationHandler(CreateSnapshot.class, new CreateSnapshotHandler());
+        }
     }
 
     @Override
@@ -21,6 +21,10 @@ import uk.gov.gchq.gaffer.store.StoreProperties;
 
 import java.io.InputStream;
 import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Additional {@link StoreProperties} for the {@link MapStore}.
@@ -47,6 +51,78 @@ public class MapStoreProperties extends StoreProperties {
     public static final String INGEST_BUFFER_SIZE = "gaffer.store.mapstore.map.ingest.buffer.size";
     public static final int INGEST_BUFFER_SIZE_DEFAULT = 0;
 
+    /**
+     * Property name for the number of threads used to aggregate and add
+     * elements. If the value is greater than 1 then elements are validated on
+     * the calling thread, partitioned by vertex and then aggregated and added
+     * to the maps in parallel. This requires the MapStore to be concurrent.
+     */
+    public static final String INGEST_THREADS = "gaffer.store.mapstore.map.ingest.threads";
+    public static final int INGEST_THREADS_DEFAULT = 1;
+
+    /**
+     * Property name for the number of batches that can be queued for each
+     * ingest thread before the calling thread blocks.
+     */
+    public static final String INGEST_QUEUE_SIZE = "gaffer.store.mapstore.map.ingest.queue.size";
+    public static final int INGEST_QUEUE_SIZE_DEFAULT = 4;
+
+    /**
+     * Property name for enabling concurrent mode. In concurrent mode the
+     * backing maps must be thread safe and elements can be added from many
+     * threads in parallel with queries.
+     */
+    public static final String CONCURRENT = "gaffer.store.mapstore.concurrent";
+    public static final String CONCURRENT_DEFAULT = "false";
+
+    /**
+     * Property name for the number of locks used to stripe writes, by group
+     * and vertex, when in concurrent mode.
+     */
+    public static final String CONCURRENT_LOCK_STRIPES = "gaffer.store.mapstore.concurrent.lock.stripes";
+    public static final int CONCURRENT_LOCK_STRIPES_DEFAULT = 256;
+
+    /**
+     * Property name for returning read only results. If true, the elements
+     * returned by queries share their property values with the stored
+     * elements, rather than the property values being cloned, unless the view
+     * transforms the elements. The property values of the results must then
+     * not be modified.
+     */
+    public static final String READ_ONLY_RESULTS = "gaffer.store.mapstore.results.readOnly";
+    public static final String READ_ONLY_RESULTS_DEFAULT = "false";
+
+    /**
+     * Property name for the path of the snapshot file. If set, the maps are
+     * restored from the snapshot when the MapStore is initialised and the
+     * {@link uk.gov.gchq.gaffer.mapstore.operation.CreateSnapshot} operation
+     * can be used to write a new snapshot.
+     */
+    public static final String SNAPSHOT_FILE = "gaffer.store.mapstore.snapshot.file";
+
+    /**
+     * Property name for the path of the write-ahead log file. If set, all
+     * elements added to the maps are appended to the log and any elements
+     * added since the last snapshot are replayed from the log when the
+     * MapStore is initialised.
+     */
+    public static final String WRITE_AHEAD_LOG_FILE = "gaffer.store.mapstore.wal.file";
+
+    /**
+     * Property name for forcing the write-ahead log to disk at the end of
+     * each AddElements operation.
+     */
+    public static final String WRITE_AHEAD_LOG_SYNC = "gaffer.store.mapstore.wal.sync";
+    public static final String WRITE_AHEAD_LOG_SYNC_DEFAULT = "false";
+
+    /**
+     * Property name for the properties to maintain sorted secondary indexes
+     * on, as a comma separated list of group:property pairs. These indexes are
+     * used to find the elements that match IsEqual, IsIn, IsMoreThan and
+     * IsLessThan pre-aggregation filters without scanning the whole group.
+     */
+    public static final String PROPERTY_INDEXES = "gaffer.store.mapstore.propertyIndexes";
+
     public MapStoreProperties() {
         super(MapStore.class);
     }
@@ -113,6 +189,32 @@ public class MapStoreProperties extends StoreProperties {
         set(INGEST_BUFFER_SIZE, String.valueOf(ingestBufferSize));
     }
 
+    public int getIngestThreads() {
+        final String threads = get(INGEST_THREADS, null);
+        if (null == threads) {
+            return INGEST_THREADS_DEFAULT;
+        }
+
+        return Integer.parseInt(threads);
+    }
+
+    public void setIngestThreads(final int ingestThreads) {
+        set(INGEST_THREADS, String.valueOf(ingestThreads));
+    }
+
+    public int getIngestQueueSize() {
+        final String size = get(INGEST_QUEUE_SIZE, null);
+        if (null == size) {
+            return INGEST_QUEUE_SIZE_DEFAULT;
+        }
+
+        return Integer.parseInt(size);
+    }
+
+    public void setIngestQueueSize(final int ingestQueueSize) {
+        set(INGEST_QUEUE_SIZE, String.valueOf(ingestQueueSize));
+    }
+
     public boolean isStaticMap() {
         return Boolean.parseBoolean(get(STATIC_MAP, STATIC_MAP_DEFAULT));
     }
@@ -120,4 +222,98 @@ public class MapStoreProperties extends StoreProperties {
     public void setStaticMap(final boolean staticMap) {
         set(STATIC_MAP, Boolean.toString(staticMap));
     }
+
+    public boolean isConcurrent() {
+        return Boolean.parseBoolean(get(CONCURRENT, CONCURRENT_DEFAULT));
+    }
+
+    public void setConcurrent(final boolean concurrent) {
+        set(CONCURRENT, Boolean.toString(concurrent));
+    }
+
+    public int getConcurrentLockStripes() {
+        final String stripes = get(CONCURRENT_LOCK_STRIPES, null);
+        if (null == stripes) {
+            return CONCURRENT_LOCK_STRIPES_DEFAULT;
+        }
+
+        return Integer.parseInt(stripes);
+    }
+
+    public void setConcurrentLockStripes(final int lockStripes) {
+        set(CONCURRENT_LOCK_STRIPES, String.valueOf(lockStripes));
+    }
+
+    public boolean isReadOnlyResults() {
+        return Boolean.parseBoolean(get(READ_ONLY_RESULTS, READ_ONLY_RESULTS_DEFAULT));
+    }
+
+    public void setReadOnlyResults(final boolean readOnlyResults) {
+        set(READ_ONLY_RESULTS, Boolean.toString(readOnlyResults));
+    }
+
+    public String getSnapshotFile() {
+        return get(SNAPSHOT_FILE);
+    }
+
+    public void setSnapshotFile(final String snapshotFile) {
+        set(SNAPSHOT_FILE, snapshotFile);
+    }
+
+    public String getWriteAheadLogFile() {
+        return get(WRITE_AHEAD_LOG_FILE);
+    }
+
+    public void setWriteAheadLogFile(final String writeAheadLogFile) {
+        set(WRITE_AHEAD_LOG_FILE, writeAheadLogFile);
+    }
+
+    public boolean isWriteAheadLogSync() {
+        return Boolean.parseBoolean(get(WRITE_AHEAD_LOG_SYNC, WRITE_AHEAD_LOG_SYNC_DEFAULT));
+    }
+
+    public void setWriteAheadLogSync(final boolean sync) {
+        set(WRITE_AHEAD_LOG_SYNC, Boolean.toString(sync));
+    }
+
+    /**
+     * Gets the properties to index, keyed by group.
+     *
+     * @return the indexed properties for each group
+     */
+    public Map<String, Set<String>> getPropertyIndexes() {
+        final Map<String, Set<String>> propertyIndexes = new LinkedHashMap<>();
+        final String value = get(PROPERTY_INDEXES);
+        if (null != value) {
+            for (final String groupProperty : value.split(",")) {
+                if (!groupProperty.trim().isEmpty()) {
+                    final String[] parts = groupProperty.trim().split(":");
+                    if (2 != parts.length || parts[0].trim().isEmpty() || parts[1].trim().isEmpty()) {
+                        throw new IllegalArgumentException(PROPERTY_INDEXES + " should be a comma separated list of group:property pairs, but was: " + value);
+                    }
+                    propertyIndexes.computeIfAbsent(parts[0].trim(), k -> new LinkedHashSet<>()).add(parts[1].trim());
+                }
+            }
+        }
+        return propertyIndexes;
+    }
+
+    public void setPropertyIndexes(final Map<String, Set<String>> propertyIndexes) {
+        final StringBuilder value = new StringBuilder();
+        for (final Map.Entry<String, Set<String>> entry : propertyIndexes.entrySet()) {
+            for (final String property : entry.getValue()) {
+                if (value.length() > 0) {
+                    value.append(',');
+                }
+                value.append(entry.getKey()).append(':').append(property);
+            }
+        }
+        set(PROPERTY_INDEXES, value.toString());
+    }
+
+    public void addPropertyIndex(final String group, final String property) {
+        final Map<String, Set<String>> propertyIndexes = getPropertyIndexes();
+        propertyIndexes.computeIfAbsent(group, k -> new LinkedHashSet<>()).add(property);
+        setPropertyIndexes(propertyIndexes);
+    }
 }
@@ -0,0 +1,277 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.mapstore.factory;
+
+import uk.gov.gchq.gaffer.data.element.Edge;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.GroupedProperties;
+import uk.gov.gchq.gaffer.data.element.id.EdgeId;
+import uk.gov.gchq.gaffer.data.element.id.EntityId;
+import uk.gov.gchq.gaffer.exception.SerialisationException;
+import uk.gov.gchq.gaffer.mapstore.MapStoreProperties;
+import uk.gov.gchq.gaffer.mapstore.multimap.MultiMap;
+import uk.gov.gchq.gaffer.mapstore.multimap.OffHeapMultiMap;
+import uk.gov.gchq.gaffer.mapstore.utils.ElementCloner;
+import uk.gov.gchq.gaffer.mapstore.utils.OffHeapByteStore;
+import uk.gov.gchq.gaffer.mapstore.utils.OffHeapMap;
+import uk.gov.gchq.gaffer.serialisation.Serialiser;
+import uk.gov.gchq.gaffer.serialisation.ToBytesSerialiser;
+import uk.gov.gchq.gaffer.serialisation.implementation.raw.CompactRawLongSerialiser;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+import uk.gov.gchq.gaffer.store.schema.SchemaElementDefinition;
+import uk.gov.gchq.gaffer.store.schema.TypeDefinition;
+import uk.gov.gchq.gaffer.store.serialiser.EdgeIdSerialiser;
+import uk.gov.gchq.gaffer.store.serialiser.ElementSerialiser;
+import uk.gov.gchq.gaffer.store.serialiser.EntityIdSerialiser;
+import uk.gov.gchq.gaffer.store.serialiser.GroupedPropertiesSerialiser;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A {@link MapFactory} that creates maps holding the serialised elements
+ * outside of the Java heap.
+ * <p>
+ * Vertices, group-by properties and properties are serialised using the
+ * {@link ToBytesSerialiser}s defined in the {@link Schema}, and looked up using
+ * primitive open-addressing indexes. This allows a
+ * {@link uk.gov.gchq.gaffer.mapstore.MapStore} to hold far more elements in the
+ * same heap, at the cost of serialising elements on ingest and deserialising
+ * them on query. The vertex serialiser and the serialisers of any group-by
+ * properties must be consistent.
+ * </p>
+ * <p>
+ * The maps created by this factory, like the default {@link java.util.HashMap}s,
+ * are not thread safe.
+ * </p>
+ */
+public class OffHeapMapFactory implements MapFactory {
+    public static final String CHUNK_SIZE = "gaffer.store.mapstore.map.offheap.chunk.size";
+    public static final int CHUNK_SIZE_DEFAULT = OffHeapByteStore.DEFAULT_CHUNK_SIZE;
+
+    private final ElementCloner cloner;
+    private final Map<String, Map> maps = new HashMap<>();
+    private final Map<String, MultiMap> multiMaps = new HashMap<>();
+    private final Map<Class<?>, ToBytesSerialiser<?>> keySerialisers = new HashMap<>();
+    private final Map<Class<?>, ToBytesSerialiser<?>> valueSerialisers = new HashMap<>();
+    private int chunkSize = CHUNK_SIZE_DEFAULT;
+
+    public OffHeapMapFactory() {
+        this(new ElementCloner());
+    }
+
+    protected OffHeapMapFactory(final ElementCloner cloner) {
+        this.cloner = cloner;
+    }
+
+    @Override
+    public void initialise(final Schema schema, final MapStoreProperties properties) {
+        validateSchema(schema);
+
+        final String chunkSizeStr = properties.get(CHUNK_SIZE, null);
+        if (null != chunkSizeStr) {
+            try {
+                chunkSize = Integer.parseInt(chunkSizeStr);
+            } catch (final NumberFormatException e) {
+                throw new IllegalArgumentException("Off heap chunk size is invalid: " + chunkSizeStr, e);
+            }
+        }
+
+        final ElementSerialiser elementSerialiser = new ElementSerialiser(schema);
+        keySerialisers.clear();
+        keySerialisers.put(Element.class, elementSerialiser);
+        keySerialisers.put(EntityId.class, new EntityIdSerialiser(schema));
+        keySerialisers.put(EdgeId.class, new EdgeIdSerialiser(schema));
+
+        valueSerialisers.clear();
+        valueSerialisers.put(Element.class, new MatchedVertexElementSerialiser(elementSerialiser));
+        valueSerialisers.put(GroupedProperties.class, new NonGroupByPropertiesSerialiser(schema));
+        valueSerialisers.put(Long.class, new CompactRawLongSerialiser());
+    }
+
+    @Override
+    public <K, V> Map<K, V> getMap(final String mapName, final Class<K> keyClass, final Class<V> valueClass) {
+        return maps.computeIfAbsent(mapName, n -> new OffHeapMap<>(getSerialiser(keySerialisers, keyClass), getSerialiser(valueSerialisers, valueClass), chunkSize));
+    }
+
+    @Override
+    public <K, V> MultiMap<K, V> getMultiMap(final String mapName, final Class<K> keyClass, final Class<V> valueClass) {
+        return multiMaps.computeIfAbsent(mapName, n -> new OffHeapMultiMap<>(getSerialiser(keySerialisers, keyClass), getSerialiser(valueSerialisers, valueClass), chunkSize));
+    }
+
+    @Override
+    public void clear() {
+        maps.values().forEach(Map::clear);
+        multiMaps.values().forEach(MultiMap::clear);
+        maps.clear();
+        multiMaps.clear();
+    }
+
+    @Override
+    public Element cloneElement(final Element element, final Schema schema) {
+        return cloner.cloneElement(element, schema);
+    }
+
+    protected int getChunkSize() {
+        return chunkSize;
+    }
+
+    private static <T> ToBytesSerialiser<T> getSerialiser(final Map<Class<?>, ToBytesSerialiser<?>> serialisers, final Class<T> clazz) {
+        final ToBytesSerialiser<?> serialiser = serialisers.get(clazz);
+        if (null == serialiser) {
+            throw new IllegalArgumentException("Off heap maps cannot hold objects of type: " + clazz.getName());
+        }
+        return (ToBytesSerialiser<T>) serialiser;
+    }
+
+    private static void validateSchema(final Schema schema) {
+        final Serialiser vertexSerialiser = schema.getVertexSerialiser();
+        if (!(vertexSerialiser instanceof ToBytesSerialiser) || !vertexSerialiser.isConsistent()) {
+            throw new IllegalArgumentException("Off heap maps require a consistent " + ToBytesSerialiser.class.getSimpleName() + " for vertices");
+        }
+
+        for (final String group : schema.getGroups()) {
+            final SchemaElementDefinition elementDef = schema.getElement(group);
+            for (final String property : elementDef.getProperties()) {
+                final TypeDefinition typeDef = elementDef.getPropertyTypeDef(property);
+                final Serialiser serialiser = null != typeDef ? typeDef.getSerialiser() : null;
+                if (!(serialiser instanceof ToBytesSerialiser)) {
+                    throw new IllegalArgumentException("Off heap maps require a " + ToBytesSerialiser.class.getSimpleName()
+                            + " for property " + property + " in group " + group);
+                }
+                if (elementDef.getGroupBy().contains(property) && !serialiser.isConsistent()) {
+                    throw new IllegalArgumentException("Off heap maps require a consistent serialiser for group-by property "
+                            + property + " in group " + group);
+                }
+            }
+        }
+    }
+
+    /**
+     * Serialises the aggregated properties of an element, which do not include
+     * the group-by properties. The {@link GroupedPropertiesSerialiser} reads
+     * back a value for every property in the schema, so the group-by
+     * properties are removed again, otherwise their empty values would replace
+     * the group-by properties held in the element key.
+     */
+    private static final class NonGroupByPropertiesSerialiser implements ToBytesSerialiser<GroupedProperties> {
+        private static final long serialVersionUID = 6092532473426587012L;
+
+        private final Schema schema;
+        private final GroupedPropertiesSerialiser propertiesSerialiser;
+
+        private NonGroupByPropertiesSerialiser(final Schema schema) {
+            this.schema = schema;
+            this.propertiesSerialiser = new GroupedPropertiesSerialiser(schema);
+        }
+
+        @Override
+        public boolean canHandle(final Class clazz) {
+            return propertiesSerialiser.canHandle(clazz);
+        }
+
+        @Override
+        public byte[] serialise(final GroupedProperties properties) throws SerialisationException {
+            return propertiesSerialiser.serialise(properties);
+        }
+
+        @Override
+        public GroupedProperties deserialise(final byte[] bytes) throws SerialisationException {
+            final GroupedProperties properties = propertiesSerialiser.deserialise(bytes);
+            if (null != properties) {
+                final SchemaElementDefinition elementDef = schema.getElement(properties.getGroup());
+                if (null != elementDef) {
+                    properties.keySet().removeAll(elementDef.getGroupBy());
+                }
+            }
+            return properties;
+        }
+
+        @Override
+        public GroupedProperties deserialiseEmpty() throws SerialisationException {
+            return null;
+        }
+
+        @Override
+        public boolean preservesObjectOrdering() {
+            return false;
+        }
+
+        @Override
+        public boolean isConsistent() {
+            return propertiesSerialiser.isConsistent();
+        }
+    }
+
+    /**
+     * Serialises elements along with the matched vertex of any edges, which is
+     * required by the index entries for the destination vertex of an edge.
+     */
+    private static final class MatchedVertexElementSerialiser implements ToBytesSerialiser<Element> {
+        private static final long serialVersionUID = -2918163541271634780L;
+        private static final byte NO_MATCHED_VERTEX = 0;
+
+        private final ElementSerialiser elementSerialiser;
+
+        private MatchedVertexElementSerialiser(final ElementSerialiser elementSerialiser) {
+            this.elementSerialiser = elementSerialiser;
+        }
+
+        @Override
+        public boolean canHandle(final Class clazz) {
+            return elementSerialiser.canHandle(clazz);
+        }
+
+        @Override
+        public byte[] serialise(final Element element) throws SerialisationException {
+            final byte[] elementBytes = elementSerialiser.serialise(element);
+            final byte[] bytes = Arrays.copyOf(elementBytes, elementBytes.length + 1);
+            if (element instanceof Edge && null != ((Edge) element).getMatchedVertex()) {
+                bytes[elementBytes.length] = (byte) (((Edge) element).getMatchedVertex().ordinal() + 1);
+            } else {
+                bytes[elementBytes.length] = NO_MATCHED_VERTEX;
+            }
+            return bytes;
+        }
+
+        @Override
+        public Element deserialise(final byte[] bytes) throws SerialisationException {
+            final Element element = elementSerialiser.deserialise(Arrays.copyOf(bytes, bytes.length - 1));
+            final byte matchedVertex = bytes[bytes.length - 1];
+            if (NO_MATCHED_VERTEX != matchedVertex && element instanceof Edge) {
+                final Edge edge = (Edge) element;
+                edge.setIdentifiers(edge.getSource(), edge.getDestination(), edge.isDirected(), EdgeId.MatchedVertex.values()[matchedVertex - 1]);
+            }
+            return element;
+        }
+
+        @Override
+        public Element deserialiseEmpty() throws SerialisationException {
+            return null;
+        }
+
+        @Override
+        public boolean preservesObjectOrdering() {
+            return false;
+        }
+
+        @Override
+        public boolean isConsistent() {
+            return elementSerialiser.isConsistent();
+        }
+    }
+}
@@ -22,12 +22,8 @@ import uk.gov.gchq.gaffer.data.element.Edge;
 import uk.gov.gchq.gaffer.data.element.Element;
 import uk.gov.gchq.gaffer.data.element.Entity;
 import uk.gov.gchq.gaffer.data.element.GroupedProperties;
-import uk.gov.gchq.gaffer.data.element.id.EdgeId;
-import uk.gov.gchq.gaffer.data.element.id.EntityId;
 import uk.gov.gchq.gaffer.mapstore.MapStore;
 import uk.gov.gchq.gaffer.operation.OperationException;
-import uk.gov.gchq.gaffer.operation.data.EdgeSeed;
-import uk.gov.gchq.gaffer.operation.data.EntitySeed;
 import uk.gov.gchq.gaffer.operation.impl.add.AddElements;
 import uk.gov.gchq.gaffer.store.Context;
 import uk.gov.gchq.gaffer.store.Store;
@@ -38,7 +34,17 @@ import uk.gov.gchq.gaffer.store.schema.SchemaElementDefinition;
 import uk.gov.gchq.gaffer.store.util.AggregatorUtil;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
 
 /**
  * An {@link OperationHandler} for the {@link AddElements} operation on the {@link MapStore}.
@@ -46,6 +52,17 @@ import java.util.List;
 public class AddElementsHandler implements OperationHandler<AddElements> {
     private static final Logger LOGGER = LoggerFactory.getLogger(AddElementsHandler.class);
 
+    /**
+     * The batch size used by the parallel ingest pipeline if an ingest buffer
+     * size has not been set.
+     */
+    private static final int PARALLEL_INGEST_BATCH_SIZE_DEFAULT = 1000;
+
+    /**
+     * Marks the end of the input on a partition queue.
+     */
+    private static final List<Element> END_OF_INPUT = Collections.emptyList();
+
     @Override
     public Void doOperation(final AddElements addElements, final Context context, final Store store) throws OperationException {
         Iterable<? extends Element> elements = addElements.getInput();
@@ -53,17 +70,27 @@ public class AddElementsHandler implements OperationHandler<AddElements> {
             elements = new ValidatedElements(elements, store.getSchema(), addElements.isSkipInvalidElements());
         }
 
-        addElements(elements, (MapStore) store);
+        final MapStore mapStore = (MapStore) store;
+        try {
+            addElements(elements, mapStore);
+        } finally {
+            mapStore.getMapImpl().flushWriteAheadLog();
+        }
         return null;
     }
 
-    private void addElements(final Iterable<? extends Element> elements, final MapStore mapStore) {
+    private void addElements(final Iterable<? extends Element> elements, final MapStore mapStore) throws OperationException {
         final MapImpl mapImpl = mapStore.getMapImpl();
         final Schema schema = mapStore.getSchema();
 
         final int bufferSize = mapStore.getProperties().getIngestBufferSize();
+        final int ingestThreads = mapStore.getProperties().getIngestThreads();
 
-        if (bufferSize < 1) {
+        if (ingestThreads > 1) {
+            addElementsInParallel(elements, mapImpl, schema, ingestThreads,
+                    bufferSize < 1 ? PARALLEL_INGEST_BATCH_SIZE_DEFAULT : bufferSize,
+                    mapStore.getProperties().getIngestQueueSize());
+        } else if (bufferSize < 1) {
             // Add all elements directly
             addBatch(mapImpl, schema, elements);
         } else {
@@ -75,7 +102,7 @@ public class AddElementsHandler implements OperationHandler<AddElements> {
                     batch.add(element);
                     count++;
                     if (count >= bufferSize) {
-                        addBatch(mapImpl, schema, AggregatorUtil.ingestAggregate(batch, schema));
+                        addBatch(mapImpl, schema, AggregatorUtil.ingestAggregate(batch, mapImpl.getAggregationSchema()));
                         batch.clear();
                         count = 0;
                     }
@@ -83,24 +110,143 @@ public class AddElementsHandler implements OperationHandler<AddElements> {
             }
 
             if (count > 0) {
-                addBatch(mapImpl, schema, AggregatorUtil.ingestAggregate(batch, schema));
+                addBatch(mapImpl, schema, AggregatorUtil.ingestAggregate(batch, mapImpl.getAggregationSchema()));
+            }
+        }
+    }
+
+    /**
+     * Adds elements using a pipeline of stages. The calling thread validates
+     * the elements and partitions them by vertex into batches, which are
+     * passed over a bounded queue to a worker thread for each partition. The
+     * workers ingest aggregate each batch and then add the elements and
+     * update the indices. As all the elements with the same vertex are sent
+     * to the same partition, the batches can be aggregated independently.
+     *
+     * @param elements      the elements to add
+     * @param mapImpl       the maps to add the elements to
+     * @param schema        the schema
+     * @param numPartitions the number of partitions and worker threads
+     * @param batchSize     the number of elements in each batch
+     * @param queueSize     the number of batches queued for each worker
+     * @throws OperationException if the elements could not be added
+     */
+    private void addElementsInParallel(final Iterable<? extends Element> elements,
+                                       final MapImpl mapImpl,
+                                       final Schema schema,
+                                       final int numPartitions,
+                                       final int batchSize,
+                                       final int queueSize) throws OperationException {
+        LOGGER.info("Adding elements in parallel, threads = {}, batch size = {}", numPartitions, batchSize);
+        final List<BlockingQueue<List<Element>>> queues = new ArrayList<>(numPartitions);
+        final List<List<Element>> batches = new ArrayList<>(numPartitions);
+        final List<Future<?>> workers = new ArrayList<>(numPartitions);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final ExecutorService executor = Executors.newFixedThreadPool(numPartitions);
+        try {
+            for (int i = 0; i < numPartitions; i++) {
+                final BlockingQueue<List<Element>> queue = new ArrayBlockingQueue<>(Math.max(1, queueSize));
+                queues.add(queue);
+                batches.add(new ArrayList<>(batchSize));
+                workers.add(executor.submit(() -> {
+                    ingestPartition(queue, mapImpl, schema, failure);
+                    return null;
+                }));
+            }
+
+            for (final Element element : elements) {
+                if (null != failure.get()) {
+                    break;
+                }
+                if (null != element) {
+                    final int partition = Math.floorMod(Objects.hashCode(getPartitionVertex(element)), numPartitions);
+                    final List<Element> batch = batches.get(partition);
+                    batch.add(element);
+                    if (batch.size() >= batchSize) {
+                        queues.get(partition).put(batch);
+                        batches.set(partition, new ArrayList<>(batchSize));
+                    }
+                }
+            }
+
+            for (int i = 0; i < numPartitions; i++) {
+                if (!batches.get(i).isEmpty()) {
+                    queues.get(i).put(batches.get(i));
+                }
+                queues.get(i).put(END_OF_INPUT);
+            }
+
+            for (final Future<?> worker : workers) {
+                worker.get();
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OperationException("Interrupted whilst adding elements", e);
+        } catch (final ExecutionException e) {
+            throw new OperationException("Failed to add elements", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        final Throwable cause = failure.get();
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        if (null != cause) {
+            throw new OperationException("Failed to add elements", cause);
+        }
+    }
+
+    private void ingestPartition(final BlockingQueue<List<Element>> queue,
+                                 final MapImpl mapImpl,
+                                 final Schema schema,
+                                 final AtomicReference<Throwable> failure) throws InterruptedException {
+        List<Element> batch = queue.take();
+        while (END_OF_INPUT != batch) {
+            // Keep draining the queue after a failure so the producer is not blocked.
+            // Errors are caught too, otherwise the worker would stop taking batches.
+            if (null == failure.get()) {
+                try {
+                    addBatch(mapImpl, schema, AggregatorUtil.ingestAggregate(batch, mapImpl.getAggregationSchema()));
+                } catch (final Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
             }
+            batch = queue.take();
         }
     }
 
+    private Object getPartitionVertex(final Element element) {
+        return element instanceof Entity ? ((Entity) element).getVertex() : ((Edge) element).getSource();
+    }
+
     private void addBatch(final MapImpl mapImpl, final Schema schema, final Iterable<? extends Element> elements) {
         for (final Element element : elements) {
             if (null != element) {
-                final Element elementForIndexing = addElement(element, schema, mapImpl);
-
-                // Update entityIdToElements and edgeIdToElements if index required
-                if (mapImpl.isMaintainIndex()) {
-                    updateElementIndex(elementForIndexing, mapImpl);
+                if (mapImpl.isConcurrent()) {
+                    final Lock lock = mapImpl.getWriteLock(element);
+                    lock.lock();
+                    try {
+                        addElementAndIndex(element, schema, mapImpl);
+                    } finally {
+                        lock.unlock();
+                    }
+                } else {
+                    addElementAndIndex(element, schema, mapImpl);
                 }
             }
         }
     }
 
+    private void addElementAndIndex(final Element element, final Schema schema, final MapImpl mapImpl) {
+        final Element elementForIndexing = addElement(element, schema, mapImpl);
+
+        // Update entityIdToElements and edgeIdToElements if index required
+        if (mapImpl.isMaintainIndex()) {
+            mapImpl.addIndex(elementForIndexing);
+        }
+    }
+
     private Element addElement(final Element element, final Schema schema, final MapImpl mapImpl) {
         final Element elementForIndexing;
         if (!mapImpl.isAggregationEnabled(element)) {
@@ -142,24 +288,4 @@ public class AddElementsHandler implements OperationHandler<AddElements> {
         mapImpl.addNonAggElement(elementClone);
         return elementClone;
     }
-
-    private void updateElementIndex(final Element element, final MapImpl mapImpl) {
-        if (element instanceof Entity) {
-            final Entity entity = (Entity) element;
-            final EntityId entityId = new EntitySeed(entity.getVertex());
-            mapImpl.addIndex(entityId, element);
-        } else {
-            final Edge edge = (Edge) element;
-            edge.setIdentifiers(edge.getSource(), edge.getDestination(), edge.isDirected(), EdgeId.MatchedVertex.SOURCE);
-            final EntityId sourceEntityId = new EntitySeed(edge.getSource());
-            mapImpl.addIndex(sourceEntityId, edge);
-
-            final Edge destMatchedEdge = new Edge(edge.getGroup(), edge.getSource(), edge.getDestination(), edge.isDirected(), EdgeId.MatchedVertex.DESTINATION, edge.getProperties());
-            final EntityId destinationEntityId = new EntitySeed(edge.getDestination());
-            mapImpl.addIndex(destinationEntityId, destMatchedEdge);
-
-            final EdgeId edgeId = new EdgeSeed(edge.getSource(), edge.getDestination(), edge.isDirected());
-            mapImpl.addIndex(edgeId, edge);
-        }
-    }
 }
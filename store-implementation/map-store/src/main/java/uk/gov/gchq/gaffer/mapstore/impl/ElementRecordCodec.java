@@ -0,0 +1,259 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.mapstore.impl;
+
+import uk.gov.gchq.gaffer.commonutil.StringUtil;
+import uk.gov.gchq.gaffer.data.element.Edge;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.Entity;
+import uk.gov.gchq.gaffer.data.element.GroupedProperties;
+import uk.gov.gchq.gaffer.data.element.Properties;
+import uk.gov.gchq.gaffer.serialisation.Serialiser;
+import uk.gov.gchq.gaffer.serialisation.ToBytesSerialiser;
+import uk.gov.gchq.gaffer.serialisation.implementation.raw.CompactRawSerialisationUtils;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+import uk.gov.gchq.gaffer.store.schema.SchemaElementDefinition;
+import uk.gov.gchq.gaffer.store.schema.TypeDefinition;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Encodes the entries of the {@link MapImpl} maps as binary records, for the
+ * snapshot and write-ahead log files.
+ * <p>
+ * Each record holds the record type, the element and either its aggregated
+ * properties or its count. Vertices and properties are serialised using the
+ * {@link ToBytesSerialiser}s in the {@link Schema}, prefixed with a compact
+ * length. Unlike the {@link uk.gov.gchq.gaffer.store.serialiser.ElementSerialiser}
+ * null properties are distinguished from empty ones, so the restored map keys
+ * are equal to the original keys.
+ * </p>
+ */
+final class ElementRecordCodec {
+    static final byte END = 0;
+    static final byte AGG_ELEMENT = 1;
+    static final byte NON_AGG_ELEMENT = 2;
+
+    private static final byte ENTITY = 0;
+    private static final byte EDGE = 1;
+
+    private final Schema schema;
+    private final ToBytesSerialiser<Object> vertexSerialiser;
+
+    ElementRecordCodec(final Schema schema) {
+        this.schema = schema;
+        this.vertexSerialiser = getVertexSerialiser(schema);
+        validatePropertySerialisers(schema);
+    }
+
+    void writeAggElement(final DataOutputStream out, final Element element, final GroupedProperties properties) throws IOException {
+        out.writeByte(AGG_ELEMENT);
+        writeElement(out, element);
+        writeProperties(out, element.getGroup(), properties);
+    }
+
+    void writeNonAggElement(final DataOutputStream out, final Element element, final long count) throws IOException {
+        out.writeByte(NON_AGG_ELEMENT);
+        writeElement(out, element);
+        CompactRawSerialisationUtils.write(count, out);
+    }
+
+    void writeEnd(final DataOutputStream out) throws IOException {
+        out.writeByte(END);
+    }
+
+    /**
+     * Reads the next record.
+     *
+     * @param in the input to read from
+     * @return the record, or null if the end record has been reached
+     * @throws IOException if the record could not be read
+     */
+    Record read(final DataInputStream in) throws IOException {
+        final byte type = in.readByte();
+        if (END == type) {
+            return null;
+        }
+
+        final Element element = readElement(in);
+        if (AGG_ELEMENT == type) {
+            final GroupedProperties properties = new GroupedProperties(element.getGroup());
+            readProperties(in, element.getGroup(), properties);
+            return new Record(element, properties, 0);
+        }
+        if (NON_AGG_ELEMENT == type) {
+            return new Record(element, null, CompactRawSerialisationUtils.read(in));
+        }
+        throw new IOException("Unknown record type: " + type);
+    }
+
+    private void writeElement(final DataOutputStream out, final Element element) throws IOException {
+        writeBytes(out, StringUtil.toBytes(element.getGroup()));
+        if (element instanceof Entity) {
+            out.writeByte(ENTITY);
+            writeObject(out, vertexSerialiser, ((Entity) element).getVertex());
+        } else {
+            final Edge edge = (Edge) element;
+            out.writeByte(EDGE);
+            writeObject(out, vertexSerialiser, edge.getSource());
+            writeObject(out, vertexSerialiser, edge.getDestination());
+            out.writeBoolean(edge.isDirected());
+        }
+        writeProperties(out, element.getGroup(), element.getProperties());
+    }
+
+    private Element readElement(final DataInputStream in) throws IOException {
+        final String group = StringUtil.toString(readBytes(in));
+        final Element element;
+        if (ENTITY == in.readByte()) {
+            element = new Entity(group, readObject(in, vertexSerialiser));
+        } else {
+            final Object source = readObject(in, vertexSerialiser);
+            final Object destination = readObject(in, vertexSerialiser);
+            element = new Edge(group, source, destination, in.readBoolean());
+        }
+        readProperties(in, group, element.getProperties());
+        return element;
+    }
+
+    private void writeProperties(final DataOutputStream out, final String group, final Properties properties) throws IOException {
+        final SchemaElementDefinition elementDef = getElementDefinition(group);
+        for (final String property : elementDef.getProperties()) {
+            writeObject(out, getSerialiser(elementDef, property), properties.get(property));
+        }
+    }
+
+    private void readProperties(final DataInputStream in, final String group, final Properties properties) throws IOException {
+        final SchemaElementDefinition elementDef = getElementDefinition(group);
+        for (final String property : elementDef.getProperties()) {
+            final Object value = readObject(in, getSerialiser(elementDef, property));
+            if (null != value) {
+                properties.put(property, value);
+            }
+        }
+    }
+
+    private SchemaElementDefinition getElementDefinition(final String group) throws IOException {
+        final SchemaElementDefinition elementDef = schema.getElement(group);
+        if (null == elementDef) {
+            throw new IOException("Group " + group + " is not in the schema");
+        }
+        return elementDef;
+    }
+
+    private static void writeObject(final DataOutputStream out, final ToBytesSerialiser<Object> serialiser, final Object object) throws IOException {
+        writeBytes(out, null == object ? null : serialiser.serialise(object));
+    }
+
+    private static Object readObject(final DataInputStream in, final ToBytesSerialiser<Object> serialiser) throws IOException {
+        final byte[] bytes = readBytes(in);
+        if (null == bytes) {
+            return null;
+        }
+        return 0 == bytes.length ? serialiser.deserialiseEmpty() : serialiser.deserialise(bytes);
+    }
+
+    /**
+     * Writes the length of the bytes plus one, so that a null value can be
+     * written as a length of 0, followed by the bytes.
+     *
+     * @param out   the stream to write to
+     * @param bytes the bytes to write, which may be null
+     * @throws IOException if the bytes could not be written
+     */
+    private static void writeBytes(final DataOutputStream out, final byte[] bytes) throws IOException {
+        if (null == bytes) {
+            CompactRawSerialisationUtils.write(0, out);
+        } else {
+            CompactRawSerialisationUtils.write(bytes.length + 1L, out);
+            out.write(bytes);
+        }
+    }
+
+    private static byte[] readBytes(final DataInputStream in) throws IOException {
+        final long length = CompactRawSerialisationUtils.read(in);
+        if (0 == length) {
+            return null;
+        }
+        if (length < 0 || length - 1 > Integer.MAX_VALUE) {
+            throw new IOException("Invalid record length: " + length);
+        }
+        final byte[] bytes = new byte[(int) (length - 1)];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    private static ToBytesSerialiser<Object> getSerialiser(final SchemaElementDefinition elementDef, final String property) {
+        return (ToBytesSerialiser<Object>) elementDef.getPropertyTypeDef(property).getSerialiser();
+    }
+
+    private static ToBytesSerialiser<Object> getVertexSerialiser(final Schema schema) {
+        final Serialiser serialiser = schema.getVertexSerialiser();
+        if (!(serialiser instanceof ToBytesSerialiser)) {
+            throw new IllegalArgumentException("Persisting the MapStore requires a "
+                    + ToBytesSerialiser.class.getSimpleName() + " for vertices");
+        }
+        return (ToBytesSerialiser<Object>) serialiser;
+    }
+
+    private static void validatePropertySerialisers(final Schema schema) {
+        for (final String group : schema.getGroups()) {
+            final SchemaElementDefinition elementDef = schema.getElement(group);
+            for (final String property : elementDef.getProperties()) {
+                final TypeDefinition typeDef = elementDef.getPropertyTypeDef(property);
+                if (null == typeDef || !(typeDef.getSerialiser() instanceof ToBytesSerialiser)) {
+                    throw new IllegalArgumentException("Persisting the MapStore requires a "
+                            + ToBytesSerialiser.class.getSimpleName() + " for property " + property + " in group " + group);
+                }
+            }
+        }
+    }
+
+    /**
+     * A record read from a snapshot or write-ahead log. Aggregated elements
+     * have properties, non aggregated elements have a count.
+     */
+    static final class Record {
+        private final Element element;
+        private final GroupedProperties properties;
+        private final long count;
+
+        private Record(final Element element, final GroupedProperties properties, final long count) {
+            this.element = element;
+            this.properties = properties;
+            this.count = count;
+        }
+
+        Element getElement() {
+            return element;
+        }
+
+        GroupedProperties getProperties() {
+            return properties;
+        }
+
+        long getCount() {
+            return count;
+        }
+
+        boolean isAggregated() {
+            return null != properties;
+        }
+    }
+}
@@ -20,6 +20,7 @@ import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterator;
 import uk.gov.gchq.gaffer.commonutil.iterable.WrappedCloseableIterable;
 import uk.gov.gchq.gaffer.commonutil.iterable.WrappedCloseableIterator;
 import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.elementdefinition.view.View;
 import uk.gov.gchq.gaffer.data.elementdefinition.view.ViewUtil;
 import uk.gov.gchq.gaffer.mapstore.MapStore;
 import uk.gov.gchq.gaffer.operation.OperationException;
@@ -27,7 +28,6 @@ import uk.gov.gchq.gaffer.operation.impl.get.GetAllElements;
 import uk.gov.gchq.gaffer.store.Context;
 import uk.gov.gchq.gaffer.store.Store;
 import uk.gov.gchq.gaffer.store.operation.handler.OutputOperationHandler;
-import uk.gov.gchq.gaffer.store.schema.Schema;
 
 import java.util.stream.Stream;
 
@@ -44,28 +44,27 @@ public class GetAllElementsHandler implements OutputOperationHandler<GetAllEleme
     }
 
     private CloseableIterable<Element> doOperation(final GetAllElements operation, final MapStore mapStore) {
-        return new AllElementsIterable(mapStore.getMapImpl(), operation, mapStore.getSchema());
+        return new AllElementsIterable(mapStore.getMapImpl(), operation);
     }
 
     private static class AllElementsIterable extends WrappedCloseableIterable<Element> {
         private final MapImpl mapImpl;
         private final GetAllElements getAllElements;
-        private final Schema schema;
 
-        AllElementsIterable(final MapImpl mapImpl, final GetAllElements getAllElements, final Schema schema) {
+        AllElementsIterable(final MapImpl mapImpl, final GetAllElements getAllElements) {
             this.mapImpl = mapImpl;
             this.getAllElements = getAllElements;
-            this.schema = schema;
         }
 
         @Override
         public CloseableIterator<Element> iterator() {
-            Stream<Element> elements = mapImpl.getAllElements(getAllElements.getView().getGroups());
-            elements = GetElementsUtil.applyDirectedTypeFilter(elements, getAllElements.getView().hasEdges(), getAllElements.getDirectedType());
-            elements = GetElementsUtil.applyView(elements, schema, getAllElements.getView());
-            elements = elements.map(element -> mapImpl.cloneElement(element, schema));
+            final View view = getAllElements.getView();
+            final StoredElementFilter filter = new StoredElementFilter(view,
+                    GetElementsUtil.getDirectedTypeFilter(view.hasEdges(), getAllElements.getDirectedType()));
+            Stream<Element> elements = mapImpl.getAllElements(view.getGroups(), filter, view);
+            elements = GetElementsUtil.applyTransform(elements, view);
             elements = elements.map(element -> {
-                ViewUtil.removeProperties(getAllElements.getView(), element);
+                ViewUtil.removeProperties(view, element);
                 return element;
             });
             return new WrappedCloseableIterator<>(elements.iterator());
@@ -23,6 +23,7 @@ import uk.gov.gchq.gaffer.commonutil.iterable.WrappedCloseableIterator;
 import uk.gov.gchq.gaffer.commonutil.stream.Streams;
 import uk.gov.gchq.gaffer.data.element.Element;
 import uk.gov.gchq.gaffer.data.element.id.ElementId;
+import uk.gov.gchq.gaffer.data.elementdefinition.view.View;
 import uk.gov.gchq.gaffer.data.elementdefinition.view.ViewUtil;
 import uk.gov.gchq.gaffer.mapstore.MapStore;
 import uk.gov.gchq.gaffer.operation.OperationException;
@@ -30,7 +31,6 @@ import uk.gov.gchq.gaffer.operation.impl.get.GetElements;
 import uk.gov.gchq.gaffer.store.Context;
 import uk.gov.gchq.gaffer.store.Store;
 import uk.gov.gchq.gaffer.store.operation.handler.OutputOperationHandler;
-import uk.gov.gchq.gaffer.store.schema.Schema;
 
 import java.util.stream.Stream;
 
@@ -57,29 +57,28 @@ public class GetElementsHandler
         if (null == seeds) {
             return new EmptyClosableIterable<>();
         }
-        return new ElementsIterable(mapImpl, operation, mapStore.getSchema());
+        return new ElementsIterable(mapImpl, operation);
     }
 
     private static class ElementsIterable extends WrappedCloseableIterable<Element> {
         private final MapImpl mapImpl;
         private final GetElements getElements;
-        private final Schema schema;
 
-        ElementsIterable(final MapImpl mapImpl, final GetElements getElements, final Schema schema) {
+        ElementsIterable(final MapImpl mapImpl, final GetElements getElements) {
             this.mapImpl = mapImpl;
             this.getElements = getElements;
-            this.schema = schema;
         }
 
         @Override
         public CloseableIterator<Element> iterator() {
+            final View view = getElements.getView();
+            final StoredElementFilter filter = new StoredElementFilter(view);
             Stream<Element> elements = Streams.toStream(getElements.getInput())
-                    .flatMap(elementId -> GetElementsUtil.getRelevantElements(mapImpl, elementId, getElements.getView(), getElements.getDirectedType(), getElements.getIncludeIncomingOutGoing(), getElements.getSeedMatching()).stream());
-            elements = elements.flatMap(e -> Streams.toStream(mapImpl.getElements(e)));
-            elements = GetElementsUtil.applyView(elements, schema, getElements.getView());
-            elements = elements.map(element -> mapImpl.cloneElement(element, schema));
+                    .flatMap(elementId -> GetElementsUtil.getRelevantElements(mapImpl, elementId, view, getElements.getDirectedType(), getElements.getIncludeIncomingOutGoing(), getElements.getSeedMatching()).stream());
+            elements = elements.flatMap(e -> mapImpl.getElements(e, filter, view));
+            elements = GetElementsUtil.applyTransform(elements, view);
             elements = elements.map(element -> {
-                ViewUtil.removeProperties(getElements.getView(), element);
+                ViewUtil.removeProperties(view, element);
                 return element;
             });
             return new WrappedCloseableIterator<>(elements.iterator());
@@ -123,15 +123,27 @@ public final class GetElementsUtil {
     public static Stream<Element> applyDirectedTypeFilter(final Stream<Element> elements,
                                                           final boolean includeEdges,
                                                           final DirectedType directedType) {
-        Stream<Element> filteredElements = elements;
+        final Predicate<Element> directedTypeFilter = getDirectedTypeFilter(includeEdges, directedType);
+        return null != directedTypeFilter ? elements.filter(directedTypeFilter) : elements;
+    }
+
+    /**
+     * Gets a predicate for the elements that match a {@link DirectedType}.
+     *
+     * @param includeEdges true if the edges are required
+     * @param directedType the directed type to match
+     * @return the predicate, or null if all elements match
+     */
+    public static Predicate<Element> getDirectedTypeFilter(final boolean includeEdges,
+                                                           final DirectedType directedType) {
         if (includeEdges) {
             if (directedType == DirectedType.DIRECTED) {
-                filteredElements = elements.filter(e -> e instanceof Entity || ((Edge) e).isDirected());
+                return e -> e instanceof Entity || ((Edge) e).isDirected();
             } else if (directedType == DirectedType.UNDIRECTED) {
-                filteredElements = elements.filter(e -> e instanceof Entity || !((Edge) e).isDirected());
+                return e -> e instanceof Entity || !((Edge) e).isDirected();
             }
         }
-        return filteredElements;
+        return null;
     }
 
     public static Stream<Element> applyView(final Stream<Element> elementStream,
@@ -157,8 +169,22 @@ public final class GetElementsUtil {
             return ved.getPostAggregationFilter() == null || ved.getPostAggregationFilter().test(e);
         });
 
+        return applyTransform(stream, view);
+    }
+
+    /**
+     * Applies the transforms and post-transform filters in a {@link View}. The
+     * elements must already have passed the group, pre-aggregation and
+     * post-aggregation filters of the view.
+     *
+     * @param elementStream the elements
+     * @param view          the view to apply
+     * @return the transformed and filtered elements
+     */
+    public static Stream<Element> applyTransform(final Stream<Element> elementStream,
+                                                 final View view) {
         // Apply transform
-        stream = stream.map(e -> {
+        Stream<Element> stream = elementStream.map(e -> {
             final ViewElementDefinition ved = view.getElement(e.getGroup());
             final ElementTransformer transformer = ved.getTransformer();
             if (transformer != null) {
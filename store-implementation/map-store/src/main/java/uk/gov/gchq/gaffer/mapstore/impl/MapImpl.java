@@ -15,27 +15,51 @@
  */
 package uk.gov.gchq.gaffer.mapstore.impl;
 
-import uk.gov.gchq.gaffer.commonutil.iterable.RepeatItemIterable;
-import uk.gov.gchq.gaffer.commonutil.stream.Streams;
+import com.google.common.util.concurrent.Striped;
+
+import uk.gov.gchq.gaffer.core.exception.GafferRuntimeException;
+import uk.gov.gchq.gaffer.data.element.Edge;
 import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.Entity;
 import uk.gov.gchq.gaffer.data.element.GroupedProperties;
+import uk.gov.gchq.gaffer.data.element.Properties;
 import uk.gov.gchq.gaffer.data.element.id.EdgeId;
 import uk.gov.gchq.gaffer.data.element.id.EntityId;
+import uk.gov.gchq.gaffer.data.elementdefinition.view.View;
+import uk.gov.gchq.gaffer.data.elementdefinition.view.ViewElementDefinition;
 import uk.gov.gchq.gaffer.mapstore.MapStoreProperties;
 import uk.gov.gchq.gaffer.mapstore.factory.MapFactory;
 import uk.gov.gchq.gaffer.mapstore.factory.SimpleMapFactory;
+import uk.gov.gchq.gaffer.mapstore.multimap.ConcurrentMapOfSets;
 import uk.gov.gchq.gaffer.mapstore.multimap.MultiMap;
+import uk.gov.gchq.gaffer.mapstore.utils.ElementCloner;
+import uk.gov.gchq.gaffer.operation.data.EdgeSeed;
+import uk.gov.gchq.gaffer.operation.data.EntitySeed;
 import uk.gov.gchq.gaffer.store.schema.Schema;
 import uk.gov.gchq.gaffer.store.schema.SchemaElementDefinition;
 import uk.gov.gchq.gaffer.store.util.AggregatorUtil;
-
+import uk.gov.gchq.koryphe.tuple.predicate.TupleAdaptedPredicate;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.Lock;
+import java.util.function.BinaryOperator;
+import java.util.function.Predicate;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
 
 /**
@@ -54,7 +78,7 @@ import java.util.stream.Stream;
  * same package and get access to the maps, without exposing the internal state of
  * the MapStore to classes outside of this package.
  */
-public class MapImpl {
+public class MapImpl implements Closeable {
     public static final String AGG_ELEMENTS = "aggElements";
     public static final String NON_AGG_ELEMENTS = "nonAggElements";
     public static final String ENTITY_ID_TO_ELEMENTS = "entityIdToElements";
@@ -83,19 +107,50 @@ public class MapImpl {
     private final MultiMap<EdgeId, Element> edgeIdToElements;
 
     private final MapFactory mapFactory;
+    private final ElementCloner propertiesCloner = new ElementCloner();
     private final Map<String, Set<String>> groupToGroupByProperties = new HashMap<>();
     private final Map<String, Set<String>> groupToNonGroupByProperties = new HashMap<>();
     private final Set<String> groupsWithNoAggregation = new HashSet<>();
     private final List<String> aggregatedGroups;
     private final Schema schema;
     private final boolean maintainIndex;
+    private final boolean readOnlyResults;
     private final AggregatorUtil.IngestPropertiesBinaryOperator propertyAggregator;
 
+    /**
+     * Locks used in concurrent mode to stripe writes by group and vertex, so
+     * that an element and its index entries are added together. This is null
+     * if the MapStore is not concurrent.
+     */
+    private final Striped<Lock> writeLocks;
+
+    /**
+     * The schema aggregators are not thread safe, so in concurrent mode each
+     * thread aggregates properties using its own copy of the schema.
+     */
+    private final ThreadLocal<Schema> threadSchemas;
+    private final ThreadLocal<AggregatorUtil.IngestPropertiesBinaryOperator> threadPropertyAggregators;
+
+    /**
+     * The snapshot file and write-ahead log used to persist the maps. These
+     * are null if persistence has not been configured.
+     */
+    private final ElementRecordCodec recordCodec;
+    private final Path snapshotFile;
+    private final WriteAheadLog writeAheadLog;
+
+    /**
+     * propertyIndexes maps from an Element group to the sorted secondary
+     * indexes on the properties of that group.
+     */
+    private final Map<String, List<PropertyIndex>> propertyIndexes = new HashMap<>();
+
     public MapImpl(final Schema schema, final MapStoreProperties mapStoreProperties) {
         this.schema = schema;
         propertyAggregator = new AggregatorUtil.IngestPropertiesBinaryOperator(schema);
         mapFactory = createMapFactory(schema, mapStoreProperties);
         maintainIndex = mapStoreProperties.getCreateIndex();
+        readOnlyResults = mapStoreProperties.isReadOnlyResults();
 
         for (final String group : schema.getGroups()) {
             aggElements.put(group, mapFactory.getMap(group + "|" + AGG_ELEMENTS, Element.class, GroupedProperties.class));
@@ -113,25 +168,126 @@ public class MapImpl {
         this.aggregatedGroups = schema.getAggregatedGroups();
         schema.getEntityGroups().forEach(this::addToGroupByMap);
         schema.getEdgeGroups().forEach(this::addToGroupByMap);
+
+        if (mapStoreProperties.isConcurrent()) {
+            validateConcurrentMaps();
+            writeLocks = Striped.lock(mapStoreProperties.getConcurrentLockStripes());
+            final byte[] schemaJson = schema.toCompactJson();
+            threadSchemas = ThreadLocal.withInitial(() -> Schema.fromJson(schemaJson));
+            threadPropertyAggregators = ThreadLocal.withInitial(() -> new AggregatorUtil.IngestPropertiesBinaryOperator(threadSchemas.get()));
+        } else {
+            writeLocks = null;
+            threadSchemas = null;
+            threadPropertyAggregators = null;
+        }
+        validateIngestThreads(mapStoreProperties);
+        createPropertyIndexes(mapStoreProperties);
+
+        final String snapshotPath = mapStoreProperties.getSnapshotFile();
+        final String writeAheadLogPath = mapStoreProperties.getWriteAheadLogFile();
+        recordCodec = null != snapshotPath || null != writeAheadLogPath ? new ElementRecordCodec(schema) : null;
+        snapshotFile = null != snapshotPath ? Paths.get(snapshotPath) : null;
+        writeAheadLog = null != writeAheadLogPath ? new WriteAheadLog(Paths.get(writeAheadLogPath), recordCodec, mapStoreProperties.isWriteAheadLogSync()) : null;
+        restore();
     }
 
+    /**
+     * Writes a snapshot of all the elements to the configured snapshot file
+     * and then resets the write-ahead log, if there is one. In concurrent mode
+     * all writes are blocked whilst the snapshot is written.
+     *
+     * @throws IOException if the snapshot could not be written
+     */
+    public void createSnapshot() throws IOException {
+        if (null == snapshotFile) {
+            throw new IllegalStateException("A snapshot file has not been configured, set " + MapStoreProperties.SNAPSHOT_FILE);
+        }
+
+        final List<Lock> locks = lockAllWrites();
+        try {
+            final long walGeneration = null != writeAheadLog ? writeAheadLog.getGeneration() : 0L;
+            MapImplSnapshot.write(snapshotFile, walGeneration, recordCodec, aggElements.values(), nonAggElements.values());
+            if (null != writeAheadLog) {
+                writeAheadLog.reset(walGeneration + 1);
+            }
+        } finally {
+            for (int i = locks.size() - 1; i >= 0; i--) {
+                locks.get(i).unlock();
+            }
+        }
+    }
+
+    /**
+     * Removes all the elements. If persistence is configured the snapshot is
+     * replaced with an empty snapshot and the write-ahead log is reset, so the
+     * removed elements are not restored when the maps are next created.
+     */
     public void clear() {
-        aggElements.clear();
-        nonAggElements.clear();
-        if (maintainIndex) {
-            entityIdToElements.clear();
-            edgeIdToElements.clear();
+        final List<Lock> locks = lockAllWrites();
+        try {
+            aggElements.values().forEach(Map::clear);
+            nonAggElements.values().forEach(Map::clear);
+            if (maintainIndex) {
+                entityIdToElements.clear();
+                edgeIdToElements.clear();
+            }
+            propertyIndexes.values().forEach(indexes -> indexes.forEach(PropertyIndex::clear));
+            clearPersistedElements();
+        } finally {
+            for (int i = locks.size() - 1; i >= 0; i--) {
+                locks.get(i).unlock();
+            }
+        }
+    }
+
+    /**
+     * Closes the write-ahead log, if there is one, releasing the log file so
+     * it can be opened by another {@link MapImpl}.
+     *
+     * @throws IOException if the write-ahead log could not be flushed
+     */
+    @Override
+    public void close() throws IOException {
+        if (null != writeAheadLog) {
+            writeAheadLog.close();
         }
     }
 
     void addNonAggElement(final Element element) {
-        nonAggElements.get(element.getGroup()).merge(element, 1L, (a, b) -> a + b);
+        if (null != writeAheadLog) {
+            try {
+                writeAheadLog.appendNonAggElement(element);
+            } catch (final IOException e) {
+                throw new GafferRuntimeException("Unable to write to the write-ahead log", e);
+            }
+        }
+        mergeNonAggElement(nonAggElements.get(element.getGroup()), element, 1L);
     }
 
     void addAggElement(final Element elementWithGroupByProperties, final GroupedProperties properties) {
         if (null != aggElements.get(elementWithGroupByProperties.getGroup())) {
-            aggElements.get(elementWithGroupByProperties.getGroup())
-                    .merge(elementWithGroupByProperties, properties, propertyAggregator);
+            if (null != writeAheadLog) {
+                try {
+                    writeAheadLog.appendAggElement(elementWithGroupByProperties, properties);
+                } catch (final IOException e) {
+                    throw new GafferRuntimeException("Unable to write to the write-ahead log", e);
+                }
+            }
+            mergeAggElement(aggElements.get(elementWithGroupByProperties.getGroup()),
+                    elementWithGroupByProperties, properties, getPropertyAggregator());
+        }
+    }
+
+    /**
+     * Flushes any elements appended to the write-ahead log.
+     */
+    void flushWriteAheadLog() {
+        if (null != writeAheadLog) {
+            try {
+                writeAheadLog.flush();
+            } catch (final IOException e) {
+                throw new GafferRuntimeException("Unable to flush the write-ahead log", e);
+            }
         }
     }
 
@@ -153,14 +309,6 @@ public class MapImpl {
         return results;
     }
 
-    Iterable<Element> getNonAggElements(final Element element) {
-        final Long count = nonAggElements.get(element.getGroup()).get(element);
-        if (null == count || count < 1) {
-            return Collections.emptyList();
-        }
-        return new RepeatItemIterable<>(element, count);
-    }
-
     Element getAggElement(final Element element) {
         final Element clone = element.emptyClone();
         clone.copyProperties(element.getProperties());
@@ -168,38 +316,134 @@ public class MapImpl {
         return clone;
     }
 
-    Iterable<Element> getElements(final Element element) {
-        if (!isAggregationEnabled(element)) {
-            return getNonAggElements(element);
-        } else {
-            return Collections.singletonList(getAggElement(element));
+    /**
+     * Gets the elements stored for an element key from the index, if they pass
+     * the filter. The filter is tested before any elements are created.
+     *
+     * @param key    the element key
+     * @param filter the filter to apply to the stored element
+     * @param view   the view the elements are being retrieved with
+     * @return the elements
+     */
+    Stream<Element> getElements(final Element key, final StoredElementFilter filter, final View view) {
+        if (!isAggregationEnabled(key)) {
+            final Long count = nonAggElements.get(key.getGroup()).get(key);
+            if (null == count || count < 1 || !filter.test(key, null)) {
+                return Stream.empty();
+            }
+            return createElements(key, count, view);
+        }
+
+        final GroupedProperties properties = aggElements.get(key.getGroup()).get(key);
+        if (!filter.test(key, properties)) {
+            return Stream.empty();
         }
+        return Stream.of(createElement(key, properties, view));
+    }
+
+    /**
+     * Gets all the elements in the given groups that pass the filter. The
+     * filter is tested against the stored elements, so an element is only
+     * created if it passes the filter.
+     *
+     * @param groups the groups to get elements from
+     * @param filter the filter to apply to the stored elements
+     * @param view   the view the elements are being retrieved with
+     * @return the elements
+     */
+    Stream<Element> getAllElements(final Set<String> groups, final StoredElementFilter filter, final View view) {
+        return Stream.concat(getAllAggElements(groups, filter, view), getAllNonAggElements(groups, filter, view));
     }
 
-    Stream<Element> getAllAggElements(final Set<String> groups) {
+    Stream<Element> getAllAggElements(final Set<String> groups, final StoredElementFilter filter, final View view) {
         return aggElements.entrySet().stream()
                 .filter(entry -> groups.contains(entry.getKey()))
-                .map(Map.Entry::getValue)
-                .flatMap(map -> map.entrySet().stream())
-                .map(x -> {
-                    final Element element = x.getKey().emptyClone();
-                    element.copyProperties(x.getKey().getProperties());
-                    element.copyProperties(x.getValue());
-                    return cloneElement(element, schema);
-                });
+                .flatMap(entry -> getEntries(entry.getKey(), entry.getValue(), view))
+                .filter(x -> filter.test(x.getKey(), x.getValue()))
+                .map(x -> createElement(x.getKey(), x.getValue(), view));
     }
 
-    Stream<Element> getAllNonAggElements(final Set<String> groups) {
+    Stream<Element> getAllNonAggElements(final Set<String> groups, final StoredElementFilter filter, final View view) {
         return nonAggElements.entrySet().stream()
                 .filter(entry -> groups.contains(entry.getKey()))
-                .map(Map.Entry::getValue)
-                .flatMap(map -> map.entrySet().stream())
-                .map(x -> new RepeatItemIterable<>(cloneElement(x.getKey(), schema), x.getValue()))
-                .flatMap(Streams::toStream);
+                .flatMap(entry -> getEntries(entry.getKey(), entry.getValue(), view))
+                .filter(x -> null != x.getValue() && filter.test(x.getKey(), null))
+                .flatMap(x -> createElements(x.getKey(), x.getValue(), view));
     }
 
-    Stream<Element> getAllElements(final Set<String> groups) {
-        return Stream.concat(getAllAggElements(groups), getAllNonAggElements(groups));
+    /**
+     * Gets the entries in a group map that could pass the view. If the
+     * pre-aggregation filter for the group has an IsEqual, IsIn, IsMoreThan or
+     * IsLessThan predicate on an indexed property then only the entries found
+     * using the property index are returned, otherwise all the entries are
+     * returned.
+     *
+     * @param group the group of the map
+     * @param map   the map of elements in the group
+     * @param view  the view the elements are being retrieved with
+     * @param <V>   the type of the map values
+     * @return the entries that could pass the view
+     */
+    private <V> Stream<Map.Entry<Element, V>> getEntries(final String group, final Map<Element, V> map, final View view) {
+        final Stream<Element> keys = lookupPropertyIndexes(group, view);
+        if (null == keys) {
+            return map.entrySet().stream();
+        }
+        return keys.<Map.Entry<Element, V>>map(key -> {
+            final V value = map.get(key);
+            return null != value ? new AbstractMap.SimpleImmutableEntry<>(key, value) : null;
+        }).filter(Objects::nonNull);
+    }
+
+    private Stream<Element> lookupPropertyIndexes(final String group, final View view) {
+        final List<PropertyIndex> indexes = propertyIndexes.get(group);
+        final ViewElementDefinition elementDef = null != view ? view.getElement(group) : null;
+        if (null == indexes || null == elementDef || null == elementDef.getPreAggregationFilter()) {
+            return null;
+        }
+
+        for (final PropertyIndex index : indexes) {
+            final List<Predicate<?>> predicates = new ArrayList<>();
+            for (final TupleAdaptedPredicate<String, ?> component : elementDef.getPreAggregationFilter().getComponents()) {
+                final String[] selection = component.getSelection();
+                if (null != selection && 1 == selection.length && index.getProperty().equals(selection[0])) {
+                    predicates.add(component.getPredicate());
+                }
+            }
+            if (!predicates.isEmpty()) {
+                final Stream<Element> keys = index.lookup(predicates);
+                if (null != keys) {
+                    return keys;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Adds the index entries for an element key from aggElements or
+     * nonAggElements.
+     *
+     * @param element the element to index
+     */
+    void addIndex(final Element element) {
+        if (element instanceof Entity) {
+            final Entity entity = (Entity) element;
+            final EntityId entityId = new EntitySeed(entity.getVertex());
+            addIndex(entityId, element);
+        } else {
+            final Edge edge = (Edge) element;
+            edge.setIdentifiers(edge.getSource(), edge.getDestination(), edge.isDirected(), EdgeId.MatchedVertex.SOURCE);
+            final EntityId sourceEntityId = new EntitySeed(edge.getSource());
+            addIndex(sourceEntityId, edge);
+
+            final Edge destMatchedEdge = new Edge(edge.getGroup(), edge.getSource(), edge.getDestination(), edge.isDirected(), EdgeId.MatchedVertex.DESTINATION, edge.getProperties());
+            final EntityId destinationEntityId = new EntitySeed(edge.getDestination());
+            addIndex(destinationEntityId, destMatchedEdge);
+
+            final EdgeId edgeId = new EdgeSeed(edge.getSource(), edge.getDestination(), edge.isDirected());
+            addIndex(edgeId, edge);
+        }
     }
 
     void addIndex(final EntityId entityId, final Element element) {
@@ -214,10 +458,68 @@ public class MapImpl {
         return maintainIndex;
     }
 
+    boolean isConcurrent() {
+        return null != writeLocks;
+    }
+
+    /**
+     * Get the lock for the stripe that an element belongs to. The stripe is
+     * chosen using the element group and the entity vertex or edge source, so
+     * all the elements that aggregate together share a lock.
+     *
+     * @param element the element to be added
+     * @return the write lock for the element
+     */
+    Lock getWriteLock(final Element element) {
+        final Object vertex = element instanceof Entity ? ((Entity) element).getVertex() : ((Edge) element).getSource();
+        final int hash = 31 * element.getGroup().hashCode() + Objects.hashCode(vertex);
+        return writeLocks.getAt(Math.floorMod(hash, writeLocks.size()));
+    }
+
+    /**
+     * Get the schema to use for aggregating elements on the current thread.
+     * In concurrent mode this is a copy of the schema that is confined to the
+     * current thread.
+     *
+     * @return the schema to aggregate with
+     */
+    Schema getAggregationSchema() {
+        return null != threadSchemas ? threadSchemas.get() : schema;
+    }
+
     Element cloneElement(final Element element, final Schema schema) {
         return mapFactory.cloneElement(element, schema);
     }
 
+    /**
+     * Creates a result element from a stored element. The property values are
+     * cloned, unless read only results are enabled and the view does not
+     * transform the element.
+     *
+     * @param key        the stored element key
+     * @param properties the stored properties, or null if there are none
+     * @param view       the view the element is being retrieved with
+     * @return the result element
+     */
+    private Element createElement(final Element key, final Properties properties, final View view) {
+        final Element element = key.emptyClone();
+        element.copyProperties(key.getProperties());
+        element.copyProperties(properties);
+        if (readOnlyResults && !hasTransformer(view, element.getGroup())) {
+            return element;
+        }
+        return cloneElement(element, schema);
+    }
+
+    private Stream<Element> createElements(final Element key, final long count, final View view) {
+        return LongStream.range(0, count).mapToObj(i -> createElement(key, null, view));
+    }
+
+    private static boolean hasTransformer(final View view, final String group) {
+        final ViewElementDefinition elementDef = null != view ? view.getElement(group) : null;
+        return null != elementDef && null != elementDef.getTransformer();
+    }
+
     Set<String> getGroupByProperties(final String group) {
         return groupToGroupByProperties.get(group);
     }
@@ -252,6 +554,187 @@ public class MapImpl {
         return totalCount;
     }
 
+    private AggregatorUtil.IngestPropertiesBinaryOperator getPropertyAggregator() {
+        return null != threadPropertyAggregators ? threadPropertyAggregators.get() : propertyAggregator;
+    }
+
+    private List<Lock> lockAllWrites() {
+        if (!isConcurrent()) {
+            return Collections.emptyList();
+        }
+
+        final List<Lock> locks = new ArrayList<>(writeLocks.size());
+        for (int i = 0; i < writeLocks.size(); i++) {
+            final Lock lock = writeLocks.getAt(i);
+            lock.lock();
+            locks.add(lock);
+        }
+        return locks;
+    }
+
+    private void clearPersistedElements() {
+        try {
+            final long walGeneration = null != writeAheadLog ? writeAheadLog.getGeneration() : 0L;
+            if (null != snapshotFile) {
+                MapImplSnapshot.write(snapshotFile, walGeneration, recordCodec, Collections.emptyList(), Collections.emptyList());
+            }
+            if (null != writeAheadLog) {
+                writeAheadLog.reset(walGeneration + 1);
+            }
+        } catch (final IOException e) {
+            throw new GafferRuntimeException("Unable to clear the persisted elements", e);
+        }
+    }
+
+    private void restore() {
+        if (null == recordCodec) {
+            return;
+        }
+
+        try {
+            long snapshotGeneration = MapImplSnapshot.NO_SNAPSHOT;
+            if (null != snapshotFile) {
+                snapshotGeneration = MapImplSnapshot.read(snapshotFile, recordCodec, this::restoreRecord);
+            }
+            if (null != writeAheadLog) {
+                writeAheadLog.open(snapshotGeneration, this::restoreRecord);
+            }
+        } catch (final IOException e) {
+            throw new GafferRuntimeException("Unable to restore the MapStore", e);
+        }
+    }
+
+    private void restoreRecord(final ElementRecordCodec.Record record) {
+        final Element element = record.getElement();
+        if (record.isAggregated()) {
+            final Map<Element, GroupedProperties> map = aggElements.get(element.getGroup());
+            if (null == map) {
+                return;
+            }
+            mergeAggElement(map, element, record.getProperties(), propertyAggregator);
+        } else {
+            final Map<Element, Long> map = nonAggElements.get(element.getGroup());
+            if (null == map) {
+                return;
+            }
+            mergeNonAggElement(map, element, record.getCount());
+        }
+
+        if (maintainIndex) {
+            addIndex(element);
+        }
+    }
+
+    /**
+     * Merges the properties of an element into the aggregated elements,
+     * updating any property indexes on the group. The previous values of
+     * the indexed properties are read before the merge, as the aggregator may
+     * update the stored properties in place.
+     * <p>
+     * In concurrent mode the elements are read without a lock, so the stored
+     * properties are copied before they are aggregated. The properties in the
+     * map are then never changed and readers never see a partial aggregation.
+     *
+     * @param map        the aggregated elements in the group
+     * @param key        the element with its group-by properties
+     * @param properties the properties to merge
+     * @param aggregator the aggregator for the properties
+     */
+    private void mergeAggElement(final Map<Element, GroupedProperties> map,
+                                 final Element key,
+                                 final GroupedProperties properties,
+                                 final AggregatorUtil.IngestPropertiesBinaryOperator aggregator) {
+        final BinaryOperator<GroupedProperties> merger = isConcurrent()
+                ? (stored, added) -> aggregator.apply(propertiesCloner.cloneProperties(stored, getAggregationSchema()), added)
+                : aggregator;
+        final List<PropertyIndex> indexes = propertyIndexes.get(key.getGroup());
+        if (null == indexes) {
+            map.merge(key, properties, merger);
+            return;
+        }
+
+        final GroupedProperties previousProperties = map.get(key);
+        final Object[] previousValues = new Object[indexes.size()];
+        if (null != previousProperties) {
+            for (int i = 0; i < indexes.size(); i++) {
+                previousValues[i] = previousProperties.get(indexes.get(i).getProperty());
+            }
+        }
+
+        final GroupedProperties mergedProperties = map.merge(key, properties, merger);
+        for (int i = 0; i < indexes.size(); i++) {
+            final PropertyIndex index = indexes.get(i);
+            if (key.getProperties().containsKey(index.getProperty())) {
+                if (null == previousProperties) {
+                    index.add(key.getProperty(index.getProperty()), key);
+                }
+            } else {
+                final Object value = mergedProperties.get(index.getProperty());
+                if (null == previousProperties || !Objects.equals(previousValues[i], value)) {
+                    index.remove(previousValues[i], key);
+                    index.add(value, key);
+                }
+            }
+        }
+    }
+
+    private void mergeNonAggElement(final Map<Element, Long> map, final Element element, final long count) {
+        final long mergedCount = map.merge(element, count, (a, b) -> a + b);
+        final List<PropertyIndex> indexes = propertyIndexes.get(element.getGroup());
+        if (null != indexes && mergedCount == count) {
+            for (final PropertyIndex index : indexes) {
+                index.add(element.getProperty(index.getProperty()), element);
+            }
+        }
+    }
+
+    private void createPropertyIndexes(final MapStoreProperties mapStoreProperties) {
+        for (final Map.Entry<String, Set<String>> entry : mapStoreProperties.getPropertyIndexes().entrySet()) {
+            final String group = entry.getKey();
+            final SchemaElementDefinition elementDef = schema.getElement(group);
+            if (null == elementDef) {
+                throw new IllegalArgumentException("Unable to index properties in group " + group
+                        + " as the group is not in the schema");
+            }
+            final List<PropertyIndex> indexes = new ArrayList<>();
+            for (final String property : entry.getValue()) {
+                final Class<?> propertyClass = elementDef.getPropertyClass(property);
+                if (null == propertyClass || !Comparable.class.isAssignableFrom(propertyClass)) {
+                    throw new IllegalArgumentException("Unable to index property " + property + " in group " + group
+                            + " as it is not in the schema or its class is not Comparable");
+                }
+                indexes.add(new PropertyIndex(property, propertyClass, isConcurrent()));
+            }
+            propertyIndexes.put(group, indexes);
+        }
+    }
+
+    private void validateIngestThreads(final MapStoreProperties mapStoreProperties) {
+        if (mapStoreProperties.getIngestThreads() > 1 && !isConcurrent()) {
+            throw new IllegalArgumentException(MapStoreProperties.INGEST_THREADS + " can only be greater than 1 when "
+                    + MapStoreProperties.CONCURRENT + " is true");
+        }
+    }
+
+    private void validateConcurrentMaps() {
+        final List<Map<?, ?>> maps = new ArrayList<>(aggElements.values());
+        maps.addAll(nonAggElements.values());
+        for (final Map<?, ?> map : maps) {
+            if (!(map instanceof ConcurrentMap)) {
+                throw new IllegalArgumentException("A concurrent MapStore requires the MapFactory to create "
+                        + ConcurrentMap.class.getSimpleName() + "s, but it created a " + map.getClass().getName());
+            }
+        }
+        if (maintainIndex) {
+            for (final MultiMap<?, ?> multiMap : Arrays.asList(entityIdToElements, edgeIdToElements)) {
+                if (!(multiMap instanceof ConcurrentMapOfSets)) {
+                    throw new IllegalArgumentException("A concurrent MapStore requires the MapFactory to create "
+                            + ConcurrentMapOfSets.class.getSimpleName() + "s, but it created a " + multiMap.getClass().getName());
+                }
+            }
+        }
+    }
+
     private MapFactory createMapFactory(final Schema schema,
                                         final MapStoreProperties mapStoreProperties) {
         final MapFactory mapFactory;
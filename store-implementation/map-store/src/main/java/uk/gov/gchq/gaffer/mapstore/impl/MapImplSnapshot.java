@@ -0,0 +1,121 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.mapstore.impl;
+
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.GroupedProperties;
+import uk.gov.gchq.gaffer.mapstore.utils.MappedFileInputStream;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Writes and reads snapshots of the elements held in a {@link MapImpl}.
+ * <p>
+ * A snapshot holds the aggregated and non aggregated elements, as written by
+ * an {@link ElementRecordCodec}, along with the generation of the
+ * {@link WriteAheadLog} it includes. The id indices are not written, as they
+ * only reference the elements, and are rebuilt as the elements are restored.
+ * Restoring a snapshot does not need to aggregate any properties and the file
+ * is read using memory-mapped I/O.
+ * </p>
+ * <p>
+ * Snapshots are written to a temporary file which is then moved over the
+ * previous snapshot, so a failure whilst writing a snapshot leaves the
+ * previous snapshot in place.
+ * </p>
+ */
+final class MapImplSnapshot {
+    static final long NO_SNAPSHOT = -1L;
+
+    private static final int MAGIC = 0x47534E50;
+    private static final int VERSION = 1;
+    private static final int BUFFER_SIZE = 1024 * 1024;
+
+    private MapImplSnapshot() {
+        // Private constructor to prevent instantiation.
+    }
+
+    static void write(final Path file,
+                      final long walGeneration,
+                      final ElementRecordCodec codec,
+                      final Iterable<Map<Element, GroupedProperties>> aggElements,
+                      final Iterable<Map<Element, Long>> nonAggElements) throws IOException {
+        final Path tmpFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try (final FileOutputStream fileOut = new FileOutputStream(tmpFile.toFile());
+             final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut, BUFFER_SIZE))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(walGeneration);
+            for (final Map<Element, GroupedProperties> map : aggElements) {
+                for (final Map.Entry<Element, GroupedProperties> entry : map.entrySet()) {
+                    codec.writeAggElement(out, entry.getKey(), entry.getValue());
+                }
+            }
+            for (final Map<Element, Long> map : nonAggElements) {
+                for (final Map.Entry<Element, Long> entry : map.entrySet()) {
+                    if (null != entry.getValue() && entry.getValue() > 0) {
+                        codec.writeNonAggElement(out, entry.getKey(), entry.getValue());
+                    }
+                }
+            }
+            codec.writeEnd(out);
+            out.flush();
+            fileOut.getChannel().force(true);
+        }
+        Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads the records in a snapshot.
+     *
+     * @param file     the snapshot file
+     * @param codec    the codec to read the records with
+     * @param consumer the consumer of the records
+     * @return the generation of the write-ahead log included in the snapshot,
+     * or {@link #NO_SNAPSHOT} if the snapshot file does not exist
+     * @throws IOException if the snapshot could not be read
+     */
+    static long read(final Path file,
+                     final ElementRecordCodec codec,
+                     final Consumer<ElementRecordCodec.Record> consumer) throws IOException {
+        if (!Files.exists(file)) {
+            return NO_SNAPSHOT;
+        }
+
+        try (final DataInputStream in = new DataInputStream(new MappedFileInputStream(file))) {
+            if (MAGIC != in.readInt() || VERSION != in.readInt()) {
+                throw new IOException("File is not a MapStore snapshot: " + file);
+            }
+            final long walGeneration = in.readLong();
+            ElementRecordCodec.Record record = codec.read(in);
+            while (null != record) {
+                consumer.accept(record);
+                record = codec.read(in);
+            }
+            return walGeneration;
+        }
+    }
+}
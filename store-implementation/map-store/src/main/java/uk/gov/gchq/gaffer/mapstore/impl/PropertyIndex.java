@@ -0,0 +1,155 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.mapstore.impl;
+
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.koryphe.impl.predicate.IsEqual;
+import uk.gov.gchq.koryphe.impl.predicate.IsIn;
+import uk.gov.gchq.koryphe.impl.predicate.IsLessThan;
+import uk.gov.gchq.koryphe.impl.predicate.IsMoreThan;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * A sorted secondary index from the values of a single property to the keys
+ * of the stored elements in a group with that value.
+ * <p>
+ * The index is used to find the candidate elements for {@link IsEqual},
+ * {@link IsIn}, {@link IsMoreThan} and {@link IsLessThan} filters on the
+ * property. The candidates must still be tested against the full filter.
+ * </p>
+ */
+final class PropertyIndex {
+    private final String property;
+    private final Class<?> propertyClass;
+    private final boolean concurrent;
+    private final NavigableMap<Object, Set<Element>> index;
+
+    PropertyIndex(final String property, final Class<?> propertyClass, final boolean concurrent) {
+        this.property = property;
+        this.propertyClass = propertyClass;
+        this.concurrent = concurrent;
+        this.index = concurrent ? new ConcurrentSkipListMap<>() : new TreeMap<>();
+    }
+
+    String getProperty() {
+        return property;
+    }
+
+    void add(final Object value, final Element key) {
+        if (null != value) {
+            index.computeIfAbsent(value, k -> concurrent ? ConcurrentHashMap.newKeySet() : new HashSet<>()).add(key);
+        }
+    }
+
+    /**
+     * Removes the key from the entry for a value. Empty entries are left in
+     * place in concurrent mode, as they may be concurrently added to.
+     *
+     * @param value the previous value of the property
+     * @param key   the element key
+     */
+    void remove(final Object value, final Element key) {
+        if (null != value) {
+            final Set<Element> keys = index.get(value);
+            if (null != keys) {
+                keys.remove(key);
+                if (!concurrent && keys.isEmpty()) {
+                    index.remove(value);
+                }
+            }
+        }
+    }
+
+    void clear() {
+        index.clear();
+    }
+
+    /**
+     * Finds the keys of the elements that could match all of the given
+     * predicates on the property. Equality predicates are preferred, otherwise
+     * the range predicates are combined.
+     *
+     * @param predicates the predicates on the property
+     * @return the candidate element keys, or null if none of the predicates
+     * can be answered using the index
+     */
+    Stream<Element> lookup(final List<Predicate<?>> predicates) {
+        for (final Predicate<?> predicate : predicates) {
+            if (predicate instanceof IsEqual) {
+                final Object value = ((IsEqual) predicate).getControlValue();
+                if (isIndexable(value)) {
+                    return getKeys(Collections.singleton(value));
+                }
+            } else if (predicate instanceof IsIn) {
+                final Collection<Object> values = ((IsIn) predicate).getAllowedValues();
+                if (null != values && values.stream().allMatch(this::isIndexable)) {
+                    return getKeys(values);
+                }
+            }
+        }
+
+        final NavigableMap<Object, Set<Element>> range;
+        try {
+            range = getRange(predicates);
+        } catch (final IllegalArgumentException e) {
+            // The range predicates do not overlap, so no elements can match
+            return Stream.empty();
+        }
+        return range != index ? range.values().stream().flatMap(Set::stream) : null;
+    }
+
+    private NavigableMap<Object, Set<Element>> getRange(final List<Predicate<?>> predicates) {
+        NavigableMap<Object, Set<Element>> range = index;
+        for (final Predicate<?> predicate : predicates) {
+            if (predicate instanceof IsMoreThan) {
+                final IsMoreThan isMoreThan = (IsMoreThan) predicate;
+                if (isIndexable(isMoreThan.getControlValue())) {
+                    range = range.tailMap(isMoreThan.getControlValue(), isMoreThan.getOrEqualTo());
+                }
+            } else if (predicate instanceof IsLessThan) {
+                final IsLessThan isLessThan = (IsLessThan) predicate;
+                if (isIndexable(isLessThan.getControlValue())) {
+                    range = range.headMap(isLessThan.getControlValue(), isLessThan.getOrEqualTo());
+                }
+            }
+        }
+        return range;
+    }
+
+    private Stream<Element> getKeys(final Collection<Object> values) {
+        return values.stream()
+                .map(index::get)
+                .filter(Objects::nonNull)
+                .flatMap(Set::stream);
+    }
+
+    private boolean isIndexable(final Object value) {
+        return null != value && propertyClass.isInstance(value);
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.mapstore.impl;
+
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.ElementTuple;
+import uk.gov.gchq.gaffer.data.element.IdentifierType;
+import uk.gov.gchq.gaffer.data.element.Properties;
+import uk.gov.gchq.gaffer.data.element.function.ElementFilter;
+import uk.gov.gchq.gaffer.data.elementdefinition.view.View;
+import uk.gov.gchq.gaffer.data.elementdefinition.view.ViewElementDefinition;
+import uk.gov.gchq.koryphe.tuple.Tuple;
+
+import java.util.function.Predicate;
+
+/**
+ * Applies the pre-aggregation and post-aggregation filters in a {@link View}
+ * directly to the elements as they are stored in the {@link MapImpl}, i.e. the
+ * element key holding the group-by properties and the separately stored
+ * properties.
+ * <p>
+ * The filters are tested against a reusable read-only {@link Tuple}, so no
+ * objects are created for stored elements that are rejected. An element is only
+ * created during filtering if a filter selects the whole element or all of its
+ * properties.
+ * </p>
+ * <p>
+ * The tuple is reused for each stored element, so this class is not thread
+ * safe.
+ * </p>
+ */
+final class StoredElementFilter {
+    private final View view;
+    private final Predicate<Element> keyFilter;
+    private final StoredElementTuple tuple = new StoredElementTuple();
+
+    StoredElementFilter(final View view) {
+        this(view, null);
+    }
+
+    StoredElementFilter(final View view, final Predicate<Element> keyFilter) {
+        this.view = view;
+        this.keyFilter = keyFilter;
+    }
+
+    /**
+     * Tests a stored element against the view.
+     *
+     * @param key        the element key, holding the identifiers and any group-by properties
+     * @param properties the stored properties, or null if the element is not aggregated
+     * @return true if the element passes the view filters
+     */
+    boolean test(final Element key, final Properties properties) {
+        final ViewElementDefinition elementDef = view.getElement(key.getGroup());
+        if (null == elementDef || (null != keyFilter && !keyFilter.test(key))) {
+            return false;
+        }
+
+        final ElementFilter preAggregationFilter = elementDef.getPreAggregationFilter();
+        final ElementFilter postAggregationFilter = elementDef.getPostAggregationFilter();
+        if (null == preAggregationFilter && null == postAggregationFilter) {
+            return true;
+        }
+
+        tuple.set(key, properties);
+        try {
+            return (null == preAggregationFilter || preAggregationFilter.test(tuple))
+                    && (null == postAggregationFilter || postAggregationFilter.test(tuple));
+        } finally {
+            tuple.set(null, null);
+        }
+    }
+
+    /**
+     * A read-only {@link Tuple} over a stored element. Properties are read from
+     * the stored properties and then from the element key.
+     */
+    private static final class StoredElementTuple implements Tuple<String> {
+        private Element key;
+        private Properties properties;
+        private Element element;
+
+        private void set(final Element key, final Properties properties) {
+            this.key = key;
+            this.properties = properties;
+            this.element = null;
+        }
+
+        @Override
+        public Object get(final String reference) {
+            if (ElementTuple.ELEMENT.equals(reference)) {
+                return getElement();
+            }
+
+            if (ElementTuple.PROPERTIES.equals(reference)) {
+                return getElement().getProperties();
+            }
+
+            final IdentifierType idType = IdentifierType.fromName(reference);
+            if (null != idType) {
+                return key.getIdentifier(idType);
+            }
+
+            if (null != properties) {
+                final Object value = properties.get(reference);
+                if (null != value) {
+                    return value;
+                }
+            }
+            return key.getProperty(reference);
+        }
+
+        @Override
+        public void put(final String reference, final Object value) {
+            throw new UnsupportedOperationException("Stored elements cannot be modified by a filter");
+        }
+
+        @Override
+        public Iterable<Object> values() {
+            throw new UnsupportedOperationException("Calling values() is not supported for stored elements");
+        }
+
+        private Element getElement() {
+            if (null == element) {
+                element = key.emptyClone();
+                element.copyProperties(key.getProperties());
+                element.copyProperties(properties);
+            }
+            return element;
+        }
+    }
+}
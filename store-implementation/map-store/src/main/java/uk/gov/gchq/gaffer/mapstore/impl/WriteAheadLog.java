@@ -0,0 +1,273 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.mapstore.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.GroupedProperties;
+import uk.gov.gchq.gaffer.mapstore.utils.MappedFileInputStream;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only log of the elements added to a {@link MapImpl}.
+ * <p>
+ * The log starts with a header holding a generation number. Each time a
+ * snapshot is written the log is reset with the next generation, so the log
+ * only needs to be replayed if its generation is greater than the generation
+ * recorded in the snapshot. Each record is framed with its length and a CRC32
+ * checksum, so a partially written record at the end of the log, for example
+ * after a crash, is detected and discarded when the log is replayed.
+ * </p>
+ * <p>
+ * A log file can only be opened by one instance at a time within a JVM, as
+ * two instances appending to the same file would corrupt it. The file is
+ * released when the log is closed.
+ * </p>
+ */
+final class WriteAheadLog implements Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(WriteAheadLog.class);
+    private static final int MAGIC = 0x4757414C;
+    private static final int VERSION = 1;
+    private static final int HEADER_LENGTH = 16;
+    private static final int BUFFER_SIZE = 1024 * 1024;
+    private static final Set<Path> OPEN_FILES = ConcurrentHashMap.newKeySet();
+
+    private final Path file;
+    private final ElementRecordCodec codec;
+    private final boolean sync;
+    private final ByteArrayOutputStream recordBytes = new ByteArrayOutputStream();
+    private final DataOutputStream recordOut = new DataOutputStream(recordBytes);
+    private final CRC32 crc = new CRC32();
+    private long generation;
+    private FileOutputStream fileOut;
+    private DataOutputStream out;
+    private boolean opened;
+
+    WriteAheadLog(final Path file, final ElementRecordCodec codec, final boolean sync) {
+        this.file = file.toAbsolutePath().normalize();
+        this.codec = codec;
+        this.sync = sync;
+    }
+
+    /**
+     * Replays the records in the log, if the log is newer than the snapshot,
+     * and then opens the log for appending.
+     *
+     * @param snapshotGeneration the generation of the log included in the snapshot
+     * @param consumer           the consumer of the replayed records
+     * @return the number of records replayed
+     * @throws IOException if the log could not be read or opened
+     * @throws IllegalStateException if the log file is already open
+     */
+    synchronized long open(final long snapshotGeneration, final Consumer<ElementRecordCodec.Record> consumer) throws IOException {
+        if (opened) {
+            throw new IllegalStateException("The write-ahead log has already been opened: " + file);
+        }
+        if (!OPEN_FILES.add(file)) {
+            throw new IllegalStateException("The write-ahead log is already open in another MapStore: " + file);
+        }
+        opened = true;
+
+        try {
+            return replay(snapshotGeneration, consumer);
+        } catch (final IOException | RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    private long replay(final long snapshotGeneration, final Consumer<ElementRecordCodec.Record> consumer) throws IOException {
+        if (!Files.exists(file) || Files.size(file) < HEADER_LENGTH) {
+            reset(snapshotGeneration + 1);
+            return 0;
+        }
+
+        long numRecords = 0;
+        long validLength;
+        try (final MappedFileInputStream mappedIn = new MappedFileInputStream(file);
+             final DataInputStream in = new DataInputStream(mappedIn)) {
+            if (MAGIC != in.readInt() || VERSION != in.readInt()) {
+                throw new IOException("File is not a MapStore write-ahead log: " + file);
+            }
+            generation = in.readLong();
+            if (generation <= snapshotGeneration) {
+                LOGGER.info("Write-ahead log generation {} is included in the snapshot", generation);
+                validLength = -1;
+            } else {
+                validLength = mappedIn.getPosition();
+                ElementRecordCodec.Record record = readRecord(in);
+                while (null != record) {
+                    consumer.accept(record);
+                    numRecords++;
+                    validLength = mappedIn.getPosition();
+                    record = readRecord(in);
+                }
+            }
+        }
+
+        if (validLength < 0) {
+            reset(snapshotGeneration + 1);
+        } else {
+            try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                if (channel.size() > validLength) {
+                    LOGGER.warn("Discarding {} bytes from the end of the write-ahead log", channel.size() - validLength);
+                    channel.truncate(validLength);
+                }
+            }
+            openForAppend();
+        }
+        LOGGER.info("Replayed {} records from the write-ahead log", numRecords);
+        return numRecords;
+    }
+
+    synchronized void appendAggElement(final Element element, final GroupedProperties properties) throws IOException {
+        codec.writeAggElement(recordOut, element, properties);
+        appendRecord();
+    }
+
+    synchronized void appendNonAggElement(final Element element) throws IOException {
+        codec.writeNonAggElement(recordOut, element, 1L);
+        appendRecord();
+    }
+
+    /**
+     * Flushes the appended records to the file and, if configured, forces
+     * them to disk.
+     *
+     * @throws IOException if the log could not be flushed
+     */
+    synchronized void flush() throws IOException {
+        out.flush();
+        if (sync) {
+            fileOut.getChannel().force(false);
+        }
+    }
+
+    /**
+     * Replaces the log with an empty log of the given generation.
+     *
+     * @param newGeneration the generation of the new log
+     * @throws IOException if the log could not be written
+     */
+    synchronized void reset(final long newGeneration) throws IOException {
+        closeStream();
+        final Path tmpFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try (final FileOutputStream tmpOut = new FileOutputStream(tmpFile.toFile());
+             final DataOutputStream headerOut = new DataOutputStream(tmpOut)) {
+            headerOut.writeInt(MAGIC);
+            headerOut.writeInt(VERSION);
+            headerOut.writeLong(newGeneration);
+            headerOut.flush();
+            tmpOut.getChannel().force(true);
+        }
+        Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        generation = newGeneration;
+        openForAppend();
+    }
+
+    synchronized long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Flushes and closes the log and releases the log file, so it can be
+     * opened again.
+     *
+     * @throws IOException if the log could not be flushed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            closeStream();
+        } finally {
+            if (opened) {
+                opened = false;
+                OPEN_FILES.remove(file);
+            }
+        }
+    }
+
+    private void closeStream() throws IOException {
+        if (null != out) {
+            try {
+                flush();
+            } finally {
+                out.close();
+                out = null;
+                fileOut = null;
+            }
+        }
+    }
+
+    private void openForAppend() throws IOException {
+        fileOut = new FileOutputStream(file.toFile(), true);
+        out = new DataOutputStream(new BufferedOutputStream(fileOut, BUFFER_SIZE));
+    }
+
+    private void appendRecord() throws IOException {
+        try {
+            final byte[] bytes = recordBytes.toByteArray();
+            crc.reset();
+            crc.update(bytes, 0, bytes.length);
+            out.writeInt(bytes.length);
+            out.writeInt((int) crc.getValue());
+            out.write(bytes);
+        } finally {
+            recordBytes.reset();
+        }
+    }
+
+    private ElementRecordCodec.Record readRecord(final DataInputStream in) throws IOException {
+        try {
+            final int length = in.readInt();
+            final int checksum = in.readInt();
+            if (length < 1 || length > in.available()) {
+                return null;
+            }
+            final byte[] bytes = new byte[length];
+            in.readFully(bytes);
+            crc.reset();
+            crc.update(bytes, 0, length);
+            if (checksum != (int) crc.getValue()) {
+                return null;
+            }
+            return codec.read(new DataInputStream(new ByteArrayInputStream(bytes)));
+        } catch (final EOFException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.mapstore.multimap;
+
+import uk.gov.gchq.gaffer.core.exception.GafferRuntimeException;
+import uk.gov.gchq.gaffer.exception.SerialisationException;
+import uk.gov.gchq.gaffer.mapstore.utils.BytesInterner;
+import uk.gov.gchq.gaffer.mapstore.utils.LongHashSet;
+import uk.gov.gchq.gaffer.mapstore.utils.OffHeapByteStore;
+import uk.gov.gchq.gaffer.serialisation.ToBytesSerialiser;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A {@link MultiMap} that holds its keys and values in serialised form outside
+ * of the Java heap.
+ * <p>
+ * Keys and values are each interned to {@code int} ordinals by a
+ * {@link BytesInterner}, so a value shared by many keys is only stored once.
+ * The values for each key are held as a primitive array of value ordinals and
+ * a {@link LongHashSet} of (key, value) ordinal pairs provides the set
+ * semantics of {@link MapOfSets}.
+ * </p>
+ * <p>
+ * The key and value serialisers must be consistent. This class is not thread
+ * safe.
+ * </p>
+ *
+ * @param <K> the type of key
+ * @param <V> the type of value
+ */
+public class OffHeapMultiMap<K, V> implements MultiMap<K, V> {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int[] NO_VALUES = new int[0];
+
+    private final ToBytesSerialiser<K> keySerialiser;
+    private final ToBytesSerialiser<V> valueSerialiser;
+    private final BytesInterner keys;
+    private final BytesInterner values;
+    private final LongHashSet keyValuePairs = new LongHashSet();
+
+    /**
+     * The value ordinals for each key ordinal, with the number of values used
+     * in each array held in {@link #valueCounts}.
+     */
+    private int[][] keyValues = new int[INITIAL_CAPACITY][];
+    private int[] valueCounts = new int[INITIAL_CAPACITY];
+
+    public OffHeapMultiMap(final ToBytesSerialiser<K> keySerialiser, final ToBytesSerialiser<V> valueSerialiser) {
+        this(keySerialiser, valueSerialiser, OffHeapByteStore.DEFAULT_CHUNK_SIZE);
+    }
+
+    public OffHeapMultiMap(final ToBytesSerialiser<K> keySerialiser, final ToBytesSerialiser<V> valueSerialiser, final int chunkSize) {
+        if (null == keySerialiser || null == valueSerialiser) {
+            throw new IllegalArgumentException("Key and value serialisers are required");
+        }
+        this.keySerialiser = keySerialiser;
+        this.valueSerialiser = valueSerialiser;
+        this.keys = new BytesInterner(new OffHeapByteStore(chunkSize));
+        this.values = new BytesInterner(new OffHeapByteStore(chunkSize));
+    }
+
+    @Override
+    public boolean put(final K key, final V value) {
+        final int keyOrdinal = keys.intern(serialise(keySerialiser, key));
+        final int valueOrdinal = values.intern(serialise(valueSerialiser, value));
+        if (!keyValuePairs.add(((long) keyOrdinal << Integer.SIZE) | (valueOrdinal & 0xFFFFFFFFL))) {
+            return false;
+        }
+
+        if (keyOrdinal >= keyValues.length) {
+            final int newLength = Math.max(keyOrdinal + 1, keyValues.length * 2);
+            keyValues = Arrays.copyOf(keyValues, newLength);
+            valueCounts = Arrays.copyOf(valueCounts, newLength);
+        }
+
+        int[] ordinals = keyValues[keyOrdinal];
+        final int count = valueCounts[keyOrdinal];
+        if (null == ordinals) {
+            ordinals = new int[1];
+            keyValues[keyOrdinal] = ordinals;
+        } else if (count == ordinals.length) {
+            ordinals = Arrays.copyOf(ordinals, count * 2);
+            keyValues[keyOrdinal] = ordinals;
+        }
+        ordinals[count] = valueOrdinal;
+        valueCounts[keyOrdinal] = count + 1;
+        return true;
+    }
+
+    @Override
+    public void put(final K key, final Collection<V> valuesToAdd) {
+        for (final V value : valuesToAdd) {
+            put(key, value);
+        }
+    }
+
+    @Override
+    public Collection<V> get(final K key) {
+        final int keyOrdinal = keys.find(serialise(keySerialiser, key));
+        if (BytesInterner.NOT_FOUND == keyOrdinal || keyOrdinal >= keyValues.length) {
+            return null;
+        }
+
+        final int count = valueCounts[keyOrdinal];
+        final int[] ordinals = null != keyValues[keyOrdinal] ? keyValues[keyOrdinal] : NO_VALUES;
+        final List<V> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(deserialise(valueSerialiser, values.get(ordinals[i])));
+        }
+        return result;
+    }
+
+    @Override
+    public Set<K> keySet() {
+        return new AbstractSet<K>() {
+            @Override
+            public Iterator<K> iterator() {
+                return new Iterator<K>() {
+                    private int ordinal;
+
+                    @Override
+                    public boolean hasNext() {
+                        return ordinal < keys.size();
+                    }
+
+                    @Override
+                    public K next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        return deserialise(keySerialiser, keys.get(ordinal++));
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return keys.size();
+            }
+        };
+    }
+
+    @Override
+    public void clear() {
+        keys.clear();
+        values.clear();
+        keyValuePairs.clear();
+        keyValues = new int[INITIAL_CAPACITY][];
+        valueCounts = new int[INITIAL_CAPACITY];
+    }
+
+    /**
+     * @return the number of bytes of direct memory allocated by this multi map
+     */
+    public long getAllocatedBytes() {
+        return keys.getAllocatedBytes() + values.getAllocatedBytes();
+    }
+
+    private static <T> byte[] serialise(final ToBytesSerialiser<T> serialiser, final T object) {
+        try {
+            return serialiser.serialise(object);
+        } catch (final SerialisationException e) {
+            throw new GafferRuntimeException("Unable to serialise " + object, e);
+        }
+    }
+
+    private static <T> T deserialise(final ToBytesSerialiser<T> serialiser, final byte[] bytes) {
+        try {
+            return serialiser.deserialise(bytes);
+        } catch (final SerialisationException e) {
+            throw new GafferRuntimeException("Unable to deserialise value", e);
+        }
+    }
+}
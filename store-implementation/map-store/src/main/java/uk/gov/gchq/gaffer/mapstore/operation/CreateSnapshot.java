@@ -0,0 +1,59 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.mapstore.operation;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import uk.gov.gchq.gaffer.operation.Operation;
+import uk.gov.gchq.koryphe.Since;
+import uk.gov.gchq.koryphe.Summary;
+
+import java.util.Map;
+
+/**
+ * A {@code CreateSnapshot} operation writes a snapshot of all the elements in a
+ * {@link uk.gov.gchq.gaffer.mapstore.MapStore} to the configured snapshot file,
+ * so the MapStore can be restored quickly when it is next initialised.
+ */
+@JsonPropertyOrder(alphabetic = true)
+@Since("1.9.2")
+@Summary("Writes a snapshot of the MapStore")
+public class CreateSnapshot implements Operation {
+    private Map<String, String> options;
+
+    @Override
+    public CreateSnapshot shallowClone() {
+        return new CreateSnapshot.Builder()
+                .options(options)
+                .build();
+    }
+
+    @Override
+    public Map<String, String> getOptions() {
+        return options;
+    }
+
+    @Override
+    public void setOptions(final Map<String, String> options) {
+        this.options = options;
+    }
+
+    public static class Builder extends Operation.BaseBuilder<CreateSnapshot, Builder> {
+        public Builder() {
+            super(new CreateSnapshot());
+        }
+    }
+}
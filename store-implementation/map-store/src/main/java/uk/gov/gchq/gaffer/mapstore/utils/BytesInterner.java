@@ -0,0 +1,157 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.mapstore.utils;
+
+import java.util.Arrays;
+
+/**
+ * Interns byte array values, assigning each distinct value a sequential
+ * {@code int} ordinal.
+ * <p>
+ * The values themselves are held off-heap in an {@link OffHeapByteStore}.
+ * Look-ups use an open-addressing hash table made up of primitive arrays, so
+ * the on-heap cost of each distinct value is a handful of bytes rather than
+ * a number of objects.
+ * </p>
+ * <p>
+ * This class is not thread safe.
+ * </p>
+ */
+public class BytesInterner {
+    public static final int NOT_FOUND = -1;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final OffHeapByteStore store;
+
+    /**
+     * Open-addressing table of ordinal + 1, where 0 marks an empty slot.
+     */
+    private int[] table = new int[INITIAL_CAPACITY];
+    private int[] hashes = new int[INITIAL_CAPACITY];
+    private long[] addresses = new long[INITIAL_CAPACITY];
+    private int size;
+
+    public BytesInterner() {
+        this(new OffHeapByteStore());
+    }
+
+    public BytesInterner(final OffHeapByteStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Look up the ordinal of a value, adding the value if it has not been
+     * seen before.
+     *
+     * @param bytes the value
+     * @return the ordinal of the value
+     */
+    public int intern(final byte[] bytes) {
+        final int hash = hash(bytes);
+        int slot = findSlot(bytes, hash);
+        if (0 != table[slot]) {
+            return table[slot] - 1;
+        }
+
+        if (size + 1 > table.length * 3 / 4) {
+            resize();
+            slot = findSlot(bytes, hash);
+        }
+
+        final int ordinal = size++;
+        if (ordinal == addresses.length) {
+            addresses = Arrays.copyOf(addresses, addresses.length * 2);
+            hashes = Arrays.copyOf(hashes, hashes.length * 2);
+        }
+        addresses[ordinal] = store.append(bytes);
+        hashes[ordinal] = hash;
+        table[slot] = ordinal + 1;
+        return ordinal;
+    }
+
+    /**
+     * Look up the ordinal of a value without adding it.
+     *
+     * @param bytes the value
+     * @return the ordinal of the value, or {@link #NOT_FOUND}
+     */
+    public int find(final byte[] bytes) {
+        return table[findSlot(bytes, hash(bytes))] - 1;
+    }
+
+    /**
+     * @param ordinal the ordinal of a value
+     * @return a copy of the value
+     */
+    public byte[] get(final int ordinal) {
+        if (ordinal < 0 || ordinal >= size) {
+            throw new IndexOutOfBoundsException("Ordinal " + ordinal + " is out of range, size = " + size);
+        }
+        return store.get(addresses[ordinal]);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the number of bytes of direct memory allocated for the values
+     */
+    public long getAllocatedBytes() {
+        return store.getAllocatedBytes();
+    }
+
+    public void clear() {
+        store.clear();
+        table = new int[INITIAL_CAPACITY];
+        hashes = new int[INITIAL_CAPACITY];
+        addresses = new long[INITIAL_CAPACITY];
+        size = 0;
+    }
+
+    private int findSlot(final byte[] bytes, final int hash) {
+        final int mask = table.length - 1;
+        int slot = hash & mask;
+        while (0 != table[slot]) {
+            final int ordinal = table[slot] - 1;
+            if (hashes[ordinal] == hash && store.matches(addresses[ordinal], bytes)) {
+                break;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void resize() {
+        final int[] newTable = new int[table.length * 2];
+        final int mask = newTable.length - 1;
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            int slot = hashes[ordinal] & mask;
+            while (0 != newTable[slot]) {
+                slot = (slot + 1) & mask;
+            }
+            newTable[slot] = ordinal + 1;
+        }
+        table = newTable;
+    }
+
+    private static int hash(final byte[] bytes) {
+        final int hash = Arrays.hashCode(bytes) * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+}
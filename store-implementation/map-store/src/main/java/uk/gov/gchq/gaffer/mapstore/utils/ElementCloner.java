@@ -19,13 +19,17 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.GroupedProperties;
 import uk.gov.gchq.gaffer.exception.SerialisationException;
 import uk.gov.gchq.gaffer.serialisation.Serialiser;
 import uk.gov.gchq.gaffer.store.schema.Schema;
 import uk.gov.gchq.gaffer.store.schema.SchemaElementDefinition;
+import uk.gov.gchq.gaffer.store.schema.TypeDefinition;
+
+import java.util.Map;
 
 /**
- * Utility class to create a clone of an {@link Element}.
+ * Utility class to create a clone of an {@link Element} or its properties.
  */
 public class ElementCloner {
     private static final Logger LOGGER = LoggerFactory.getLogger(ElementCloner.class);
@@ -38,25 +42,67 @@ public class ElementCloner {
      * @return the cloned element
      */
     public Element cloneElement(final Element element, final Schema schema) {
-        try {
-            final Element clone = element.emptyClone();
-            final SchemaElementDefinition sed = schema.getElement(clone.getGroup());
-            for (final String propertyName : element.getProperties().keySet()) {
-                final Object property = element.getProperty(propertyName);
-                if (null == sed.getPropertyTypeDef(propertyName) || null == sed.getPropertyTypeDef(propertyName).getSerialiser()) {
-                    // This can happen if transient properties are derived - they will not have serialisers.
-                    LOGGER.warn("Can't find Serialisation for {}, returning uncloned property", propertyName);
-                    clone.putProperty(propertyName, property);
-                } else if (null != property) {
-                    final Serialiser serialiser = sed.getPropertyTypeDef(propertyName).getSerialiser();
-                    clone.putProperty(propertyName, serialiser.deserialise(serialiser.serialise(property)));
-                } else {
-                    clone.putProperty(propertyName, null);
-                }
+        final Element clone = element.emptyClone();
+        final SchemaElementDefinition sed = schema.getElement(clone.getGroup());
+        for (final String propertyName : element.getProperties().keySet()) {
+            clone.putProperty(propertyName, cloneProperty(sed, propertyName, element.getProperty(propertyName)));
+        }
+        return clone;
+    }
+
+    /**
+     * Clone a {@link GroupedProperties}, based on a target {@link Schema}.
+     * Properties of immutable types, such as strings and numbers, are not
+     * serialised as they can be shared by the clone. Properties without a
+     * serialiser are also shared, as they cannot be copied.
+     *
+     * @param properties the properties to clone
+     * @param schema     the schema
+     * @return the cloned properties
+     */
+    public GroupedProperties cloneProperties(final GroupedProperties properties, final Schema schema) {
+        final GroupedProperties clone = new GroupedProperties(properties.getGroup());
+        final SchemaElementDefinition sed = schema.getElement(properties.getGroup());
+        for (final Map.Entry<String, Object> entry : properties.entrySet()) {
+            final Object property = entry.getValue();
+            final TypeDefinition typeDef = sed.getPropertyTypeDef(entry.getKey());
+            if (isImmutable(property) || null == typeDef || null == typeDef.getSerialiser()) {
+                clone.put(entry.getKey(), property);
+            } else {
+                clone.put(entry.getKey(), cloneProperty(sed, entry.getKey(), property));
             }
-            return clone;
+        }
+        return clone;
+    }
+
+    private Object cloneProperty(final SchemaElementDefinition sed, final String propertyName, final Object property) {
+        if (null == sed.getPropertyTypeDef(propertyName) || null == sed.getPropertyTypeDef(propertyName).getSerialiser()) {
+            // This can happen if transient properties are derived - they will not have serialisers.
+            LOGGER.warn("Can't find Serialisation for {}, returning uncloned property", propertyName);
+            return property;
+        }
+        if (null == property) {
+            return null;
+        }
+
+        final Serialiser serialiser = sed.getPropertyTypeDef(propertyName).getSerialiser();
+        try {
+            return serialiser.deserialise(serialiser.serialise(property));
         } catch (final SerialisationException e) {
             throw new RuntimeException("SerialisationException converting elements", e);
         }
     }
+
+    private static boolean isImmutable(final Object property) {
+        return null == property
+                || property instanceof String
+                || property instanceof Boolean
+                || property instanceof Character
+                || property instanceof Integer
+                || property instanceof Long
+                || property instanceof Short
+                || property instanceof Byte
+                || property instanceof Double
+                || property instanceof Float;
+    }
 }
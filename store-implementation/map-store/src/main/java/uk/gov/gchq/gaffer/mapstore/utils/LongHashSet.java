@@ -0,0 +1,100 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.mapstore.utils;
+
+/**
+ * A set of primitive {@code long} values backed by an open-addressing hash
+ * table, avoiding the boxing and entry objects of a {@link java.util.HashSet}.
+ * <p>
+ * This class is not thread safe.
+ * </p>
+ */
+public class LongHashSet {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final long EMPTY = 0L;
+
+    private long[] table = new long[INITIAL_CAPACITY];
+    private boolean containsEmpty;
+    private int size;
+
+    /**
+     * Add a value to the set.
+     *
+     * @param value the value to add
+     * @return true if the value was not already in the set
+     */
+    public boolean add(final long value) {
+        if (EMPTY == value) {
+            if (containsEmpty) {
+                return false;
+            }
+            containsEmpty = true;
+            size++;
+            return true;
+        }
+
+        int slot = findSlot(table, value);
+        if (value == table[slot]) {
+            return false;
+        }
+
+        if (size + 1 > table.length * 3 / 4) {
+            resize();
+            slot = findSlot(table, value);
+        }
+        table[slot] = value;
+        size++;
+        return true;
+    }
+
+    public boolean contains(final long value) {
+        if (EMPTY == value) {
+            return containsEmpty;
+        }
+        return value == table[findSlot(table, value)];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        table = new long[INITIAL_CAPACITY];
+        containsEmpty = false;
+        size = 0;
+    }
+
+    private void resize() {
+        final long[] newTable = new long[table.length * 2];
+        for (final long value : table) {
+            if (EMPTY != value) {
+                newTable[findSlot(newTable, value)] = value;
+            }
+        }
+        table = newTable;
+    }
+
+    private static int findSlot(final long[] table, final long value) {
+        final int mask = table.length - 1;
+        final long hash = value * 0x9E3779B97F4A7C15L;
+        int slot = (int) (hash ^ (hash >>> 32)) & mask;
+        while (EMPTY != table[slot] && value != table[slot]) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+}
@@ -0,0 +1,266 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.mapstore.utils;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A store of byte array records held outside of the Java heap in direct
+ * {@link ByteBuffer} chunks.
+ * <p>
+ * Each record is referenced by a primitive {@code long} address, so callers can
+ * keep track of many records without allocating an object per record. A record
+ * has a fixed capacity once written; it can be overwritten in place with a value
+ * that fits in that capacity, otherwise a new record must be appended.
+ * </p>
+ * <p>
+ * Records that are no longer needed can be freed. Freed records are kept in
+ * free lists by power of two size class and are reused by later appends of a
+ * similar capacity, so the chunks themselves are never compacted.
+ * </p>
+ * <p>
+ * This class is not thread safe.
+ * </p>
+ */
+public class OffHeapByteStore {
+    public static final int DEFAULT_CHUNK_SIZE = 16 * 1024 * 1024;
+
+    /**
+     * Each record is prefixed with its capacity and its current length.
+     */
+    private static final int HEADER_SIZE = 2 * Integer.BYTES;
+    private static final int INITIAL_FREE_LIST_SIZE = 16;
+
+    private final int chunkSize;
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+    private ByteBuffer currentChunk;
+    private int writeOffset;
+    private long allocatedBytes;
+    private long freeBytes;
+    private long[][] freeLists = new long[Integer.SIZE][];
+    private int[] freeListSizes = new int[Integer.SIZE];
+
+    public OffHeapByteStore() {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+
+    public OffHeapByteStore(final int chunkSize) {
+        if (chunkSize <= HEADER_SIZE) {
+            throw new IllegalArgumentException("Chunk size must be greater than " + HEADER_SIZE);
+        }
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Append a record to the store.
+     *
+     * @param bytes the record to append
+     * @return the address of the new record
+     */
+    public long append(final byte[] bytes) {
+        return append(bytes, bytes.length);
+    }
+
+    /**
+     * Append a record to the store, reserving extra capacity so that the
+     * record can later be overwritten in place with a larger value.
+     * A previously freed record is reused if one of a suitable size is
+     * available.
+     *
+     * @param bytes    the record to append
+     * @param capacity the capacity of the new record, at least the length of
+     *                 the bytes
+     * @return the address of the new record
+     */
+    public long append(final byte[] bytes, final int capacity) {
+        if (capacity < bytes.length) {
+            throw new IllegalArgumentException("Capacity " + capacity + " is less than the record length " + bytes.length);
+        }
+
+        final long freeAddress = takeFreeRecord(capacity);
+        if (freeAddress >= 0) {
+            write(chunks.get(chunkIndex(freeAddress)), chunkOffset(freeAddress), bytes);
+            return freeAddress;
+        }
+
+        final int recordSize = HEADER_SIZE + capacity;
+        if (null == currentChunk || currentChunk.capacity() - writeOffset < recordSize) {
+            currentChunk = ByteBuffer.allocateDirect(Math.max(chunkSize, recordSize));
+            chunks.add(currentChunk);
+            allocatedBytes += currentChunk.capacity();
+            writeOffset = 0;
+        }
+
+        final int offset = writeOffset;
+        currentChunk.putInt(offset, capacity);
+        write(currentChunk, offset, bytes);
+        writeOffset += recordSize;
+        return toAddress(chunks.size() - 1, offset);
+    }
+
+    /**
+     * Overwrite an existing record, if the new value fits within the capacity
+     * of the existing record.
+     *
+     * @param address the address of the record to overwrite
+     * @param bytes   the new record value
+     * @return true if the record was overwritten, false if the caller must
+     * append a new record instead
+     */
+    public boolean update(final long address, final byte[] bytes) {
+        final ByteBuffer chunk = chunks.get(chunkIndex(address));
+        final int offset = chunkOffset(address);
+        if (chunk.getInt(offset) < bytes.length) {
+            return false;
+        }
+
+        write(chunk, offset, bytes);
+        return true;
+    }
+
+    /**
+     * Free a record so that its space can be reused by a later append.
+     * The address must not be used again after the record has been freed.
+     *
+     * @param address the address of the record to free
+     */
+    public void free(final long address) {
+        final int capacity = chunks.get(chunkIndex(address)).getInt(chunkOffset(address));
+        if (0 == capacity) {
+            return;
+        }
+
+        // A record in a size class can hold any value up to that class size
+        final int sizeClass = Integer.SIZE - 1 - Integer.numberOfLeadingZeros(capacity);
+        long[] freeList = freeLists[sizeClass];
+        if (null == freeList) {
+            freeList = new long[INITIAL_FREE_LIST_SIZE];
+            freeLists[sizeClass] = freeList;
+        } else if (freeListSizes[sizeClass] == freeList.length) {
+            freeList = Arrays.copyOf(freeList, freeList.length * 2);
+            freeLists[sizeClass] = freeList;
+        }
+        freeList[freeListSizes[sizeClass]++] = address;
+        freeBytes += HEADER_SIZE + capacity;
+    }
+
+    /**
+     * Copy a record back on to the heap.
+     *
+     * @param address the address of the record
+     * @return the record bytes
+     */
+    public byte[] get(final long address) {
+        final ByteBuffer chunk = chunks.get(chunkIndex(address));
+        final int offset = chunkOffset(address);
+        final byte[] bytes = new byte[chunk.getInt(offset + Integer.BYTES)];
+        final ByteBuffer view = chunk.duplicate();
+        view.position(offset + HEADER_SIZE);
+        view.get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Compare a record with the provided bytes without copying the record on
+     * to the heap.
+     *
+     * @param address the address of the record
+     * @param bytes   the bytes to compare with
+     * @return true if the record is equal to the bytes
+     */
+    public boolean matches(final long address, final byte[] bytes) {
+        final ByteBuffer chunk = chunks.get(chunkIndex(address));
+        final int offset = chunkOffset(address);
+        if (chunk.getInt(offset + Integer.BYTES) != bytes.length) {
+            return false;
+        }
+
+        final int start = offset + HEADER_SIZE;
+        for (int i = 0; i < bytes.length; i++) {
+            if (chunk.get(start + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Release all records. The direct memory is returned once the chunks have
+     * been garbage collected.
+     */
+    public void clear() {
+        chunks.clear();
+        currentChunk = null;
+        writeOffset = 0;
+        allocatedBytes = 0;
+        freeBytes = 0;
+        freeLists = new long[Integer.SIZE][];
+        freeListSizes = new int[Integer.SIZE];
+    }
+
+    /**
+     * @return the number of bytes of direct memory allocated by this store
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * @return the number of bytes held by freed records that are waiting to
+     * be reused
+     */
+    public long getFreeBytes() {
+        return freeBytes;
+    }
+
+    private long takeFreeRecord(final int capacity) {
+        if (capacity > 1 << (Integer.SIZE - 2)) {
+            return -1L;
+        }
+
+        final int sizeClass = capacity <= 1 ? 0 : Integer.SIZE - Integer.numberOfLeadingZeros(capacity - 1);
+        if (0 == freeListSizes[sizeClass]) {
+            return -1L;
+        }
+
+        final long address = freeLists[sizeClass][--freeListSizes[sizeClass]];
+        freeBytes -= HEADER_SIZE + chunks.get(chunkIndex(address)).getInt(chunkOffset(address));
+        return address;
+    }
+
+    private static void write(final ByteBuffer chunk, final int offset, final byte[] bytes) {
+        chunk.putInt(offset + Integer.BYTES, bytes.length);
+        final ByteBuffer view = chunk.duplicate();
+        view.position(offset + HEADER_SIZE);
+        view.put(bytes);
+    }
+
+    private static long toAddress(final int chunkIndex, final int offset) {
+        return ((long) chunkIndex << Integer.SIZE) | (offset & 0xFFFFFFFFL);
+    }
+
+    private static int chunkIndex(final long address) {
+        return (int) (address >>> Integer.SIZE);
+    }
+
+    private static int chunkOffset(final long address) {
+        return (int) address;
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.mapstore.utils;
+
+import uk.gov.gchq.gaffer.core.exception.GafferRuntimeException;
+import uk.gov.gchq.gaffer.exception.SerialisationException;
+import uk.gov.gchq.gaffer.serialisation.ToBytesSerialiser;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A {@link java.util.Map} that holds its keys and values in serialised form
+ * outside of the Java heap.
+ * <p>
+ * Keys are interned by a {@link BytesInterner} and values are held in an
+ * {@link OffHeapByteStore}, referenced from a primitive array indexed by the
+ * key ordinal. When a value outgrows its record, for example as it is
+ * aggregated, the old record is freed for reuse and the value is moved to a
+ * record with spare capacity so that it can keep growing in place. Every call to {@link #get(Object)} or iteration over the
+ * entries deserialises a fresh copy of the key and value, so changes to the
+ * returned objects are not reflected in the map.
+ * </p>
+ * <p>
+ * The key serialiser must be consistent, i.e. equal keys must always be
+ * serialised to the same bytes. Removing individual entries is not supported.
+ * This class is not thread safe.
+ * </p>
+ *
+ * @param <K> the type of key in the map
+ * @param <V> the type of value in the map
+ */
+public class OffHeapMap<K, V> extends AbstractMap<K, V> {
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Value addresses are stored offset by {@link #ADDRESS_OFFSET}, so that
+     * the default array value marks a missing value.
+     */
+    private static final long MISSING_VALUE = 0L;
+    private static final long NULL_VALUE = 1L;
+    private static final long ADDRESS_OFFSET = 2L;
+
+    private final ToBytesSerialiser<K> keySerialiser;
+    private final ToBytesSerialiser<V> valueSerialiser;
+    private final BytesInterner keys;
+    private final OffHeapByteStore values;
+    private long[] valueAddresses = new long[INITIAL_CAPACITY];
+
+    public OffHeapMap(final ToBytesSerialiser<K> keySerialiser, final ToBytesSerialiser<V> valueSerialiser) {
+        this(keySerialiser, valueSerialiser, OffHeapByteStore.DEFAULT_CHUNK_SIZE);
+    }
+
+    public OffHeapMap(final ToBytesSerialiser<K> keySerialiser, final ToBytesSerialiser<V> valueSerialiser, final int chunkSize) {
+        if (null == keySerialiser || null == valueSerialiser) {
+            throw new IllegalArgumentException("Key and value serialisers are required");
+        }
+        this.keySerialiser = keySerialiser;
+        this.valueSerialiser = valueSerialiser;
+        this.keys = new BytesInterner(new OffHeapByteStore(chunkSize));
+        this.values = new OffHeapByteStore(chunkSize);
+    }
+
+    @Override
+    public int size() {
+        return keys.size();
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return BytesInterner.NOT_FOUND != findKey(key);
+    }
+
+    @Override
+    public V get(final Object key) {
+        final int ordinal = findKey(key);
+        if (BytesInterner.NOT_FOUND == ordinal) {
+            return null;
+        }
+        return getValue(ordinal);
+    }
+
+    @Override
+    public V put(final K key, final V value) {
+        final int ordinal = keys.intern(serialise(keySerialiser, key));
+        final V previous;
+        if (ordinal < valueAddresses.length && MISSING_VALUE != valueAddresses[ordinal]) {
+            previous = getValue(ordinal);
+        } else {
+            previous = null;
+            if (ordinal >= valueAddresses.length) {
+                valueAddresses = Arrays.copyOf(valueAddresses, Math.max(ordinal + 1, valueAddresses.length * 2));
+            }
+        }
+
+        setValue(ordinal, value);
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        keys.clear();
+        values.clear();
+        valueAddresses = new long[INITIAL_CAPACITY];
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new AbstractSet<Entry<K, V>>() {
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                return new Iterator<Entry<K, V>>() {
+                    private int ordinal;
+
+                    @Override
+                    public boolean hasNext() {
+                        return ordinal < keys.size();
+                    }
+
+                    @Override
+                    public Entry<K, V> next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        final K key = deserialise(keySerialiser, keys.get(ordinal));
+                        final V value = getValue(ordinal);
+                        ordinal++;
+                        return new SimpleImmutableEntry<>(key, value);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return keys.size();
+            }
+        };
+    }
+
+    /**
+     * @return the number of bytes of direct memory allocated by this map
+     */
+    public long getAllocatedBytes() {
+        return values.getAllocatedBytes() + keys.getAllocatedBytes();
+    }
+
+    private int findKey(final Object key) {
+        try {
+            return keys.find(serialise(keySerialiser, (K) key));
+        } catch (final ClassCastException e) {
+            return BytesInterner.NOT_FOUND;
+        }
+    }
+
+    private V getValue(final int ordinal) {
+        final long storedAddress = valueAddresses[ordinal];
+        if (MISSING_VALUE == storedAddress || NULL_VALUE == storedAddress) {
+            return null;
+        }
+        return deserialise(valueSerialiser, values.get(storedAddress - ADDRESS_OFFSET));
+    }
+
+    private void setValue(final int ordinal, final V value) {
+        final long storedAddress = valueAddresses[ordinal];
+        if (null == value) {
+            if (storedAddress >= ADDRESS_OFFSET) {
+                values.free(storedAddress - ADDRESS_OFFSET);
+            }
+            valueAddresses[ordinal] = NULL_VALUE;
+            return;
+        }
+
+        final byte[] bytes = serialise(valueSerialiser, value);
+        if (storedAddress < ADDRESS_OFFSET) {
+            valueAddresses[ordinal] = values.append(bytes) + ADDRESS_OFFSET;
+        } else if (!values.update(storedAddress - ADDRESS_OFFSET, bytes)) {
+            // The value has grown, so free the old record and leave room for it to grow again
+            values.free(storedAddress - ADDRESS_OFFSET);
+            valueAddresses[ordinal] = values.append(bytes, growCapacity(bytes.length)) + ADDRESS_OFFSET;
+        }
+    }
+
+    private static int growCapacity(final int length) {
+        if (length <= 1 || length > 1 << (Integer.SIZE - 2)) {
+            return length;
+        }
+        return Integer.highestOneBit(length - 1) << 1;
+    }
+
+    private static <T> byte[] serialise(final ToBytesSerialiser<T> serialiser, final T object) {
+        try {
+            return serialiser.serialise(object);
+        } catch (final SerialisationException e) {
+            throw new GafferRuntimeException("Unable to serialise " + object, e);
+        }
+    }
+
+    private static <T> T deserialise(final ToBytesSerialiser<T> serialiser, final byte[] bytes) {
+        try {
+            return serialiser.deserialise(bytes);
+        } catch (final SerialisationException e) {
+            throw new GafferRuntimeException("Unable to deserialise value", e);
+        }
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.mapstore.factory;
+
+import com.google.common.collect.Sets;
+import org.junit.Test;
+
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
+import uk.gov.gchq.gaffer.commonutil.stream.Streams;
+import uk.gov.gchq.gaffer.data.element.Edge;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.Entity;
+import uk.gov.gchq.gaffer.data.element.GroupedProperties;
+import uk.gov.gchq.gaffer.data.element.id.EdgeId;
+import uk.gov.gchq.gaffer.data.element.id.EntityId;
+import uk.gov.gchq.gaffer.graph.Graph;
+import uk.gov.gchq.gaffer.graph.GraphConfig;
+import uk.gov.gchq.gaffer.mapstore.MapStoreProperties;
+import uk.gov.gchq.gaffer.mapstore.impl.GetAllElementsHandlerTest;
+import uk.gov.gchq.gaffer.mapstore.multimap.MultiMap;
+import uk.gov.gchq.gaffer.mapstore.multimap.OffHeapMultiMap;
+import uk.gov.gchq.gaffer.mapstore.utils.OffHeapMap;
+import uk.gov.gchq.gaffer.operation.OperationException;
+import uk.gov.gchq.gaffer.operation.data.EntitySeed;
+import uk.gov.gchq.gaffer.operation.impl.add.AddElements;
+import uk.gov.gchq.gaffer.operation.impl.get.GetAllElements;
+import uk.gov.gchq.gaffer.operation.impl.get.GetElements;
+import uk.gov.gchq.gaffer.serialisation.implementation.JavaSerialiser;
+import uk.gov.gchq.gaffer.serialisation.implementation.StringSerialiser;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+import uk.gov.gchq.gaffer.store.schema.SchemaEntityDefinition;
+import uk.gov.gchq.gaffer.store.schema.SchemaOptimiser;
+import uk.gov.gchq.gaffer.store.schema.TypeDefinition;
+import uk.gov.gchq.gaffer.user.User;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class OffHeapMapFactoryTest {
+
+    @Test
+    public void shouldCreateOffHeapMapsAndCacheThem() {
+        // Given
+        final OffHeapMapFactory factory = new OffHeapMapFactory();
+        factory.initialise(getSchema(), new MapStoreProperties());
+
+        // When
+        final Map<Element, GroupedProperties> map = factory.getMap("map1", Element.class, GroupedProperties.class);
+        final MultiMap<EntityId, Element> multiMap = factory.getMultiMap("multiMap1", EntityId.class, Element.class);
+
+        // Then
+        assertTrue(map instanceof OffHeapMap);
+        assertTrue(multiMap instanceof OffHeapMultiMap);
+        assertSame(map, factory.getMap("map1", Element.class, GroupedProperties.class));
+        assertSame(multiMap, factory.getMultiMap("multiMap1", EntityId.class, Element.class));
+    }
+
+    @Test
+    public void shouldThrowExceptionForUnsupportedMapTypes() {
+        // Given
+        final OffHeapMapFactory factory = new OffHeapMapFactory();
+        factory.initialise(getSchema(), new MapStoreProperties());
+
+        // When / Then
+        try {
+            factory.getMap("map1", String.class, Integer.class);
+            fail("Exception expected");
+        } catch (final IllegalArgumentException e) {
+            assertNotNull(e.getMessage());
+        }
+    }
+
+    @Test
+    public void shouldThrowExceptionIfGroupByPropertySerialiserIsNotConsistent() {
+        // Given
+        final Schema schema = new Schema.Builder()
+                .entity("BasicEntity", new SchemaEntityDefinition.Builder()
+                        .vertex("vertex.string")
+                        .property("property1", "javaSet")
+                        .groupBy("property1")
+                        .build())
+                .type("vertex.string", new TypeDefinition.Builder()
+                        .clazz(String.class)
+                        .serialiser(new StringSerialiser())
+                        .build())
+                .type("javaSet", new TypeDefinition.Builder()
+                        .clazz(HashSet.class)
+                        .serialiser(new JavaSerialiser())
+                        .build())
+                .vertexSerialiser(new StringSerialiser())
+                .build();
+
+        // When / Then
+        try {
+            new OffHeapMapFactory().initialise(schema, new MapStoreProperties());
+            fail("Exception expected");
+        } catch (final IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("property1"));
+        }
+    }
+
+    @Test
+    public void shouldReadChunkSizeFromProperties() {
+        // Given
+        final MapStoreProperties properties = new MapStoreProperties();
+        properties.set(OffHeapMapFactory.CHUNK_SIZE, "1024");
+        final OffHeapMapFactory factory = new OffHeapMapFactory();
+
+        // When
+        factory.initialise(getSchema(), properties);
+
+        // Then
+        assertEquals(1024, factory.getChunkSize());
+    }
+
+    @Test
+    public void shouldAddAndGetAllElementsUsingOffHeapMaps() throws OperationException {
+        // Given
+        final Graph graph = getGraph();
+        final List<Element> elements = GetAllElementsHandlerTest.getElements();
+        graph.execute(new AddElements.Builder()
+                .input(elements)
+                .build(), new User());
+
+        // When
+        final CloseableIterable<? extends Element> results = graph.execute(new GetAllElements(), new User());
+
+        // Then
+        assertEquals(new HashSet<>(elements), Streams.toStream(results).collect(Collectors.toSet()));
+    }
+
+    @Test
+    public void shouldAggregateElementsUsingOffHeapMaps() throws OperationException {
+        // Given
+        final Graph graph = getGraph();
+        final Entity entity = new Entity.Builder()
+                .group("BasicEntity")
+                .vertex("vertex1")
+                .property("property1", "p")
+                .property("count", 1)
+                .build();
+        graph.execute(new AddElements.Builder()
+                .input(entity, entity, entity)
+                .build(), new User());
+
+        // When
+        final CloseableIterable<? extends Element> results = graph.execute(new GetAllElements(), new User());
+
+        // Then
+        final Entity expected = new Entity.Builder()
+                .group("BasicEntity")
+                .vertex("vertex1")
+                .property("property1", "p")
+                .property("count", 3)
+                .build();
+        assertEquals(Sets.newHashSet(expected), Streams.toStream(results).collect(Collectors.toSet()));
+    }
+
+    @Test
+    public void shouldGetElementsBySeedIncludingMatchedVertexUsingOffHeapMaps() throws OperationException {
+        // Given
+        final Graph graph = getGraph();
+        graph.execute(new AddElements.Builder()
+                .input(GetAllElementsHandlerTest.getElements())
+                .build(), new User());
+
+        // When
+        final CloseableIterable<? extends Element> results = graph.execute(new GetElements.Builder()
+                .input(new EntitySeed("B1"))
+                .build(), new User());
+
+        // Then
+        final List<Element> resultList = Streams.toStream(results).collect(Collectors.toList());
+        assertEquals(1, resultList.size());
+        assertEquals(EdgeId.MatchedVertex.DESTINATION, ((Edge) resultList.get(0)).getMatchedVertex());
+        assertEquals("A", ((Edge) resultList.get(0)).getSource());
+    }
+
+    private static Schema getSchema() {
+        return new SchemaOptimiser().optimise(GetAllElementsHandlerTest.getSchema(), false);
+    }
+
+    private static Graph getGraph() {
+        final MapStoreProperties storeProperties = new MapStoreProperties();
+        storeProperties.setMapFactory(OffHeapMapFactory.class);
+        return new Graph.Builder()
+                .config(new GraphConfig.Builder()
+                        .graphId("offHeapGraph")
+                        .build())
+                .addSchema(GetAllElementsHandlerTest.getSchema())
+                .storeProperties(storeProperties)
+                .build();
+    }
+}
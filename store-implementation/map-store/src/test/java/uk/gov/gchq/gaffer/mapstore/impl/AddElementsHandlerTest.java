@@ -15,20 +15,40 @@
  */
 package uk.gov.gchq.gaffer.mapstore.impl;
 
+import com.google.common.collect.Lists;
 import org.junit.Test;
 
 import uk.gov.gchq.gaffer.data.element.Edge;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.Entity;
+import uk.gov.gchq.gaffer.graph.Graph;
+import uk.gov.gchq.gaffer.graph.GraphConfig;
 import uk.gov.gchq.gaffer.mapstore.MapStore;
 import uk.gov.gchq.gaffer.mapstore.MapStoreProperties;
 import uk.gov.gchq.gaffer.mapstore.SingleUseMapStore;
 import uk.gov.gchq.gaffer.operation.OperationException;
+import uk.gov.gchq.gaffer.operation.data.EntitySeed;
 import uk.gov.gchq.gaffer.operation.impl.add.AddElements;
+import uk.gov.gchq.gaffer.operation.impl.get.GetAllElements;
+import uk.gov.gchq.gaffer.operation.impl.get.GetElements;
 import uk.gov.gchq.gaffer.store.Context;
 import uk.gov.gchq.gaffer.store.StoreException;
 import uk.gov.gchq.gaffer.store.schema.Schema;
+import uk.gov.gchq.gaffer.user.User;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
 
@@ -47,4 +67,239 @@ public class AddElementsHandlerTest {
         // When / Then - should not throw NPE
         handler.doOperation(addElements, context, store);
     }
+
+    @Test
+    public void shouldAddAndAggregateElementsConcurrently() throws Exception {
+        // Given
+        final MapStoreProperties properties = new MapStoreProperties();
+        properties.setConcurrent(true);
+        properties.setConcurrentLockStripes(4);
+        final Graph graph = new Graph.Builder()
+                .config(new GraphConfig.Builder()
+                        .graphId("concurrentGraph")
+                        .build())
+                .addSchema(GetAllElementsHandlerTest.getSchema())
+                .storeProperties(properties)
+                .build();
+        final int numThreads = 8;
+        final int numLoops = 100;
+        final ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+
+        // When
+        final List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < numThreads; thread++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < numLoops; i++) {
+                    graph.execute(new AddElements.Builder()
+                            .input(new Entity.Builder()
+                                            .group(GetAllElementsHandlerTest.BASIC_ENTITY)
+                                            .vertex("vertex" + (i % 10))
+                                            .property(GetAllElementsHandlerTest.PROPERTY1, "p")
+                                            .property(GetAllElementsHandlerTest.COUNT, 1)
+                                            .build(),
+                                    new Edge.Builder()
+                                            .group(GetAllElementsHandlerTest.BASIC_EDGE1)
+                                            .source("vertex" + (i % 10))
+                                            .dest("dest")
+                                            .directed(true)
+                                            .property(GetAllElementsHandlerTest.PROPERTY1, "q")
+                                            .property(GetAllElementsHandlerTest.COUNT, 1)
+                                            .build())
+                            .build(), new User());
+                    // Query while other threads are adding elements
+                    Lists.newArrayList(graph.execute(new GetElements.Builder()
+                            .input(new EntitySeed("vertex" + (i % 10)))
+                            .build(), new User()));
+                }
+                return null;
+            }));
+        }
+        for (final Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        // Then
+        final List<Element> results = Lists.newArrayList(graph.execute(new GetAllElements(), new User()));
+        assertEquals(20, results.size());
+        for (final Element element : results) {
+            assertEquals(numThreads * numLoops / 10, element.getProperty(GetAllElementsHandlerTest.COUNT));
+        }
+        final List<Element> seededResults = Lists.newArrayList(graph.execute(new GetElements.Builder()
+                .input(new EntitySeed("dest"))
+                .build(), new User()));
+        assertEquals(10, seededResults.size());
+    }
+
+    @Test
+    public void shouldReadConsistentPropertiesWhileWritersAggregateConcurrently() throws Exception {
+        // Given
+        final MapStoreProperties properties = new MapStoreProperties();
+        properties.setConcurrent(true);
+        properties.setConcurrentLockStripes(4);
+        final Graph graph = new Graph.Builder()
+                .config(new GraphConfig.Builder()
+                        .graphId("concurrentReadWriteGraph")
+                        .build())
+                .addSchema(GetAllElementsHandlerTest.getSchema())
+                .storeProperties(properties)
+                .build();
+        final int numWriters = 4;
+        final int numReaders = 4;
+        final int numLoops = 200;
+        final ExecutorService executor = Executors.newFixedThreadPool(numWriters + numReaders);
+        final AtomicBoolean writing = new AtomicBoolean(true);
+
+        // When
+        final List<Future<?>> writers = new ArrayList<>();
+        for (int thread = 0; thread < numWriters; thread++) {
+            writers.add(executor.submit(() -> {
+                for (int i = 0; i < numLoops; i++) {
+                    graph.execute(new AddElements.Builder()
+                            .input(new Edge.Builder()
+                                    .group(GetAllElementsHandlerTest.BASIC_EDGE1)
+                                    .source("vertex" + (i % 5))
+                                    .dest("dest")
+                                    .directed(true)
+                                    .property(GetAllElementsHandlerTest.PROPERTY1, "q")
+                                    .property(GetAllElementsHandlerTest.COUNT, 1)
+                                    .build())
+                            .build(), new User());
+                }
+                return null;
+            }));
+        }
+        final List<Future<?>> readers = new ArrayList<>();
+        for (int thread = 0; thread < numReaders; thread++) {
+            readers.add(executor.submit(() -> {
+                final Map<Object, Integer> lastCounts = new HashMap<>();
+                while (writing.get()) {
+                    for (final Element element : graph.execute(new GetAllElements(), new User())) {
+                        final int count = (Integer) element.getProperty(GetAllElementsHandlerTest.COUNT);
+                        assertEquals("q", element.getProperty(GetAllElementsHandlerTest.PROPERTY1));
+                        assertTrue(count > 0 && count <= numWriters * numLoops / 5);
+                        final Integer lastCount = lastCounts.put(((Edge) element).getSource(), count);
+                        assertTrue(null == lastCount || lastCount <= count);
+                    }
+                }
+                return null;
+            }));
+        }
+        try {
+            for (final Future<?> writer : writers) {
+                writer.get();
+            }
+        } finally {
+            writing.set(false);
+        }
+        for (final Future<?> reader : readers) {
+            reader.get();
+        }
+        executor.shutdown();
+
+        // Then
+        final List<Element> results = Lists.newArrayList(graph.execute(new GetAllElements(), new User()));
+        assertEquals(5, results.size());
+        for (final Element element : results) {
+            assertEquals(numWriters * numLoops / 5, element.getProperty(GetAllElementsHandlerTest.COUNT));
+        }
+    }
+
+    @Test
+    public void shouldAddAndAggregateElementsInParallel() throws OperationException {
+        // Given
+        final MapStoreProperties properties = new MapStoreProperties();
+        properties.setConcurrent(true);
+        properties.setIngestThreads(4);
+        properties.setIngestBufferSize(7);
+        properties.setIngestQueueSize(2);
+        final Graph graph = new Graph.Builder()
+                .config(new GraphConfig.Builder()
+                        .graphId("parallelIngestGraph")
+                        .build())
+                .addSchema(GetAllElementsHandlerTest.getSchema())
+                .storeProperties(properties)
+                .build();
+        final List<Element> elements = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            elements.add(new Entity.Builder()
+                    .group(GetAllElementsHandlerTest.BASIC_ENTITY)
+                    .vertex("vertex" + (i % 10))
+                    .property(GetAllElementsHandlerTest.PROPERTY1, "p")
+                    .property(GetAllElementsHandlerTest.COUNT, 1)
+                    .build());
+            elements.add(new Edge.Builder()
+                    .group(GetAllElementsHandlerTest.BASIC_EDGE1)
+                    .source("vertex" + (i % 10))
+                    .dest("dest")
+                    .directed(true)
+                    .property(GetAllElementsHandlerTest.PROPERTY1, "q")
+                    .property(GetAllElementsHandlerTest.COUNT, 1)
+                    .build());
+        }
+
+        // When
+        graph.execute(new AddElements.Builder()
+                .input(elements)
+                .build(), new User());
+
+        // Then
+        final List<Element> results = Lists.newArrayList(graph.execute(new GetAllElements(), new User()));
+        assertEquals(20, results.size());
+        for (final Element element : results) {
+            assertEquals(100, element.getProperty(GetAllElementsHandlerTest.COUNT));
+        }
+        final List<Element> seededResults = Lists.newArrayList(graph.execute(new GetElements.Builder()
+                .input(new EntitySeed("dest"))
+                .build(), new User()));
+        assertEquals(10, seededResults.size());
+    }
+
+    @Test(timeout = 10000L)
+    public void shouldRethrowErrorsFromParallelIngestWithoutBlocking() throws OperationException, StoreException {
+        // Given
+        final MapStoreProperties properties = new MapStoreProperties();
+        properties.setConcurrent(true);
+        properties.setIngestThreads(2);
+        properties.setIngestBufferSize(1);
+        properties.setIngestQueueSize(1);
+        final MapStore store = new SingleUseMapStore();
+        store.initialise("parallelIngestErrorGraph", GetAllElementsHandlerTest.getSchema(), properties);
+        final List<Element> elements = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            elements.add(new Entity.Builder()
+                    .group(GetAllElementsHandlerTest.BASIC_ENTITY)
+                    .vertex("vertex")
+                    .property(GetAllElementsHandlerTest.PROPERTY1, new UnhashableProperty())
+                    .property(GetAllElementsHandlerTest.COUNT, 1)
+                    .build());
+        }
+        final AddElements addElements = new AddElements.Builder()
+                .input(elements)
+                .validate(false)
+                .build();
+
+        // When / Then
+        try {
+            new AddElementsHandler().doOperation(addElements, new Context(new User()), store);
+            fail("Exception expected");
+        } catch (final IngestError e) {
+            assertEquals("Unhashable property", e.getMessage());
+        }
+    }
+
+    private static final class UnhashableProperty {
+        @Override
+        public int hashCode() {
+            throw new IngestError("Unhashable property");
+        }
+    }
+
+    private static final class IngestError extends Error {
+        private static final long serialVersionUID = -3207284526563409271L;
+
+        private IngestError(final String message) {
+            super(message);
+        }
+    }
 }
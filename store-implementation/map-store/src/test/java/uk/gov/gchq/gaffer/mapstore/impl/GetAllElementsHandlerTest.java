@@ -15,6 +15,7 @@
  */
 package uk.gov.gchq.gaffer.mapstore.impl;
 
+import com.google.common.collect.Sets;
 import org.junit.Test;
 
 import uk.gov.gchq.gaffer.commonutil.StreamUtil;
@@ -24,6 +25,7 @@ import uk.gov.gchq.gaffer.commonutil.stream.Streams;
 import uk.gov.gchq.gaffer.data.element.Edge;
 import uk.gov.gchq.gaffer.data.element.Element;
 import uk.gov.gchq.gaffer.data.element.Entity;
+import uk.gov.gchq.gaffer.data.element.IdentifierType;
 import uk.gov.gchq.gaffer.data.element.function.ElementFilter;
 import uk.gov.gchq.gaffer.data.element.id.DirectedType;
 import uk.gov.gchq.gaffer.data.elementdefinition.view.View;
@@ -37,9 +39,13 @@ import uk.gov.gchq.gaffer.operation.impl.get.GetAllElements;
 import uk.gov.gchq.gaffer.store.StoreException;
 import uk.gov.gchq.gaffer.store.schema.Schema;
 import uk.gov.gchq.gaffer.user.User;
+import uk.gov.gchq.koryphe.impl.predicate.IsEqual;
+import uk.gov.gchq.koryphe.impl.predicate.IsIn;
+import uk.gov.gchq.koryphe.impl.predicate.IsLessThan;
 import uk.gov.gchq.koryphe.impl.predicate.IsMoreThan;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -57,7 +63,7 @@ public class GetAllElementsHandlerTest {
     static final String PROPERTY1 = "property1";
     static final String PROPERTY2 = "property2";
     static final String COUNT = "count";
-    private static final int NUM_LOOPS = 10;
+    static final int NUM_LOOPS = 10;
 
     @Test
     public void testAddAndGetAllElementsNoAggregation() throws StoreException, OperationException {
@@ -228,6 +234,115 @@ public class GetAllElementsHandlerTest {
         assertEquals(expectedResults, resultsSet);
     }
 
+    @Test
+    public void testGetAllElementsWithReadOnlyResultsAndFiltersOnIdentifiersAndGroupByProperties() throws OperationException {
+        // Given
+        final MapStoreProperties storeProperties = new MapStoreProperties();
+        storeProperties.setReadOnlyResults(true);
+        final Graph graph = new Graph.Builder()
+                .config(new GraphConfig.Builder()
+                        .graphId("readOnlyResultsGraph")
+                        .build())
+                .addSchema(getSchema())
+                .storeProperties(storeProperties)
+                .build();
+        graph.execute(new AddElements.Builder()
+                .input(getElements())
+                .build(), new User());
+
+        // When
+        final GetAllElements getAllElements = new GetAllElements.Builder()
+                .view(new View.Builder()
+                        .edge(BASIC_EDGE1, new ViewElementDefinition.Builder()
+                                .preAggregationFilter(new ElementFilter.Builder()
+                                        .select(IdentifierType.DESTINATION.name())
+                                        .execute(new IsIn("B1", "B2", "B3"))
+                                        .select(PROPERTY1)
+                                        .execute(new IsEqual("q"))
+                                        .build())
+                                .postAggregationFilter(new ElementFilter.Builder()
+                                        .select(COUNT)
+                                        .execute(new IsMoreThan(1))
+                                        .build())
+                                .build())
+                        .build())
+                .build();
+        final CloseableIterable<? extends Element> results = graph.execute(getAllElements, new User());
+
+        // Then
+        final Set<Element> resultsSet = new HashSet<>();
+        Streams.toStream(results).forEach(resultsSet::add);
+        final Set<Element> expectedResults = new HashSet<>();
+        getElements().stream()
+                .filter(e -> e.getGroup().equals(BASIC_EDGE1)
+                        && ("B2".equals(((Edge) e).getDestination()) || "B3".equals(((Edge) e).getDestination())))
+                .forEach(expectedResults::add);
+        assertEquals(expectedResults, resultsSet);
+    }
+
+    @Test
+    public void testGetAllElementsUsingPropertyIndexesAfterAggregation() throws OperationException {
+        // Given
+        final MapStoreProperties storeProperties = new MapStoreProperties();
+        storeProperties.addPropertyIndex(BASIC_ENTITY, COUNT);
+        final Graph graph = new Graph.Builder()
+                .config(new GraphConfig.Builder()
+                        .graphId("propertyIndexesGraph")
+                        .build())
+                .addSchema(getSchema())
+                .storeProperties(storeProperties)
+                .build();
+        graph.execute(new AddElements.Builder()
+                .input(IntStream.range(0, 10).mapToObj(i -> getEntity("v" + i, i)).toArray(Element[]::new))
+                .build(), new User());
+        graph.execute(new AddElements.Builder()
+                .input(getEntity("v0", 5), getEntity("v4", 10))
+                .build(), new User());
+
+        // When
+        final Set<Element> rangeResults = getAllEntities(graph, new ElementFilter.Builder()
+                .select(COUNT)
+                .execute(new IsMoreThan(3))
+                .select(COUNT)
+                .execute(new IsLessThan(6, true))
+                .build());
+        final Set<Element> isInResults = getAllEntities(graph, new ElementFilter.Builder()
+                .select(COUNT)
+                .execute(new IsIn(1, 14))
+                .build());
+        final Set<Element> isEqualResults = getAllEntities(graph, new ElementFilter.Builder()
+                .select(COUNT)
+                .execute(new IsEqual(4))
+                .build());
+
+        // Then
+        assertEquals(Sets.newHashSet(getEntity("v0", 5), getEntity("v5", 5), getEntity("v6", 6)), rangeResults);
+        assertEquals(Sets.newHashSet(getEntity("v1", 1), getEntity("v4", 14)), isInResults);
+        assertEquals(Collections.emptySet(), isEqualResults);
+    }
+
+    private static Set<Element> getAllEntities(final Graph graph, final ElementFilter preAggregationFilter) throws OperationException {
+        final GetAllElements getAllElements = new GetAllElements.Builder()
+                .view(new View.Builder()
+                        .entity(BASIC_ENTITY, new ViewElementDefinition.Builder()
+                                .preAggregationFilter(preAggregationFilter)
+                                .build())
+                        .build())
+                .build();
+        final Set<Element> results = new HashSet<>();
+        Streams.toStream(graph.execute(getAllElements, new User())).forEach(results::add);
+        return results;
+    }
+
+    private static Entity getEntity(final String vertex, final int count) {
+        return new Entity.Builder()
+                .group(BASIC_ENTITY)
+                .vertex(vertex)
+                .property(PROPERTY1, "p")
+                .property(COUNT, count)
+                .build();
+    }
+
     @Test
     public void testGetAllElementsWithAndWithEntities() throws OperationException {
         // Given
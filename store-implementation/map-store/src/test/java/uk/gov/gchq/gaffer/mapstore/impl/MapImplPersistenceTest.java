@@ -0,0 +1,234 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.mapstore.impl;
+
+import com.google.common.collect.Lists;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import uk.gov.gchq.gaffer.commonutil.CommonTestConstants;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.Entity;
+import uk.gov.gchq.gaffer.graph.Graph;
+import uk.gov.gchq.gaffer.graph.GraphConfig;
+import uk.gov.gchq.gaffer.mapstore.MapStore;
+import uk.gov.gchq.gaffer.mapstore.MapStoreProperties;
+import uk.gov.gchq.gaffer.mapstore.operation.CreateSnapshot;
+import uk.gov.gchq.gaffer.operation.OperationException;
+import uk.gov.gchq.gaffer.operation.data.EntitySeed;
+import uk.gov.gchq.gaffer.operation.impl.add.AddElements;
+import uk.gov.gchq.gaffer.operation.impl.get.GetAllElements;
+import uk.gov.gchq.gaffer.operation.impl.get.GetElements;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+import uk.gov.gchq.gaffer.user.User;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class MapImplPersistenceTest {
+    @Rule
+    public final TemporaryFolder tempFolder = new TemporaryFolder(CommonTestConstants.TMP_DIRECTORY);
+
+    @Test
+    public void shouldRestoreElementsAndIndicesFromSnapshot() throws OperationException, IOException {
+        // Given
+        final MapStoreProperties properties = getProperties(true, false);
+        final MapStore store = new MapStore();
+        final Graph graph = getGraph(store, GetAllElementsHandlerTest.getSchema(), properties);
+        graph.execute(new AddElements.Builder()
+                .input(GetAllElementsHandlerTest.getElements())
+                .build(), new User());
+        graph.execute(new CreateSnapshot(), new User());
+
+        // When
+        store.getMapImpl().close();
+        final Graph restoredGraph = getGraph(new MapStore(), GetAllElementsHandlerTest.getSchema(), properties);
+
+        // Then
+        assertEquals(new HashSet<>(GetAllElementsHandlerTest.getElements()),
+                new HashSet<>(Lists.newArrayList(restoredGraph.execute(new GetAllElements(), new User()))));
+        final List<Element> seededResults = Lists.newArrayList(restoredGraph.execute(new GetElements.Builder()
+                .input(new EntitySeed("A"))
+                .build(), new User()));
+        assertEquals(GetAllElementsHandlerTest.NUM_LOOPS, seededResults.size());
+    }
+
+    @Test
+    public void shouldReplayWriteAheadLogOnTopOfSnapshot() throws OperationException, IOException {
+        // Given
+        final MapStoreProperties properties = getProperties(true, true);
+        final MapStore store = new MapStore();
+        final Graph graph = getGraph(store, GetAllElementsHandlerTest.getSchema(), properties);
+        graph.execute(new AddElements.Builder()
+                .input(getEntity(1))
+                .build(), new User());
+        graph.execute(new CreateSnapshot(), new User());
+        graph.execute(new AddElements.Builder()
+                .input(getEntity(2), getEntity(3))
+                .build(), new User());
+
+        // When
+        store.getMapImpl().close();
+        final Graph restoredGraph = getGraph(new MapStore(), GetAllElementsHandlerTest.getSchema(), properties);
+
+        // Then
+        final List<Element> results = Lists.newArrayList(restoredGraph.execute(new GetAllElements(), new User()));
+        assertEquals(Lists.newArrayList(getEntity(6)), results);
+    }
+
+    @Test
+    public void shouldDiscardPartiallyWrittenRecordAtEndOfWriteAheadLog() throws OperationException, IOException {
+        // Given
+        final MapStoreProperties properties = getProperties(false, true);
+        final MapStore store = new MapStore();
+        final Graph graph = getGraph(store, GetAllElementsHandlerTest.getSchema(), properties);
+        graph.execute(new AddElements.Builder()
+                .input(getEntity(1), getEntity(2))
+                .build(), new User());
+        final File walFile = new File(properties.getWriteAheadLogFile());
+        final long walLength = walFile.length();
+        Files.write(walFile.toPath(), new byte[]{0, 0, 0, 10, 1, 2}, StandardOpenOption.APPEND);
+
+        // When
+        store.getMapImpl().close();
+        final Graph restoredGraph = getGraph(new MapStore(), GetAllElementsHandlerTest.getSchema(), properties);
+        restoredGraph.execute(new AddElements.Builder()
+                .input(getEntity(4))
+                .build(), new User());
+
+        // Then
+        final List<Element> results = Lists.newArrayList(restoredGraph.execute(new GetAllElements(), new User()));
+        assertEquals(Lists.newArrayList(getEntity(7)), results);
+        assertTrue(walFile.length() > walLength);
+    }
+
+    @Test
+    public void shouldRestoreNonAggregatedElements() throws OperationException, IOException {
+        // Given
+        final MapStoreProperties properties = getProperties(true, true);
+        final Schema schema = GetAllElementsHandlerTest.getSchemaNoAggregation();
+        final MapStore store = new MapStore();
+        final Graph graph = getGraph(store, schema, properties);
+        graph.execute(new AddElements.Builder()
+                .input(GetAllElementsHandlerTest.getElements())
+                .build(), new User());
+        graph.execute(new CreateSnapshot(), new User());
+        graph.execute(new AddElements.Builder()
+                .input(GetAllElementsHandlerTest.getElements())
+                .build(), new User());
+
+        // When
+        store.getMapImpl().close();
+        final Graph restoredGraph = getGraph(new MapStore(), schema, properties);
+
+        // Then
+        final List<Element> results = Lists.newArrayList(restoredGraph.execute(new GetAllElements(), new User()));
+        assertEquals(2 * GetAllElementsHandlerTest.getElements().size(), results.size());
+        assertEquals(new HashSet<>(GetAllElementsHandlerTest.getElements()), new HashSet<>(results));
+    }
+
+    @Test
+    public void shouldNotRestoreClearedElements() throws OperationException, IOException {
+        // Given
+        final MapStoreProperties properties = getProperties(true, true);
+        final MapStore store = new MapStore();
+        final Graph graph = getGraph(store, GetAllElementsHandlerTest.getSchema(), properties);
+        graph.execute(new AddElements.Builder()
+                .input(getEntity(1))
+                .build(), new User());
+        graph.execute(new CreateSnapshot(), new User());
+        graph.execute(new AddElements.Builder()
+                .input(getEntity(2))
+                .build(), new User());
+        store.getMapImpl().clear();
+        graph.execute(new AddElements.Builder()
+                .input(getEntity(4))
+                .build(), new User());
+
+        // When
+        store.getMapImpl().close();
+        final Graph restoredGraph = getGraph(new MapStore(), GetAllElementsHandlerTest.getSchema(), properties);
+
+        // Then
+        final List<Element> results = Lists.newArrayList(restoredGraph.execute(new GetAllElements(), new User()));
+        assertEquals(Lists.newArrayList(getEntity(4)), results);
+    }
+
+    @Test
+    public void shouldRejectWriteAheadLogOpenedTwice() throws IOException {
+        // Given
+        final MapStoreProperties properties = getProperties(false, true);
+        final MapStore store = new MapStore();
+        getGraph(store, GetAllElementsHandlerTest.getSchema(), properties);
+
+        // When / Then
+        try {
+            getGraph(new MapStore(), GetAllElementsHandlerTest.getSchema(), properties);
+            fail("Exception expected");
+        } catch (final IllegalStateException e) {
+            assertTrue(e.getMessage().contains("already open"));
+        }
+
+        // When the first store is closed, the log can be opened again
+        store.getMapImpl().close();
+        final Graph restoredGraph = getGraph(new MapStore(), GetAllElementsHandlerTest.getSchema(), properties);
+
+        // Then
+        assertFalse(restoredGraph.getStoreTraits().isEmpty());
+    }
+
+    private MapStoreProperties getProperties(final boolean snapshot, final boolean writeAheadLog) throws IOException {
+        final File folder = tempFolder.newFolder();
+        final MapStoreProperties properties = new MapStoreProperties();
+        if (snapshot) {
+            properties.setSnapshotFile(new File(folder, "snapshot").getAbsolutePath());
+        }
+        if (writeAheadLog) {
+            properties.setWriteAheadLogFile(new File(folder, "wal").getAbsolutePath());
+        }
+        return properties;
+    }
+
+    private static Graph getGraph(final MapStore store, final Schema schema, final MapStoreProperties properties) {
+        return new Graph.Builder()
+                .store(store)
+                .config(new GraphConfig.Builder()
+                        .graphId("persistedGraph")
+                        .build())
+                .addSchema(schema)
+                .storeProperties(properties)
+                .build();
+    }
+
+    private static Entity getEntity(final int count) {
+        return new Entity.Builder()
+                .group(GetAllElementsHandlerTest.BASIC_ENTITY)
+                .vertex("vertex1")
+                .property(GetAllElementsHandlerTest.PROPERTY1, "p")
+                .property(GetAllElementsHandlerTest.COUNT, count)
+                .build();
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.mapstore.utils;
+
+import org.junit.Test;
+
+import uk.gov.gchq.gaffer.serialisation.implementation.StringSerialiser;
+import uk.gov.gchq.gaffer.serialisation.implementation.raw.CompactRawLongSerialiser;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class OffHeapMapTest {
+
+    @Test
+    public void shouldPutAndGetValues() {
+        // Given
+        final OffHeapMap<String, Long> map = new OffHeapMap<>(new StringSerialiser(), new CompactRawLongSerialiser());
+
+        // When
+        final Long previous = map.put("key1", 1L);
+        map.put("key2", 2L);
+
+        // Then
+        assertNull(previous);
+        assertEquals(2, map.size());
+        assertEquals(1L, (long) map.get("key1"));
+        assertEquals(2L, (long) map.get("key2"));
+        assertTrue(map.containsKey("key1"));
+        assertFalse(map.containsKey("key3"));
+        assertNull(map.get("key3"));
+    }
+
+    @Test
+    public void shouldOverwriteValuesThatGrowAndShrink() {
+        // Given
+        final OffHeapMap<String, Long> map = new OffHeapMap<>(new StringSerialiser(), new CompactRawLongSerialiser());
+        map.put("key1", 1L);
+
+        // When
+        final Long previous = map.put("key1", Long.MAX_VALUE);
+        map.put("key1", 3L);
+
+        // Then
+        assertEquals(1L, (long) previous);
+        assertEquals(1, map.size());
+        assertEquals(3L, (long) map.get("key1"));
+    }
+
+    @Test
+    public void shouldMergeValues() {
+        // Given
+        final OffHeapMap<String, Long> map = new OffHeapMap<>(new StringSerialiser(), new CompactRawLongSerialiser());
+
+        // When
+        for (int i = 0; i < 10; i++) {
+            map.merge("key1", 1L, (a, b) -> a + b);
+        }
+
+        // Then
+        assertEquals(10L, (long) map.get("key1"));
+    }
+
+    @Test
+    public void shouldNotLeakRecordsWhenValueRepeatedlyGrows() {
+        // Given
+        final OffHeapMap<String, String> map = new OffHeapMap<>(new StringSerialiser(), new StringSerialiser(), 1024);
+        final StringBuilder value = new StringBuilder();
+
+        // When
+        for (int i = 0; i < 5000; i++) {
+            value.append('a');
+            map.put("key1", value.toString());
+        }
+
+        // Then
+        assertEquals(value.toString(), map.get("key1"));
+        assertTrue("Allocated " + map.getAllocatedBytes() + " bytes", map.getAllocatedBytes() < 4 * 5000);
+    }
+
+    @Test
+    public void shouldReuseRecordsFreedByOtherValues() {
+        // Given
+        final OffHeapMap<String, String> map = new OffHeapMap<>(new StringSerialiser(), new StringSerialiser(), 1024);
+        final StringBuilder value = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            value.append('a');
+            map.put("key1", value.toString());
+        }
+        final long allocatedBytes = map.getAllocatedBytes();
+
+        // When
+        value.setLength(0);
+        for (int i = 0; i < 100; i++) {
+            value.append('a');
+            map.put("key2", value.toString());
+        }
+
+        // Then
+        assertEquals(100, map.get("key1").length());
+        assertEquals(100, map.get("key2").length());
+        assertEquals(allocatedBytes, map.getAllocatedBytes());
+    }
+
+    @Test
+    public void shouldStoreNullValues() {
+        // Given
+        final OffHeapMap<String, Long> map = new OffHeapMap<>(new StringSerialiser(), new CompactRawLongSerialiser());
+
+        // When
+        map.put("key1", null);
+
+        // Then
+        assertTrue(map.containsKey("key1"));
+        assertNull(map.get("key1"));
+    }
+
+    @Test
+    public void shouldIterateOverEntriesAcrossMultipleChunks() {
+        // Given
+        final OffHeapMap<String, Long> map = new OffHeapMap<>(new StringSerialiser(), new CompactRawLongSerialiser(), 64);
+        final Map<String, Long> expected = new HashMap<>();
+        for (long i = 0; i < 1000; i++) {
+            map.put("key" + i, i);
+            expected.put("key" + i, i);
+        }
+
+        // When
+        final Map<String, Long> copy = new HashMap<>(map);
+
+        // Then
+        assertEquals(expected, copy);
+        assertTrue(map.getAllocatedBytes() > 0);
+    }
+
+    @Test
+    public void shouldClearMap() {
+        // Given
+        final OffHeapMap<String, Long> map = new OffHeapMap<>(new StringSerialiser(), new CompactRawLongSerialiser());
+        map.put("key1", 1L);
+
+        // When
+        map.clear();
+
+        // Then
+        assertEquals(0, map.size());
+        assertNull(map.get("key1"));
+        assertEquals(0, map.getAllocatedBytes());
+    }
+}
@@ -0,0 +1,242 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.proxystore;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.MappingIterator;
+
+import uk.gov.gchq.gaffer.commonutil.CloseableUtil;
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterator;
+import uk.gov.gchq.gaffer.core.exception.Error;
+import uk.gov.gchq.gaffer.core.exception.GafferRuntimeException;
+import uk.gov.gchq.gaffer.core.exception.GafferWrappedErrorRuntimeException;
+import uk.gov.gchq.gaffer.exception.SerialisationException;
+import uk.gov.gchq.gaffer.jsonserialisation.JSONSerialiser;
+import uk.gov.gchq.gaffer.jsonserialisation.SmileSerialiser;
+
+import javax.ws.rs.core.Response;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.NoSuchElementException;
+
+/**
+ * A {@code ChunkedResultIterable} lazily deserialises the results streamed back
+ * from the chunked operation endpoint of a Gaffer REST API. JSON chunks are
+ * delimited by a line break and Smile chunks are independent root level values.
+ * Each chunk holds a single item, so only one item is held in memory at a time.
+ * <p>
+ * If the REST API acknowledges the {@link #CHUNKED_FRAMES_HEADER} each chunk is
+ * a {@link Frame}, and the results end with either an end frame or an error
+ * frame. An error frame, or results that end without an end frame, cause the
+ * iterator to throw rather than the results being silently truncated.
+ * </p>
+ * <p>
+ * The response can only be read once, so the iterable can only be iterated
+ * once. Closing the iterable, or exhausting the iterator, closes the
+ * underlying response so the connection can be reused.
+ * </p>
+ *
+ * @param <T> the type of items in the iterable.
+ */
+public class ChunkedResultIterable<T> implements CloseableIterable<T> {
+    public static final String CHUNKED_FRAMES_HEADER = "X-Gaffer-Chunked-Frames";
+
+    private final JavaType itemType;
+    private Response response;
+    private ChunkedResultIterator currentIterator;
+
+    public ChunkedResultIterable(final Response response, final JavaType itemType) {
+        this.response = response;
+        this.itemType = itemType;
+    }
+
+    @Override
+    public synchronized CloseableIterator<T> iterator() {
+        if (null == response) {
+            throw new IllegalStateException("Chunked results can only be iterated once");
+        }
+
+        currentIterator = new ChunkedResultIterator(response);
+        response = null;
+        return currentIterator;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (null != response) {
+            response.close();
+            response = null;
+        }
+        if (null != currentIterator) {
+            currentIterator.close();
+            currentIterator = null;
+        }
+    }
+
+    /**
+     * A single chunk of the results when the chunks are framed. Exactly one of
+     * the item, end or error is set.
+     *
+     * @param <T> the type of the item
+     */
+    public static class Frame<T> {
+        private T item;
+        private boolean end;
+        private Error error;
+
+        public T getItem() {
+            return item;
+        }
+
+        public void setItem(final T item) {
+            this.item = item;
+        }
+
+        public boolean isEnd() {
+            return end;
+        }
+
+        public void setEnd(final boolean end) {
+            this.end = end;
+        }
+
+        public Error getError() {
+            return error;
+        }
+
+        public void setError(final Error error) {
+            this.error = error;
+        }
+    }
+
+    private final class ChunkedResultIterator implements CloseableIterator<T> {
+        private final Response response;
+        private final boolean framed;
+        private final JavaType chunkType;
+        private final BufferedReader reader;
+        private final MappingIterator<Object> smileItr;
+        private T next;
+        private boolean hasNext;
+        private boolean closed;
+
+        private ChunkedResultIterator(final Response response) {
+            this.response = response;
+            this.framed = Boolean.parseBoolean(response.getHeaderString(CHUNKED_FRAMES_HEADER));
+            this.chunkType = framed
+                    ? JSONSerialiser.getMapper().getTypeFactory().constructParametricType(Frame.class, itemType)
+                    : itemType;
+            final InputStream stream = response.readEntity(InputStream.class);
+            if (ProxyStore.isSmile(response)) {
+                this.reader = null;
+                try {
+                    this.smileItr = SmileSerialiser.deserialiseSequence(stream, chunkType);
+                } catch (final SerialisationException e) {
+                    response.close();
+                    throw new GafferRuntimeException("Unable to read chunked result from the delegate Gaffer store: " + e.getMessage(), e);
+                }
+            } else {
+                this.reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8));
+                this.smileItr = null;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!hasNext && !closed) {
+                readNext();
+            }
+            return hasNext;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final T item = next;
+            next = null;
+            hasNext = false;
+            return item;
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                CloseableUtil.close(reader);
+                CloseableUtil.close(smileItr);
+                response.close();
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void readNext() {
+            final Object chunk;
+            try {
+                chunk = null != smileItr ? readSmileChunk() : readJsonChunk();
+            } catch (final IOException e) {
+                close();
+                throw new GafferRuntimeException("Unable to read chunked result from the delegate Gaffer store: " + e.getMessage(), e);
+            }
+
+            if (!framed) {
+                if (null == chunk) {
+                    close();
+                } else {
+                    next = (T) chunk;
+                    hasNext = true;
+                }
+                return;
+            }
+
+            final Frame<T> frame = (Frame<T>) chunk;
+            if (null == frame) {
+                close();
+                throw new GafferRuntimeException("The chunked result from the delegate Gaffer store ended without an end frame, so the results are incomplete");
+            }
+            if (null != frame.getError()) {
+                close();
+                throw new GafferWrappedErrorRuntimeException(frame.getError());
+            }
+            if (frame.isEnd()) {
+                close();
+                return;
+            }
+            next = frame.getItem();
+            hasNext = true;
+        }
+
+        private Object readJsonChunk() throws IOException {
+            String chunk = reader.readLine();
+            while (null != chunk && chunk.trim().isEmpty()) {
+                chunk = reader.readLine();
+            }
+            if (null == chunk) {
+                return null;
+            }
+            return JSONSerialiser.getMapper().readValue(chunk, chunkType);
+        }
+
+        private Object readSmileChunk() throws IOException {
+            return smileItr.hasNextValue() ? smileItr.nextValue() : null;
+        }
+    }
+}
@@ -35,12 +35,18 @@ public class ProxyProperties extends StoreProperties {
     public static final String GAFFER_CONTEXT_ROOT = "gaffer.context-root";
     public static final String CONNECT_TIMEOUT = "gaffer.connect-timeout";
     public static final String READ_TIMEOUT = "gaffer.read-timeout";
+    public static final String CHUNKED_RESULTS = "gaffer.chunked-results";
+    public static final String GZIP_COMPRESSION = "gaffer.gzip-compression";
+    public static final String SMILE_RESULTS = "gaffer.smile-results";
 
     public static final String DEFAULT_GAFFER_HOST = "localhost";
     public static final String DEFAULT_GAFFER_CONTEXT_ROOT = "/rest";
     public static final int DEFAULT_GAFFER_PORT = 8080;
     public static final int DEFAULT_CONNECT_TIMEOUT = 10000;
     public static final int DEFAULT_READ_TIMEOUT = 10000;
+    public static final boolean DEFAULT_CHUNKED_RESULTS = false;
+    public static final boolean DEFAULT_GZIP_COMPRESSION = false;
+    public static final boolean DEFAULT_SMILE_RESULTS = false;
 
     private static final String GAFFER_REST_API_VERSION = "v2";
 
@@ -94,6 +100,50 @@ public class ProxyProperties extends StoreProperties {
         set(READ_TIMEOUT, String.valueOf(timeout));
     }
 
+    /**
+     * When enabled, operation chains returning an {@link Iterable} are executed
+     * against the chunked REST endpoint and their results are deserialised
+     * lazily as they are streamed back.
+     *
+     * @return true if results should be streamed from the chunked endpoint
+     */
+    public boolean isChunkedResults() {
+        return Boolean.parseBoolean(get(CHUNKED_RESULTS, String.valueOf(DEFAULT_CHUNKED_RESULTS)));
+    }
+
+    public void setChunkedResults(final boolean chunkedResults) {
+        set(CHUNKED_RESULTS, String.valueOf(chunkedResults));
+    }
+
+    /**
+     * When enabled, the client requests gzip encoded responses from the
+     * delegate REST API.
+     *
+     * @return true if responses should be gzip compressed
+     */
+    public boolean isGzipCompression() {
+        return Boolean.parseBoolean(get(GZIP_COMPRESSION, String.valueOf(DEFAULT_GZIP_COMPRESSION)));
+    }
+
+    public void setGzipCompression(final boolean gzipCompression) {
+        set(GZIP_COMPRESSION, String.valueOf(gzipCompression));
+    }
+
+    /**
+     * When enabled, results are requested from the delegate REST API in the
+     * Smile binary JSON format, which is cheaper to encode, transfer and decode
+     * than JSON.
+     *
+     * @return true if results should be requested in the smile format
+     */
+    public boolean isSmileResults() {
+        return Boolean.parseBoolean(get(SMILE_RESULTS, String.valueOf(DEFAULT_SMILE_RESULTS)));
+    }
+
+    public void setSmileResults(final boolean smileResults) {
+        set(SMILE_RESULTS, String.valueOf(smileResults));
+    }
+
     public String getGafferHost() {
         return get(GAFFER_HOST, DEFAULT_GAFFER_HOST);
     }
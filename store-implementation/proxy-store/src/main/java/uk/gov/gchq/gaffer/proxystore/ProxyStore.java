@@ -17,9 +17,13 @@
 package uk.gov.gchq.gaffer.proxystore;
 
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.type.TypeFactory;
 import com.google.common.collect.Sets;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import org.glassfish.jersey.client.ClientProperties;
+import org.glassfish.jersey.client.filter.EncodingFilter;
+import org.glassfish.jersey.message.GZipEncoder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -34,6 +38,7 @@ import uk.gov.gchq.gaffer.data.element.id.EntityId;
 import uk.gov.gchq.gaffer.exception.SerialisationException;
 import uk.gov.gchq.gaffer.jobtracker.JobDetail;
 import uk.gov.gchq.gaffer.jsonserialisation.JSONSerialiser;
+import uk.gov.gchq.gaffer.jsonserialisation.SmileSerialiser;
 import uk.gov.gchq.gaffer.operation.Operation;
 import uk.gov.gchq.gaffer.operation.OperationChain;
 import uk.gov.gchq.gaffer.operation.OperationChainDAO;
@@ -71,6 +76,8 @@ import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.Set;
 
+import static uk.gov.gchq.gaffer.jsonserialisation.SmileSerialiser.SMILE_MEDIA_TYPE;
+
 /**
  * Gaffer {@code ProxyStore} implementation.
  * <p>
@@ -158,6 +165,7 @@ public class ProxyStore extends Store {
         }
     }
 
+    @SuppressWarnings("unchecked")
     public <O> O executeOpChainViaUrl(final OperationChain<O> opChain, final Context context)
             throws OperationException {
         final String opChainJson;
@@ -167,6 +175,18 @@ public class ProxyStore extends Store {
             throw new OperationException("Unable to serialise operation chain into JSON.", e);
         }
 
+        if (getProperties().isChunkedResults()) {
+            final JavaType itemType = getChunkedItemType(opChain.getOutputTypeReference());
+            if (null != itemType) {
+                final URL url = getProperties().getGafferUrl("graph/operations/execute/chunked");
+                try {
+                    return (O) doChunkedPost(url, opChainJson, itemType, context);
+                } catch (final StoreException e) {
+                    throw new OperationException(e.getMessage(), e);
+                }
+            }
+        }
+
         final URL url = getProperties().getGafferUrl("graph/operations/execute");
         try {
             return doPost(url, opChainJson, opChain.getOutputTypeReference(), context);
@@ -201,6 +221,70 @@ public class ProxyStore extends Store {
         return handleResponse(response, clazz);
     }
 
+    /**
+     * Posts the json body to the chunked endpoint and returns a
+     * {@link ChunkedResultIterable} that deserialises each item as it is read.
+     * The request is executed straight away so that any error status is
+     * reported when the operation chain is executed. The chunks are requested
+     * with frames, so errors part way through the results are reported by the
+     * iterator rather than the results being truncated.
+     *
+     * @param url      the chunked endpoint url
+     * @param jsonBody the json operation chain
+     * @param itemType the type of the items in the result iterable
+     * @param context  the context
+     * @param <T>      the type of the items in the result iterable
+     * @return the lazily deserialised results, which can only be iterated once
+     * @throws StoreException if the request failed
+     */
+    protected <T> ChunkedResultIterable<T> doChunkedPost(final URL url, final String jsonBody,
+                                                         final JavaType itemType,
+                                                         final Context context) throws StoreException {
+        final Invocation.Builder request = createRequest(jsonBody, url, context);
+        request.header(ChunkedResultIterable.CHUNKED_FRAMES_HEADER, Boolean.toString(true));
+        final Response response;
+        try {
+            response = request.post(Entity.json(jsonBody));
+        } catch (final Exception e) {
+            throw new StoreException("Failed to execute post via " +
+                    "the Gaffer URL " + url.toExternalForm(), e);
+        }
+
+        if (Family.SUCCESSFUL != response.getStatusInfo().getFamily()) {
+            // Reads the error entity, which closes the response, and throws
+            handleResponse(response, new TypeReferenceImpl.Object());
+            throw new StoreException("Delegate Gaffer store returned status: " + response.getStatus());
+        }
+
+        return new ChunkedResultIterable<>(response, itemType);
+    }
+
+    /**
+     * Resolves the item type of an operation chain output that can be streamed
+     * as a {@link ChunkedResultIterable}.
+     *
+     * @param outputType the output type of the operation chain
+     * @return the item type, or null if the output cannot be streamed
+     */
+    protected JavaType getChunkedItemType(final TypeReference<?> outputType) {
+        if (null == outputType) {
+            return null;
+        }
+
+        final TypeFactory typeFactory = JSONSerialiser.getMapper().getTypeFactory();
+        final JavaType javaType = typeFactory.constructType(outputType.getType());
+        if (!Iterable.class.isAssignableFrom(javaType.getRawClass())
+                || !javaType.getRawClass().isAssignableFrom(ChunkedResultIterable.class)) {
+            return null;
+        }
+
+        final JavaType[] itemTypes = typeFactory.findTypeParameters(javaType, Iterable.class);
+        if (null == itemTypes || 1 != itemTypes.length) {
+            return typeFactory.constructType(Object.class);
+        }
+        return itemTypes[0];
+    }
+
     protected <O> O doGet(final URL url,
                           final TypeReference<O> outputTypeReference, final Context context)
             throws StoreException {
@@ -219,6 +303,10 @@ public class ProxyStore extends Store {
     protected <O> O handleResponse(final Response response,
                                    final TypeReference<O> outputTypeReference)
             throws StoreException {
+        if (isSmile(response)) {
+            return handleSmileResponse(response, outputTypeReference);
+        }
+
         final String outputJson = response.hasEntity() ? response.readEntity(String.class) : null;
         if (Family.SUCCESSFUL != response.getStatusInfo().getFamily()) {
             final Error error;
@@ -243,9 +331,45 @@ public class ProxyStore extends Store {
         return output;
     }
 
+    protected <O> O handleSmileResponse(final Response response,
+                                        final TypeReference<O> outputTypeReference)
+            throws StoreException {
+        final byte[] outputBytes = response.hasEntity() ? response.readEntity(byte[].class) : null;
+        if (Family.SUCCESSFUL != response.getStatusInfo().getFamily()) {
+            final Error error;
+            try {
+                error = SmileSerialiser.deserialise(outputBytes, Error.class);
+            } catch (final Exception e) {
+                LOGGER.warn("Gaffer bad status {}. Unable to deserialise smile error response", response.getStatus());
+                throw new StoreException("Delegate Gaffer store returned status: " + response.getStatus());
+            }
+            throw new GafferWrappedErrorRuntimeException(error);
+        }
+
+        O output = null;
+        if (null != outputBytes && outputBytes.length > 0) {
+            try {
+                output = SmileSerialiser.deserialise(outputBytes, outputTypeReference);
+            } catch (final SerialisationException e) {
+                throw new StoreException(e.getMessage(), e);
+            }
+        }
+
+        return output;
+    }
+
+    protected static boolean isSmile(final Response response) {
+        return null != response.getMediaType()
+                && SmileSerialiser.isSmile(response.getMediaType().toString());
+    }
+
     protected Invocation.Builder createRequest(final String body, final URL url, final Context context) {
         final Invocation.Builder request = client.target(url.toString())
                 .request();
+        if (getProperties().isSmileResults()) {
+            // Prefer smile but still accept json from endpoints that do not produce it
+            request.accept(SMILE_MEDIA_TYPE, MediaType.APPLICATION_JSON + ";q=0.5");
+        }
         if (null != body) {
             request.header("Content", MediaType.APPLICATION_JSON_TYPE);
             request.build(body);
@@ -327,6 +451,10 @@ public class ProxyStore extends Store {
         final Client client = ClientBuilder.newClient();
         client.property(ClientProperties.CONNECT_TIMEOUT, getProperties().getConnectTimeout());
         client.property(ClientProperties.READ_TIMEOUT, getProperties().getReadTimeout());
+        if (getProperties().isGzipCompression()) {
+            client.register(EncodingFilter.class);
+            client.register(GZipEncoder.class);
+        }
         return client;
     }
 
@@ -372,6 +500,21 @@ public class ProxyStore extends Store {
             return this;
         }
 
+        public Builder chunkedResults(final boolean chunkedResults) {
+            properties.setChunkedResults(chunkedResults);
+            return this;
+        }
+
+        public Builder smileResults(final boolean smileResults) {
+            properties.setSmileResults(smileResults);
+            return this;
+        }
+
+        public Builder gzipCompression(final boolean gzipCompression) {
+            properties.setGzipCompression(gzipCompression);
+            return this;
+        }
+
         public Builder jsonSerialiser(final Class<? extends JSONSerialiser> serialiserClass) {
             properties.setJsonSerialiserClass(serialiserClass);
             return this;
@@ -0,0 +1,212 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.proxystore;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.google.common.collect.Lists;
+import org.junit.Test;
+
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterator;
+import uk.gov.gchq.gaffer.core.exception.GafferRuntimeException;
+import uk.gov.gchq.gaffer.core.exception.GafferWrappedErrorRuntimeException;
+import uk.gov.gchq.gaffer.data.element.Edge;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.Entity;
+import uk.gov.gchq.gaffer.jsonserialisation.JSONSerialiser;
+import uk.gov.gchq.gaffer.jsonserialisation.SmileSerialiser;
+
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class ChunkedResultIterableTest {
+    private static final JavaType ELEMENT_TYPE = JSONSerialiser.getMapper().getTypeFactory().constructType(Element.class);
+
+    @Test
+    public void shouldLazilyDeserialiseChunkedElements() throws Exception {
+        // Given
+        final List<Element> elements = Arrays.asList(
+                new Entity.Builder().group("BasicEntity").vertex("1").build(),
+                new Edge.Builder().group("BasicEdge").source("1").dest("2").directed(true).build());
+        final Response response = createResponse(elements);
+        final ChunkedResultIterable<Element> iterable = new ChunkedResultIterable<>(response, ELEMENT_TYPE);
+
+        // When
+        final List<Element> results = Lists.newArrayList(iterable);
+
+        // Then
+        assertEquals(elements, results);
+        verify(response).close();
+    }
+
+    @Test
+    public void shouldLazilyDeserialiseChunkedSmileElements() throws Exception {
+        // Given
+        final List<Element> elements = Arrays.asList(
+                new Entity.Builder().group("BasicEntity").vertex("1").build(),
+                new Edge.Builder().group("BasicEdge").source("1").dest("2").directed(true).build());
+        final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        for (final Element element : elements) {
+            body.write(SmileSerialiser.serialiseSequenceValue(element));
+        }
+        final Response response = mock(Response.class);
+        given(response.getMediaType()).willReturn(MediaType.valueOf(SmileSerialiser.SMILE_MEDIA_TYPE));
+        given(response.readEntity(InputStream.class)).willReturn(new ByteArrayInputStream(body.toByteArray()));
+        final ChunkedResultIterable<Element> iterable = new ChunkedResultIterable<>(response, ELEMENT_TYPE);
+
+        // When
+        final List<Element> results = Lists.newArrayList(iterable);
+
+        // Then
+        assertEquals(elements, results);
+        verify(response).close();
+    }
+
+    @Test
+    public void shouldOnlyBeIterableOnce() throws Exception {
+        // Given
+        final List<Element> elements = Arrays.asList(
+                new Entity.Builder().group("BasicEntity").vertex("1").build());
+        final ChunkedResultIterable<Element> iterable = new ChunkedResultIterable<>(createResponse(elements), ELEMENT_TYPE);
+        final List<Element> results = Lists.newArrayList(iterable);
+
+        // When / Then
+        assertEquals(elements, results);
+        try {
+            iterable.iterator();
+            fail("Exception expected");
+        } catch (final IllegalStateException e) {
+            assertNotNull(e.getMessage());
+        }
+    }
+
+    @Test
+    public void shouldReadFramedChunksUntilEndFrame() throws Exception {
+        // Given
+        final List<Element> elements = Arrays.asList(
+                new Entity.Builder().group("BasicEntity").vertex("1").build(),
+                new Entity.Builder().group("BasicEntity").vertex("2").build());
+        final Response response = createFramedResponse(elements, "{\"end\":true}");
+        final ChunkedResultIterable<Element> iterable = new ChunkedResultIterable<>(response, ELEMENT_TYPE);
+
+        // When
+        final List<Element> results = Lists.newArrayList(iterable);
+
+        // Then
+        assertEquals(elements, results);
+        verify(response).close();
+    }
+
+    @Test
+    public void shouldFailIfFramedChunksEndWithoutEndFrame() throws Exception {
+        // Given
+        final List<Element> elements = Arrays.asList(
+                new Entity.Builder().group("BasicEntity").vertex("1").build());
+        final Response response = createFramedResponse(elements, null);
+        final CloseableIterator<Element> itr = new ChunkedResultIterable<Element>(response, ELEMENT_TYPE).iterator();
+        assertEquals(elements.get(0), itr.next());
+
+        // When / Then
+        try {
+            itr.hasNext();
+            fail("Exception expected");
+        } catch (final GafferRuntimeException e) {
+            assertTrue(e.getMessage().contains("incomplete"));
+        }
+        verify(response).close();
+    }
+
+    @Test
+    public void shouldFailOnErrorFrame() throws Exception {
+        // Given
+        final List<Element> elements = Arrays.asList(
+                new Entity.Builder().group("BasicEntity").vertex("1").build());
+        final Response response = createFramedResponse(elements, "{\"error\":{\"statusCode\":500,\"simpleMessage\":\"Scan failed\"}}");
+        final CloseableIterator<Element> itr = new ChunkedResultIterable<Element>(response, ELEMENT_TYPE).iterator();
+        assertEquals(elements.get(0), itr.next());
+
+        // When / Then
+        try {
+            itr.hasNext();
+            fail("Exception expected");
+        } catch (final GafferWrappedErrorRuntimeException e) {
+            assertEquals("Scan failed", e.getError().getSimpleMessage());
+        }
+        verify(response).close();
+    }
+
+    @Test
+    public void shouldCloseResponseWhenClosedBeforeExhausted() throws Exception {
+        // Given
+        final List<Element> elements = Arrays.asList(
+                new Entity.Builder().group("BasicEntity").vertex("1").build(),
+                new Entity.Builder().group("BasicEntity").vertex("2").build());
+        final Response response = createResponse(elements);
+        final ChunkedResultIterable<Element> iterable = new ChunkedResultIterable<>(response, ELEMENT_TYPE);
+        final CloseableIterator<Element> itr = iterable.iterator();
+        itr.next();
+
+        // When
+        iterable.close();
+
+        // Then
+        verify(response).close();
+        assertFalse(itr.hasNext());
+    }
+
+    private Response createResponse(final List<Element> elements) throws Exception {
+        final StringBuilder body = new StringBuilder();
+        for (final Element element : elements) {
+            body.append(new String(JSONSerialiser.serialise(element), StandardCharsets.UTF_8)).append("\r\n");
+        }
+        final Response response = mock(Response.class);
+        given(response.readEntity(InputStream.class))
+                .willReturn(new ByteArrayInputStream(body.toString().getBytes(StandardCharsets.UTF_8)));
+        return response;
+    }
+
+    private Response createFramedResponse(final List<Element> elements, final String lastFrame) throws Exception {
+        final StringBuilder body = new StringBuilder();
+        for (final Element element : elements) {
+            body.append("{\"item\":")
+                    .append(new String(JSONSerialiser.serialise(element), StandardCharsets.UTF_8))
+                    .append("}\r\n");
+        }
+        if (null != lastFrame) {
+            body.append(lastFrame).append("\r\n");
+        }
+        final Response response = mock(Response.class);
+        given(response.getHeaderString(ChunkedResultIterable.CHUNKED_FRAMES_HEADER)).willReturn("true");
+        given(response.readEntity(InputStream.class))
+                .willReturn(new ByteArrayInputStream(body.toString().getBytes(StandardCharsets.UTF_8)));
+        return response;
+    }
+}